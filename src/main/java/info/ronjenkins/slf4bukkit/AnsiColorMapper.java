@@ -16,32 +16,144 @@
  */
 package info.ronjenkins.slf4bukkit;
 
-import com.google.common.collect.ImmutableMap;
-
 import org.bukkit.ChatColor;
 import org.fusesource.jansi.Ansi;
 import org.fusesource.jansi.Ansi.Attribute;
 
-import java.util.Map;
-
 /**
- * Maps {@link ChatColor} values to their JAnsi equivalents.
+ * Maps {@link ChatColor} values to their JAnsi equivalents. Depending on the
+ * {@link ColorProfile}, colors are mapped to the 8 standard ANSI colors plus
+ * bold, to the 256-color xterm palette or to 24-bit colors.
  *
  * @author Ronald Jack Jenkins Jr.
  */
-final class AnsiColorMapper implements ColorMapper {
+final class AnsiColorMapper implements AppendingColorMapper {
+
+  // The ANSI escape sequence introducer.
+  private static final String ESC = "\u001B[";
+  // Minecraft's RGB values for each color, indexed by color code.
+  private static final int[]  RGB = { 0x000000, 0x0000AA, 0x00AA00, 0x00AAAA,
+      0xAA0000, 0xAA00AA, 0xFFAA00, 0xAAAAAA, 0x555555, 0x5555FF, 0x55FF55,
+      0x55FFFF, 0xFF5555, 0xFF55FF, 0xFFFF55, 0xFFFFFF };
 
   /**
-   * No-op constructor. Callers must catch {@code Throwable} and handle the
-   * scenario in which JAnsi is not available by substituting another
-   * {@link ColorMapper} implementation.
+   * Creates a mapper for the given profile. Callers must catch
+   * {@code Throwable} and handle the scenario in which JAnsi is not available
+   * by substituting another {@link ColorMapper} implementation.
    *
+   * @param profile
+   *          any profile other than {@link ColorProfile#PLAIN}.
    * @throws Throwable if JAnsi is not present at runtime.
    */
-  AnsiColorMapper() throws Throwable {}
+  AnsiColorMapper(final ColorProfile profile) throws Throwable {
+    if ((profile != ColorProfile.ANSI_256)
+        && (profile != ColorProfile.TRUECOLOR)) { return; }
+    for (final ChatColor chatColor : ChatColor.values()) {
+      if (!chatColor.isColor()) {
+        continue;
+      }
+      final int rgb = AnsiColorMapper.RGB[Character.digit(chatColor.getChar(),
+                                                          16)];
+      this.TRANSLATOR.put(chatColor,
+                          (profile == ColorProfile.TRUECOLOR) ? AnsiColorMapper.trueColor(rgb)
+                                                              : AnsiColorMapper.xtermColor(rgb));
+    }
+  }
+
+  /**
+   * Returns the escape sequence that resets all attributes and selects the
+   * given 24-bit foreground color.
+   *
+   * @param rgb
+   *          the color.
+   * @return never null.
+   */
+  private static String trueColor(final int rgb) {
+    return AnsiColorMapper.ESC + "0;38;2;" + ((rgb >> 16) & 0xFF) + ';'
+           + ((rgb >> 8) & 0xFF) + ';' + (rgb & 0xFF) + 'm';
+  }
+
+  /**
+   * Returns the escape sequence that resets all attributes and selects the
+   * color of the 256-color xterm palette that is nearest to the given color,
+   * out of the 6x6x6 color cube and the grayscale ramp.
+   *
+   * @param rgb
+   *          the color.
+   * @return never null.
+   */
+  private static String xtermColor(final int rgb) {
+    final int red = (rgb >> 16) & 0xFF;
+    final int green = (rgb >> 8) & 0xFF;
+    final int blue = rgb & 0xFF;
+    // Nearest color of the cube, whose levels are 0, 95, 135, 175, 215, 255.
+    final int r = AnsiColorMapper.cubeLevel(red);
+    final int g = AnsiColorMapper.cubeLevel(green);
+    final int b = AnsiColorMapper.cubeLevel(blue);
+    final int cubeDistance = AnsiColorMapper.distance(red, green, blue,
+                                                      AnsiColorMapper.cubeValue(r),
+                                                      AnsiColorMapper.cubeValue(g),
+                                                      AnsiColorMapper.cubeValue(b));
+    // Nearest gray of the ramp, whose levels are 8, 18, ..., 238.
+    final int grayLevel = Math.min(23,
+                                   Math.max(0, (((red + green + blue) / 3) - 3) / 10));
+    final int gray = 8 + (grayLevel * 10);
+    final int grayDistance = AnsiColorMapper.distance(red, green, blue, gray,
+                                                      gray, gray);
+    final int index = (grayDistance < cubeDistance) ? (232 + grayLevel)
+                                                    : (16 + (36 * r) + (6 * g) + b);
+    return AnsiColorMapper.ESC + "0;38;5;" + index + 'm';
+  }
+
+  /**
+   * Returns the level of the xterm color cube nearest to a color component.
+   *
+   * @param component
+   *          0-255.
+   * @return 0-5.
+   */
+  private static int cubeLevel(final int component) {
+    if (component < 48) { return 0; }
+    if (component < 115) { return 1; }
+    return (component - 35) / 40;
+  }
+
+  /**
+   * Returns the color component value of an xterm color cube level.
+   *
+   * @param level
+   *          0-5.
+   * @return 0-255.
+   */
+  private static int cubeValue(final int level) {
+    return (level == 0) ? 0 : (55 + (level * 40));
+  }
+
+  /**
+   * Returns the squared distance between two colors.
+   *
+   * @param r1
+   *          red component of the first color.
+   * @param g1
+   *          green component of the first color.
+   * @param b1
+   *          blue component of the first color.
+   * @param r2
+   *          red component of the second color.
+   * @param g2
+   *          green component of the second color.
+   * @param b2
+   *          blue component of the second color.
+   * @return zero or more.
+   */
+  private static int distance(final int r1, final int g1, final int b1,
+                              final int r2, final int g2, final int b2) {
+    return ((r1 - r2) * (r1 - r2)) + ((g1 - g2) * (g1 - g2))
+           + ((b1 - b2) * (b1 - b2));
+  }
 
   // @formatter:off
-  private final Map<ChatColor, String> MAP = ImmutableMap.<ChatColor, String>builder()
+  private final ColorCodeTranslator TRANSLATOR = new ColorCodeTranslator()
     .put(ChatColor.BLACK, Ansi.ansi().a(Attribute.RESET).fg(Ansi.Color.BLACK).boldOff().toString())
     .put(ChatColor.DARK_BLUE, Ansi.ansi().a(Attribute.RESET).fg(Ansi.Color.BLUE).boldOff().toString())
     .put(ChatColor.DARK_GREEN, Ansi.ansi().a(Attribute.RESET).fg(Ansi.Color.GREEN).boldOff().toString())
@@ -63,20 +175,22 @@ final class AnsiColorMapper implements ColorMapper {
     .put(ChatColor.STRIKETHROUGH, Ansi.ansi().a(Attribute.STRIKETHROUGH_ON).toString())
     .put(ChatColor.UNDERLINE, Ansi.ansi().a(Attribute.UNDERLINE).toString())
     .put(ChatColor.ITALIC, Ansi.ansi().a(Attribute.ITALIC).toString())
-    .put(ChatColor.RESET, Ansi.ansi().a(Attribute.RESET).toString())
-  .build();
+    .put(ChatColor.RESET, Ansi.ansi().a(Attribute.RESET).toString());
   // @formatter:on
 
+  @Override
+  public void map(final ChatColor color, final StringBuilder output) {
+    output.append(this.TRANSLATOR.get(color));
+  }
+
   @Override
   public String map(final String input) {
-    if (input == null) {
-      return "";
-    }
-    String output = input;
-    for (final Map.Entry<ChatColor, String> mapping : MAP.entrySet()) {
-      output = output.replace(mapping.getKey().toString(), mapping.getValue());
-    }
-    return output;
+    return this.TRANSLATOR.translate(input);
+  }
+
+  @Override
+  public void map(final CharSequence input, final StringBuilder output) {
+    this.TRANSLATOR.translate(input, output);
   }
 
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package info.ronjenkins.slf4bukkit;
+
+import org.bukkit.ChatColor;
+
+/**
+ * An optional extension of {@link ColorMapper} for mappers that can append
+ * their output to a buffer instead of creating a new string. SLF4Bukkit checks
+ * for this interface and falls back to {@link ColorMapper#map(String)} for
+ * mappers that do not implement it.
+ */
+public interface AppendingColorMapper extends ColorMapper {
+
+  /**
+   * Translates {@link ChatColor} directives to their string equivalents,
+   * appending the result to the given buffer instead of creating a new string.
+   *
+   * @param input
+   *          null is coerced to the empty string.
+   * @param output
+   *          the buffer to append to.
+   */
+  void map(CharSequence input, StringBuilder output);
+
+  /**
+   * Appends the string equivalent of a single {@link ChatColor} directive to
+   * the given buffer.
+   *
+   * @param color
+   *          the directive, not null.
+   * @param output
+   *          the buffer to append to.
+   */
+  void map(ChatColor color, StringBuilder output);
+
+}
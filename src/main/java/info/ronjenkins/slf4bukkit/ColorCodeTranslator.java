@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package info.ronjenkins.slf4bukkit;
+
+import org.bukkit.ChatColor;
+
+/**
+ * Replaces {@link ChatColor} directives in a single left-to-right pass, using a
+ * table of replacement strings indexed by color code character.
+ */
+final class ColorCodeTranslator {
+
+  // Large enough to be indexed by every ChatColor code character.
+  private static final int TABLE_SIZE = 128;
+  // Replacement strings indexed by code character; null for characters that
+  // are not ChatColor codes.
+  private final String[]   replacements = new String[ColorCodeTranslator.TABLE_SIZE];
+
+  /**
+   * Creates a translator that replaces every {@link ChatColor} with the empty
+   * string, except where {@link #put(ChatColor, String)} says otherwise.
+   */
+  ColorCodeTranslator() {
+    for (final ChatColor chatColor : ChatColor.values()) {
+      this.put(chatColor, "");
+    }
+  }
+
+  /**
+   * Returns the replacement for the given {@link ChatColor}.
+   *
+   * @param chatColor
+   *          the color to replace.
+   * @return never null.
+   */
+  String get(final ChatColor chatColor) {
+    return this.replacements[chatColor.getChar()];
+  }
+
+  /**
+   * Sets the replacement for the given {@link ChatColor}.
+   *
+   * @param chatColor
+   *          the color to replace.
+   * @param replacement
+   *          the replacement string.
+   * @return this translator.
+   */
+  ColorCodeTranslator put(final ChatColor chatColor, final String replacement) {
+    this.replacements[chatColor.getChar()] = replacement;
+    return this;
+  }
+
+  /**
+   * Translates all {@link ChatColor} directives in the given string.
+   *
+   * @param input
+   *          null is coerced to the empty string.
+   * @return never null. The input itself if it contains no directives.
+   */
+  String translate(final String input) {
+    if (input == null) { return ""; }
+    int index = input.indexOf(ChatColor.COLOR_CHAR);
+    if (index < 0) { return input; }
+    final int last = input.length() - 1;
+    StringBuilder output = null;
+    int copied = 0;
+    while ((index >= 0) && (index < last)) {
+      final char code = input.charAt(index + 1);
+      final String replacement = (code < ColorCodeTranslator.TABLE_SIZE) ? this.replacements[code]
+                                                                         : null;
+      if (replacement == null) {
+        index = input.indexOf(ChatColor.COLOR_CHAR, index + 1);
+        continue;
+      }
+      if (output == null) {
+        output = new StringBuilder(input.length() + 64);
+      }
+      output.append(input, copied, index).append(replacement);
+      copied = index + 2;
+      index = input.indexOf(ChatColor.COLOR_CHAR, copied);
+    }
+    if (output == null) { return input; }
+    return output.append(input, copied, input.length()).toString();
+  }
+
+  /**
+   * Translates all {@link ChatColor} directives in the given characters,
+   * appending the result to the given buffer.
+   *
+   * @param input
+   *          null is coerced to the empty string.
+   * @param output
+   *          the buffer to append to. Must not be the input.
+   */
+  void translate(final CharSequence input, final StringBuilder output) {
+    if (input == null) { return; }
+    final int last = input.length() - 1;
+    int copied = 0;
+    for (int index = 0; index < last; index++) {
+      if (input.charAt(index) != ChatColor.COLOR_CHAR) {
+        continue;
+      }
+      final char code = input.charAt(index + 1);
+      final String replacement = (code < ColorCodeTranslator.TABLE_SIZE) ? this.replacements[code]
+                                                                         : null;
+      if (replacement == null) {
+        continue;
+      }
+      output.append(input, copied, index).append(replacement);
+      copied = index + 2;
+      index++;
+    }
+    output.append(input, copied, input.length());
+  }
+
+}
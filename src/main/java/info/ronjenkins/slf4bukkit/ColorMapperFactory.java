@@ -17,26 +17,75 @@
 package info.ronjenkins.slf4bukkit;
 
 /**
- * Creates the {@link ColorMapper} instance that best suits the capabilities of
- * the current Bukkit environment.
+ * Provides the {@link ColorMapper} instances that suit the capabilities of the
+ * current Bukkit environment. Mappers are immutable, so one instance per
+ * {@link ColorProfile} is created when this class is loaded and shared by the
+ * whole process.
  *
  * @author TheE
  */
 public final class ColorMapperFactory {
 
+  // Shared mappers, indexed by profile ordinal.
+  private static final ColorMapper[] MAPPERS          = new ColorMapper[ColorProfile.values().length];
+  // The best profile supported by the current Bukkit implementation.
+  private static final ColorProfile  DETECTED_PROFILE;
+
+  static {
+    final ColorMapper plain = new NotSupportedColorMapper();
+    boolean ansiSupported = true;
+    for (final ColorProfile profile : ColorProfile.values()) {
+      ColorMapper mapper = plain;
+      if (ansiSupported && (profile != ColorProfile.PLAIN)) {
+        try {
+          mapper = new AnsiColorMapper(profile);
+        } catch (final Throwable throwable) {
+          // JAnsi is not available, so the console does not understand
+          // escape codes either.
+          ansiSupported = false;
+        }
+      }
+      ColorMapperFactory.MAPPERS[profile.ordinal()] = mapper;
+    }
+    DETECTED_PROFILE = ansiSupported ? ColorProfile.ANSI_16
+                                     : ColorProfile.PLAIN;
+  }
+
   private ColorMapperFactory() {}
 
   /**
-   * Creates an new {@code ColorMapper} instance.
+   * Returns the shared {@code ColorMapper} instance for the detected profile.
    *
    * @return never null.
+   * @see #detectProfile()
    */
   public static ColorMapper create() {
-    try {
-      return new AnsiColorMapper();
-    } catch (Throwable throwable) {
-      return new NotSupportedColorMapper();
-    }
+    return ColorMapperFactory.get(ColorMapperFactory.DETECTED_PROFILE);
+  }
+
+  /**
+   * Returns the best profile that is known to be supported by the current
+   * Bukkit implementation: {@link ColorProfile#ANSI_16} if JAnsi is available,
+   * {@link ColorProfile#PLAIN} otherwise.
+   *
+   * @return never null.
+   */
+  public static ColorProfile detectProfile() {
+    return ColorMapperFactory.DETECTED_PROFILE;
+  }
+
+  /**
+   * Returns the shared {@code ColorMapper} instance for the given profile. All
+   * profiles other than {@link ColorProfile#PLAIN} require JAnsi; if it is not
+   * available, the mapper for {@link ColorProfile#PLAIN} is returned instead.
+   *
+   * @param profile
+   *          the desired profile, null for the detected profile.
+   * @return never null.
+   */
+  public static ColorMapper get(final ColorProfile profile) {
+    return ColorMapperFactory.MAPPERS[(profile == null) ? ColorMapperFactory.DETECTED_PROFILE.ordinal()
+                                                        : profile.ordinal()];
   }
 
 }
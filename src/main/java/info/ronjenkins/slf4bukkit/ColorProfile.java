@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package info.ronjenkins.slf4bukkit;
+
+import org.bukkit.ChatColor;
+
+/**
+ * The sets of terminal escape codes that {@link ChatColor}s can be mapped to.
+ */
+public enum ColorProfile {
+
+  /** Strips all {@link ChatColor}s. */
+  PLAIN,
+  /** Maps {@link ChatColor}s to the 8 standard ANSI colors, plus bold. */
+  ANSI_16,
+  /**
+   * Maps {@link ChatColor}s to the nearest colors of the 256-color xterm
+   * palette.
+   */
+  ANSI_256,
+  /** Maps {@link ChatColor}s to their exact 24-bit Minecraft colors. */
+  TRUECOLOR;
+
+  /**
+   * Converts a config value to a profile. Case, underscores and hyphens are
+   * ignored, so "ansi256", "ANSI_256" and "ansi-256" are equivalent.
+   *
+   * @param value
+   *          the config value, may be null.
+   * @return null if the value does not name a profile.
+   */
+  public static ColorProfile fromString(final String value) {
+    if (value == null) { return null; }
+    final String normalized = value.replace("_", "").replace("-", "");
+    for (final ColorProfile profile : ColorProfile.values()) {
+      if (profile.name().replace("_", "").equalsIgnoreCase(normalized)) { return profile; }
+    }
+    return null;
+  }
+
+}
@@ -29,6 +29,11 @@ package info.ronjenkins.slf4bukkit;
  * so it is safe to use in such environments.
  * </p>
  *
+ * <p>
+ * For text that is built by a single thread, {@link ColorStringBuilder} avoids
+ * the synchronization and the embedded color codes of this class.
+ * </p>
+ *
  * @author Ronald Jack Jenkins Jr.
  */
 public final class ColorString {
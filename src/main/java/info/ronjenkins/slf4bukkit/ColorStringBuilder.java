@@ -0,0 +1,416 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package info.ronjenkins.slf4bukkit;
+
+import java.util.Arrays;
+
+import org.bukkit.ChatColor;
+
+/**
+ * An unsynchronized alternative to {@link ColorString}, for colored text that
+ * is built by a single thread, such as status lines that are rebuilt every
+ * tick. Instead of embedding {@link ChatColor} codes in the text, it records
+ * where each color starts, so that
+ * {@link org.slf4j.impl.BukkitLoggerFactory#getExtendedLogger(String)
+ * extended loggers} can render the colors without scanning the text for
+ * codes. Call {@link #reset()} to reuse an instance.
+ *
+ * <p>
+ * The text appended to this object should not contain {@link ChatColor}
+ * codes, since these are not translated when the colors are rendered
+ * directly. Like {@link ColorString}, this class is safe to use in
+ * environments where JAnsi is not available.
+ * </p>
+ */
+public final class ColorStringBuilder {
+
+  // All colors, indexed by ordinal.
+  private static final ColorMarker[] COLORS       = ColorMarker.values();
+  // Initial capacity of the run arrays.
+  private static final int           INITIAL_RUNS = 8;
+
+  private ColorMarker                currentColor = ColorMarker.NONE;
+  // Each run is the ordinal of a color and the text offset where it starts.
+  private byte[]                     runColors    = new byte[ColorStringBuilder.INITIAL_RUNS];
+  private int                        runCount     = 0;
+  private int[]                      runOffsets   = new int[ColorStringBuilder.INITIAL_RUNS];
+  private final StringBuilder        text;
+
+  /** Constructor. */
+  public ColorStringBuilder() {
+    this(64);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param capacity
+   *          the initial capacity of the text, in characters.
+   */
+  public ColorStringBuilder(final int capacity) {
+    this.text = new StringBuilder(capacity);
+  }
+
+  /**
+   * Appends the given string in the current color.
+   *
+   * @param append
+   *          the string to append. Null is appended as "null".
+   * @return this.
+   */
+  public ColorStringBuilder append(final String append) {
+    this.text.append(append);
+    return this;
+  }
+
+  /**
+   * Appends the given number in the current color.
+   *
+   * @param append
+   *          the number to append.
+   * @return this.
+   */
+  public ColorStringBuilder append(final long append) {
+    this.text.append(append);
+    return this;
+  }
+
+  /**
+   * Appends the given character in the current color.
+   *
+   * @param append
+   *          the character to append.
+   * @return this.
+   */
+  public ColorStringBuilder append(final char append) {
+    this.text.append(append);
+    return this;
+  }
+
+  /**
+   * Appends the text of this object to the given buffer, with each color run
+   * mapped by the given mapper, and resets all formatting at the end if
+   * necessary. The text itself is not scanned for {@link ChatColor} codes.
+   * Mappers that are not {@link AppendingColorMapper}s render each color
+   * through {@link ColorMapper#map(String)}.
+   *
+   * @param output
+   *          the buffer to append to.
+   * @param mapper
+   *          the mapper that renders each color.
+   */
+  public void appendTo(final StringBuilder output, final ColorMapper mapper) {
+    int copied = 0;
+    for (int i = 0; i < this.runCount; i++) {
+      final int offset = this.runOffsets[i];
+      output.append(this.text, copied, offset);
+      ColorStringBuilder.appendColor(output, mapper,
+                                     ColorStringBuilder.COLORS[this.runColors[i]].getValue());
+      copied = offset;
+    }
+    output.append(this.text, copied, this.text.length());
+    if (this.currentColor != ColorMarker.NONE) {
+      ColorStringBuilder.appendColor(output, mapper, ChatColor.RESET);
+    }
+  }
+
+  /**
+   * Appends a single color to the given buffer.
+   *
+   * @param output
+   *          the buffer to append to.
+   * @param mapper
+   *          the mapper that renders the color.
+   * @param color
+   *          the color, not null.
+   */
+  private static void appendColor(final StringBuilder output,
+                                  final ColorMapper mapper,
+                                  final ChatColor color) {
+    if (mapper instanceof AppendingColorMapper) {
+      ((AppendingColorMapper) mapper).map(color, output);
+    } else {
+      output.append(mapper.map(color.toString()));
+    }
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#AQUA}, then appends the given string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder aqua(final String append) {
+    return this.color(ColorMarker.AQUA).append(append);
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#BLACK}, then appends the given string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder black(final String append) {
+    return this.color(ColorMarker.BLACK).append(append);
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#BLUE}, then appends the given string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder blue(final String append) {
+    return this.color(ColorMarker.BLUE).append(append);
+  }
+
+  /**
+   * Sets the color of the content that is appended next.
+   *
+   * @param color
+   *          the color. Null is coerced to {@link ColorMarker#NONE}, which
+   *          resets all formatting at the current position.
+   * @return this.
+   */
+  public ColorStringBuilder color(final ColorMarker color) {
+    final ColorMarker next = (color == null) ? ColorMarker.NONE : color;
+    if (next == this.currentColor) { return this; }
+    if (this.runCount == this.runColors.length) {
+      this.runColors = Arrays.copyOf(this.runColors, this.runCount * 2);
+      this.runOffsets = Arrays.copyOf(this.runOffsets, this.runCount * 2);
+    }
+    this.runColors[this.runCount] = (byte) next.ordinal();
+    this.runOffsets[this.runCount] = this.text.length();
+    this.runCount++;
+    this.currentColor = next;
+    return this;
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#DARK_AQUA}, then appends the given
+   * string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder darkAqua(final String append) {
+    return this.color(ColorMarker.DARK_AQUA).append(append);
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#DARK_BLUE}, then appends the given
+   * string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder darkBlue(final String append) {
+    return this.color(ColorMarker.DARK_BLUE).append(append);
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#DARK_GRAY}, then appends the given
+   * string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder darkGray(final String append) {
+    return this.color(ColorMarker.DARK_GRAY).append(append);
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#DARK_GREEN}, then appends the given
+   * string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder darkGreen(final String append) {
+    return this.color(ColorMarker.DARK_GREEN).append(append);
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#DARK_RED}, then appends the given
+   * string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder darkRed(final String append) {
+    return this.color(ColorMarker.DARK_RED).append(append);
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#GOLD}, then appends the given string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder gold(final String append) {
+    return this.color(ColorMarker.GOLD).append(append);
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#GRAY}, then appends the given string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder gray(final String append) {
+    return this.color(ColorMarker.GRAY).append(append);
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#GREEN}, then appends the given string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder green(final String append) {
+    return this.color(ColorMarker.GREEN).append(append);
+  }
+
+  /**
+   * Returns the length of the text of this object, excluding colors.
+   *
+   * @return zero or more.
+   */
+  public int length() {
+    return this.text.length();
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#NONE}, then appends the given string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder none(final String append) {
+    return this.color(ColorMarker.NONE).append(append);
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#LIGHT_PURPLE}, then appends the given
+   * string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder pink(final String append) {
+    return this.color(ColorMarker.LIGHT_PURPLE).append(append);
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#DARK_PURPLE}, then appends the given
+   * string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder purple(final String append) {
+    return this.color(ColorMarker.DARK_PURPLE).append(append);
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#RED}, then appends the given string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder red(final String append) {
+    return this.color(ColorMarker.RED).append(append);
+  }
+
+  /**
+   * Removes all content and colors, keeping the allocated capacity, so that
+   * this object can be reused.
+   *
+   * @return this.
+   */
+  public ColorStringBuilder reset() {
+    this.text.setLength(0);
+    this.runCount = 0;
+    this.currentColor = ColorMarker.NONE;
+    return this;
+  }
+
+  /**
+   * Returns the value of this object with embedded {@link ChatColor} codes, as
+   * {@link ColorString#toString()} would, including a final reset if
+   * necessary. Unlike {@link ColorString#toString()}, this does not modify
+   * this object.
+   *
+   * @return never null.
+   */
+  @Override
+  public String toString() {
+    final StringBuilder output = new StringBuilder(this.text.length()
+                                                   + (2 * (this.runCount + 1)));
+    int copied = 0;
+    for (int i = 0; i < this.runCount; i++) {
+      final int offset = this.runOffsets[i];
+      output.append(this.text, copied, offset)
+            .append(ColorStringBuilder.COLORS[this.runColors[i]].getValue());
+      copied = offset;
+    }
+    output.append(this.text, copied, this.text.length());
+    if (this.currentColor != ColorMarker.NONE) {
+      output.append(ChatColor.RESET);
+    }
+    return output.toString();
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#WHITE}, then appends the given string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder white(final String append) {
+    return this.color(ColorMarker.WHITE).append(append);
+  }
+
+  /**
+   * Sets the color to {@link ColorMarker#YELLOW}, then appends the given
+   * string.
+   *
+   * @param append
+   *          the string to append.
+   * @return this.
+   */
+  public ColorStringBuilder yellow(final String append) {
+    return this.color(ColorMarker.YELLOW).append(append);
+  }
+
+}
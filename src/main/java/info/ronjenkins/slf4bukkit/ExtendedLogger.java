@@ -0,0 +1,1840 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package info.ronjenkins.slf4bukkit;
+
+import org.slf4j.Logger;
+
+/**
+ * A {@link Logger} with overloads that take primitive format arguments, so
+ * that logging them neither boxes them nor allocates a varargs array. Calls
+ * at disabled levels allocate nothing at all. Obtain instances from
+ * {@link org.slf4j.impl.BukkitLoggerFactory#getExtendedLogger(String)}.
+ *
+ * <p>
+ * There are overloads for one to four arguments of the same type. Mixed
+ * arguments are widened by the compiler to the widest type involved, so
+ * {@code int} and {@code long} arguments can be mixed freely. Mixing integers
+ * with {@code double}s widens the integers to {@code double}, which formats
+ * them as e.g. {@code 3.0}. Likewise, a {@code char} mixed with integers is
+ * formatted as its character code, and a {@code float} mixed with
+ * {@code double}s is formatted with the extra digits of its exact
+ * {@code double} value (e.g. {@code 1.100000023841858}); box such arguments
+ * explicitly if that is not desired. Arguments mixed with objects or
+ * {@code boolean}s are boxed, as with a plain {@link Logger}.
+ * </p>
+ *
+ * <p>
+ * There are also {@code levelLazy()} methods for one or two
+ * {@link LazyArgument}s, which are evaluated only if the message is actually
+ * logged; they are not named like the {@link Logger} methods, so they never
+ * compete with them during overload resolution (e.g. for {@code null}
+ * arguments). The {@code atLevel()} methods return a {@link LogEventBuilder}
+ * for messages with structured fields. Messages built with a
+ * {@link ColorStringBuilder} can be logged without scanning them for color
+ * codes.
+ * </p>
+ */
+public interface ExtendedLogger extends Logger {
+
+  /**
+   * Starts building a message with structured fields at the DEBUG level.
+   *
+   * @return a shared builder that ignores everything if the DEBUG level is
+   *         disabled. Never null.
+   */
+  LogEventBuilder atDebug();
+
+  /**
+   * Starts building a message with structured fields at the ERROR level.
+   *
+   * @return a shared builder that ignores everything if the ERROR level is
+   *         disabled. Never null.
+   */
+  LogEventBuilder atError();
+
+  /**
+   * Starts building a message with structured fields at the INFO level.
+   *
+   * @return a shared builder that ignores everything if the INFO level is
+   *         disabled. Never null.
+   */
+  LogEventBuilder atInfo();
+
+  /**
+   * Starts building a message with structured fields at the TRACE level.
+   *
+   * @return a shared builder that ignores everything if the TRACE level is
+   *         disabled. Never null.
+   */
+  LogEventBuilder atTrace();
+
+  /**
+   * Starts building a message with structured fields at the WARN level.
+   *
+   * @return a shared builder that ignores everything if the WARN level is
+   *         disabled. Never null.
+   */
+  LogEventBuilder atWarn();
+
+  /**
+   * Logs a message at the TRACE level, substituting an {@code int} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void trace(String format, int arg);
+
+  /**
+   * Logs a message at the TRACE level, substituting 2 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void trace(String format, int arg1, int arg2);
+
+  /**
+   * Logs a message at the TRACE level, substituting 3 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void trace(String format, int arg1, int arg2, int arg3);
+
+  /**
+   * Logs a message at the TRACE level, substituting 4 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void trace(String format, int arg1, int arg2, int arg3, int arg4);
+
+  /**
+   * Logs a message at the TRACE level, substituting a {@code long} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void trace(String format, long arg);
+
+  /**
+   * Logs a message at the TRACE level, substituting 2 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void trace(String format, long arg1, long arg2);
+
+  /**
+   * Logs a message at the TRACE level, substituting 3 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void trace(String format, long arg1, long arg2, long arg3);
+
+  /**
+   * Logs a message at the TRACE level, substituting 4 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void trace(String format, long arg1, long arg2, long arg3, long arg4);
+
+  /**
+   * Logs a message at the TRACE level, substituting a {@code double} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void trace(String format, double arg);
+
+  /**
+   * Logs a message at the TRACE level, substituting 2 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void trace(String format, double arg1, double arg2);
+
+  /**
+   * Logs a message at the TRACE level, substituting 3 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void trace(String format, double arg1, double arg2, double arg3);
+
+  /**
+   * Logs a message at the TRACE level, substituting 4 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void trace(String format, double arg1, double arg2, double arg3, double arg4);
+
+  /**
+   * Logs a message at the TRACE level, substituting a {@code float} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void trace(String format, float arg);
+
+  /**
+   * Logs a message at the TRACE level, substituting 2 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void trace(String format, float arg1, float arg2);
+
+  /**
+   * Logs a message at the TRACE level, substituting 3 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void trace(String format, float arg1, float arg2, float arg3);
+
+  /**
+   * Logs a message at the TRACE level, substituting 4 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void trace(String format, float arg1, float arg2, float arg3, float arg4);
+
+  /**
+   * Logs a message at the TRACE level, substituting a {@code boolean} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void trace(String format, boolean arg);
+
+  /**
+   * Logs a message at the TRACE level, substituting 2 {@code boolean}
+   * arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void trace(String format, boolean arg1, boolean arg2);
+
+  /**
+   * Logs a message at the TRACE level, substituting 3 {@code boolean}
+   * arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void trace(String format, boolean arg1, boolean arg2, boolean arg3);
+
+  /**
+   * Logs a message at the TRACE level, substituting 4 {@code boolean}
+   * arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void trace(String format, boolean arg1, boolean arg2, boolean arg3, boolean arg4);
+
+  /**
+   * Logs a message at the TRACE level, substituting a {@code char} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void trace(String format, char arg);
+
+  /**
+   * Logs a message at the TRACE level, substituting 2 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void trace(String format, char arg1, char arg2);
+
+  /**
+   * Logs a message at the TRACE level, substituting 3 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void trace(String format, char arg1, char arg2, char arg3);
+
+  /**
+   * Logs a message at the TRACE level, substituting 4 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void trace(String format, char arg1, char arg2, char arg3, char arg4);
+
+  /**
+   * Logs a message at the DEBUG level, substituting an {@code int} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void debug(String format, int arg);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 2 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void debug(String format, int arg1, int arg2);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 3 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void debug(String format, int arg1, int arg2, int arg3);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 4 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void debug(String format, int arg1, int arg2, int arg3, int arg4);
+
+  /**
+   * Logs a message at the DEBUG level, substituting a {@code long} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void debug(String format, long arg);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 2 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void debug(String format, long arg1, long arg2);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 3 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void debug(String format, long arg1, long arg2, long arg3);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 4 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void debug(String format, long arg1, long arg2, long arg3, long arg4);
+
+  /**
+   * Logs a message at the DEBUG level, substituting a {@code double} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void debug(String format, double arg);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 2 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void debug(String format, double arg1, double arg2);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 3 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void debug(String format, double arg1, double arg2, double arg3);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 4 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void debug(String format, double arg1, double arg2, double arg3, double arg4);
+
+  /**
+   * Logs a message at the DEBUG level, substituting a {@code float} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void debug(String format, float arg);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 2 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void debug(String format, float arg1, float arg2);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 3 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void debug(String format, float arg1, float arg2, float arg3);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 4 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void debug(String format, float arg1, float arg2, float arg3, float arg4);
+
+  /**
+   * Logs a message at the DEBUG level, substituting a {@code boolean} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void debug(String format, boolean arg);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 2 {@code boolean}
+   * arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void debug(String format, boolean arg1, boolean arg2);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 3 {@code boolean}
+   * arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void debug(String format, boolean arg1, boolean arg2, boolean arg3);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 4 {@code boolean}
+   * arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void debug(String format, boolean arg1, boolean arg2, boolean arg3, boolean arg4);
+
+  /**
+   * Logs a message at the DEBUG level, substituting a {@code char} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void debug(String format, char arg);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 2 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void debug(String format, char arg1, char arg2);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 3 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void debug(String format, char arg1, char arg2, char arg3);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 4 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void debug(String format, char arg1, char arg2, char arg3, char arg4);
+
+  /**
+   * Logs a message at the INFO level, substituting an {@code int} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void info(String format, int arg);
+
+  /**
+   * Logs a message at the INFO level, substituting 2 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void info(String format, int arg1, int arg2);
+
+  /**
+   * Logs a message at the INFO level, substituting 3 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void info(String format, int arg1, int arg2, int arg3);
+
+  /**
+   * Logs a message at the INFO level, substituting 4 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void info(String format, int arg1, int arg2, int arg3, int arg4);
+
+  /**
+   * Logs a message at the INFO level, substituting a {@code long} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void info(String format, long arg);
+
+  /**
+   * Logs a message at the INFO level, substituting 2 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void info(String format, long arg1, long arg2);
+
+  /**
+   * Logs a message at the INFO level, substituting 3 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void info(String format, long arg1, long arg2, long arg3);
+
+  /**
+   * Logs a message at the INFO level, substituting 4 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void info(String format, long arg1, long arg2, long arg3, long arg4);
+
+  /**
+   * Logs a message at the INFO level, substituting a {@code double} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void info(String format, double arg);
+
+  /**
+   * Logs a message at the INFO level, substituting 2 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void info(String format, double arg1, double arg2);
+
+  /**
+   * Logs a message at the INFO level, substituting 3 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void info(String format, double arg1, double arg2, double arg3);
+
+  /**
+   * Logs a message at the INFO level, substituting 4 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void info(String format, double arg1, double arg2, double arg3, double arg4);
+
+  /**
+   * Logs a message at the INFO level, substituting a {@code float} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void info(String format, float arg);
+
+  /**
+   * Logs a message at the INFO level, substituting 2 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void info(String format, float arg1, float arg2);
+
+  /**
+   * Logs a message at the INFO level, substituting 3 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void info(String format, float arg1, float arg2, float arg3);
+
+  /**
+   * Logs a message at the INFO level, substituting 4 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void info(String format, float arg1, float arg2, float arg3, float arg4);
+
+  /**
+   * Logs a message at the INFO level, substituting a {@code boolean} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void info(String format, boolean arg);
+
+  /**
+   * Logs a message at the INFO level, substituting 2 {@code boolean} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void info(String format, boolean arg1, boolean arg2);
+
+  /**
+   * Logs a message at the INFO level, substituting 3 {@code boolean} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void info(String format, boolean arg1, boolean arg2, boolean arg3);
+
+  /**
+   * Logs a message at the INFO level, substituting 4 {@code boolean} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void info(String format, boolean arg1, boolean arg2, boolean arg3, boolean arg4);
+
+  /**
+   * Logs a message at the INFO level, substituting a {@code char} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void info(String format, char arg);
+
+  /**
+   * Logs a message at the INFO level, substituting 2 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void info(String format, char arg1, char arg2);
+
+  /**
+   * Logs a message at the INFO level, substituting 3 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void info(String format, char arg1, char arg2, char arg3);
+
+  /**
+   * Logs a message at the INFO level, substituting 4 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void info(String format, char arg1, char arg2, char arg3, char arg4);
+
+  /**
+   * Logs a message at the WARN level, substituting an {@code int} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void warn(String format, int arg);
+
+  /**
+   * Logs a message at the WARN level, substituting 2 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void warn(String format, int arg1, int arg2);
+
+  /**
+   * Logs a message at the WARN level, substituting 3 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void warn(String format, int arg1, int arg2, int arg3);
+
+  /**
+   * Logs a message at the WARN level, substituting 4 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void warn(String format, int arg1, int arg2, int arg3, int arg4);
+
+  /**
+   * Logs a message at the WARN level, substituting a {@code long} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void warn(String format, long arg);
+
+  /**
+   * Logs a message at the WARN level, substituting 2 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void warn(String format, long arg1, long arg2);
+
+  /**
+   * Logs a message at the WARN level, substituting 3 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void warn(String format, long arg1, long arg2, long arg3);
+
+  /**
+   * Logs a message at the WARN level, substituting 4 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void warn(String format, long arg1, long arg2, long arg3, long arg4);
+
+  /**
+   * Logs a message at the WARN level, substituting a {@code double} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void warn(String format, double arg);
+
+  /**
+   * Logs a message at the WARN level, substituting 2 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void warn(String format, double arg1, double arg2);
+
+  /**
+   * Logs a message at the WARN level, substituting 3 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void warn(String format, double arg1, double arg2, double arg3);
+
+  /**
+   * Logs a message at the WARN level, substituting 4 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void warn(String format, double arg1, double arg2, double arg3, double arg4);
+
+  /**
+   * Logs a message at the WARN level, substituting a {@code float} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void warn(String format, float arg);
+
+  /**
+   * Logs a message at the WARN level, substituting 2 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void warn(String format, float arg1, float arg2);
+
+  /**
+   * Logs a message at the WARN level, substituting 3 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void warn(String format, float arg1, float arg2, float arg3);
+
+  /**
+   * Logs a message at the WARN level, substituting 4 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void warn(String format, float arg1, float arg2, float arg3, float arg4);
+
+  /**
+   * Logs a message at the WARN level, substituting a {@code boolean} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void warn(String format, boolean arg);
+
+  /**
+   * Logs a message at the WARN level, substituting 2 {@code boolean} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void warn(String format, boolean arg1, boolean arg2);
+
+  /**
+   * Logs a message at the WARN level, substituting 3 {@code boolean} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void warn(String format, boolean arg1, boolean arg2, boolean arg3);
+
+  /**
+   * Logs a message at the WARN level, substituting 4 {@code boolean} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void warn(String format, boolean arg1, boolean arg2, boolean arg3, boolean arg4);
+
+  /**
+   * Logs a message at the WARN level, substituting a {@code char} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void warn(String format, char arg);
+
+  /**
+   * Logs a message at the WARN level, substituting 2 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void warn(String format, char arg1, char arg2);
+
+  /**
+   * Logs a message at the WARN level, substituting 3 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void warn(String format, char arg1, char arg2, char arg3);
+
+  /**
+   * Logs a message at the WARN level, substituting 4 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void warn(String format, char arg1, char arg2, char arg3, char arg4);
+
+  /**
+   * Logs a message at the ERROR level, substituting an {@code int} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void error(String format, int arg);
+
+  /**
+   * Logs a message at the ERROR level, substituting 2 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void error(String format, int arg1, int arg2);
+
+  /**
+   * Logs a message at the ERROR level, substituting 3 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void error(String format, int arg1, int arg2, int arg3);
+
+  /**
+   * Logs a message at the ERROR level, substituting 4 {@code int} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void error(String format, int arg1, int arg2, int arg3, int arg4);
+
+  /**
+   * Logs a message at the ERROR level, substituting a {@code long} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void error(String format, long arg);
+
+  /**
+   * Logs a message at the ERROR level, substituting 2 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void error(String format, long arg1, long arg2);
+
+  /**
+   * Logs a message at the ERROR level, substituting 3 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void error(String format, long arg1, long arg2, long arg3);
+
+  /**
+   * Logs a message at the ERROR level, substituting 4 {@code long} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void error(String format, long arg1, long arg2, long arg3, long arg4);
+
+  /**
+   * Logs a message at the ERROR level, substituting a {@code double} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void error(String format, double arg);
+
+  /**
+   * Logs a message at the ERROR level, substituting 2 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void error(String format, double arg1, double arg2);
+
+  /**
+   * Logs a message at the ERROR level, substituting 3 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void error(String format, double arg1, double arg2, double arg3);
+
+  /**
+   * Logs a message at the ERROR level, substituting 4 {@code double} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void error(String format, double arg1, double arg2, double arg3, double arg4);
+
+  /**
+   * Logs a message at the ERROR level, substituting a {@code float} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void error(String format, float arg);
+
+  /**
+   * Logs a message at the ERROR level, substituting 2 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void error(String format, float arg1, float arg2);
+
+  /**
+   * Logs a message at the ERROR level, substituting 3 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void error(String format, float arg1, float arg2, float arg3);
+
+  /**
+   * Logs a message at the ERROR level, substituting 4 {@code float} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void error(String format, float arg1, float arg2, float arg3, float arg4);
+
+  /**
+   * Logs a message at the ERROR level, substituting a {@code boolean} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void error(String format, boolean arg);
+
+  /**
+   * Logs a message at the ERROR level, substituting 2 {@code boolean}
+   * arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void error(String format, boolean arg1, boolean arg2);
+
+  /**
+   * Logs a message at the ERROR level, substituting 3 {@code boolean}
+   * arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void error(String format, boolean arg1, boolean arg2, boolean arg3);
+
+  /**
+   * Logs a message at the ERROR level, substituting 4 {@code boolean}
+   * arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void error(String format, boolean arg1, boolean arg2, boolean arg3, boolean arg4);
+
+  /**
+   * Logs a message at the ERROR level, substituting a {@code char} argument.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void error(String format, char arg);
+
+  /**
+   * Logs a message at the ERROR level, substituting 2 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void error(String format, char arg1, char arg2);
+
+  /**
+   * Logs a message at the ERROR level, substituting 3 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   */
+  void error(String format, char arg1, char arg2, char arg3);
+
+  /**
+   * Logs a message at the ERROR level, substituting 4 {@code char} arguments.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param arg3
+   *          format argument #3.
+   * @param arg4
+   *          format argument #4.
+   */
+  void error(String format, char arg1, char arg2, char arg3, char arg4);
+
+  /**
+   * Logs a message at the TRACE level, substituting a lazily computed argument.
+   * The argument is evaluated only if the message is actually logged.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void traceLazy(String format, LazyArgument<?> arg);
+
+  /**
+   * Logs a message at the TRACE level, substituting 2 lazily computed
+   * arguments.
+   * The arguments are evaluated only if the message is actually logged.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void traceLazy(String format, LazyArgument<?> arg1, LazyArgument<?> arg2);
+
+  /**
+   * Logs a message at the DEBUG level, substituting a lazily computed argument.
+   * The argument is evaluated only if the message is actually logged.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void debugLazy(String format, LazyArgument<?> arg);
+
+  /**
+   * Logs a message at the DEBUG level, substituting 2 lazily computed
+   * arguments.
+   * The arguments are evaluated only if the message is actually logged.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void debugLazy(String format, LazyArgument<?> arg1, LazyArgument<?> arg2);
+
+  /**
+   * Logs a message at the INFO level, substituting a lazily computed argument.
+   * The argument is evaluated only if the message is actually logged.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void infoLazy(String format, LazyArgument<?> arg);
+
+  /**
+   * Logs a message at the INFO level, substituting 2 lazily computed arguments.
+   * The arguments are evaluated only if the message is actually logged.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void infoLazy(String format, LazyArgument<?> arg1, LazyArgument<?> arg2);
+
+  /**
+   * Logs a message at the WARN level, substituting a lazily computed argument.
+   * The argument is evaluated only if the message is actually logged.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void warnLazy(String format, LazyArgument<?> arg);
+
+  /**
+   * Logs a message at the WARN level, substituting 2 lazily computed arguments.
+   * The arguments are evaluated only if the message is actually logged.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void warnLazy(String format, LazyArgument<?> arg1, LazyArgument<?> arg2);
+
+  /**
+   * Logs a message at the ERROR level, substituting a lazily computed argument.
+   * The argument is evaluated only if the message is actually logged.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void errorLazy(String format, LazyArgument<?> arg);
+
+  /**
+   * Logs a message at the ERROR level, substituting 2 lazily computed
+   * arguments.
+   * The arguments are evaluated only if the message is actually logged.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void errorLazy(String format, LazyArgument<?> arg1, LazyArgument<?> arg2);
+
+  /**
+   * Logs a colored message at the TRACE level. Its colors are rendered
+   * directly, without scanning it for color codes, unless the message has to
+   * be queued; in that case, it is converted to a string before this method
+   * returns. Either way, the message may be reset afterwards.
+   *
+   * @param message
+   *          the message.
+   */
+  void trace(ColorStringBuilder message);
+
+  /**
+   * Logs a colored message at the DEBUG level. Its colors are rendered
+   * directly, without scanning it for color codes, unless the message has to
+   * be queued; in that case, it is converted to a string before this method
+   * returns. Either way, the message may be reset afterwards.
+   *
+   * @param message
+   *          the message.
+   */
+  void debug(ColorStringBuilder message);
+
+  /**
+   * Logs a colored message at the INFO level. Its colors are rendered
+   * directly, without scanning it for color codes, unless the message has to
+   * be queued; in that case, it is converted to a string before this method
+   * returns. Either way, the message may be reset afterwards.
+   *
+   * @param message
+   *          the message.
+   */
+  void info(ColorStringBuilder message);
+
+  /**
+   * Logs a colored message at the WARN level. Its colors are rendered
+   * directly, without scanning it for color codes, unless the message has to
+   * be queued; in that case, it is converted to a string before this method
+   * returns. Either way, the message may be reset afterwards.
+   *
+   * @param message
+   *          the message.
+   */
+  void warn(ColorStringBuilder message);
+
+  /**
+   * Logs a colored message at the ERROR level. Its colors are rendered
+   * directly, without scanning it for color codes, unless the message has to
+   * be queued; in that case, it is converted to a string before this method
+   * returns. Either way, the message may be reset afterwards.
+   *
+   * @param message
+   *          the message.
+   */
+  void error(ColorStringBuilder message);
+
+}
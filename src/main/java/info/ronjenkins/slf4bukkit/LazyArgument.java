@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package info.ronjenkins.slf4bukkit;
+
+/**
+ * A format argument whose value is computed only when the message is actually
+ * rendered. Use it for expensive diagnostics, such as entity dumps, that would
+ * otherwise have to be guarded by a level check:
+ *
+ * <pre>
+ * logger.debug("Region: {}", new LazyArgument&lt;String&gt;() {
+ *   &#64;Override
+ *   public String get() {
+ *     return region.summarize();
+ *   }
+ * });
+ * </pre>
+ *
+ * <p>
+ * {@link #get()} is called at most once per message, after the level check
+ * has passed, and never if the message is discarded. In asynchronous mode it
+ * is called on the dispatcher thread, so it must be safe to call from there.
+ * The returned value is rendered like any other argument; arrays are
+ * rendered element by element. Lazy arguments are honored in every
+ * argument position, including the varargs methods of the plain SLF4J
+ * {@link org.slf4j.Logger}; methods such as
+ * {@link ExtendedLogger#debugLazy(String, LazyArgument)} exist only to make
+ * the intent explicit.
+ * </p>
+ *
+ * @param <T>
+ *          the type of the computed value.
+ */
+public interface LazyArgument<T> {
+
+  /**
+   * Computes the value of this argument.
+   *
+   * @return may be null.
+   */
+  T get();
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package info.ronjenkins.slf4bukkit;
+
+import org.slf4j.Marker;
+
+/**
+ * A fluent builder for a single log message with structured fields, obtained
+ * from {@link ExtendedLogger#atInfo()} and its siblings:
+ *
+ * <pre>
+ * logger.atDebug().field("player", player.getName()).field("ms", ms)
+ *       .log("Loaded chunk {}", chunk);
+ * </pre>
+ *
+ * <p>
+ * Fields are rendered after the message as {@code key=value} pairs. Their
+ * values are rendered like format arguments, so {@link LazyArgument}s are
+ * evaluated only if the message is actually logged. Primitive values are not
+ * boxed.
+ * </p>
+ *
+ * <p>
+ * If the level is disabled, the logger returns a shared builder that ignores
+ * everything, so building a message costs nothing. Otherwise the builder is
+ * recycled by the calling thread: it must be completed by one of the
+ * {@code log} methods on the thread that obtained it, and must not be used
+ * afterwards.
+ * </p>
+ */
+public interface LogEventBuilder {
+
+  /**
+   * Sets the throwable to log with the message.
+   *
+   * @param throwable
+   *          the throwable, may be null.
+   * @return this.
+   */
+  LogEventBuilder cause(Throwable throwable);
+
+  /**
+   * Adds a field with a {@code boolean} value.
+   *
+   * @param key
+   *          the name of the field.
+   * @param value
+   *          the value of the field.
+   * @return this.
+   */
+  LogEventBuilder field(String key, boolean value);
+
+  /**
+   * Adds a field with a {@code double} value.
+   *
+   * @param key
+   *          the name of the field.
+   * @param value
+   *          the value of the field.
+   * @return this.
+   */
+  LogEventBuilder field(String key, double value);
+
+  /**
+   * Adds a field with an {@code int} value.
+   *
+   * @param key
+   *          the name of the field.
+   * @param value
+   *          the value of the field.
+   * @return this.
+   */
+  LogEventBuilder field(String key, int value);
+
+  /**
+   * Adds a field with a {@code long} value.
+   *
+   * @param key
+   *          the name of the field.
+   * @param value
+   *          the value of the field.
+   * @return this.
+   */
+  LogEventBuilder field(String key, long value);
+
+  /**
+   * Adds a field.
+   *
+   * @param key
+   *          the name of the field.
+   * @param value
+   *          the value of the field, may be null.
+   * @return this.
+   */
+  LogEventBuilder field(String key, Object value);
+
+  /**
+   * Logs the message and releases this builder.
+   *
+   * @param msg
+   *          the message.
+   */
+  void log(String msg);
+
+  /**
+   * Logs the message, substituting one argument, and releases this builder.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg
+   *          the format argument.
+   */
+  void log(String format, Object arg);
+
+  /**
+   * Logs the message, substituting two arguments, and releases this builder.
+   *
+   * @param format
+   *          the message format string.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   */
+  void log(String format, Object arg1, Object arg2);
+
+  /**
+   * Logs the message, substituting any number of arguments, and releases this
+   * builder.
+   *
+   * @param format
+   *          the message format string.
+   * @param arguments
+   *          the format arguments.
+   */
+  void log(String format, Object... arguments);
+
+  /**
+   * Sets the marker of the message, e.g. a {@link ColorMarker}.
+   *
+   * @param marker
+   *          the marker, may be null.
+   * @return this.
+   */
+  LogEventBuilder marker(Marker marker);
+
+}
@@ -23,18 +23,23 @@ import org.bukkit.ChatColor;
  *
  * @author TheE
  */
-final class NotSupportedColorMapper implements ColorMapper {
+final class NotSupportedColorMapper implements AppendingColorMapper {
+
+  private static final ColorCodeTranslator TRANSLATOR = new ColorCodeTranslator();
+
+  @Override
+  public void map(final ChatColor color, final StringBuilder output) {
+    // Colors are stripped.
+  }
 
   @Override
   public String map(final String input) {
-    if (input == null) {
-      return "";
-    }
-    String output = input;
-    for (final ChatColor chatColor : ChatColor.values()) {
-      output = output.replace(chatColor.toString(), "");
-    }
-    return output;
+    return NotSupportedColorMapper.TRANSLATOR.translate(input);
+  }
+
+  @Override
+  public void map(final CharSequence input, final StringBuilder output) {
+    NotSupportedColorMapper.TRANSLATOR.translate(input, output);
   }
 
 }
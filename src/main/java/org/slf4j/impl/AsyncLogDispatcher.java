@@ -0,0 +1,519 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.bukkit.plugin.Plugin;
+import org.slf4j.Logger;
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.Util;
+
+/**
+ * Hands logging events off to a dedicated consumer thread, which formats them,
+ * maps their colors and sends them to Bukkit. Logging threads only copy the
+ * event into a pre-allocated slot of a {@link LogEventRingBuffer}, so they
+ * never wait for console I/O.
+ *
+ * <p>
+ * When the ring buffer is full, the {@link AsyncQueuePolicy} configured for
+ * the level of an event decides whether the logging thread waits (for a
+ * bounded time), the event is dropped, or the logging thread removes the
+ * oldest queued event to make room. Once a waiting thread has timed out, other
+ * threads drop their events right away instead of waiting too, until the
+ * consumer thread logs another event. Dropped events are counted per level,
+ * and the consumer thread periodically logs how many were dropped.
+ * </p>
+ *
+ * <p>
+ * The consumer thread stops by itself once it notices that the plugin has been
+ * disabled, after logging all pending events. It can also be stopped
+ * explicitly via {@link #stop(long)}.
+ * </p>
+ */
+final class AsyncLogDispatcher implements Runnable {
+
+  // The longest time that the consumer sleeps while there are no events. Also
+  // determines how quickly the consumer notices that the plugin was disabled.
+  private static final long            IDLE_PARK_NANOS       = TimeUnit.MILLISECONDS.toNanos(100);
+  // How long a producer waits before trying again to claim a slot in a full
+  // ring buffer.
+  private static final long            FULL_PARK_NANOS       = TimeUnit.MICROSECONDS.toNanos(100);
+  // How many events the consumer logs between checks of the plugin state.
+  private static final int             PLUGIN_CHECK_INTERVAL = 1024;
+  // Minimum time between two reports of dropped events.
+  private static final long            DROP_REPORT_INTERVAL  = TimeUnit.SECONDS.toNanos(10);
+  // Returned by claim() when the event must be dropped.
+  private static final LogEvent        DROPPED               = new LogEvent();
+  // Number of dropped events since the class was loaded, indexed by level
+  // ordinal. Shared by all dispatchers so that restarts don't reset them.
+  private static final AtomicLongArray DROPPED_EVENTS        = new AtomicLongArray(Level.values().length);
+  // Reports dropped events.
+  private static final Logger          DROP_LOGGER           = BukkitLoggerFactory.getExtendedLogger(AsyncLogDispatcher.class);
+  private final LogEventRingBuffer     buffer;
+  private final Thread                 consumer;
+  // The event that the consumer thread is logging, copied out of the buffer.
+  private final LogEvent               current               = new LogEvent();
+  // Occupancy at which AsyncQueuePolicy.DROP_EARLY starts dropping.
+  private final int                    earlyDropThreshold;
+  private final Plugin                 plugin;
+  // Dropped event counts at the time of the last report. Consumer thread only.
+  private final long[]                 reportedDrops         = new long[Level.values().length];
+  private final int                    requestedCapacity;
+  private volatile BukkitLoggerConfig  config;
+  // Number of events that the consumer thread has taken from the buffer. Only
+  // written by the consumer thread, or by drain() once it has terminated.
+  private volatile long                consumed              = 0;
+  private volatile boolean             running               = true;
+  // The value of consumed when a producer last gave up waiting for a slot, or
+  // -1. While it is unchanged, waiting is pointless.
+  private volatile long                saturatedAt           = -1;
+  private volatile boolean             sleeping              = false;
+  // Guarded by this.
+  private boolean                      terminated            = false;
+
+  /**
+   * Creates a new dispatcher. The consumer thread is not started until
+   * {@link #start()} is called.
+   *
+   * @param config
+   *          an initialized configuration snapshot, which provides the plugin
+   *          on whose behalf events are logged, the buffer capacity and the
+   *          queue policies.
+   */
+  AsyncLogDispatcher(final BukkitLoggerConfig config) {
+    this.config = config;
+    this.plugin = config.getPlugin();
+    this.requestedCapacity = config.getAsyncBufferSize();
+    this.buffer = new LogEventRingBuffer(this.requestedCapacity);
+    this.earlyDropThreshold = this.buffer.capacity()
+                              - (this.buffer.capacity() / 4);
+    for (int i = 0; i < this.reportedDrops.length; i++) {
+      this.reportedDrops[i] = AsyncLogDispatcher.DROPPED_EVENTS.get(i);
+    }
+    this.consumer = new Thread(this, "SLF4Bukkit Async Logger ("
+                                     + this.plugin.getName() + ")");
+    this.consumer.setDaemon(true);
+  }
+
+  /**
+   * Returns the number of events of the given level that were dropped because
+   * the queue was full, since SLF4Bukkit was loaded.
+   *
+   * @param level
+   *          any SLF4J logging level.
+   * @return zero or more.
+   */
+  static long getDroppedCount(final Level level) {
+    return AsyncLogDispatcher.DROPPED_EVENTS.get(level.ordinal());
+  }
+
+  /**
+   * Returns the capacity that this dispatcher was created with.
+   *
+   * @return the value given to the constructor.
+   */
+  int getRequestedCapacity() {
+    return this.requestedCapacity;
+  }
+
+  /**
+   * Replaces the configuration snapshot from which the queue policies are
+   * read. The buffer capacity is not affected.
+   *
+   * @param config
+   *          the newly published configuration snapshot.
+   */
+  void setConfig(final BukkitLoggerConfig config) {
+    this.config = config;
+  }
+
+  /**
+   * Queues an event without arguments.
+   *
+   * @param logger
+   *          the logger that created the event.
+   * @param level
+   *          the level of the event.
+   * @param marker
+   *          the marker of the event, may be null.
+   * @param message
+   *          the message of the event.
+   * @param throwable
+   *          the throwable of the event, may be null.
+   * @return false if this dispatcher is stopped, in which case the caller must
+   *         log the event itself. True if the event was queued or dropped.
+   */
+  boolean publish(final BukkitLoggerAdapter logger, final Level level,
+                  final Marker marker, final String message,
+                  final Throwable throwable) {
+    final LogEvent event = this.claim(level);
+    if (event == null) { return false; }
+    if (event == AsyncLogDispatcher.DROPPED) { return true; }
+    event.set(logger, level, marker, message, throwable,
+              Thread.currentThread().getName());
+    this.publish(event);
+    return true;
+  }
+
+  /**
+   * Queues an event with two arguments, which are formatted by the consumer
+   * thread.
+   *
+   * @param logger
+   *          the logger that created the event.
+   * @param level
+   *          the level of the event.
+   * @param marker
+   *          the marker of the event, may be null.
+   * @param format
+   *          the message format of the event.
+   * @param arg1
+   *          format argument #1.
+   * @param arg2
+   *          format argument #2.
+   * @param count
+   *          the number of arguments that were passed, 1 or 2.
+   * @return false if this dispatcher is stopped, in which case the caller must
+   *         log the event itself. True if the event was queued or dropped.
+   */
+  boolean publish(final BukkitLoggerAdapter logger, final Level level,
+                  final Marker marker, final String format, final Object arg1,
+                  final Object arg2, final int count) {
+    final LogEvent event = this.claim(level);
+    if (event == null) { return false; }
+    if (event == AsyncLogDispatcher.DROPPED) { return true; }
+    event.set(logger, level, marker, format, null,
+              Thread.currentThread().getName()).setArguments(arg1, arg2,
+                                                             count);
+    this.publish(event);
+    return true;
+  }
+
+  /**
+   * Queues an event with any number of arguments, which are formatted by the
+   * consumer thread.
+   *
+   * @param logger
+   *          the logger that created the event.
+   * @param level
+   *          the level of the event.
+   * @param marker
+   *          the marker of the event, may be null.
+   * @param format
+   *          the message format of the event.
+   * @param arguments
+   *          the format arguments.
+   * @return false if this dispatcher is stopped, in which case the caller must
+   *         log the event itself. True if the event was queued or dropped.
+   */
+  boolean publish(final BukkitLoggerAdapter logger, final Level level,
+                  final Marker marker, final String format,
+                  final Object[] arguments) {
+    final LogEvent event = this.claim(level);
+    if (event == null) { return false; }
+    if (event == AsyncLogDispatcher.DROPPED) { return true; }
+    event.set(logger, level, marker, format, null,
+              Thread.currentThread().getName()).setArguments(arguments);
+    this.publish(event);
+    return true;
+  }
+
+  /**
+   * Queues an event with up to four primitive arguments of the same type,
+   * which are formatted by the consumer thread.
+   *
+   * @param logger
+   *          the logger that created the event.
+   * @param level
+   *          the level of the event.
+   * @param format
+   *          the message format of the event.
+   * @param type
+   *          the type of the arguments.
+   * @param arg1
+   *          format argument #1, encoded as described by the type.
+   * @param arg2
+   *          format argument #2, encoded as described by the type.
+   * @param arg3
+   *          format argument #3, encoded as described by the type.
+   * @param arg4
+   *          format argument #4, encoded as described by the type.
+   * @param count
+   *          the number of arguments, 1 to 4.
+   * @return false if this dispatcher is stopped, in which case the caller must
+   *         log the event itself. True if the event was queued or dropped.
+   */
+  boolean publish(final BukkitLoggerAdapter logger, final Level level,
+                  final String format, final PrimitiveType type,
+                  final long arg1, final long arg2, final long arg3,
+                  final long arg4, final int count) {
+    final LogEvent event = this.claim(level);
+    if (event == null) { return false; }
+    if (event == AsyncLogDispatcher.DROPPED) { return true; }
+    event.set(logger, level, null, format, null,
+              Thread.currentThread().getName()).setArguments(type, arg1, arg2,
+                                                             arg3, arg4, count);
+    this.publish(event);
+    return true;
+  }
+
+  /**
+   * Queues a copy of an event, which is formatted by the consumer thread.
+   *
+   * @param source
+   *          the event to copy, which may be recycled once this method
+   *          returns.
+   * @return false if this dispatcher is stopped, in which case the caller must
+   *         log the event itself. True if the event was queued or dropped.
+   */
+  boolean publishCopy(final LogEvent source) {
+    final LogEvent event = this.claim(source.getLevel());
+    if (event == null) { return false; }
+    if (event == AsyncLogDispatcher.DROPPED) { return true; }
+    event.copyFrom(source);
+    this.publish(event);
+    return true;
+  }
+
+  @Override
+  public void run() {
+    boolean pluginWasEnabled = false;
+    int eventsSinceCheck = 0;
+    long nextDropReport = System.nanoTime()
+                          + AsyncLogDispatcher.DROP_REPORT_INTERVAL;
+    while (true) {
+      final boolean polled = this.buffer.poll(this.current);
+      if (polled) {
+        this.dispatch();
+        if (++eventsSinceCheck < AsyncLogDispatcher.PLUGIN_CHECK_INTERVAL) {
+          continue;
+        }
+      }
+      eventsSinceCheck = 0;
+      BukkitLoggerAdapter.flushRepeats();
+      BukkitLoggerAdapter.flushSinks();
+      if ((System.nanoTime() - nextDropReport) >= 0) {
+        this.reportDrops();
+        nextDropReport = System.nanoTime()
+                         + AsyncLogDispatcher.DROP_REPORT_INTERVAL;
+      }
+      // Stop once the plugin is disabled. Pending events are still logged.
+      if (this.plugin.isEnabled()) {
+        pluginWasEnabled = true;
+      } else if (pluginWasEnabled && this.running) {
+        this.running = false;
+        BukkitLoggerAdapter.asyncDispatcherStopped(this);
+      }
+      if (polled) {
+        continue;
+      }
+      if (!this.running) {
+        // Wait for producers that claimed a slot before the dispatcher stopped.
+        if (this.buffer.size() == 0) {
+          break;
+        }
+        Thread.yield();
+        continue;
+      }
+      // Sleep until a producer wakes us up. Checking the buffer again after
+      // announcing that we're about to sleep ensures that no wake-up is lost.
+      this.sleeping = true;
+      if (this.running && this.buffer.isEmpty()) {
+        LockSupport.parkNanos(this, AsyncLogDispatcher.IDLE_PARK_NANOS);
+      }
+      this.sleeping = false;
+    }
+    synchronized (this) {
+      this.drain();
+      this.terminated = true;
+    }
+    this.reportDrops();
+  }
+
+  /**
+   * Starts the consumer thread.
+   */
+  void start() {
+    this.consumer.start();
+  }
+
+  /**
+   * Stops accepting new events and waits for the consumer thread to log all
+   * pending events.
+   *
+   * @param timeoutMillis
+   *          the maximum time to wait, in milliseconds. Zero means don't wait.
+   * @return true if all pending events were logged within the timeout.
+   */
+  boolean stop(final long timeoutMillis) {
+    this.running = false;
+    LockSupport.unpark(this.consumer);
+    if (Thread.currentThread() == this.consumer) { return false; }
+    if (timeoutMillis > 0) {
+      try {
+        this.consumer.join(timeoutMillis);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    return !this.consumer.isAlive();
+  }
+
+  /**
+   * Claims a slot in the ring buffer. If the buffer is full, the queue policy
+   * of the given level decides whether to remove the oldest event, to wait for
+   * a slot for at most {@link BukkitLoggerConfig#getAsyncBlockTimeout()}, or to
+   * drop the event. Waiting is skipped if another producer has already timed
+   * out and the consumer thread has not taken an event since.
+   *
+   * @param level
+   *          the level of the event to be queued.
+   * @return null if this dispatcher is stopped, or if called by the consumer
+   *         thread (which would otherwise wait for itself).
+   *         {@link #DROPPED} if the event must be dropped.
+   */
+  private LogEvent claim(final Level level) {
+    if (Thread.currentThread() == this.consumer) { return null; }
+    final BukkitLoggerConfig config = this.config;
+    final AsyncQueuePolicy policy = config.getAsyncPolicy(level);
+    if ((policy == AsyncQueuePolicy.DROP_EARLY)
+        && (this.buffer.size() >= this.earlyDropThreshold)) { return this.drop(level); }
+    LogEvent event = this.buffer.claim();
+    if (event != null) { return event; }
+    if (policy == AsyncQueuePolicy.DROP_NEWEST) { return this.drop(level); }
+    final long consumed = this.consumed;
+    if ((policy != AsyncQueuePolicy.DROP_OLDEST)
+        && (this.saturatedAt == consumed)) { return this.drop(level); }
+    final long deadline = System.nanoTime()
+                          + TimeUnit.MILLISECONDS.toNanos(config.getAsyncBlockTimeout());
+    while (this.running) {
+      if (policy == AsyncQueuePolicy.DROP_OLDEST) {
+        final Level evicted = this.buffer.discard();
+        if (evicted != null) {
+          this.drop(evicted);
+          event = this.buffer.claim();
+          if (event != null) { return event; }
+          // Another producer took the slot; evict the next oldest event.
+          continue;
+        }
+        // Every slot is claimed but not yet published; wait for a producer.
+      }
+      LockSupport.unpark(this.consumer);
+      if ((System.nanoTime() - deadline) >= 0) {
+        this.saturatedAt = consumed;
+        return this.drop(level);
+      }
+      LockSupport.parkNanos(this, AsyncLogDispatcher.FULL_PARK_NANOS);
+      event = this.buffer.claim();
+      if (event != null) { return event; }
+    }
+    return null;
+  }
+
+  /**
+   * Logs the event that the consumer thread has taken from the buffer.
+   */
+  private void dispatch() {
+    this.consumed++;
+    try {
+      this.current.getLogger().render(this.current);
+    } catch (final Throwable t) {
+      // Never let a misbehaving event (e.g. a throwing toString()) kill the
+      // consumer thread.
+      Util.report("SLF4J: Failed to log an event asynchronously", t);
+    } finally {
+      this.current.clear();
+    }
+  }
+
+  /**
+   * Counts a dropped event.
+   *
+   * @param level
+   *          the level of the dropped event.
+   * @return {@link #DROPPED}.
+   */
+  private LogEvent drop(final Level level) {
+    AsyncLogDispatcher.DROPPED_EVENTS.incrementAndGet(level.ordinal());
+    return AsyncLogDispatcher.DROPPED;
+  }
+
+  /**
+   * Logs all published events. Must only be called by the consumer thread, or
+   * while holding this object's monitor once the consumer thread has
+   * terminated.
+   */
+  private void drain() {
+    while (this.buffer.poll(this.current)) {
+      this.dispatch();
+    }
+  }
+
+  /**
+   * Logs how many events were dropped since the last report, if any. Must only
+   * be called by the consumer thread.
+   */
+  private void reportDrops() {
+    long total = 0;
+    final StringBuilder details = new StringBuilder();
+    for (final Level level : Level.values()) {
+      final int i = level.ordinal();
+      final long dropped = AsyncLogDispatcher.DROPPED_EVENTS.get(i);
+      final long count = dropped - this.reportedDrops[i];
+      if (count == 0) {
+        continue;
+      }
+      this.reportedDrops[i] = dropped;
+      total += count;
+      details.append(details.length() == 0 ? "" : ", ").append(level)
+             .append(": ").append(count);
+    }
+    if (total == 0) { return; }
+    // Logged from the consumer thread, so this is always synchronous.
+    AsyncLogDispatcher.DROP_LOGGER.warn("{} message(s) were dropped because "
+                                        + "the async logging queue was full ({}).",
+                                        total, details);
+  }
+
+  /**
+   * Makes a claimed event visible to the consumer thread, waking it up if
+   * necessary.
+   *
+   * @param event
+   *          an event returned by {@link #claim(Level)}.
+   */
+  private void publish(final LogEvent event) {
+    event.retainMdc();
+    this.buffer.publish(event);
+    if (this.sleeping) {
+      LockSupport.unpark(this.consumer);
+    }
+    if (!this.running) {
+      // The consumer thread may have terminated before seeing this event.
+      synchronized (this) {
+        if (this.terminated) {
+          this.drain();
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+/**
+ * What an {@link AsyncLogDispatcher} does with an event whose level has this
+ * policy when its queue is full. No policy ever makes a logging thread wait
+ * longer than {@code slf4j.asyncBlockTimeout}; events that would have to wait
+ * longer are dropped, and so are the events of other waiting policies until
+ * the background thread makes progress.
+ */
+enum AsyncQueuePolicy {
+
+  /** Wait for the background thread to make room. */
+  BLOCK,
+  /**
+   * Drop the event as soon as the queue is three quarters full, leaving the
+   * remaining room to levels with other policies.
+   */
+  DROP_EARLY,
+  /** Drop the event. */
+  DROP_NEWEST,
+  /**
+   * Remove the oldest queued event to make room for this one, without waiting
+   * for the background thread.
+   */
+  DROP_OLDEST;
+
+  /**
+   * Converts a config value to a policy. Case, underscores and hyphens are
+   * ignored, so "dropNewest", "drop_newest" and "DROP-NEWEST" are equivalent.
+   *
+   * @param value
+   *          the config value, may be null.
+   * @return null if the value does not name a policy.
+   */
+  static AsyncQueuePolicy fromString(final String value) {
+    if (value == null) { return null; }
+    final String normalized = value.replace("_", "").replace("-", "");
+    for (final AsyncQueuePolicy policy : AsyncQueuePolicy.values()) {
+      if (policy.name().replace("_", "").equalsIgnoreCase(normalized)) { return policy; }
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.slf4j.event.Level;
+
+/**
+ * Renders the binary log files written by {@link BinarySink} as text, in the
+ * layout of the plugin's text log file with the default settings. Usage:
+ *
+ * <pre>
+ * java -cp &lt;plugin jar&gt; org.slf4j.impl.BinaryLogDecoder [--long-names] FILE...
+ * </pre>
+ *
+ * <p>
+ * Files are decoded in the given order to standard output; files ending in
+ * {@code .gz} are decompressed first. Logger names are shortened like the
+ * default {@code slf4j.showShortLogName} setting does, unless
+ * {@code --long-names} is given. Markers and colors are not recorded, so they
+ * are not rendered. The exit status is 1 if any file cannot be decoded
+ * completely, and 2 if the arguments are invalid.
+ * </p>
+ */
+public final class BinaryLogDecoder {
+
+  private final List<String>     formats     = new ArrayList<String>();
+  private final DataInputStream  in;
+  private final StringBuilder    line        = new StringBuilder(256);
+  private final List<String>     loggers     = new ArrayList<String>();
+  private final boolean          longNames;
+  private final Writer           out;
+  private final SimpleDateFormat stampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+  private final List<String>     threads     = new ArrayList<String>();
+  // The time of the previous event, or of the header; -1 before the first
+  // header.
+  private long                   timestamp   = -1;
+
+  private BinaryLogDecoder(final InputStream in, final Writer out,
+                           final boolean longNames) {
+    this.in = new DataInputStream(new BufferedInputStream(in));
+    this.out = out;
+    this.longNames = longNames;
+  }
+
+  /**
+   * Decodes the files named by the arguments to standard output.
+   *
+   * @param args
+   *          an optional {@code --long-names} flag, followed by the names of
+   *          the files to decode.
+   * @throws IOException
+   *           if standard output cannot be written.
+   */
+  public static void main(final String[] args) throws IOException {
+    final boolean longNames = (args.length > 0)
+                              && "--long-names".equals(args[0]);
+    final int first = longNames ? 1 : 0;
+    if (args.length == first) {
+      System.err.println("Usage: java -cp <plugin jar> "
+                         + BinaryLogDecoder.class.getName()
+                         + " [--long-names] FILE...");
+      System.exit(2);
+    }
+    final Writer out = new BufferedWriter(new OutputStreamWriter(System.out,
+                                                                 "UTF-8"));
+    boolean failed = false;
+    for (int i = first; i < args.length; i++) {
+      final String name = args[i];
+      try {
+        InputStream in = new FileInputStream(name);
+        try {
+          if (name.endsWith(".gz")) {
+            in = new GZIPInputStream(in);
+          }
+          new BinaryLogDecoder(in, out, longNames).decode();
+        } finally {
+          in.close();
+        }
+      } catch (final EOFException e) {
+        out.flush();
+        System.err.println(name + ": truncated");
+        failed = true;
+      } catch (final IOException e) {
+        out.flush();
+        System.err.println(name + ": " + e.getMessage());
+        failed = true;
+      }
+    }
+    out.flush();
+    if (failed) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Shortens a logger name like {@code slf4j.showShortLogName} does.
+   *
+   * @param name
+   *          the logger name.
+   * @return never null.
+   */
+  private static String shorten(final String name) {
+    final int last = name.lastIndexOf('.');
+    if (last < 0) { return name; }
+    final StringBuilder buf = new StringBuilder(name.length());
+    boolean start = true;
+    for (int i = 0; i < last; i++) {
+      final char c = name.charAt(i);
+      if (start) {
+        buf.append(c).append('.');
+      }
+      start = c == '.';
+    }
+    return buf.append(name, last + 1, name.length()).toString();
+  }
+
+  /**
+   * Decodes the input until its end.
+   *
+   * @throws EOFException
+   *           if the input ends in the middle of an entry.
+   * @throws IOException
+   *           if the input cannot be read or is not a binary log file.
+   */
+  private void decode() throws IOException {
+    int tag;
+    while ((tag = this.in.read()) >= 0) {
+      if (tag == (BinarySink.MAGIC >>> 24)) {
+        this.readHeader();
+      } else if (this.timestamp < 0) {
+        throw new IOException("not a binary log file");
+      } else if (tag == BinarySink.TAG_LOGGER) {
+        this.loggers.add(this.readString());
+      } else if (tag == BinarySink.TAG_THREAD) {
+        this.threads.add(this.readString());
+      } else if (tag == BinarySink.TAG_FORMAT) {
+        this.formats.add(this.readString());
+      } else if ((tag >= BinarySink.TAG_EVENT)
+                 && (tag < (BinarySink.TAG_EVENT + Level.values().length))) {
+        this.readEvent(Level.values()[tag - BinarySink.TAG_EVENT]);
+      } else {
+        throw new IOException("unknown entry " + tag);
+      }
+    }
+  }
+
+  /**
+   * Reads an event and writes it as a line of text.
+   *
+   * @param level
+   *          the level of the event.
+   * @throws IOException
+   *           if the input cannot be read or is invalid.
+   */
+  private void readEvent(final Level level) throws IOException {
+    this.timestamp += this.readSignedVarint();
+    final int logger = (int) this.readVarint();
+    final int thread = (int) this.readVarint();
+    final int format = (int) this.readVarint();
+    final int flags = this.in.readUnsignedByte();
+    final String loggerName = this.readName(this.loggers, logger);
+    final String threadName = this.readName(this.threads, thread);
+    final String pattern = this.readName(this.formats, format);
+    final Object[] arguments = new Object[(int) this.readVarint()];
+    for (int i = 0; i < arguments.length; i++) {
+      arguments[i] = this.readValue();
+    }
+
+    final StringBuilder buf = this.line;
+    buf.setLength(0);
+    buf.append('[').append(this.stampFormat.format(new Date(this.timestamp)))
+       .append("] [").append(threadName).append('/').append(level)
+       .append("]: ");
+    if (level == Level.TRACE) {
+      buf.append("[TRACE] ");
+    } else if (level == Level.DEBUG) {
+      buf.append("[DEBUG] ");
+    }
+    if (loggerName != null) {
+      buf.append('{')
+         .append(this.longNames ? loggerName
+                                : BinaryLogDecoder.shorten(loggerName))
+         .append("} ");
+    }
+    if (arguments.length == 0) {
+      buf.append(pattern);
+    } else {
+      BufferedMessageFormatter.format(buf, pattern, arguments);
+    }
+    if ((flags & BinarySink.FLAG_FIELDS) != 0) {
+      final int count = (int) this.readVarint();
+      for (int i = 0; i < count; i++) {
+        buf.append(' ').append(this.readString()).append('=');
+        BufferedMessageFormatter.appendArgument(buf, this.readValue());
+      }
+    }
+    if ((flags & BinarySink.FLAG_MDC) != 0) {
+      buf.append(this.readString());
+    }
+    if ((flags & BinarySink.FLAG_THROWABLE) != 0) {
+      buf.append('\n').append(this.readString());
+    }
+    this.out.append(buf).append('\n');
+  }
+
+  /**
+   * Reads the rest of a segment header and forgets the names defined so far.
+   *
+   * @throws IOException
+   *           if the input cannot be read or is invalid.
+   */
+  private void readHeader() throws IOException {
+    final int magic = ((BinarySink.MAGIC >>> 24) << 24)
+                      | (this.in.readUnsignedShort() << 8)
+                      | this.in.readUnsignedByte();
+    if (magic != BinarySink.MAGIC) { throw new IOException("not a binary log file"); }
+    final int version = this.in.readUnsignedByte();
+    if (version != BinarySink.VERSION) { throw new IOException("unsupported version "
+                                                               + version); }
+    this.timestamp = this.in.readLong();
+    this.formats.clear();
+    this.loggers.clear();
+    this.threads.clear();
+  }
+
+  /**
+   * Resolves the number of a name, reading the name if it is inline.
+   *
+   * @param dictionary
+   *          the names of this kind defined so far.
+   * @param number
+   *          the number of the name.
+   * @return may be null.
+   * @throws IOException
+   *           if the input cannot be read or the number is undefined.
+   */
+  private String readName(final List<String> dictionary, final int number) throws IOException {
+    if (number == 0) { return this.readString(); }
+    if (number > dictionary.size()) { throw new IOException("undefined name "
+                                                            + number); }
+    return dictionary.get(number - 1);
+  }
+
+  private long readSignedVarint() throws IOException {
+    final long value = this.readVarint();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Reads a string.
+   *
+   * @return may be null.
+   * @throws IOException
+   *           if the input cannot be read.
+   */
+  private String readString() throws IOException {
+    final int length = (int) this.readVarint() - 1;
+    if (length < 0) { return null; }
+    final char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) this.readVarint();
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Reads a typed value.
+   *
+   * @return may be null.
+   * @throws IOException
+   *           if the input cannot be read or the type is unknown.
+   */
+  private Object readValue() throws IOException {
+    final int type = this.in.readUnsignedByte();
+    switch (type) {
+      case BinarySink.VALUE_NULL:
+        return null;
+      case BinarySink.VALUE_FALSE:
+        return Boolean.FALSE;
+      case BinarySink.VALUE_TRUE:
+        return Boolean.TRUE;
+      case BinarySink.VALUE_INT:
+        return (int) this.readSignedVarint();
+      case BinarySink.VALUE_LONG:
+        return this.readSignedVarint();
+      case BinarySink.VALUE_FLOAT:
+        return this.in.readFloat();
+      case BinarySink.VALUE_DOUBLE:
+        return this.in.readDouble();
+      case BinarySink.VALUE_CHAR:
+        return (char) this.readVarint();
+      case BinarySink.VALUE_STRING:
+        return this.readString();
+      default:
+        throw new IOException("unknown value type " + type);
+    }
+  }
+
+  private long readVarint() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final int b = this.in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) { return value; }
+    }
+    throw new IOException("malformed varint");
+  }
+
+}
@@ -0,0 +1,486 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+
+/**
+ * Writes a compact binary record per event to {@code logs/latest.bin} in the
+ * plugin's data folder, for trace logging that is too voluminous to format as
+ * text. Messages are not formatted: each record holds the time, level, logger,
+ * thread and message format of the event, followed by its arguments as typed
+ * values. Logger names, thread names and message formats are written once per
+ * file and then referred to by number. The files are rendered back into text
+ * by {@link BinaryLogDecoder}. Its thresholds come from
+ * {@code slf4j.binaryLevel} and {@code slf4j.binaryLog.a.b.c}.
+ *
+ * <p>
+ * A file is a sequence of segments, each of which starts with a header: the
+ * {@link #MAGIC} number and the {@link #VERSION} as 4 and 1 bytes, and the time
+ * of the segment as 8 bytes. A segment is started whenever the sink opens or
+ * rolls the file, and the numbering of names starts over in each segment. The
+ * header is followed by entries, each of which starts with a tag byte:
+ * </p>
+ *
+ * <ul>
+ * <li>{@link #TAG_LOGGER}, {@link #TAG_THREAD} or {@link #TAG_FORMAT} - the
+ * definition of the next number of that kind of name, as a string.</li>
+ * <li>{@link #TAG_EVENT} plus the ordinal of the level - an event: the time
+ * since the previous event (or the header) as a signed varint, the numbers of
+ * its logger, thread and format as varints, a byte of {@code FLAG_*} bits, the
+ * argument count as a varint and the arguments as values, then if flagged: the
+ * field count as a varint and pairs of a string and a value; the rendered MDC
+ * as a string; and the rendered throwable as a string.</li>
+ * </ul>
+ *
+ * <p>
+ * A name number of 0 means that the name follows inline as a string, which
+ * happens once a dictionary is full. Varints hold 7 bits per byte, least
+ * significant first; signed varints are zigzag-encoded. Strings are a varint
+ * of the length plus one (0 for null) followed by their characters as
+ * varints. Values are a {@code VALUE_*} byte followed by a varint for integers
+ * and characters, the IEEE bits for floating-point numbers, a string for
+ * strings, and nothing otherwise. Arguments that are none of these are written
+ * as strings rendered like substituted arguments.
+ * </p>
+ *
+ * @see RollingFile
+ */
+final class BinarySink implements LogSink {
+
+  static final int            MAGIC                 = 0x534C3442;
+  static final int            VERSION               = 1;
+  // Entry tags.
+  static final int            TAG_LOGGER            = 1;
+  static final int            TAG_THREAD            = 2;
+  static final int            TAG_FORMAT            = 3;
+  static final int            TAG_EVENT             = 0x10;
+  // Event flags.
+  static final int            FLAG_FIELDS           = 1;
+  static final int            FLAG_MDC              = 2;
+  static final int            FLAG_THROWABLE        = 4;
+  // Value types.
+  static final int            VALUE_NULL            = 0;
+  static final int            VALUE_FALSE           = 1;
+  static final int            VALUE_TRUE            = 2;
+  static final int            VALUE_INT             = 3;
+  static final int            VALUE_LONG            = 4;
+  static final int            VALUE_FLOAT           = 5;
+  static final int            VALUE_DOUBLE          = 6;
+  static final int            VALUE_CHAR            = 7;
+  static final int            VALUE_STRING          = 8;
+
+  // Number of names of each kind that a segment defines, beyond which names
+  // are written inline; bounds the memory used for non-constant formats.
+  private static final int    MAX_DICTIONARY_SIZE   = 4096;
+  // Largest capacity that the record buffer keeps between records.
+  private static final int    MAX_RETAINED_CAPACITY = 64 * 1024;
+  private final RollingFile   file;
+  // The following fields are guarded by the lock of the file.
+  private final Map<String, Integer> formats        = new HashMap<String, Integer>();
+  private long                lastTimestamp;
+  private final Map<String, Integer> loggers        = new HashMap<String, Integer>();
+  private byte[]              record                = new byte[256];
+  private int                 recordLength;
+  // Renders the MDC.
+  private StringBuilder       scratch               = new StringBuilder(64);
+  private boolean             started;
+  private final Map<String, Integer> threads        = new HashMap<String, Integer>();
+  // True while a record is being encoded.
+  private boolean             writing;
+
+  /**
+   * Opens the sink.
+   *
+   * @param directory
+   *          the directory of the log files, created if necessary.
+   * @param maxSize
+   *          the size in bytes at which the file is rolled, or 0 for no limit.
+   * @param interval
+   *          the rolling interval, see {@link RollingFile}.
+   * @param compress
+   *          whether or not rolled files are compressed.
+   * @throws IOException
+   *           if the file cannot be opened.
+   */
+  BinarySink(final File directory, final long maxSize, final int interval,
+             final boolean compress) throws IOException {
+    this.file = new RollingFile(directory, ".bin", maxSize, interval,
+                                compress);
+  }
+
+  @Override
+  public void close() {
+    this.file.close();
+  }
+
+  @Override
+  public void flushIfStale() {
+    this.file.flushIfStale();
+  }
+
+  @Override
+  public Level getThreshold(final BukkitLoggerConfig config,
+                            final String loggerName) {
+    return config.getBinaryLevel(loggerName);
+  }
+
+  /**
+   * Indicates whether or not this sink has the given settings, in which case
+   * it can be kept when the configuration is reloaded.
+   *
+   * @param directory
+   *          the directory of the log files.
+   * @param maxSize
+   *          the size in bytes at which the file is rolled, or 0.
+   * @param interval
+   *          the rolling interval.
+   * @param compress
+   *          whether or not rolled files are compressed.
+   * @return true if all settings are equal.
+   */
+  boolean hasSettings(final File directory, final long maxSize,
+                      final int interval, final boolean compress) {
+    return this.file.hasSettings(directory, maxSize, interval, compress);
+  }
+
+  @Override
+  public boolean isColored() {
+    return false;
+  }
+
+  /**
+   * Only markers that are "off" affect the file.
+   */
+  @Override
+  public boolean isEnabled(final BukkitLoggerConfig config,
+                           final Level threshold, final Level level,
+                           final Marker marker) {
+    if (level.toInt() < threshold.toInt()) { return false; }
+    final MarkerRules rules = config.getMarkerRules();
+    return (marker == null) || (rules == null) || !rules.isOff(marker);
+  }
+
+  @Override
+  public boolean isStructured() {
+    return true;
+  }
+
+  /**
+   * Writes the record of the event; the rendered line is not used. If the
+   * record cannot be written, the next record starts a new segment, since the
+   * names that the abandoned record defined may already be numbered. Events
+   * that are logged while the record is being encoded are not written to the
+   * file, since they would corrupt the record.
+   */
+  @Override
+  public void write(final BukkitLoggerConfig config, final Level level,
+                    final String threadName, final StringBuilder line,
+                    final LogEvent event) {
+    final long now = System.currentTimeMillis();
+    synchronized (this.file) {
+      if (this.writing || !this.file.begin(now)) { return; }
+      this.writing = true;
+      boolean written = false;
+      try {
+        this.recordLength = 0;
+        if (!this.started || (this.file.getSize() == 0)) {
+          this.startSegment(event.getTimestamp());
+        }
+        this.putEvent(event);
+        this.file.put(this.record, 0, this.recordLength);
+        written = true;
+        this.file.end(now, level.toInt() >= Level.WARN.toInt());
+      } catch (final IOException e) {
+        this.file.fail(e);
+      } finally {
+        this.writing = false;
+        if (!written) {
+          this.started = false;
+        }
+        if (this.record.length > BinarySink.MAX_RETAINED_CAPACITY) {
+          this.record = new byte[256];
+        }
+        if (this.scratch.capacity() > BinarySink.MAX_RETAINED_CAPACITY) {
+          this.scratch = new StringBuilder(64);
+        }
+      }
+    }
+  }
+
+  /**
+   * Makes room for more bytes in the record buffer.
+   *
+   * @param count
+   *          the number of bytes about to be appended.
+   */
+  private void ensureCapacity(final int count) {
+    if ((this.recordLength + count) <= this.record.length) { return; }
+    final byte[] grown = new byte[Math.max(this.record.length * 2,
+                                           this.recordLength + count)];
+    System.arraycopy(this.record, 0, grown, 0, this.recordLength);
+    this.record = grown;
+  }
+
+  private void putByte(final int b) {
+    this.ensureCapacity(1);
+    this.record[this.recordLength++] = (byte) b;
+  }
+
+  /**
+   * Appends the encoded event, preceded by the definitions of any names that
+   * it uses for the first time.
+   *
+   * @param event
+   *          the event.
+   */
+  private void putEvent(final LogEvent event) {
+    // Define the names first, since their definitions precede the event.
+    final int logger = this.putName(this.loggers, BinarySink.TAG_LOGGER,
+                                    event.getLogger().getName());
+    final int thread = this.putName(this.threads, BinarySink.TAG_THREAD,
+                                    event.getThreadName());
+    final int format = this.putName(this.formats, BinarySink.TAG_FORMAT,
+                                    event.getMessage());
+    // Like the formatter, treat a trailing throwable as the throwable of the
+    // event rather than as an argument.
+    final PrimitiveType type = event.getPrimitiveType();
+    int count = event.getArgumentCount();
+    if (event.hasTrailingThrowable()) {
+      count--;
+    }
+    this.putByte(BinarySink.TAG_EVENT + event.getLevel().ordinal());
+    final long timestamp = event.getTimestamp();
+    this.putSignedVarint(timestamp - this.lastTimestamp);
+    this.lastTimestamp = timestamp;
+    this.putVarint(logger);
+    this.putVarint(thread);
+    this.putVarint(format);
+    // The flags are filled in once the optional parts are written.
+    final int flagsIndex = this.recordLength;
+    int flags = 0;
+    this.putByte(0);
+    if (logger == 0) {
+      this.putString(event.getLogger().getName());
+    }
+    if (thread == 0) {
+      this.putString(event.getThreadName());
+    }
+    if (format == 0) {
+      this.putString(event.getMessage());
+    }
+    this.putVarint(count);
+    for (int i = 0; i < count; i++) {
+      if (type == null) {
+        this.putValue(event.getArgument(i));
+      } else {
+        this.putPrimitive(type, event.getPrimitive(i));
+      }
+    }
+    final EventFields fields = event.getFields();
+    if (!fields.isEmpty()) {
+      flags |= BinarySink.FLAG_FIELDS;
+      this.putVarint(fields.size());
+      for (int i = 0; i < fields.size(); i++) {
+        this.putString(fields.getKey(i));
+        if (fields.getType(i) == null) {
+          this.putValue(fields.getValue(i));
+        } else {
+          this.putPrimitive(fields.getType(i), fields.getPrimitive(i));
+        }
+      }
+    }
+    if (event.getMdcSize() > 0) {
+      this.scratch.setLength(0);
+      BukkitMDCAdapter.appendTo(this.scratch, event.getMdcKeys(),
+                                event.getMdcValues(), event.getMdcSize());
+      if (this.scratch.length() > 0) {
+        flags |= BinarySink.FLAG_MDC;
+        this.putString(this.scratch);
+      }
+    }
+    // The throwable was rendered, without colors, before the event was
+    // handed to the sinks.
+    final String throwable = event.getThrowableText();
+    if (throwable != null) {
+      flags |= BinarySink.FLAG_THROWABLE;
+      this.putString(throwable);
+    }
+    this.record[flagsIndex] = (byte) flags;
+  }
+
+  private void putFixed(final long value, final int bytes) {
+    this.ensureCapacity(bytes);
+    for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+      this.record[this.recordLength++] = (byte) (value >>> shift);
+    }
+  }
+
+  /**
+   * Returns the number of a name, defining it first if necessary.
+   *
+   * @param dictionary
+   *          the numbers of the names of this kind.
+   * @param tag
+   *          the tag of definitions of this kind.
+   * @param name
+   *          the name, may be null.
+   * @return 0 if the name must be written inline.
+   */
+  private int putName(final Map<String, Integer> dictionary, final int tag,
+                      final String name) {
+    if (name == null) { return 0; }
+    final Integer number = dictionary.get(name);
+    if (number != null) { return number; }
+    if (dictionary.size() >= BinarySink.MAX_DICTIONARY_SIZE) { return 0; }
+    final int defined = dictionary.size() + 1;
+    dictionary.put(name, defined);
+    this.putByte(tag);
+    this.putString(name);
+    return defined;
+  }
+
+  private void putPrimitive(final PrimitiveType type, final long value) {
+    switch (type) {
+      case INT:
+        this.putByte(BinarySink.VALUE_INT);
+        this.putSignedVarint(value);
+        break;
+      case LONG:
+        this.putByte(BinarySink.VALUE_LONG);
+        this.putSignedVarint(value);
+        break;
+      case FLOAT:
+        this.putByte(BinarySink.VALUE_FLOAT);
+        this.putFixed(value, 4);
+        break;
+      case DOUBLE:
+        this.putByte(BinarySink.VALUE_DOUBLE);
+        this.putFixed(value, 8);
+        break;
+      case CHAR:
+        this.putByte(BinarySink.VALUE_CHAR);
+        this.putVarint(value);
+        break;
+      default:
+        this.putByte((value != 0) ? BinarySink.VALUE_TRUE
+                                  : BinarySink.VALUE_FALSE);
+        break;
+    }
+  }
+
+  private void putSignedVarint(final long value) {
+    this.putVarint((value << 1) ^ (value >> 63));
+  }
+
+  /**
+   * Appends a string.
+   *
+   * @param chars
+   *          the characters, may be null.
+   */
+  private void putString(final CharSequence chars) {
+    if (chars == null) {
+      this.putByte(0);
+      return;
+    }
+    final int length = chars.length();
+    this.putVarint(length + 1);
+    // A character takes up to 3 bytes.
+    this.ensureCapacity(length * 3);
+    for (int i = 0; i < length; i++) {
+      final char c = chars.charAt(i);
+      if (c < 0x80) {
+        this.record[this.recordLength++] = (byte) c;
+      } else {
+        this.putVarint(c);
+      }
+    }
+  }
+
+  /**
+   * Appends an object value.
+   *
+   * @param value
+   *          the value, may be null.
+   */
+  private void putValue(final Object value) {
+    if (value == null) {
+      this.putByte(BinarySink.VALUE_NULL);
+    } else if ((value instanceof Integer) || (value instanceof Short)
+               || (value instanceof Byte)) {
+      this.putByte(BinarySink.VALUE_INT);
+      this.putSignedVarint(((Number) value).intValue());
+    } else if (value instanceof Long) {
+      this.putByte(BinarySink.VALUE_LONG);
+      this.putSignedVarint((Long) value);
+    } else if (value instanceof Double) {
+      this.putByte(BinarySink.VALUE_DOUBLE);
+      this.putFixed(Double.doubleToRawLongBits((Double) value), 8);
+    } else if (value instanceof Float) {
+      this.putByte(BinarySink.VALUE_FLOAT);
+      this.putFixed(Float.floatToRawIntBits((Float) value), 4);
+    } else if (value instanceof Boolean) {
+      this.putByte(((Boolean) value) ? BinarySink.VALUE_TRUE
+                                     : BinarySink.VALUE_FALSE);
+    } else if (value instanceof Character) {
+      this.putByte(BinarySink.VALUE_CHAR);
+      this.putVarint((Character) value);
+    } else if (value instanceof String) {
+      this.putByte(BinarySink.VALUE_STRING);
+      this.putString((String) value);
+    } else {
+      // Other arguments were resolved to strings, see
+      // LogEvent.resolveArguments().
+      this.putByte(BinarySink.VALUE_STRING);
+      this.putString(value.toString());
+    }
+  }
+
+  private void putVarint(final long value) {
+    long remaining = value;
+    while ((remaining & ~0x7FL) != 0) {
+      this.putByte((int) ((remaining & 0x7F) | 0x80));
+      remaining >>>= 7;
+    }
+    this.putByte((int) remaining);
+  }
+
+  /**
+   * Appends the header of a new segment and forgets the names defined so far.
+   *
+   * @param timestamp
+   *          the time of the first event of the segment.
+   */
+  private void startSegment(final long timestamp) {
+    this.formats.clear();
+    this.loggers.clear();
+    this.threads.clear();
+    this.putFixed(BinarySink.MAGIC, 4);
+    this.putByte(BinarySink.VERSION);
+    this.putFixed(timestamp, 8);
+    this.lastTimestamp = timestamp;
+    this.started = true;
+  }
+
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import info.ronjenkins.slf4bukkit.LazyArgument;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.helpers.MessageFormatter;
+import org.slf4j.helpers.Util;
+
+/**
+ * Substitutes arguments into SLF4J message patterns exactly like
+ * {@link MessageFormatter}, but appends the result to a caller-supplied buffer
+ * instead of creating a {@code FormattingTuple} and a new string. Patterns are
+ * split only once, see {@link FormatTemplateCache}. The only difference in
+ * output is that {@link LazyArgument}s are rendered as their computed values.
+ */
+final class BufferedMessageFormatter {
+
+  private BufferedMessageFormatter() {}
+
+  /**
+   * Appends a message pattern with two arguments, as
+   * {@link MessageFormatter#format(String, Object, Object)} would format it.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param pattern
+   *          the message pattern, may be null.
+   * @param arg1
+   *          argument #1.
+   * @param arg2
+   *          argument #2.
+   * @return the throwable extracted from the arguments, may be null.
+   */
+  static Throwable format(final StringBuilder buf, final String pattern,
+                          final Object arg1, final Object arg2) {
+    return BufferedMessageFormatter.format(buf, pattern, null, arg1, arg2, 2);
+  }
+
+  /**
+   * Appends a message pattern with any number of arguments, as
+   * {@link MessageFormatter#arrayFormat(String, Object[])} would format it.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param pattern
+   *          the message pattern, may be null.
+   * @param arguments
+   *          the arguments, may be null.
+   * @return the throwable extracted from the arguments, may be null.
+   */
+  static Throwable format(final StringBuilder buf, final String pattern,
+                          final Object[] arguments) {
+    return BufferedMessageFormatter.format(buf, pattern, arguments, null,
+                                           null, (arguments == null) ? -1
+                                                                     : arguments.length);
+  }
+
+  /**
+   * Appends a message pattern with up to four primitive arguments of the same
+   * type, as {@link MessageFormatter} would format their boxed equivalents.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param pattern
+   *          the message pattern, may be null.
+   * @param type
+   *          the type of the arguments.
+   * @param arg1
+   *          argument #1, encoded as described by the type.
+   * @param arg2
+   *          argument #2, encoded as described by the type.
+   * @param arg3
+   *          argument #3, encoded as described by the type.
+   * @param arg4
+   *          argument #4, encoded as described by the type.
+   * @param count
+   *          the number of arguments, 1 to 4.
+   */
+  static void format(final StringBuilder buf, final String pattern,
+                     final PrimitiveType type, final long arg1,
+                     final long arg2, final long arg3, final long arg4,
+                     final int count) {
+    if (pattern == null) {
+      buf.append(pattern);
+      return;
+    }
+    final FormatTemplate template = FormatTemplateCache.get(pattern);
+    final int placeholders = Math.min(count, template.getPlaceholderCount());
+    for (int l = 0; l < placeholders; l++) {
+      template.appendLiteral(buf, l);
+      type.append(buf, (l == 0) ? arg1 : (l == 1) ? arg2 : (l == 2) ? arg3
+                                                                     : arg4);
+    }
+    template.appendTail(buf, count);
+  }
+
+  /**
+   * Appends a message pattern whose arguments are either in an array or in two
+   * separate parameters.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param pattern
+   *          the message pattern, may be null.
+   * @param arguments
+   *          the arguments, or null to use {@code arg1} and {@code arg2}.
+   * @param arg1
+   *          argument #1, if {@code arguments} is null.
+   * @param arg2
+   *          argument #2, if {@code arguments} is null.
+   * @param count
+   *          the number of arguments, or -1 if the argument array is null.
+   * @return the throwable extracted from the arguments, may be null.
+   */
+  private static Throwable format(final StringBuilder buf,
+                                  final String pattern,
+                                  final Object[] arguments,
+                                  final Object arg1, final Object arg2,
+                                  final int count) {
+    // Like MessageFormatter, treat a trailing throwable as the throwable of the
+    // event rather than as an argument.
+    final Object last = (count > 0) ? BufferedMessageFormatter.argument(arguments,
+                                                                        arg1,
+                                                                        arg2,
+                                                                        count - 1)
+                                    : null;
+    final Throwable throwable = (last instanceof Throwable) ? (Throwable) last
+                                                            : null;
+    if ((pattern == null) || (count < 0)) {
+      buf.append(pattern);
+      return throwable;
+    }
+    final int length = (throwable == null) ? count : (count - 1);
+    final FormatTemplate template = FormatTemplateCache.get(pattern);
+    final int placeholders = Math.min(length, template.getPlaceholderCount());
+    for (int l = 0; l < placeholders; l++) {
+      template.appendLiteral(buf, l);
+      BufferedMessageFormatter.appendArgument(buf,
+                                              BufferedMessageFormatter.argument(arguments,
+                                                                                arg1,
+                                                                                arg2,
+                                                                                l),
+                                              null);
+    }
+    template.appendTail(buf, length);
+    return throwable;
+  }
+
+  /**
+   * Returns an argument.
+   *
+   * @param arguments
+   *          the argument array, or null to use {@code arg1} and {@code arg2}.
+   * @param arg1
+   *          argument #1, if {@code arguments} is null.
+   * @param arg2
+   *          argument #2, if {@code arguments} is null.
+   * @param index
+   *          the index of the argument.
+   * @return may be null.
+   */
+  private static Object argument(final Object[] arguments, final Object arg1,
+                                 final Object arg2, final int index) {
+    if (arguments != null) { return arguments[index]; }
+    return (index == 0) ? arg1 : arg2;
+  }
+
+  /**
+   * Appends a single argument exactly as it would be substituted into a
+   * message pattern.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param argument
+   *          the argument, may be null.
+   */
+  static void appendArgument(final StringBuilder buf, final Object argument) {
+    BufferedMessageFormatter.appendArgument(buf, argument, null);
+  }
+
+  /**
+   * Returns an argument in a form that renders the same way but no longer
+   * calls into user code: strings, booleans, characters and the standard
+   * number types are returned as they are, and everything else, including
+   * {@link LazyArgument}s, is rendered to a string.
+   *
+   * @param argument
+   *          the argument, may be null.
+   * @return null if the argument is null.
+   */
+  static Object resolveArgument(final Object argument) {
+    if (argument == null) { return null; }
+    final Class<?> type = argument.getClass();
+    if ((type == String.class) || (type == Boolean.class)
+        || (type == Character.class) || (type == Integer.class)
+        || (type == Long.class) || (type == Short.class)
+        || (type == Byte.class) || (type == Double.class)
+        || (type == Float.class) || (type == BigInteger.class)
+        || (type == BigDecimal.class)) { return argument; }
+    final StringBuilder buf = new StringBuilder(32);
+    BufferedMessageFormatter.appendArgument(buf, argument, null);
+    return buf.toString();
+  }
+
+  /**
+   * Appends an argument, rendering arrays element by element and evaluating
+   * {@link LazyArgument}s.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param argument
+   *          the argument, may be null.
+   * @param seen
+   *          the object arrays that are currently being appended, used to
+   *          detect cycles. May be null if there are none.
+   */
+  private static void appendArgument(final StringBuilder buf,
+                                     final Object argument,
+                                     final List<Object[]> seen) {
+    if (argument == null) {
+      buf.append("null");
+    } else if (argument instanceof LazyArgument) {
+      final Object value;
+      try {
+        value = ((LazyArgument<?>) argument).get();
+      } catch (final Throwable t) {
+        Util.report("SLF4J: Failed get() invocation on an object of type ["
+                    + argument.getClass().getName() + "]", t);
+        buf.append("[FAILED get()]");
+        return;
+      }
+      BufferedMessageFormatter.appendArgument(buf, value, seen);
+    } else if (!argument.getClass().isArray()) {
+      try {
+        buf.append(argument.toString());
+      } catch (final Throwable t) {
+        Util.report("SLF4J: Failed toString() invocation on an object of type ["
+                    + argument.getClass().getName() + "]", t);
+        buf.append("[FAILED toString()]");
+      }
+    } else if (argument instanceof Object[]) {
+      final Object[] array = (Object[]) argument;
+      buf.append('[');
+      if (!BufferedMessageFormatter.containsIdentical(seen, array)) {
+        final List<Object[]> nowSeen = (seen == null) ? new ArrayList<Object[]>(4)
+                                                      : seen;
+        nowSeen.add(array);
+        for (int i = 0; i < array.length; i++) {
+          BufferedMessageFormatter.appendArgument(buf, array[i], nowSeen);
+          if (i != (array.length - 1)) {
+            buf.append(", ");
+          }
+        }
+        nowSeen.remove(nowSeen.size() - 1);
+      } else {
+        buf.append("...");
+      }
+      buf.append(']');
+    } else {
+      BufferedMessageFormatter.appendPrimitiveArray(buf, argument);
+    }
+  }
+
+  /**
+   * Appends an array of primitives.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param array
+   *          an array whose component type is primitive.
+   */
+  private static void appendPrimitiveArray(final StringBuilder buf,
+                                           final Object array) {
+    buf.append('[');
+    final int length = java.lang.reflect.Array.getLength(array);
+    for (int i = 0; i < length; i++) {
+      if (array instanceof boolean[]) {
+        buf.append(((boolean[]) array)[i]);
+      } else if (array instanceof byte[]) {
+        buf.append(((byte[]) array)[i]);
+      } else if (array instanceof char[]) {
+        buf.append(((char[]) array)[i]);
+      } else if (array instanceof short[]) {
+        buf.append(((short[]) array)[i]);
+      } else if (array instanceof int[]) {
+        buf.append(((int[]) array)[i]);
+      } else if (array instanceof long[]) {
+        buf.append(((long[]) array)[i]);
+      } else if (array instanceof float[]) {
+        buf.append(((float[]) array)[i]);
+      } else {
+        buf.append(((double[]) array)[i]);
+      }
+      if (i != (length - 1)) {
+        buf.append(", ");
+      }
+    }
+    buf.append(']');
+  }
+
+  /**
+   * Checks whether a list contains the given array, compared by identity.
+   *
+   * @param list
+   *          the list to search, may be null.
+   * @param array
+   *          the array to look for.
+   * @return false if the list is null.
+   */
+  private static boolean containsIdentical(final List<Object[]> list,
+                                           final Object[] array) {
+    if (list == null) { return false; }
+    for (final Object[] element : list) {
+      if (element == array) { return true; }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import info.ronjenkins.slf4bukkit.LogEventBuilder;
+
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+
+/**
+ * The {@link LogEventBuilder} that is returned for enabled levels. Each thread
+ * reuses one instance, including its {@link LogEvent}, so that building a
+ * message allocates nothing beyond what rendering it requires. A builder that
+ * is obtained while the thread's instance is still busy, e.g. from an
+ * argument's {@code toString()} method or after a builder was abandoned
+ * without calling {@code log()}, is a fresh one, which then becomes the
+ * thread's instance. The busy builder stays usable, but is not reused.
+ */
+final class BukkitLogEventBuilder implements LogEventBuilder {
+
+  private static final ThreadLocal<BukkitLogEventBuilder> BUILDERS = new ThreadLocal<BukkitLogEventBuilder>() {
+
+                                                                     @Override
+                                                                     protected BukkitLogEventBuilder initialValue() {
+                                                                       return new BukkitLogEventBuilder();
+                                                                     }
+                                                                   };
+  // The event that is handed to the logger.
+  private final LogEvent                                  event    = new LogEvent();
+  private final EventFields                               fields   = new EventFields();
+  private Level                                           level;
+  // Whether or not the level and limits are checked when the event is logged,
+  // once the marker is known.
+  private boolean                                         deferred;
+  // Null while this builder is idle.
+  private BukkitLoggerAdapter                             logger;
+  private Marker                                          marker;
+  private Throwable                                       throwable;
+
+  private BukkitLogEventBuilder() {}
+
+  /**
+   * Returns a builder for the calling thread.
+   *
+   * @param logger
+   *          the logger that builds the event.
+   * @param level
+   *          the level of the event.
+   * @param deferred
+   *          false if the caller has already checked the level and limits of
+   *          the event, true if the builder has to check them.
+   * @return never null.
+   */
+  static BukkitLogEventBuilder obtain(final BukkitLoggerAdapter logger,
+                                      final Level level, final boolean deferred) {
+    BukkitLogEventBuilder builder = BukkitLogEventBuilder.BUILDERS.get();
+    if (builder.logger != null) {
+      builder = new BukkitLogEventBuilder();
+      BukkitLogEventBuilder.BUILDERS.set(builder);
+    }
+    builder.logger = logger;
+    builder.level = level;
+    builder.deferred = deferred;
+    return builder;
+  }
+
+  @Override
+  public LogEventBuilder cause(final Throwable throwable) {
+    this.throwable = throwable;
+    return this;
+  }
+
+  @Override
+  public LogEventBuilder field(final String key, final boolean value) {
+    this.fields.add(key, PrimitiveType.BOOLEAN, value ? 1 : 0);
+    return this;
+  }
+
+  @Override
+  public LogEventBuilder field(final String key, final double value) {
+    this.fields.add(key, PrimitiveType.DOUBLE,
+                    Double.doubleToRawLongBits(value));
+    return this;
+  }
+
+  @Override
+  public LogEventBuilder field(final String key, final int value) {
+    this.fields.add(key, PrimitiveType.INT, value);
+    return this;
+  }
+
+  @Override
+  public LogEventBuilder field(final String key, final long value) {
+    this.fields.add(key, PrimitiveType.LONG, value);
+    return this;
+  }
+
+  @Override
+  public LogEventBuilder field(final String key, final Object value) {
+    this.fields.add(key, value);
+    return this;
+  }
+
+  @Override
+  public void log(final String msg) {
+    if (this.prepare(msg) == null) { return; }
+    this.log();
+  }
+
+  @Override
+  public void log(final String format, final Object arg) {
+    final LogEvent prepared = this.prepare(format);
+    if (prepared == null) { return; }
+    prepared.setArguments(arg, null, 1);
+    this.log();
+  }
+
+  @Override
+  public void log(final String format, final Object arg1, final Object arg2) {
+    final LogEvent prepared = this.prepare(format);
+    if (prepared == null) { return; }
+    prepared.setArguments(arg1, arg2, 2);
+    this.log();
+  }
+
+  @Override
+  public void log(final String format, final Object... arguments) {
+    final LogEvent prepared = this.prepare(format);
+    if (prepared == null) { return; }
+    prepared.setArguments(arguments);
+    this.log();
+  }
+
+  @Override
+  public LogEventBuilder marker(final Marker marker) {
+    this.marker = marker;
+    return this;
+  }
+
+  /** Hands the prepared event to the logger and makes this builder idle. */
+  private void log() {
+    try {
+      this.logger.log(this.event);
+    } finally {
+      this.release();
+    }
+  }
+
+  /**
+   * Populates the event from this builder.
+   *
+   * @param message
+   *          the message or message format of the event.
+   * @return the event, or null if this builder was already used or the event
+   *         must not be logged.
+   */
+  private LogEvent prepare(final String message) {
+    if (this.logger == null) { return null; }
+    if (this.deferred
+        && (!this.logger.isLevelEnabled(this.level, this.marker) || this.logger.isLimited())) {
+      this.release();
+      return null;
+    }
+    this.event.set(this.logger, this.level, this.marker, message,
+                   this.throwable, Thread.currentThread().getName());
+    this.event.getFields().copyFrom(this.fields);
+    return this.event;
+  }
+
+  /** Makes this builder idle. */
+  private void release() {
+    this.event.clear();
+    this.fields.clear();
+    this.logger = null;
+    this.level = null;
+    this.marker = null;
+    this.throwable = null;
+  }
+
+}
@@ -44,32 +44,41 @@
  */
 package org.slf4j.impl;
 
-import info.ronjenkins.slf4bukkit.ColorMapper;
-import info.ronjenkins.slf4bukkit.ColorMapperFactory;
+import info.ronjenkins.slf4bukkit.AppendingColorMapper;
 import info.ronjenkins.slf4bukkit.ColorMarker;
+import info.ronjenkins.slf4bukkit.ColorProfile;
+import info.ronjenkins.slf4bukkit.ColorStringBuilder;
+import info.ronjenkins.slf4bukkit.ExtendedLogger;
+import info.ronjenkins.slf4bukkit.LazyArgument;
+import info.ronjenkins.slf4bukkit.LogEventBuilder;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
-import org.apache.commons.lang.exception.ExceptionUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.plugin.Plugin;
 import org.slf4j.Logger;
 import org.slf4j.Marker;
 import org.slf4j.event.Level;
-import org.slf4j.helpers.FormattingTuple;
-import org.slf4j.helpers.MessageFormatter;
+import org.slf4j.helpers.Util;
 import org.yaml.snakeyaml.Yaml;
 
-import com.google.common.collect.ImmutableMap;
-
 /**
  * <p>
  * A merger of SLF4J's {@code SimpleLogger} and {@code JDK14LoggerAdapter},
@@ -120,6 +129,52 @@ import com.google.common.collect.ImmutableMap;
  * programmatically via methods in this class, {@link ColorMarker}s always
  * override these config values.</li>
  *
+ * <li>{@code slf4j.colorProfile} - The escape codes that colors are mapped to.
+ * Must be one of "plain" (no colors), "ansi16" (the 8 standard ANSI colors plus
+ * bold), "ansi256" (the 256-color xterm palette) or "trueColor" (exact 24-bit
+ * colors), case-insensitive. All profiles other than "plain" require JAnsi. If
+ * unspecified or given any other value, "ansi16" is used if JAnsi is available,
+ * otherwise "plain". See also {@link ColorProfile}.</li>
+ *
+ * <li>{@code slf4j.stackTraceDepth} - The maximum number of stack frames shown
+ * for each throwable in a logged cause chain. Frames that are shared with the
+ * enclosing throwable are always left out, as with
+ * {@link Throwable#printStackTrace()}. If unspecified, zero or given any other
+ * value, all frames are shown.</li>
+ *
+ * <li>{@code slf4j.collapsePackages} - A list of packages, such as
+ * {@code net.minecraft.server}, whose consecutive stack frames are collapsed
+ * into the first frame and a count. Subpackages are included. If unspecified,
+ * no frames are collapsed.</li>
+ *
+ * <li>{@code slf4j.duplicateTraceWindow} - The number of milliseconds for which
+ * a stack trace that was printed in full suppresses its repeats. A throwable
+ * with the same types and top stack frames as such a trace, regardless of
+ * its message, is logged as a single line such as
+ * "(same trace as #12, seen 57 times)"; full traces are numbered accordingly.
+ * If unspecified, zero or given any other value, every stack trace is printed
+ * in full.</li>
+ *
+ * <li>{@code slf4j.repeatWindow} - Set to a number of milliseconds to collapse
+ * consecutive identical lines of a logger (same level and message, without a
+ * throwable). The first line is printed; its repeats are held back and
+ * counted, and "Last message repeated N more times" is printed when the
+ * logger logs a different line or shortly after the window has passed, after
+ * which a repeat is printed again. If unspecified, zero or given any other
+ * value, every line is printed.</li>
+ *
+ * <li>{@code slf4j.mdcKeys} - A list of {@link org.slf4j.MDC MDC} keys whose
+ * values are appended to each message as "key=value", in this order. Keys
+ * that are not set are left out. In asynchronous mode, the values are those
+ * of the logging thread at the time of the logging call. See also
+ * {@link BukkitMDCAdapter#push(String, String)}. If unspecified, no MDC
+ * values are shown.</li>
+ *
+ * <li>{@code slf4j.mdcInheritance} - Set to {@code true} to let new threads
+ * start with the MDC of the thread that created them, which is only copied
+ * when either thread modifies it. If unspecified or given any other value,
+ * defaults to {@code false}.</li>
+ *
  * <li>{@code slf4j.log.<em>a.b.c</em>} - Logging detail level for an SLF4Bukkit
  * logger instance in this plugin named "a.b.c". Right-side value must be one of
  * "trace", "debug", "info", "warn", or "error" (case-insensitive). When a
@@ -127,9 +182,133 @@ import com.google.common.collect.ImmutableMap;
  * property. If unspecified or given any other value, the level of the nearest
  * parent logger will be used. If no parent logger level is set, then the value
  * specified by {@code slf4j.defaultLogLevel} for this plugin will be used.</li>
+ *
+ * <li>{@code slf4j.markers.<em>NAME</em>} - Logging detail level for all
+ * messages whose marker is named "NAME" or references such a marker, in all
+ * loggers. Right-side value must be one of the values allowed for
+ * {@code slf4j.log.<em>a.b.c</em>}, or "off" to suppress these messages. The
+ * most verbose level of a message's markers replaces the level of its logger,
+ * unless one of them is "off". Invalid values are ignored. Markers obtained
+ * from {@link org.slf4j.MarkerFactory} are checked without walking their
+ * references.</li>
+ *
+ * <li>{@code slf4j.sample.<em>a.b.c</em>} - Logs only 1 in N messages of the
+ * loggers named "a.b.c" or below it, where N is the right-side value (an
+ * integer greater than 1), regardless of their level. The count is shared by
+ * all of these loggers. Invalid values are ignored. Like levels, the nearest
+ * configured ancestor applies.</li>
+ *
+ * <li>{@code slf4j.rateLimit.<em>a.b.c</em>} - Logs at most N messages per
+ * second, minute or hour from the loggers named "a.b.c" or below it, shared
+ * by all of these loggers; the right-side value is e.g. "50/s", "100/m" or
+ * "10/h" and allows bursts of up to N messages. Applies after sampling.
+ * Invalid values are ignored. Like levels, the nearest configured ancestor
+ * applies. Samplers and rate limits are checked right after the level check,
+ * before any formatting; the number of messages that each of them suppressed
+ * is available from {@link #getSuppressedCounts()}.</li>
+ *
+ * <li>{@code slf4j.async} - Set to {@code true} to log messages on a
+ * background thread. Logging calls then only queue the message, and the
+ * background thread substitutes arguments, applies colors and sends the
+ * message to Bukkit. Because arguments are formatted later, mutable arguments
+ * must not be modified after they have been logged. What happens when the
+ * queue is full is configured by {@code slf4j.asyncPolicy.LEVEL}. See also
+ * {@link #shutdown()}. If unspecified or given any other value, defaults to
+ * {@code false}.</li>
+ *
+ * <li>{@code slf4j.asyncBufferSize} - The number of messages that can be
+ * queued in asynchronous mode, rounded up to the next power of two. If
+ * unspecified or given any other value, defaults to {@code 8192}.</li>
+ *
+ * <li>{@code slf4j.asyncPolicy.LEVEL} - What to do with a message of this level
+ * when the asynchronous queue is full. Must be one of "block" (wait for the
+ * background thread), "dropNewest" (drop the message), "dropOldest" (drop the
+ * oldest queued message instead) or "dropEarly" (drop the message as soon as
+ * the queue is three quarters full, keeping the remaining room for other
+ * levels). Both keys and values in this section are treated as
+ * case-insensitive. Invalid entries are ignored. Default values are:
+ * trace=dropEarly, debug=dropEarly, others=block. The number of dropped
+ * messages is logged every 10 seconds, and is available from
+ * {@link #getAsyncDropCounts()}.</li>
+ *
+ * <li>{@code slf4j.asyncBlockTimeout} - The maximum number of milliseconds that
+ * a logging call waits for room in the asynchronous queue, regardless of the
+ * policy. The message is dropped if the queue is still full afterwards. Once a
+ * call has timed out, further calls drop their messages without waiting until
+ * the background thread logs another message. If unspecified or given any
+ * other value, defaults to {@code 100}.</li>
+ *
+ * <li>{@code slf4j.asyncFlushTimeout} - The number of milliseconds to wait for
+ * queued messages to be logged when asynchronous mode is stopped. If
+ * unspecified or given any other value, defaults to {@code 1000}.</li>
+ *
+ * <li>{@code slf4j.lowGarbage} - Set to {@code true} to format messages into
+ * buffers that each thread reuses, so that logging a message allocates little
+ * more than the final string that is sent to Bukkit. The buffers are kept by
+ * every thread that logs, until that thread ends, even after the plugin is
+ * disabled; only enable this if the plugin is not meant to be reloaded at
+ * runtime. If unspecified or given any other value, defaults to
+ * {@code false}.</li>
+ *
+ * <li>{@code slf4j.fileLevel} - Also write messages of this level or above to
+ * {@code logs/latest.log} in the plugin's data folder, without going through
+ * Bukkit's logger. Must be one of the values allowed for
+ * {@code slf4j.defaultLogLevel}. This level applies to all loggers,
+ * independently of {@code slf4j.log.<em>a.b.c</em>}, and only markers that are
+ * "off" affect it. Lines are written with a timestamp, the thread name and the
+ * level, and without colors. If unspecified or given any other value, no file
+ * is written.</li>
+ *
+ * <li>{@code slf4j.fileMaxSize} - The size at which the log file is rolled
+ * over, e.g. "512KB", "10MB" or "1GB". Rolled files are named after the date
+ * and a counter, e.g. {@code 2016-03-12-1.log}. If unspecified or given any
+ * other value, defaults to {@code 10MB}.</li>
+ *
+ * <li>{@code slf4j.fileRollInterval} - Also roll the log file over when the
+ * hour or day changes: "hourly", "daily" or "never". If unspecified or given
+ * any other value, defaults to {@code daily}.</li>
+ *
+ * <li>{@code slf4j.fileCompress} - Set to {@code false} to keep rolled files
+ * uncompressed. Otherwise, they are compressed with gzip in the background. If
+ * unspecified or given any other value, defaults to {@code true}.</li>
+ *
+ * <li>{@code slf4j.jsonLevel} - Also write messages of this level or above to
+ * {@code logs/latest.jsonl} in the plugin's data folder, one JSON object per
+ * line. Each object holds the timestamp, level, logger, thread, markers, the
+ * unformatted message, its arguments, any fields, the MDC and the throwable.
+ * Must be one of the values allowed for {@code slf4j.defaultLogLevel}. This
+ * file is rolled over like {@code logs/latest.log}. If unspecified or given any
+ * other value, no JSON file is written unless a
+ * {@code slf4j.jsonLog.<em>a.b.c</em>} key enables it.</li>
+ *
+ * <li>{@code slf4j.jsonLog.<em>a.b.c</em>} - The threshold of the JSON file for
+ * the named logger and its descendants, overriding {@code slf4j.jsonLevel}.
+ * Must be one of the values allowed for {@code slf4j.defaultLogLevel}.</li>
+ *
+ * <li>{@code slf4j.binaryLevel} - Also write messages of this level or above to
+ * {@code logs/latest.bin} in the plugin's data folder, in a compact binary
+ * format that records the unformatted message and its arguments, for tracing
+ * that is too voluminous to format. The files are rendered as text by running
+ * {@link BinaryLogDecoder}. Must be one of the values allowed for
+ * {@code slf4j.defaultLogLevel}. This file is rolled over like
+ * {@code logs/latest.log}. If unspecified or given any other value, no binary
+ * file is written unless a {@code slf4j.binaryLog.<em>a.b.c</em>} key enables
+ * it.</li>
+ *
+ * <li>{@code slf4j.binaryLog.<em>a.b.c</em>} - The threshold of the binary file
+ * for the named logger and its descendants, overriding
+ * {@code slf4j.binaryLevel}. Must be one of the values allowed for
+ * {@code slf4j.defaultLogLevel}.</li>
  * </ul>
  *
  * <p>
+ * Messages are written to the server console and, if enabled, to the plugin's
+ * log file, JSON file and binary file. Each destination has its own
+ * threshold, and a message is enabled if any destination accepts it. It is
+ * then rendered once and handed to every destination that accepts it.
+ * </p>
+ *
+ * <p>
  * SLF4J messages at level {@code TRACE} or {@code DEBUG} are logged to Bukkit
  * at level {@code INFO} because Bukkit does not enable any levels higher than
  * {@code INFO}. Therefore, only SLF4J messages at level {@code TRACE} or
@@ -152,22 +331,29 @@ import com.google.common.collect.ImmutableMap;
  * </p>
  *
  * <ul>
- * <li>uses {@link Bukkit#getLogger()} instead of {@link Plugin#getLogger()}.</li>
- * <li>uses the default configuration values (see above).</li>
- * <li>attempts to initialize itself upon every logging call until the plugin is
- * retrievable from Bukkit's plugin manager, at which point SLF4Bukkit is
- * considered to be <i>initialized</i>. Once initialized,
+ * <li>considers all logging levels to be enabled, and buffers up to 1024
+ * messages in memory instead of logging them. Further messages are discarded,
+ * and the number of discarded messages is reported once SLF4Bukkit is
+ * initialized.</li>
+ * <li>looks for the plugin in Bukkit's plugin manager at most once every 50
+ * milliseconds, during a logging call. Once the plugin is retrievable,
+ * SLF4Bukkit is considered to be <i>initialized</i>: the buffered messages
+ * that the configuration enables are logged as if they had been logged right
+ * then, and from then on
  * {@link Plugin#getLogger()} and {@link Plugin#getConfig() the plugin YAML
  * configuration values} are used.</li>
+ * <li>gives up on the plugin if it is still not retrievable 10 seconds after
+ * the first message was buffered, e.g. because its constructor failed. The
+ * buffered messages, and any messages logged afterwards, are then logged to
+ * Bukkit's server logger with the default settings.</li>
  * </ul>
  *
  * <p>
- * For this reason, it is strongly recommended that you not emit any log
- * messages via SLF4Bukkit until your plugin's {@link Plugin#onLoad() onLoad()}
- * method has begun execution. (You can safely log messages inside the
- * {@code onLoad()} method, because your plugin is registered by that time.)
- * Logging inside static initializers, the plugin class constructor and other
- * pre-plugin-registration areas of your code is discouraged.
+ * To initialize SLF4Bukkit as early as possible, call {@link #init(boolean)}
+ * at the beginning of your plugin's {@link Plugin#onLoad() onLoad()} method,
+ * since your plugin is registered by that time. If {@code plugin.yml} cannot be
+ * read, SLF4Bukkit is never initialized, and instead logs all messages to
+ * {@link Bukkit#getLogger()} using the default configuration values.
  * </p>
  *
  * <p>
@@ -176,17 +362,26 @@ import com.google.common.collect.ImmutableMap;
  * </p>
  *
  * <p>
- * This logger supports only {@link ColorMarker}s, which are used to format the
- * logged message and throwable. All other marker types are ignored. The usage
- * of markers does not affect whether or not a given logging level is enabled.
+ * Besides the SLF4J {@link Logger} methods, this logger implements
+ * {@link ExtendedLogger}, whose overloads take primitive format arguments
+ * without boxing them. Use
+ * {@link BukkitLoggerFactory#getExtendedLogger(String)} to obtain it with that
+ * type.
+ * </p>
+ *
+ * <p>
+ * {@link ColorMarker}s are used to format the logged message and throwable.
+ * Markers of any type, including {@link ColorMarker}s, affect whether or not
+ * a given logging level is enabled only through {@code slf4j.markers}.
  * </p>
  *
  * <p>
  * When executed on a Bukkit implementation that does not contain the JAnsi
  * library (e.g. PaperSpigot), all color-related functionality is silently
- * ignored. Any messages logged in such an environment by SLF4Bukkit will have
- * any {@link ChatColor} values stripped. SLF4Bukkit does not emit any warnings
- * when executed in an environment where JAnsi is not available.
+ * ignored, regardless of {@code slf4j.colorProfile}. Any messages logged in
+ * such an environment by SLF4Bukkit will have any {@link ChatColor} values
+ * stripped. SLF4Bukkit does not emit any warnings when executed in an
+ * environment where JAnsi is not available.
  * </p>
  *
  * @author Ceki G&uuml;lc&uuml;
@@ -197,38 +392,43 @@ import com.google.common.collect.ImmutableMap;
  * @author Peter Royal
  * @author Ronald Jack Jenkins Jr.
  */
-public final class BukkitLoggerAdapter implements Logger {
-
-  // Plugin reference.
-  private static transient Plugin              BUKKIT_PLUGIN;
-  private static transient String              BUKKIT_PLUGIN_NAME;
-  // Configuration parameters.
-  private static final String                  CONFIG_FALLBACK_DEFAULT_LOG_LEVEL   = "info";
-  private static final Map<Level, ColorMarker> CONFIG_FALLBACK_LEVEL_COLORS        = BukkitLoggerAdapter.fallbackLevelColors();
-  private static final boolean                 CONFIG_FALLBACK_SHOW_HEADER         = false;
-  private static final boolean                 CONFIG_FALLBACK_SHOW_LOG_NAME       = false;
-  private static final boolean                 CONFIG_FALLBACK_SHOW_SHORT_LOG_NAME = true;
-  private static final boolean                 CONFIG_FALLBACK_SHOW_THREAD_NAME    = false;
-  private static final String                  CONFIG_KEY_DEFAULT_LOG_LEVEL        = "slf4j.defaultLogLevel";
-  private static final String                  CONFIG_KEY_LEVEL_COLORS             = "slf4j.colors";
-  private static final String                  CONFIG_KEY_PREFIX_LOG               = "slf4j.log.";
-  private static final String                  CONFIG_KEY_SHOW_HEADER              = "slf4j.showHeader";
-  private static final String                  CONFIG_KEY_SHOW_LOG_NAME            = "slf4j.showLogName";
-  private static final String                  CONFIG_KEY_SHOW_SHORT_LOG_NAME      = "slf4j.showShortLogName";
-  private static final String                  CONFIG_KEY_SHOW_THREAD_NAME         = "slf4j.showThreadName";
-  private static Level                         CONFIG_VALUE_DEFAULT_LOG_LEVEL;
-  private static Map<Level, ColorMarker>       CONFIG_VALUE_LEVEL_COLORS;
-  private static boolean                       CONFIG_VALUE_SHOW_HEADER;
-  private static boolean                       CONFIG_VALUE_SHOW_LOG_NAME;
-  private static boolean                       CONFIG_VALUE_SHOW_SHORT_LOG_NAME;
-  private static boolean                       CONFIG_VALUE_SHOW_THREAD_NAME;
-  // Initialization lock.
-  private static final Object                  INITIALIZATION_LOCK                 = new Object();
+public final class BukkitLoggerAdapter implements ExtendedLogger {
+
+  // Current configuration snapshot. Readers never lock; writers publish a
+  // complete replacement snapshot.
+  private static final AtomicReference<BukkitLoggerConfig> CONFIG                   = new AtomicReference<BukkitLoggerConfig>(BukkitLoggerConfig.load(null));
+  // Plugin name, read from plugin.yml when this class is loaded. Null if it
+  // cannot be determined, in which case SLF4Bukkit never becomes initialized.
+  private static final String                              BUKKIT_PLUGIN_NAME       = BukkitLoggerAdapter.readPluginName();
+  // Minimum time between attempts to find the plugin while uninitialized.
+  private static final long                                BIND_RETRY_INTERVAL      = TimeUnit.MILLISECONDS.toNanos(50);
+  private static volatile long                             NEXT_BIND_ATTEMPT        = System.nanoTime();
+  // Events logged while uninitialized, replayed once initialized.
+  private static final int                                 PENDING_EVENTS_CAPACITY  = 1024;
+  private static final Queue<LogEvent>                     PENDING_EVENTS           = new ConcurrentLinkedQueue<LogEvent>();
+  private static final AtomicInteger                       PENDING_EVENTS_SIZE      = new AtomicInteger();
+  private static final AtomicInteger                       PENDING_EVENTS_DISCARDED = new AtomicInteger();
+  // How long events are buffered before they are logged without the plugin.
+  private static final long                                PENDING_EVENTS_TIMEOUT   = TimeUnit.SECONDS.toMillis(10);
+  private static final AtomicBoolean                       PENDING_EVENTS_WATCHED   = new AtomicBoolean();
+  // Set once the plugin did not become available in time.
+  private static volatile boolean                          PENDING_EVENTS_EXPIRED   = false;
+  // Background logging thread, if asynchronous mode is enabled.
+  private static final AtomicReference<AsyncLogDispatcher> ASYNC_DISPATCHER         = new AtomicReference<AsyncLogDispatcher>();
+  // Destinations of log lines: the console, followed by the enabled files.
+  private static final AtomicReference<List<LogSink>>      SINKS                    = new AtomicReference<List<LogSink>>(Collections.<LogSink> singletonList(ConsoleSink.INSTANCE));
+  // Background flushing thread, if files are written synchronously.
+  private static final AtomicReference<SinkFlusher>        SINK_FLUSHER             = new AtomicReference<SinkFlusher>();
   // The logger name.
-  private final String                         name;
+  private final String                                     name;
   // The short name of this simple log instance
-  private final ColorMapper                    mapper                              = ColorMapperFactory.create();
-  private transient String                     shortLogName                        = null;
+  private transient String                                 shortLogName             = null;
+  // Pre-rendered line prefixes for the current configuration snapshot.
+  private transient LinePrefixes                           linePrefixes             = null;
+  // Samplers and rate limits for the current configuration snapshot.
+  private transient LogLimits                              logLimits                = null;
+  // Thresholds of all sinks for the current configuration snapshot.
+  private transient SinkLevels                             sinkLevels               = null;
 
   // NOTE: BukkitPluginLoggerAdapter constructor should have only package access
   // so that only BukkitPluginLoggerFactory be able to create one.
@@ -245,275 +445,604 @@ public final class BukkitLoggerAdapter implements Logger {
    *          reloading the plugin config.
    */
   public static void init(final boolean reinitialize) {
-    synchronized (BukkitLoggerAdapter.INITIALIZATION_LOCK) {
-      // Do not re-initialize unless requested.
-      if (reinitialize) {
-        BukkitLoggerAdapter.BUKKIT_PLUGIN = null;
-        BukkitLoggerAdapter.BUKKIT_PLUGIN_NAME = null;
-      } else if (BukkitLoggerAdapter.BUKKIT_PLUGIN != null) { return; }
-      // Get a reference to the plugin in this classloader.
-      if (BukkitLoggerAdapter.BUKKIT_PLUGIN_NAME == null) {
-        InputStream pluginYmlFile = null;
-        try {
-          pluginYmlFile = BukkitLoggerAdapter.class.getClassLoader()
-                                                   .getResource("plugin.yml")
-                                                   .openStream();
-          final Yaml yaml = new Yaml();
-          @SuppressWarnings("rawtypes")
-          final Map pluginYml = (Map) yaml.load(pluginYmlFile);
-          BukkitLoggerAdapter.BUKKIT_PLUGIN_NAME = (String) pluginYml.get("name");
-        } catch (final IOException e) {
-          throw new IllegalStateException(e);
-        } finally {
-          if (pluginYmlFile != null) {
-            try {
-              pluginYmlFile.close();
-            } catch (final IOException e) {
-              e.printStackTrace();
-            }
-          }
+    BukkitLoggerConfig current = BukkitLoggerAdapter.CONFIG.get();
+    // Do not re-initialize unless requested.
+    if (!reinitialize && current.isInitialized()) { return; }
+    // Try to get the plugin. The logging system will be considered
+    // uninitialized until this becomes non-null. While it is null, the Bukkit
+    // server logger will be used instead of the plugin logger, and all
+    // default configuration options will be used.
+    final String pluginName = BukkitLoggerAdapter.BUKKIT_PLUGIN_NAME;
+    final Plugin plugin = (pluginName == null) ? null
+                                               : Bukkit.getPluginManager()
+                                                       .getPlugin(pluginName);
+    // While the plugin is unavailable, the default values are used every time,
+    // so there is nothing to replace.
+    if (!reinitialize && (plugin == null)) { return; }
+    // Publish the new snapshot. If another thread published a snapshot in the
+    // meantime, only a requested reinitialization overrides it; this ensures
+    // that reloaded config values always win.
+    do {
+      final BukkitLoggerConfig next = BukkitLoggerConfig.load(plugin);
+      if (BukkitLoggerAdapter.CONFIG.compareAndSet(current, next)) {
+        BukkitLoggerAdapter.flushRepeats(current, true);
+        BukkitMDCAdapter.configure(next);
+        BukkitLoggerAdapter.configureSinks(next);
+        BukkitLoggerAdapter.configureAsyncDispatcher(next);
+        BukkitLoggerAdapter.configureSinkFlusher(next);
+        if (next.isInitialized()) {
+          BukkitLoggerAdapter.replayPendingEvents(next);
         }
+        return;
       }
-      // Try to get the plugin. The logging system will be considered
-      // uninitialized until this becomes non-null. While it is null, the Bukkit
-      // server logger will be used instead of the plugin logger, and all
-      // default configuration options will be used.
-      BukkitLoggerAdapter.BUKKIT_PLUGIN = Bukkit.getPluginManager()
-                                                .getPlugin(BukkitLoggerAdapter.BUKKIT_PLUGIN_NAME);
-      // Get the configuration values.
-      // 1. Look in the plugin's on-disk config.
-      // 2. If the value is absent, use the plugin's built-in config.
-      // 3. If the value is absent, use the default values hardcoded above.
-      // (1 and 2 are handled by using the Bukkit API.)
-      BukkitLoggerAdapter.CONFIG_VALUE_DEFAULT_LOG_LEVEL = BukkitLoggerAdapter.stringToLevel(BukkitLoggerAdapter.getStringProperty(BukkitLoggerAdapter.CONFIG_KEY_DEFAULT_LOG_LEVEL,
-                                                                                                                                   BukkitLoggerAdapter.CONFIG_FALLBACK_DEFAULT_LOG_LEVEL));
-      if (BukkitLoggerAdapter.CONFIG_VALUE_DEFAULT_LOG_LEVEL == null) {
-        BukkitLoggerAdapter.CONFIG_VALUE_DEFAULT_LOG_LEVEL = BukkitLoggerAdapter.stringToLevel(BukkitLoggerAdapter.CONFIG_FALLBACK_DEFAULT_LOG_LEVEL);
-      }
-      BukkitLoggerAdapter.CONFIG_VALUE_LEVEL_COLORS = BukkitLoggerAdapter.getLevelColorsMap(BukkitLoggerAdapter.CONFIG_KEY_LEVEL_COLORS,
-                                                                                            BukkitLoggerAdapter.CONFIG_FALLBACK_LEVEL_COLORS);
-      BukkitLoggerAdapter.CONFIG_VALUE_SHOW_HEADER = BukkitLoggerAdapter.getBooleanProperty(BukkitLoggerAdapter.CONFIG_KEY_SHOW_HEADER,
-                                                                                            BukkitLoggerAdapter.CONFIG_FALLBACK_SHOW_HEADER);
-      BukkitLoggerAdapter.CONFIG_VALUE_SHOW_LOG_NAME = BukkitLoggerAdapter.getBooleanProperty(BukkitLoggerAdapter.CONFIG_KEY_SHOW_LOG_NAME,
-                                                                                              BukkitLoggerAdapter.CONFIG_FALLBACK_SHOW_LOG_NAME);
-      BukkitLoggerAdapter.CONFIG_VALUE_SHOW_SHORT_LOG_NAME = BukkitLoggerAdapter.getBooleanProperty(BukkitLoggerAdapter.CONFIG_KEY_SHOW_SHORT_LOG_NAME,
-                                                                                                    BukkitLoggerAdapter.CONFIG_FALLBACK_SHOW_SHORT_LOG_NAME);
-      BukkitLoggerAdapter.CONFIG_VALUE_SHOW_THREAD_NAME = BukkitLoggerAdapter.getBooleanProperty(BukkitLoggerAdapter.CONFIG_KEY_SHOW_THREAD_NAME,
-                                                                                                 BukkitLoggerAdapter.CONFIG_FALLBACK_SHOW_THREAD_NAME);
+      current = BukkitLoggerAdapter.CONFIG.get();
+    } while (reinitialize || !current.isInitialized());
+  }
+
+  /**
+   * Stops asynchronous logging, if enabled, and waits for all pending messages
+   * to be logged. The maximum wait time is given by
+   * {@code slf4j.asyncFlushTimeout}. Messages logged afterwards are logged
+   * synchronously until SLF4Bukkit is reinitialized.
+   *
+   * <p>
+   * Asynchronous logging stops by itself shortly after the plugin is disabled,
+   * but plugins that enable it should call this method at the end of their
+   * {@link Plugin#onDisable() onDisable()} method, so that no messages are lost
+   * when the server shuts down.
+   * </p>
+   *
+   * @return true if all pending messages were logged in time.
+   */
+  public static boolean shutdown() {
+    final AsyncLogDispatcher dispatcher = BukkitLoggerAdapter.ASYNC_DISPATCHER.getAndSet(null);
+    final boolean flushed = (dispatcher == null)
+                            || dispatcher.stop(BukkitLoggerAdapter.CONFIG.get()
+                                                                         .getAsyncFlushTimeout());
+    final SinkFlusher flusher = BukkitLoggerAdapter.SINK_FLUSHER.getAndSet(null);
+    if (flusher != null) {
+      flusher.stop();
     }
+    BukkitLoggerAdapter.flushRepeats(BukkitLoggerAdapter.CONFIG.get(), true);
+    final List<LogSink> console = Collections.<LogSink> singletonList(ConsoleSink.INSTANCE);
+    final List<LogSink> sinks = BukkitLoggerAdapter.SINKS.getAndSet(console);
+    for (final LogSink sink : sinks) {
+      sink.close();
+    }
+    return flushed;
   }
 
   /**
-   * Returns the fallback map of logging levels to their default colors.
+   * Returns the number of messages of each level that were dropped because the
+   * asynchronous logging queue was full, since SLF4Bukkit was loaded.
    *
-   * @return never null.
+   * @return never null, contains one mapping for each {@link Level}.
    */
-  private static Map<Level, ColorMarker> fallbackLevelColors() {
-    return ImmutableMap.<Level, ColorMarker> builder()
-                       .put(Level.ERROR, ColorMarker.RED)
-                       .put(Level.WARN, ColorMarker.YELLOW)
-                       .put(Level.INFO, ColorMarker.NONE)
-                       .put(Level.DEBUG, ColorMarker.NONE)
-                       .put(Level.TRACE, ColorMarker.NONE).build();
+  public static Map<Level, Long> getAsyncDropCounts() {
+    final Map<Level, Long> counts = new EnumMap<Level, Long>(Level.class);
+    for (final Level level : Level.values()) {
+      counts.put(level, AsyncLogDispatcher.getDroppedCount(level));
+    }
+    return Collections.unmodifiableMap(counts);
   }
 
   /**
-   * Returns a boolean property from the Bukkit plugin config.
+   * Returns the number of messages that each sampler and rate limit has
+   * suppressed since the configuration was last loaded.
    *
-   * @param name
-   *          the desired property.
-   * @param defaultValue
-   *          the fallback value returned by this method.
-   * @return {@code defaultValue} if the Bukkit plugin is not available, if the
-   *         desired property is not defined in the config, or if the desired
-   *         property's value is not either "true" or "false"
-   *         (case-insensitive).
+   * @return never null. The keys are the config keys of the samplers and rate
+   *         limits, without the leading "slf4j.", e.g. "sample.a.b" or
+   *         "rateLimit.a.b".
    */
-  private static boolean getBooleanProperty(final String name,
-                                            final boolean defaultValue) {
-    synchronized (BukkitLoggerAdapter.INITIALIZATION_LOCK) {
-      if (BukkitLoggerAdapter.BUKKIT_PLUGIN == null) { return defaultValue; }
-      final String prop = BukkitLoggerAdapter.BUKKIT_PLUGIN.getConfig()
-                                                           .getString(name);
-      if ("true".equalsIgnoreCase(prop)) { return true; }
-      if ("false".equalsIgnoreCase(prop)) { return false; }
-      return defaultValue;
+  public static Map<String, Long> getSuppressedCounts() {
+    final Map<String, Long> counts = new TreeMap<String, Long>();
+    for (final LogLimiter limiter : BukkitLoggerAdapter.CONFIG.get()
+                                                              .getLogLimiters()) {
+      counts.put(limiter.getKey(), limiter.getSuppressedCount());
     }
+    return Collections.unmodifiableMap(counts);
+  }
+
+  /**
+   * Returns the number of times that a message pattern was found in the cache
+   * of split patterns, since SLF4Bukkit was loaded. Patterns are cached by
+   * identity, so this should be close to the number of formatted messages if
+   * patterns are constants.
+   *
+   * @return zero or more.
+   */
+  public static long getFormatCacheHits() {
+    return FormatTemplateCache.getHits();
+  }
+
+  /**
+   * Returns the number of times that a message pattern had to be split
+   * because it was not in the cache of split patterns, since SLF4Bukkit was
+   * loaded. The cache holds up to 1024 patterns.
+   *
+   * @return zero or more.
+   */
+  public static long getFormatCacheMisses() {
+    return FormatTemplateCache.getMisses();
   }
 
   /**
-   * Returns the most appropriate logger.
+   * Called by an {@link AsyncLogDispatcher} that stopped by itself, so that
+   * messages are logged synchronously from then on.
    *
-   * @return the logger for the plugin if available; otherwise the server
-   *         logger. Never null.
+   * @param dispatcher
+   *          the stopped dispatcher.
+   */
+  static void asyncDispatcherStopped(final AsyncLogDispatcher dispatcher) {
+    BukkitLoggerAdapter.ASYNC_DISPATCHER.compareAndSet(dispatcher, null);
+  }
+
+  /**
+   * Writes the lines buffered by the sinks, if they have been buffered for too
+   * long or include urgent lines. Called periodically by the
+   * {@link AsyncLogDispatcher} or the {@link SinkFlusher}.
    */
-  private static java.util.logging.Logger getBukkitLogger() {
-    synchronized (BukkitLoggerAdapter.INITIALIZATION_LOCK) {
-      return BukkitLoggerAdapter.BUKKIT_PLUGIN == null ? Bukkit.getLogger()
-                                                      : BukkitLoggerAdapter.BUKKIT_PLUGIN.getLogger();
+  static void flushSinks() {
+    for (final LogSink sink : BukkitLoggerAdapter.SINKS.get()) {
+      sink.flushIfStale();
     }
   }
 
   /**
-   * Returns the map of logging levels to colors, taken from the Bukkit plugin
-   * config. For each relevant entry in the plugin config, if either the key
-   * name or the value name is invalid, that entry is ignored and the default
-   * value is used instead.
+   * Called by a {@link SinkFlusher} that stopped by itself.
    *
-   * @param property
-   *          the config property where the map exists.
-   * @param defaultValue
-   *          the fallback values returned by this method.
-   * @return never null, always contains one mapping for each {@link Level}, and
-   *         contains no null keys/values. Equal to {@code defaultValue} if the
-   *         Bukkit plugin is not available, or if the desired property is not
-   *         defined in the config.
+   * @param flusher
+   *          the stopped flusher.
    */
-  private static Map<Level, ColorMarker>
-      getLevelColorsMap(final String property,
-                        final Map<Level, ColorMarker> defaultValues) {
-    synchronized (BukkitLoggerAdapter.INITIALIZATION_LOCK) {
-      // Check for the plugin.
-      if (BukkitLoggerAdapter.BUKKIT_PLUGIN == null) { return defaultValues; }
-      final ConfigurationSection config = BukkitLoggerAdapter.BUKKIT_PLUGIN.getConfig()
-                                                                           .getConfigurationSection(property);
-      // Quit if the config isn't specified.
-      if (config == null) { return defaultValues; }
-      // Translate each portion of the config. Skip invalid keys/values.
-      final Map<String, Object> configValues = config.getValues(false);
-      final Map<Level, ColorMarker> convertedConfigValues = new HashMap<Level, ColorMarker>();
-      for (final Map.Entry<String, Object> configValue : configValues.entrySet()) {
-        final String levelName = configValue.getKey().toUpperCase();
-        final String formatName = configValue.getValue().toString()
-                                             .toUpperCase();
-        Level level;
-        ColorMarker format;
-        try {
-          level = Level.valueOf(levelName);
-          format = ColorMarker.valueOf(formatName);
-        } catch (final IllegalArgumentException e) {
-          // This is expected, so don't log it.
-          continue;
+  static void sinkFlusherStopped(final SinkFlusher flusher) {
+    BukkitLoggerAdapter.SINK_FLUSHER.compareAndSet(flusher, null);
+  }
+
+  /**
+   * Logs the repeat count of the current run of repeated lines, if repeated
+   * lines are collapsed and the run's window has passed. Called periodically
+   * by the {@link AsyncLogDispatcher} or the {@link SinkFlusher}.
+   */
+  static void flushRepeats() {
+    BukkitLoggerAdapter.flushRepeats(BukkitLoggerAdapter.CONFIG.get(), false);
+  }
+
+  /**
+   * Logs the repeat count of the current run of repeated lines, if repeated
+   * lines are collapsed.
+   *
+   * @param config
+   *          the configuration snapshot whose run is flushed.
+   * @param force
+   *          true to end the run even if its window has not passed.
+   */
+  private static void flushRepeats(final BukkitLoggerConfig config,
+                                   final boolean force) {
+    final RepeatCollapser collapser = config.getRepeatCollapser();
+    if (collapser != null) {
+      collapser.flush(config, force);
+    }
+  }
+
+  /**
+   * Starts, replaces or stops the background logging thread, as required by
+   * the given configuration.
+   *
+   * @param config
+   *          the newly published configuration snapshot.
+   */
+  private static void configureAsyncDispatcher(final BukkitLoggerConfig config) {
+    synchronized (BukkitLoggerAdapter.ASYNC_DISPATCHER) {
+      final AsyncLogDispatcher current = BukkitLoggerAdapter.ASYNC_DISPATCHER.get();
+      AsyncLogDispatcher next = null;
+      if (config.isInitialized() && config.isAsync()) {
+        if ((current != null)
+            && (current.getRequestedCapacity() == config.getAsyncBufferSize())) {
+          current.setConfig(config);
+          return;
         }
-        convertedConfigValues.put(level, format);
+        next = new AsyncLogDispatcher(config);
+        next.start();
+      }
+      BukkitLoggerAdapter.ASYNC_DISPATCHER.set(next);
+      if (current != null) {
+        current.stop(config.getAsyncFlushTimeout());
       }
-      // Merge the default and config-based map; the latter takes priority.
-      final Map<Level, ColorMarker> finalConfigValues = new HashMap<Level, ColorMarker>();
-      finalConfigValues.putAll(defaultValues);
-      finalConfigValues.putAll(convertedConfigValues);
-      // Done; cast as immutable.
-      return ImmutableMap.<Level, ColorMarker> builder()
-                         .putAll(finalConfigValues).build();
     }
   }
 
   /**
-   * Returns a string property from the Bukkit plugin config.
+   * Starts or stops the background flushing thread, as required by the given
+   * configuration and the published sinks. It only runs while messages are
+   * logged synchronously, and a sink buffers lines or repeated lines are
+   * collapsed.
    *
-   * @param name
-   *          the desired property.
-   * @param defaultValue
-   *          the fallback value returned by this method.
-   * @return {@code defaultValue} if the Bukkit plugin is not available, or if
-   *         the desired property is not defined in the config.
+   * @param config
+   *          the newly published configuration snapshot.
    */
-  private static String getStringProperty(final String name,
-                                          final String defaultValue) {
-    synchronized (BukkitLoggerAdapter.INITIALIZATION_LOCK) {
-      if (BukkitLoggerAdapter.BUKKIT_PLUGIN == null) { return defaultValue; }
-      final String prop = BukkitLoggerAdapter.BUKKIT_PLUGIN.getConfig()
-                                                           .getString(name);
-      return (prop == null) ? defaultValue : prop;
+  private static void configureSinkFlusher(final BukkitLoggerConfig config) {
+    synchronized (BukkitLoggerAdapter.SINK_FLUSHER) {
+      final SinkFlusher current = BukkitLoggerAdapter.SINK_FLUSHER.get();
+      final boolean needed = config.isInitialized() && !config.isAsync()
+                             && ((BukkitLoggerAdapter.SINKS.get().size() > 1)
+                                 || (config.getRepeatCollapser() != null));
+      if (needed == (current != null)) { return; }
+      SinkFlusher next = null;
+      if (needed) {
+        next = new SinkFlusher(config);
+        next.start();
+      }
+      BukkitLoggerAdapter.SINK_FLUSHER.set(next);
+      if (current != null) {
+        current.stop();
+      }
     }
   }
 
   /**
-   * Converts an SLF4J logging level to a Bukkit logging level.
+   * Publishes the sinks required by the given configuration, opening, keeping
+   * or closing files as needed.
    *
-   * <ul>
-   * <li>{@link Level#ERROR} maps to {@link java.util.logging.Level#SEVERE}.</li>
-   * <li>{@link Level#WARN} maps to {@link java.util.logging.Level#WARNING}.</li>
-   * <li>All others map to {@link java.util.logging.Level#INFO} (Bukkit won't
-   * log any messages higher than {@code INFO}).</li>
-   * </ul>
+   * @param config
+   *          the newly published configuration snapshot.
+   */
+  private static void configureSinks(final BukkitLoggerConfig config) {
+    synchronized (BukkitLoggerAdapter.SINKS) {
+      final List<LogSink> current = BukkitLoggerAdapter.SINKS.get();
+      final List<LogSink> next = new ArrayList<LogSink>();
+      next.add(ConsoleSink.INSTANCE);
+      if (config.isInitialized()) {
+        final File directory = new File(config.getPlugin().getDataFolder(),
+                                        "logs");
+        final LogSink file = BukkitLoggerAdapter.configureFileSink(config,
+                                                                   directory,
+                                                                   current);
+        if (file != null) {
+          next.add(file);
+        }
+        final LogSink json = BukkitLoggerAdapter.configureJsonSink(config,
+                                                                   directory,
+                                                                   current);
+        if (json != null) {
+          next.add(json);
+        }
+        final LogSink binary = BukkitLoggerAdapter.configureBinarySink(config,
+                                                                       directory,
+                                                                       current);
+        if (binary != null) {
+          next.add(binary);
+        }
+      }
+      BukkitLoggerAdapter.SINKS.set(Collections.unmodifiableList(next));
+      for (final LogSink sink : current) {
+        if (!next.contains(sink)) {
+          sink.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * Keeps or replaces the plugin's binary log file, as required by the given
+   * configuration.
    *
-   * @param slf4jLevel
-   *          any SLF4J logging level.
-   * @return never null.
+   * @param config
+   *          the newly published configuration snapshot.
+   * @param directory
+   *          the directory of the log files.
+   * @param current
+   *          the current sinks.
+   * @return null if the binary log file is disabled or cannot be opened.
+   */
+  private static BinarySink configureBinarySink(final BukkitLoggerConfig config,
+                                                final File directory,
+                                                final List<LogSink> current) {
+    for (final LogSink sink : current) {
+      if (!(sink instanceof BinarySink)) {
+        continue;
+      }
+      final BinarySink binary = (BinarySink) sink;
+      if (config.isBinary()
+          && binary.hasSettings(directory, config.getFileMaxSize(),
+                                config.getFileRollInterval(),
+                                config.isFileCompress())) { return binary; }
+      // Close the current file first, since the new sink may open it again.
+      binary.close();
+    }
+    if (!config.isBinary()) { return null; }
+    try {
+      return new BinarySink(directory, config.getFileMaxSize(),
+                            config.getFileRollInterval(),
+                            config.isFileCompress());
+    } catch (final IOException e) {
+      Util.report("SLF4J: Failed to open the binary log file in " + directory,
+                  e);
+      return null;
+    }
+  }
+
+  /**
+   * Keeps or replaces the plugin's log file, as required by the given
+   * configuration.
+   *
+   * @param config
+   *          the newly published configuration snapshot.
+   * @param directory
+   *          the directory of the log files.
+   * @param current
+   *          the current sinks.
+   * @return null if the log file is disabled or cannot be opened.
+   */
+  private static FileSink configureFileSink(final BukkitLoggerConfig config,
+                                            final File directory,
+                                            final List<LogSink> current) {
+    final Level level = config.getFileLevel();
+    for (final LogSink sink : current) {
+      if (!(sink instanceof FileSink)) {
+        continue;
+      }
+      final FileSink file = (FileSink) sink;
+      if ((level != null)
+          && file.hasSettings(directory, level, config.getFileMaxSize(),
+                              config.getFileRollInterval(),
+                              config.isFileCompress())) { return file; }
+      // Close the current file first, since the new sink may open it again.
+      file.close();
+    }
+    if (level == null) { return null; }
+    try {
+      return new FileSink(directory, level, config.getFileMaxSize(),
+                          config.getFileRollInterval(), config.isFileCompress());
+    } catch (final IOException e) {
+      Util.report("SLF4J: Failed to open the log file in " + directory, e);
+      return null;
+    }
+  }
+
+  /**
+   * Keeps or replaces the plugin's JSON log file, as required by the given
+   * configuration.
+   *
+   * @param config
+   *          the newly published configuration snapshot.
+   * @param directory
+   *          the directory of the log files.
+   * @param current
+   *          the current sinks.
+   * @return null if the JSON log file is disabled or cannot be opened.
    */
-  private static java.util.logging.Level
-      slf4jLevelIntToBukkitJULLevel(final Level slf4jLevel) {
-    java.util.logging.Level julLevel;
-    switch (slf4jLevel) {
-      case ERROR:
-        julLevel = java.util.logging.Level.SEVERE;
-        break;
-      case WARN:
-        julLevel = java.util.logging.Level.WARNING;
-        break;
-      default:
-        // In Bukkit, Only the SEVERE, WARNING and INFO JUL levels are enabled,
-        // so SLF4J's TRACE and DEBUG levels must be logged at Bukkit's INFO
-        // level.
-        julLevel = java.util.logging.Level.INFO;
-        break;
+  private static JsonSink configureJsonSink(final BukkitLoggerConfig config,
+                                            final File directory,
+                                            final List<LogSink> current) {
+    for (final LogSink sink : current) {
+      if (!(sink instanceof JsonSink)) {
+        continue;
+      }
+      final JsonSink json = (JsonSink) sink;
+      if (config.isJson()
+          && json.hasSettings(directory, config.getFileMaxSize(),
+                              config.getFileRollInterval(),
+                              config.isFileCompress())) { return json; }
+      // Close the current file first, since the new sink may open it again.
+      json.close();
+    }
+    if (!config.isJson()) { return null; }
+    try {
+      return new JsonSink(directory, config.getFileMaxSize(),
+                          config.getFileRollInterval(), config.isFileCompress());
+    } catch (final IOException e) {
+      Util.report("SLF4J: Failed to open the JSON log file in " + directory, e);
+      return null;
     }
-    return julLevel;
   }
 
   /**
-   * Convert YAML logging level properties to SLF4J level objects.
+   * Returns the calling thread's reusable buffers, if low-garbage mode is
+   * enabled.
+   *
+   * @param config
+   *          the current configuration snapshot.
+   * @return null if low-garbage mode is disabled, if SLF4Bukkit is buffering
+   *         events, or if the buffers are already in use by an enclosing
+   *         logging call on this thread.
+   */
+  private static LogBuffers acquireBuffers(final BukkitLoggerConfig config) {
+    if (!config.isLowGarbage()
+        || BukkitLoggerAdapter.isBuffering(config)) { return null; }
+    return LogBuffers.acquire();
+  }
+
+  /**
+   * Returns the current configuration snapshot, first attempting to initialize
+   * SLF4Bukkit if it is not initialized yet.
+   *
+   * @return never null.
+   */
+  private static BukkitLoggerConfig getConfig() {
+    final BukkitLoggerConfig config = BukkitLoggerAdapter.CONFIG.get();
+    if (config.isInitialized()
+        || (BukkitLoggerAdapter.BUKKIT_PLUGIN_NAME == null)) { return config; }
+    // Look for the plugin at most once per interval instead of on every call.
+    // Concurrent callers may both look, which is harmless.
+    final long now = System.nanoTime();
+    if ((now - BukkitLoggerAdapter.NEXT_BIND_ATTEMPT) < 0) { return config; }
+    BukkitLoggerAdapter.NEXT_BIND_ATTEMPT = now
+                                            + BukkitLoggerAdapter.BIND_RETRY_INTERVAL;
+    BukkitLoggerAdapter.init(false);
+    return BukkitLoggerAdapter.CONFIG.get();
+  }
+
+  /**
+   * Indicates whether or not events must be buffered until SLF4Bukkit is
+   * initialized, because the configuration that applies to them is not known
+   * yet.
+   *
+   * @param config
+   *          the current configuration snapshot.
+   * @return false if SLF4Bukkit is initialized, or if it never will be because
+   *         the plugin name is unknown, or if the plugin did not become
+   *         available in time.
+   */
+  private static boolean isBuffering(final BukkitLoggerConfig config) {
+    return !config.isInitialized()
+           && (BukkitLoggerAdapter.BUKKIT_PLUGIN_NAME != null)
+           && !BukkitLoggerAdapter.PENDING_EVENTS_EXPIRED;
+  }
+
+  /**
+   * Buffers an event logged while SLF4Bukkit is uninitialized. If the buffer is
+   * full, the event is discarded and counted instead.
    *
-   * @param levelStr
-   *          the level property value from the YAML config.
-   * @return null iff the input does not map to a SLF4J logging level name in a
-   *         case-insensitive fashion.
+   * @param event
+   *          the event to buffer.
    */
-  private static Level stringToLevel(final String levelStr) {
-    if ("trace".equalsIgnoreCase(levelStr)) {
-      return Level.TRACE;
-    } else if ("debug".equalsIgnoreCase(levelStr)) {
-      return Level.DEBUG;
-    } else if ("info".equalsIgnoreCase(levelStr)) {
-      return Level.INFO;
-    } else if ("warn".equalsIgnoreCase(levelStr)) {
-      return Level.WARN;
-    } else if ("error".equalsIgnoreCase(levelStr)) {
-      return Level.ERROR;
+  private static void bufferEvent(final LogEvent event) {
+    if (BukkitLoggerAdapter.PENDING_EVENTS_SIZE.incrementAndGet()
+        > BukkitLoggerAdapter.PENDING_EVENTS_CAPACITY) {
+      BukkitLoggerAdapter.PENDING_EVENTS_SIZE.decrementAndGet();
+      BukkitLoggerAdapter.PENDING_EVENTS_DISCARDED.incrementAndGet();
     } else {
+      BukkitLoggerAdapter.PENDING_EVENTS.offer(event.retainMdc());
+    }
+    if (BukkitLoggerAdapter.PENDING_EVENTS_WATCHED.compareAndSet(false, true)) {
+      BukkitLoggerAdapter.watchPendingEvents();
+    }
+    // If SLF4Bukkit was initialized or gave up in the meantime, the buffer may
+    // already have been replayed; replay it again so that this event isn't
+    // stranded.
+    final BukkitLoggerConfig config = BukkitLoggerAdapter.CONFIG.get();
+    if (config.isInitialized() || BukkitLoggerAdapter.PENDING_EVENTS_EXPIRED) {
+      BukkitLoggerAdapter.replayPendingEvents(config);
+    }
+  }
+
+  /**
+   * Reads the name of the plugin in this classloader from {@code plugin.yml}.
+   *
+   * @return null if {@code plugin.yml} cannot be read.
+   */
+  private static String readPluginName() {
+    InputStream pluginYmlFile = null;
+    try {
+      final URL pluginYmlUrl = BukkitLoggerAdapter.class.getClassLoader()
+                                                        .getResource("plugin.yml");
+      if (pluginYmlUrl == null) { return null; }
+      pluginYmlFile = pluginYmlUrl.openStream();
+      final Yaml yaml = new Yaml();
+      @SuppressWarnings("rawtypes")
+      final Map pluginYml = (Map) yaml.load(pluginYmlFile);
+      return (String) pluginYml.get("name");
+    } catch (final IOException e) {
+      e.printStackTrace();
       return null;
+    } finally {
+      if (pluginYmlFile != null) {
+        try {
+          pluginYmlFile.close();
+        } catch (final IOException e) {
+          e.printStackTrace();
+        }
+      }
+    }
+  }
+
+  /**
+   * Logs all buffered events that are enabled by the given configuration, then
+   * reports how many events did not fit into the buffer, if any.
+   *
+   * @param config
+   *          the configuration snapshot that SLF4Bukkit was initialized with,
+   *          or the default configuration if the plugin did not become
+   *          available in time.
+   */
+  private static void replayPendingEvents(final BukkitLoggerConfig config) {
+    LogEvent event;
+    while ((event = BukkitLoggerAdapter.PENDING_EVENTS.poll()) != null) {
+      BukkitLoggerAdapter.PENDING_EVENTS_SIZE.decrementAndGet();
+      final BukkitLoggerAdapter logger = event.getLogger();
+      if (logger.isLevelEnabled(config, event.getLevel(), event.getMarker())) {
+        event.formatMessage();
+        logger.log(config, event.getLevel(), event.getMarker(),
+                   event.getMessage(), event.getThrowable(),
+                   event.getThreadName());
+      }
+    }
+    final int discarded = BukkitLoggerAdapter.PENDING_EVENTS_DISCARDED.getAndSet(0);
+    if (discarded > 0) {
+      config.getLogger().warning("[SLF4J] " + discarded
+                                 + " message(s) logged before SLF4Bukkit was"
+                                 + " initialized were discarded.");
     }
   }
 
+  /**
+   * Starts a daemon thread that waits for {@link #PENDING_EVENTS_TIMEOUT}, then
+   * tries to initialize SLF4Bukkit one last time. If the plugin is still
+   * unavailable, buffering stops and the buffered events are logged with the
+   * default configuration, so that errors logged by a plugin that fails to
+   * load are not lost.
+   */
+  private static void watchPendingEvents() {
+    final Thread thread = new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(BukkitLoggerAdapter.PENDING_EVENTS_TIMEOUT);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        BukkitLoggerAdapter.init(false);
+        final BukkitLoggerConfig config = BukkitLoggerAdapter.CONFIG.get();
+        if (config.isInitialized()) { return; }
+        BukkitLoggerAdapter.PENDING_EVENTS_EXPIRED = true;
+        BukkitLoggerAdapter.replayPendingEvents(config);
+      }
+    }, "SLF4Bukkit pending events");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
   @Override
-  public void debug(final Marker marker, final String msg) {
+  public LogEventBuilder atDebug() {
+    return this.at(Level.DEBUG);
+  }
+
+  @Override
+  public void debug(final ColorStringBuilder message) {
     if (!this.isDebugEnabled()) { return; }
+    this.log(Level.DEBUG, message);
+  }
+
+  @Override
+  public void debug(final Marker marker, final String msg) {
+    if (!this.isDebugEnabled(marker)) { return; }
     this.log(Level.DEBUG, marker, msg, null);
   }
 
   @Override
   public void debug(final Marker marker, final String format, final Object arg) {
-    if (!this.isDebugEnabled()) { return; }
-    this.formatAndLog(Level.DEBUG, marker, format, arg, null);
+    if (!this.isDebugEnabled(marker)) { return; }
+    this.formatAndLog(Level.DEBUG, marker, format, arg, null, 1);
   }
 
   @Override
   public void debug(final Marker marker, final String format,
                     final Object... arguments) {
-    if (!this.isDebugEnabled()) { return; }
+    if (!this.isDebugEnabled(marker)) { return; }
     this.formatAndLog(Level.DEBUG, marker, format, arguments);
   }
 
   @Override
   public void debug(final Marker marker, final String format,
                     final Object arg1, final Object arg2) {
-    if (!this.isDebugEnabled()) { return; }
-    this.formatAndLog(Level.DEBUG, marker, format, arg1, arg2);
+    if (!this.isDebugEnabled(marker)) { return; }
+    this.formatAndLog(Level.DEBUG, marker, format, arg1, arg2, 2);
   }
 
   @Override
   public void debug(final Marker marker, final String msg, final Throwable t) {
-    if (!this.isDebugEnabled()) { return; }
+    if (!this.isDebugEnabled(marker)) { return; }
     this.log(Level.DEBUG, marker, msg, t);
   }
 
@@ -526,7 +1055,18 @@ public final class BukkitLoggerAdapter implements Logger {
   @Override
   public void debug(final String format, final Object arg) {
     if (!this.isDebugEnabled()) { return; }
-    this.formatAndLog(Level.DEBUG, null, format, arg, null);
+    this.formatAndLog(Level.DEBUG, null, format, arg, null, 1);
+  }
+
+  @Override
+  public void debugLazy(final String format, final LazyArgument<?> arg) {
+    this.debug(format, (Object) arg);
+  }
+
+  @Override
+  public void debugLazy(final String format, final LazyArgument<?> arg1,
+                        final LazyArgument<?> arg2) {
+    this.debug(format, (Object) arg1, (Object) arg2);
   }
 
   @Override
@@ -538,7 +1078,7 @@ public final class BukkitLoggerAdapter implements Logger {
   @Override
   public void debug(final String format, final Object arg1, final Object arg2) {
     if (!this.isDebugEnabled()) { return; }
-    this.formatAndLog(Level.DEBUG, null, format, arg1, arg2);
+    this.formatAndLog(Level.DEBUG, null, format, arg1, arg2, 2);
   }
 
   @Override
@@ -548,306 +1088,1347 @@ public final class BukkitLoggerAdapter implements Logger {
   }
 
   @Override
-  public void error(final Marker marker, final String msg) {
-    if (!this.isErrorEnabled()) { return; }
-    this.log(Level.ERROR, marker, msg, null);
+  public void debug(final String format, final int arg) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.INT, arg, 0, 0, 0, 1);
   }
 
   @Override
-  public void error(final Marker marker, final String format, final Object arg) {
-    if (!this.isErrorEnabled()) { return; }
-    this.formatAndLog(Level.ERROR, marker, format, arg, null);
+  public void debug(final String format, final int arg1, final int arg2) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.INT, arg1, arg2, 0, 0,
+                      2);
   }
 
   @Override
-  public void error(final Marker marker, final String format,
-                    final Object... arguments) {
-    if (!this.isErrorEnabled()) { return; }
-    this.formatAndLog(Level.ERROR, marker, format, arguments);
+  public void debug(final String format, final int arg1, final int arg2,
+                    final int arg3) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.INT, arg1, arg2, arg3,
+                      0, 3);
   }
 
   @Override
-  public void error(final Marker marker, final String format,
-                    final Object arg1, final Object arg2) {
-    if (!this.isErrorEnabled()) { return; }
-    this.formatAndLog(Level.ERROR, marker, format, arg1, arg2);
+  public void debug(final String format, final int arg1, final int arg2,
+                    final int arg3, final int arg4) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.INT, arg1, arg2, arg3,
+                      arg4, 4);
   }
 
   @Override
-  public void error(final Marker marker, final String msg, final Throwable t) {
-    if (!this.isErrorEnabled()) { return; }
-    this.log(Level.ERROR, marker, msg, t);
+  public void debug(final String format, final long arg) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.LONG, arg, 0, 0, 0, 1);
   }
 
   @Override
-  public void error(final String msg) {
-    if (!this.isErrorEnabled()) { return; }
-    this.log(Level.ERROR, null, msg, null);
+  public void debug(final String format, final long arg1, final long arg2) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.LONG, arg1, arg2, 0, 0,
+                      2);
   }
 
   @Override
-  public void error(final String format, final Object arg) {
-    if (!this.isErrorEnabled()) { return; }
-    this.formatAndLog(Level.ERROR, null, format, arg, null);
+  public void debug(final String format, final long arg1, final long arg2,
+                    final long arg3) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.LONG, arg1, arg2, arg3,
+                      0, 3);
   }
 
   @Override
-  public void error(final String format, final Object... arguments) {
-    if (!this.isErrorEnabled()) { return; }
-    this.formatAndLog(Level.ERROR, null, format, arguments);
+  public void debug(final String format, final long arg1, final long arg2,
+                    final long arg3, final long arg4) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.LONG, arg1, arg2, arg3,
+                      arg4, 4);
   }
 
   @Override
-  public void error(final String format, final Object arg1, final Object arg2) {
-    if (!this.isErrorEnabled()) { return; }
-    this.formatAndLog(Level.ERROR, null, format, arg1, arg2);
+  public void debug(final String format, final double arg) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg), 0, 0, 0, 1);
   }
 
   @Override
-  public void error(final String msg, final Throwable t) {
-    if (!this.isErrorEnabled()) { return; }
-    this.log(Level.ERROR, null, msg, t);
+  public void debug(final String format, final double arg1, final double arg2) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2), 0, 0, 2);
   }
 
   @Override
-  public String getName() {
-    return this.name;
+  public void debug(final String format, final double arg1, final double arg2,
+                    final double arg3) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2),
+                      Double.doubleToRawLongBits(arg3), 0, 3);
   }
 
   @Override
-  public void info(final Marker marker, final String msg) {
-    if (!this.isInfoEnabled()) { return; }
-    this.log(Level.INFO, marker, msg, null);
+  public void debug(final String format, final double arg1, final double arg2,
+                    final double arg3, final double arg4) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2),
+                      Double.doubleToRawLongBits(arg3),
+                      Double.doubleToRawLongBits(arg4), 4);
   }
 
   @Override
-  public void info(final Marker marker, final String format, final Object arg) {
-    if (!this.isInfoEnabled()) { return; }
-    this.formatAndLog(Level.INFO, marker, format, arg, null);
+  public void debug(final String format, final float arg) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg), 0, 0, 0, 1);
   }
 
   @Override
-  public void info(final Marker marker, final String format,
-                   final Object... arguments) {
-    if (!this.isInfoEnabled()) { return; }
-    this.formatAndLog(Level.INFO, marker, format, arguments);
+  public void debug(final String format, final float arg1, final float arg2) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2), 0, 0, 2);
   }
 
   @Override
-  public void info(final Marker marker, final String format, final Object arg1,
-                   final Object arg2) {
-    if (!this.isInfoEnabled()) { return; }
-    this.formatAndLog(Level.INFO, marker, format, arg1, arg2);
+  public void debug(final String format, final float arg1, final float arg2,
+                    final float arg3) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2),
+                      Float.floatToRawIntBits(arg3), 0, 3);
   }
 
   @Override
-  public void info(final Marker marker, final String msg, final Throwable t) {
-    if (!this.isInfoEnabled()) { return; }
-    this.log(Level.INFO, marker, msg, t);
+  public void debug(final String format, final float arg1, final float arg2,
+                    final float arg3, final float arg4) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2),
+                      Float.floatToRawIntBits(arg3),
+                      Float.floatToRawIntBits(arg4), 4);
   }
 
   @Override
-  public void info(final String msg) {
-    if (!this.isInfoEnabled()) { return; }
-    this.log(Level.INFO, null, msg, null);
+  public void debug(final String format, final boolean arg) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.BOOLEAN, (arg ? 1 : 0),
+                      0, 0, 0, 1);
   }
 
   @Override
-  public void info(final String format, final Object arg) {
-    if (!this.isInfoEnabled()) { return; }
-    this.formatAndLog(Level.INFO, null, format, arg, null);
+  public void debug(final String format, final boolean arg1,
+                    final boolean arg2) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.BOOLEAN,
+                      (arg1 ? 1 : 0), (arg2 ? 1 : 0), 0, 0, 2);
   }
 
   @Override
-  public void info(final String format, final Object... arguments) {
-    if (!this.isInfoEnabled()) { return; }
-    this.formatAndLog(Level.INFO, null, format, arguments);
+  public void debug(final String format, final boolean arg1, final boolean arg2,
+                    final boolean arg3) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.BOOLEAN,
+                      (arg1 ? 1 : 0), (arg2 ? 1 : 0), (arg3 ? 1 : 0), 0, 3);
   }
 
   @Override
-  public void info(final String format, final Object arg1, final Object arg2) {
-    if (!this.isInfoEnabled()) { return; }
-    this.formatAndLog(Level.INFO, null, format, arg1, arg2);
+  public void debug(final String format, final boolean arg1, final boolean arg2,
+                    final boolean arg3, final boolean arg4) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.BOOLEAN,
+                      (arg1 ? 1 : 0), (arg2 ? 1 : 0), (arg3 ? 1 : 0),
+                      (arg4 ? 1 : 0), 4);
   }
 
   @Override
-  public void info(final String msg, final Throwable t) {
-    if (!this.isInfoEnabled()) { return; }
-    this.log(Level.INFO, null, msg, t);
+  public void debug(final String format, final char arg) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.CHAR, arg, 0, 0, 0, 1);
   }
 
   @Override
-  public boolean isDebugEnabled() {
-    return this.isLevelEnabled(Level.DEBUG);
+  public void debug(final String format, final char arg1, final char arg2) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.CHAR, arg1, arg2, 0, 0,
+                      2);
   }
 
   @Override
-  public boolean isDebugEnabled(final Marker marker) {
+  public void debug(final String format, final char arg1, final char arg2,
+                    final char arg3) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.CHAR, arg1, arg2, arg3,
+                      0, 3);
+  }
+
+  @Override
+  public void debug(final String format, final char arg1, final char arg2,
+                    final char arg3, final char arg4) {
+    if (!this.isDebugEnabled()) { return; }
+    this.formatAndLog(Level.DEBUG, format, PrimitiveType.CHAR, arg1, arg2, arg3,
+                      arg4, 4);
+  }
+
+  @Override
+  public LogEventBuilder atError() {
+    return this.at(Level.ERROR);
+  }
+
+  @Override
+  public void error(final ColorStringBuilder message) {
+    if (!this.isErrorEnabled()) { return; }
+    this.log(Level.ERROR, message);
+  }
+
+  @Override
+  public void error(final Marker marker, final String msg) {
+    if (!this.isErrorEnabled(marker)) { return; }
+    this.log(Level.ERROR, marker, msg, null);
+  }
+
+  @Override
+  public void error(final Marker marker, final String format, final Object arg) {
+    if (!this.isErrorEnabled(marker)) { return; }
+    this.formatAndLog(Level.ERROR, marker, format, arg, null, 1);
+  }
+
+  @Override
+  public void error(final Marker marker, final String format,
+                    final Object... arguments) {
+    if (!this.isErrorEnabled(marker)) { return; }
+    this.formatAndLog(Level.ERROR, marker, format, arguments);
+  }
+
+  @Override
+  public void error(final Marker marker, final String format,
+                    final Object arg1, final Object arg2) {
+    if (!this.isErrorEnabled(marker)) { return; }
+    this.formatAndLog(Level.ERROR, marker, format, arg1, arg2, 2);
+  }
+
+  @Override
+  public void error(final Marker marker, final String msg, final Throwable t) {
+    if (!this.isErrorEnabled(marker)) { return; }
+    this.log(Level.ERROR, marker, msg, t);
+  }
+
+  @Override
+  public void error(final String msg) {
+    if (!this.isErrorEnabled()) { return; }
+    this.log(Level.ERROR, null, msg, null);
+  }
+
+  @Override
+  public void error(final String format, final Object arg) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, null, format, arg, null, 1);
+  }
+
+  @Override
+  public void errorLazy(final String format, final LazyArgument<?> arg) {
+    this.error(format, (Object) arg);
+  }
+
+  @Override
+  public void errorLazy(final String format, final LazyArgument<?> arg1,
+                        final LazyArgument<?> arg2) {
+    this.error(format, (Object) arg1, (Object) arg2);
+  }
+
+  @Override
+  public void error(final String format, final Object... arguments) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, null, format, arguments);
+  }
+
+  @Override
+  public void error(final String format, final Object arg1, final Object arg2) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, null, format, arg1, arg2, 2);
+  }
+
+  @Override
+  public void error(final String msg, final Throwable t) {
+    if (!this.isErrorEnabled()) { return; }
+    this.log(Level.ERROR, null, msg, t);
+  }
+
+  @Override
+  public void error(final String format, final int arg) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.INT, arg, 0, 0, 0, 1);
+  }
+
+  @Override
+  public void error(final String format, final int arg1, final int arg2) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.INT, arg1, arg2, 0, 0,
+                      2);
+  }
+
+  @Override
+  public void error(final String format, final int arg1, final int arg2,
+                    final int arg3) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.INT, arg1, arg2, arg3,
+                      0, 3);
+  }
+
+  @Override
+  public void error(final String format, final int arg1, final int arg2,
+                    final int arg3, final int arg4) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.INT, arg1, arg2, arg3,
+                      arg4, 4);
+  }
+
+  @Override
+  public void error(final String format, final long arg) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.LONG, arg, 0, 0, 0, 1);
+  }
+
+  @Override
+  public void error(final String format, final long arg1, final long arg2) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.LONG, arg1, arg2, 0, 0,
+                      2);
+  }
+
+  @Override
+  public void error(final String format, final long arg1, final long arg2,
+                    final long arg3) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.LONG, arg1, arg2, arg3,
+                      0, 3);
+  }
+
+  @Override
+  public void error(final String format, final long arg1, final long arg2,
+                    final long arg3, final long arg4) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.LONG, arg1, arg2, arg3,
+                      arg4, 4);
+  }
+
+  @Override
+  public void error(final String format, final double arg) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg), 0, 0, 0, 1);
+  }
+
+  @Override
+  public void error(final String format, final double arg1, final double arg2) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2), 0, 0, 2);
+  }
+
+  @Override
+  public void error(final String format, final double arg1, final double arg2,
+                    final double arg3) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2),
+                      Double.doubleToRawLongBits(arg3), 0, 3);
+  }
+
+  @Override
+  public void error(final String format, final double arg1, final double arg2,
+                    final double arg3, final double arg4) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2),
+                      Double.doubleToRawLongBits(arg3),
+                      Double.doubleToRawLongBits(arg4), 4);
+  }
+
+  @Override
+  public void error(final String format, final float arg) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg), 0, 0, 0, 1);
+  }
+
+  @Override
+  public void error(final String format, final float arg1, final float arg2) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2), 0, 0, 2);
+  }
+
+  @Override
+  public void error(final String format, final float arg1, final float arg2,
+                    final float arg3) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2),
+                      Float.floatToRawIntBits(arg3), 0, 3);
+  }
+
+  @Override
+  public void error(final String format, final float arg1, final float arg2,
+                    final float arg3, final float arg4) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2),
+                      Float.floatToRawIntBits(arg3),
+                      Float.floatToRawIntBits(arg4), 4);
+  }
+
+  @Override
+  public void error(final String format, final boolean arg) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.BOOLEAN, (arg ? 1 : 0),
+                      0, 0, 0, 1);
+  }
+
+  @Override
+  public void error(final String format, final boolean arg1,
+                    final boolean arg2) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.BOOLEAN,
+                      (arg1 ? 1 : 0), (arg2 ? 1 : 0), 0, 0, 2);
+  }
+
+  @Override
+  public void error(final String format, final boolean arg1, final boolean arg2,
+                    final boolean arg3) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.BOOLEAN,
+                      (arg1 ? 1 : 0), (arg2 ? 1 : 0), (arg3 ? 1 : 0), 0, 3);
+  }
+
+  @Override
+  public void error(final String format, final boolean arg1, final boolean arg2,
+                    final boolean arg3, final boolean arg4) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.BOOLEAN,
+                      (arg1 ? 1 : 0), (arg2 ? 1 : 0), (arg3 ? 1 : 0),
+                      (arg4 ? 1 : 0), 4);
+  }
+
+  @Override
+  public void error(final String format, final char arg) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.CHAR, arg, 0, 0, 0, 1);
+  }
+
+  @Override
+  public void error(final String format, final char arg1, final char arg2) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.CHAR, arg1, arg2, 0, 0,
+                      2);
+  }
+
+  @Override
+  public void error(final String format, final char arg1, final char arg2,
+                    final char arg3) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.CHAR, arg1, arg2, arg3,
+                      0, 3);
+  }
+
+  @Override
+  public void error(final String format, final char arg1, final char arg2,
+                    final char arg3, final char arg4) {
+    if (!this.isErrorEnabled()) { return; }
+    this.formatAndLog(Level.ERROR, format, PrimitiveType.CHAR, arg1, arg2, arg3,
+                      arg4, 4);
+  }
+
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  @Override
+  public LogEventBuilder atInfo() {
+    return this.at(Level.INFO);
+  }
+
+  @Override
+  public void info(final ColorStringBuilder message) {
+    if (!this.isInfoEnabled()) { return; }
+    this.log(Level.INFO, message);
+  }
+
+  @Override
+  public void info(final Marker marker, final String msg) {
+    if (!this.isInfoEnabled(marker)) { return; }
+    this.log(Level.INFO, marker, msg, null);
+  }
+
+  @Override
+  public void info(final Marker marker, final String format, final Object arg) {
+    if (!this.isInfoEnabled(marker)) { return; }
+    this.formatAndLog(Level.INFO, marker, format, arg, null, 1);
+  }
+
+  @Override
+  public void info(final Marker marker, final String format,
+                   final Object... arguments) {
+    if (!this.isInfoEnabled(marker)) { return; }
+    this.formatAndLog(Level.INFO, marker, format, arguments);
+  }
+
+  @Override
+  public void info(final Marker marker, final String format, final Object arg1,
+                   final Object arg2) {
+    if (!this.isInfoEnabled(marker)) { return; }
+    this.formatAndLog(Level.INFO, marker, format, arg1, arg2, 2);
+  }
+
+  @Override
+  public void info(final Marker marker, final String msg, final Throwable t) {
+    if (!this.isInfoEnabled(marker)) { return; }
+    this.log(Level.INFO, marker, msg, t);
+  }
+
+  @Override
+  public void info(final String msg) {
+    if (!this.isInfoEnabled()) { return; }
+    this.log(Level.INFO, null, msg, null);
+  }
+
+  @Override
+  public void info(final String format, final Object arg) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, null, format, arg, null, 1);
+  }
+
+  @Override
+  public void infoLazy(final String format, final LazyArgument<?> arg) {
+    this.info(format, (Object) arg);
+  }
+
+  @Override
+  public void infoLazy(final String format, final LazyArgument<?> arg1,
+                       final LazyArgument<?> arg2) {
+    this.info(format, (Object) arg1, (Object) arg2);
+  }
+
+  @Override
+  public void info(final String format, final Object... arguments) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, null, format, arguments);
+  }
+
+  @Override
+  public void info(final String format, final Object arg1, final Object arg2) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, null, format, arg1, arg2, 2);
+  }
+
+  @Override
+  public void info(final String msg, final Throwable t) {
+    if (!this.isInfoEnabled()) { return; }
+    this.log(Level.INFO, null, msg, t);
+  }
+
+  @Override
+  public void info(final String format, final int arg) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.INT, arg, 0, 0, 0, 1);
+  }
+
+  @Override
+  public void info(final String format, final int arg1, final int arg2) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.INT, arg1, arg2, 0, 0,
+                      2);
+  }
+
+  @Override
+  public void info(final String format, final int arg1, final int arg2,
+                   final int arg3) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.INT, arg1, arg2, arg3,
+                      0, 3);
+  }
+
+  @Override
+  public void info(final String format, final int arg1, final int arg2,
+                   final int arg3, final int arg4) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.INT, arg1, arg2, arg3,
+                      arg4, 4);
+  }
+
+  @Override
+  public void info(final String format, final long arg) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.LONG, arg, 0, 0, 0, 1);
+  }
+
+  @Override
+  public void info(final String format, final long arg1, final long arg2) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.LONG, arg1, arg2, 0, 0,
+                      2);
+  }
+
+  @Override
+  public void info(final String format, final long arg1, final long arg2,
+                   final long arg3) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.LONG, arg1, arg2, arg3,
+                      0, 3);
+  }
+
+  @Override
+  public void info(final String format, final long arg1, final long arg2,
+                   final long arg3, final long arg4) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.LONG, arg1, arg2, arg3,
+                      arg4, 4);
+  }
+
+  @Override
+  public void info(final String format, final double arg) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg), 0, 0, 0, 1);
+  }
+
+  @Override
+  public void info(final String format, final double arg1, final double arg2) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2), 0, 0, 2);
+  }
+
+  @Override
+  public void info(final String format, final double arg1, final double arg2,
+                   final double arg3) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2),
+                      Double.doubleToRawLongBits(arg3), 0, 3);
+  }
+
+  @Override
+  public void info(final String format, final double arg1, final double arg2,
+                   final double arg3, final double arg4) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2),
+                      Double.doubleToRawLongBits(arg3),
+                      Double.doubleToRawLongBits(arg4), 4);
+  }
+
+  @Override
+  public void info(final String format, final float arg) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg), 0, 0, 0, 1);
+  }
+
+  @Override
+  public void info(final String format, final float arg1, final float arg2) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2), 0, 0, 2);
+  }
+
+  @Override
+  public void info(final String format, final float arg1, final float arg2,
+                   final float arg3) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2),
+                      Float.floatToRawIntBits(arg3), 0, 3);
+  }
+
+  @Override
+  public void info(final String format, final float arg1, final float arg2,
+                   final float arg3, final float arg4) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2),
+                      Float.floatToRawIntBits(arg3),
+                      Float.floatToRawIntBits(arg4), 4);
+  }
+
+  @Override
+  public void info(final String format, final boolean arg) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.BOOLEAN, (arg ? 1 : 0),
+                      0, 0, 0, 1);
+  }
+
+  @Override
+  public void info(final String format, final boolean arg1,
+                   final boolean arg2) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.BOOLEAN, (arg1 ? 1 : 0),
+                      (arg2 ? 1 : 0), 0, 0, 2);
+  }
+
+  @Override
+  public void info(final String format, final boolean arg1, final boolean arg2,
+                   final boolean arg3) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.BOOLEAN, (arg1 ? 1 : 0),
+                      (arg2 ? 1 : 0), (arg3 ? 1 : 0), 0, 3);
+  }
+
+  @Override
+  public void info(final String format, final boolean arg1, final boolean arg2,
+                   final boolean arg3, final boolean arg4) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.BOOLEAN, (arg1 ? 1 : 0),
+                      (arg2 ? 1 : 0), (arg3 ? 1 : 0), (arg4 ? 1 : 0), 4);
+  }
+
+  @Override
+  public void info(final String format, final char arg) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.CHAR, arg, 0, 0, 0, 1);
+  }
+
+  @Override
+  public void info(final String format, final char arg1, final char arg2) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.CHAR, arg1, arg2, 0, 0,
+                      2);
+  }
+
+  @Override
+  public void info(final String format, final char arg1, final char arg2,
+                   final char arg3) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.CHAR, arg1, arg2, arg3,
+                      0, 3);
+  }
+
+  @Override
+  public void info(final String format, final char arg1, final char arg2,
+                   final char arg3, final char arg4) {
+    if (!this.isInfoEnabled()) { return; }
+    this.formatAndLog(Level.INFO, format, PrimitiveType.CHAR, arg1, arg2, arg3,
+                      arg4, 4);
+  }
+
+  @Override
+  public boolean isDebugEnabled() {
     return this.isLevelEnabled(Level.DEBUG);
   }
 
   @Override
-  public boolean isErrorEnabled() {
-    return this.isLevelEnabled(Level.ERROR);
+  public boolean isDebugEnabled(final Marker marker) {
+    return this.isLevelEnabled(Level.DEBUG, marker);
+  }
+
+  @Override
+  public boolean isErrorEnabled() {
+    return this.isLevelEnabled(Level.ERROR);
+  }
+
+  @Override
+  public boolean isErrorEnabled(final Marker marker) {
+    return this.isLevelEnabled(Level.ERROR, marker);
+  }
+
+  @Override
+  public boolean isInfoEnabled() {
+    return this.isLevelEnabled(Level.INFO);
+  }
+
+  @Override
+  public boolean isInfoEnabled(final Marker marker) {
+    return this.isLevelEnabled(Level.INFO, marker);
+  }
+
+  @Override
+  public boolean isTraceEnabled() {
+    return this.isLevelEnabled(Level.TRACE);
+  }
+
+  @Override
+  public boolean isTraceEnabled(final Marker marker) {
+    return this.isLevelEnabled(Level.TRACE, marker);
+  }
+
+  @Override
+  public boolean isWarnEnabled() {
+    return this.isLevelEnabled(Level.WARN);
+  }
+
+  @Override
+  public boolean isWarnEnabled(final Marker marker) {
+    return this.isLevelEnabled(Level.WARN, marker);
+  }
+
+  @Override
+  public LogEventBuilder atTrace() {
+    return this.at(Level.TRACE);
+  }
+
+  @Override
+  public void trace(final ColorStringBuilder message) {
+    if (!this.isTraceEnabled()) { return; }
+    this.log(Level.TRACE, message);
+  }
+
+  @Override
+  public void trace(final Marker marker, final String msg) {
+    if (!this.isTraceEnabled(marker)) { return; }
+    this.log(Level.TRACE, marker, msg, null);
+  }
+
+  @Override
+  public void trace(final Marker marker, final String format, final Object arg) {
+    if (!this.isTraceEnabled(marker)) { return; }
+    this.formatAndLog(Level.TRACE, marker, format, arg, null, 1);
+  }
+
+  @Override
+  public void trace(final Marker marker, final String format,
+                    final Object... arguments) {
+    if (!this.isTraceEnabled(marker)) { return; }
+    this.formatAndLog(Level.TRACE, marker, format, arguments);
+  }
+
+  @Override
+  public void trace(final Marker marker, final String format,
+                    final Object arg1, final Object arg2) {
+    if (!this.isTraceEnabled(marker)) { return; }
+    this.formatAndLog(Level.TRACE, marker, format, arg1, arg2, 2);
+  }
+
+  @Override
+  public void trace(final Marker marker, final String msg, final Throwable t) {
+    if (!this.isTraceEnabled(marker)) { return; }
+    this.log(Level.TRACE, marker, msg, t);
+  }
+
+  @Override
+  public void trace(final String msg) {
+    if (!this.isTraceEnabled()) { return; }
+    this.log(Level.TRACE, null, msg, null);
+  }
+
+  @Override
+  public void trace(final String format, final Object arg) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, null, format, arg, null, 1);
+  }
+
+  @Override
+  public void traceLazy(final String format, final LazyArgument<?> arg) {
+    this.trace(format, (Object) arg);
+  }
+
+  @Override
+  public void traceLazy(final String format, final LazyArgument<?> arg1,
+                        final LazyArgument<?> arg2) {
+    this.trace(format, (Object) arg1, (Object) arg2);
+  }
+
+  @Override
+  public void trace(final String format, final Object... arguments) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, null, format, arguments);
+  }
+
+  @Override
+  public void trace(final String format, final Object arg1, final Object arg2) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, null, format, arg1, arg2, 2);
+  }
+
+  @Override
+  public void trace(final String msg, final Throwable t) {
+    if (!this.isTraceEnabled()) { return; }
+    this.log(Level.TRACE, null, msg, t);
+  }
+
+  @Override
+  public void trace(final String format, final int arg) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.INT, arg, 0, 0, 0, 1);
+  }
+
+  @Override
+  public void trace(final String format, final int arg1, final int arg2) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.INT, arg1, arg2, 0, 0,
+                      2);
+  }
+
+  @Override
+  public void trace(final String format, final int arg1, final int arg2,
+                    final int arg3) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.INT, arg1, arg2, arg3,
+                      0, 3);
+  }
+
+  @Override
+  public void trace(final String format, final int arg1, final int arg2,
+                    final int arg3, final int arg4) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.INT, arg1, arg2, arg3,
+                      arg4, 4);
+  }
+
+  @Override
+  public void trace(final String format, final long arg) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.LONG, arg, 0, 0, 0, 1);
+  }
+
+  @Override
+  public void trace(final String format, final long arg1, final long arg2) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.LONG, arg1, arg2, 0, 0,
+                      2);
+  }
+
+  @Override
+  public void trace(final String format, final long arg1, final long arg2,
+                    final long arg3) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.LONG, arg1, arg2, arg3,
+                      0, 3);
+  }
+
+  @Override
+  public void trace(final String format, final long arg1, final long arg2,
+                    final long arg3, final long arg4) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.LONG, arg1, arg2, arg3,
+                      arg4, 4);
+  }
+
+  @Override
+  public void trace(final String format, final double arg) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg), 0, 0, 0, 1);
+  }
+
+  @Override
+  public void trace(final String format, final double arg1, final double arg2) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2), 0, 0, 2);
+  }
+
+  @Override
+  public void trace(final String format, final double arg1, final double arg2,
+                    final double arg3) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2),
+                      Double.doubleToRawLongBits(arg3), 0, 3);
+  }
+
+  @Override
+  public void trace(final String format, final double arg1, final double arg2,
+                    final double arg3, final double arg4) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2),
+                      Double.doubleToRawLongBits(arg3),
+                      Double.doubleToRawLongBits(arg4), 4);
+  }
+
+  @Override
+  public void trace(final String format, final float arg) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg), 0, 0, 0, 1);
+  }
+
+  @Override
+  public void trace(final String format, final float arg1, final float arg2) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2), 0, 0, 2);
+  }
+
+  @Override
+  public void trace(final String format, final float arg1, final float arg2,
+                    final float arg3) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2),
+                      Float.floatToRawIntBits(arg3), 0, 3);
+  }
+
+  @Override
+  public void trace(final String format, final float arg1, final float arg2,
+                    final float arg3, final float arg4) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2),
+                      Float.floatToRawIntBits(arg3),
+                      Float.floatToRawIntBits(arg4), 4);
+  }
+
+  @Override
+  public void trace(final String format, final boolean arg) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.BOOLEAN, (arg ? 1 : 0),
+                      0, 0, 0, 1);
+  }
+
+  @Override
+  public void trace(final String format, final boolean arg1,
+                    final boolean arg2) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.BOOLEAN,
+                      (arg1 ? 1 : 0), (arg2 ? 1 : 0), 0, 0, 2);
+  }
+
+  @Override
+  public void trace(final String format, final boolean arg1, final boolean arg2,
+                    final boolean arg3) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.BOOLEAN,
+                      (arg1 ? 1 : 0), (arg2 ? 1 : 0), (arg3 ? 1 : 0), 0, 3);
+  }
+
+  @Override
+  public void trace(final String format, final boolean arg1, final boolean arg2,
+                    final boolean arg3, final boolean arg4) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.BOOLEAN,
+                      (arg1 ? 1 : 0), (arg2 ? 1 : 0), (arg3 ? 1 : 0),
+                      (arg4 ? 1 : 0), 4);
+  }
+
+  @Override
+  public void trace(final String format, final char arg) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.CHAR, arg, 0, 0, 0, 1);
+  }
+
+  @Override
+  public void trace(final String format, final char arg1, final char arg2) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.CHAR, arg1, arg2, 0, 0,
+                      2);
+  }
+
+  @Override
+  public void trace(final String format, final char arg1, final char arg2,
+                    final char arg3) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.CHAR, arg1, arg2, arg3,
+                      0, 3);
+  }
+
+  @Override
+  public void trace(final String format, final char arg1, final char arg2,
+                    final char arg3, final char arg4) {
+    if (!this.isTraceEnabled()) { return; }
+    this.formatAndLog(Level.TRACE, format, PrimitiveType.CHAR, arg1, arg2, arg3,
+                      arg4, 4);
+  }
+
+  @Override
+  public LogEventBuilder atWarn() {
+    return this.at(Level.WARN);
+  }
+
+  @Override
+  public void warn(final ColorStringBuilder message) {
+    if (!this.isWarnEnabled()) { return; }
+    this.log(Level.WARN, message);
+  }
+
+  @Override
+  public void warn(final Marker marker, final String msg) {
+    if (!this.isWarnEnabled(marker)) { return; }
+    this.log(Level.WARN, marker, msg, null);
+  }
+
+  @Override
+  public void warn(final Marker marker, final String format, final Object arg) {
+    if (!this.isWarnEnabled(marker)) { return; }
+    this.formatAndLog(Level.WARN, marker, format, arg, null, 1);
+  }
+
+  @Override
+  public void warn(final Marker marker, final String format,
+                   final Object... arguments) {
+    if (!this.isWarnEnabled(marker)) { return; }
+    this.formatAndLog(Level.WARN, marker, format, arguments);
+  }
+
+  @Override
+  public void warn(final Marker marker, final String format, final Object arg1,
+                   final Object arg2) {
+    if (!this.isWarnEnabled(marker)) { return; }
+    this.formatAndLog(Level.WARN, marker, format, arg1, arg2, 2);
+  }
+
+  @Override
+  public void warn(final Marker marker, final String msg, final Throwable t) {
+    if (!this.isWarnEnabled(marker)) { return; }
+    this.log(Level.WARN, marker, msg, t);
+  }
+
+  @Override
+  public void warn(final String msg) {
+    if (!this.isWarnEnabled()) { return; }
+    this.log(Level.WARN, null, msg, null);
+  }
+
+  @Override
+  public void warn(final String format, final Object arg) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, null, format, arg, null, 1);
+  }
+
+  @Override
+  public void warnLazy(final String format, final LazyArgument<?> arg) {
+    this.warn(format, (Object) arg);
   }
 
   @Override
-  public boolean isErrorEnabled(final Marker marker) {
-    return this.isLevelEnabled(Level.ERROR);
+  public void warnLazy(final String format, final LazyArgument<?> arg1,
+                       final LazyArgument<?> arg2) {
+    this.warn(format, (Object) arg1, (Object) arg2);
   }
 
   @Override
-  public boolean isInfoEnabled() {
-    return this.isLevelEnabled(Level.INFO);
+  public void warn(final String format, final Object... arguments) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, null, format, arguments);
   }
 
   @Override
-  public boolean isInfoEnabled(final Marker marker) {
-    return this.isLevelEnabled(Level.INFO);
+  public void warn(final String format, final Object arg1, final Object arg2) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, null, format, arg1, arg2, 2);
   }
 
   @Override
-  public boolean isTraceEnabled() {
-    return this.isLevelEnabled(Level.TRACE);
+  public void warn(final String msg, final Throwable t) {
+    if (!this.isWarnEnabled()) { return; }
+    this.log(Level.WARN, null, msg, t);
   }
 
   @Override
-  public boolean isTraceEnabled(final Marker marker) {
-    return this.isLevelEnabled(Level.TRACE);
+  public void warn(final String format, final int arg) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.INT, arg, 0, 0, 0, 1);
   }
 
   @Override
-  public boolean isWarnEnabled() {
-    return this.isLevelEnabled(Level.WARN);
+  public void warn(final String format, final int arg1, final int arg2) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.INT, arg1, arg2, 0, 0,
+                      2);
   }
 
   @Override
-  public boolean isWarnEnabled(final Marker marker) {
-    return this.isLevelEnabled(Level.WARN);
+  public void warn(final String format, final int arg1, final int arg2,
+                   final int arg3) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.INT, arg1, arg2, arg3,
+                      0, 3);
   }
 
   @Override
-  public void trace(final Marker marker, final String msg) {
-    if (!this.isTraceEnabled()) { return; }
-    this.log(Level.TRACE, marker, msg, null);
+  public void warn(final String format, final int arg1, final int arg2,
+                   final int arg3, final int arg4) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.INT, arg1, arg2, arg3,
+                      arg4, 4);
   }
 
   @Override
-  public void trace(final Marker marker, final String format, final Object arg) {
-    if (!this.isTraceEnabled()) { return; }
-    this.formatAndLog(Level.TRACE, marker, format, arg, null);
+  public void warn(final String format, final long arg) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.LONG, arg, 0, 0, 0, 1);
   }
 
   @Override
-  public void trace(final Marker marker, final String format,
-                    final Object... arguments) {
-    if (!this.isTraceEnabled()) { return; }
-    this.formatAndLog(Level.TRACE, marker, format, arguments);
+  public void warn(final String format, final long arg1, final long arg2) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.LONG, arg1, arg2, 0, 0,
+                      2);
   }
 
   @Override
-  public void trace(final Marker marker, final String format,
-                    final Object arg1, final Object arg2) {
-    if (!this.isTraceEnabled()) { return; }
-    this.formatAndLog(Level.TRACE, marker, format, arg1, arg2);
+  public void warn(final String format, final long arg1, final long arg2,
+                   final long arg3) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.LONG, arg1, arg2, arg3,
+                      0, 3);
   }
 
   @Override
-  public void trace(final Marker marker, final String msg, final Throwable t) {
-    if (!this.isTraceEnabled()) { return; }
-    this.log(Level.TRACE, marker, msg, t);
+  public void warn(final String format, final long arg1, final long arg2,
+                   final long arg3, final long arg4) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.LONG, arg1, arg2, arg3,
+                      arg4, 4);
   }
 
   @Override
-  public void trace(final String msg) {
-    if (!this.isTraceEnabled()) { return; }
-    this.log(Level.TRACE, null, msg, null);
+  public void warn(final String format, final double arg) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg), 0, 0, 0, 1);
   }
 
   @Override
-  public void trace(final String format, final Object arg) {
-    if (!this.isTraceEnabled()) { return; }
-    this.formatAndLog(Level.TRACE, null, format, arg, null);
+  public void warn(final String format, final double arg1, final double arg2) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2), 0, 0, 2);
   }
 
   @Override
-  public void trace(final String format, final Object... arguments) {
-    if (!this.isTraceEnabled()) { return; }
-    this.formatAndLog(Level.TRACE, null, format, arguments);
+  public void warn(final String format, final double arg1, final double arg2,
+                   final double arg3) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2),
+                      Double.doubleToRawLongBits(arg3), 0, 3);
   }
 
   @Override
-  public void trace(final String format, final Object arg1, final Object arg2) {
-    if (!this.isTraceEnabled()) { return; }
-    this.formatAndLog(Level.TRACE, null, format, arg1, arg2);
+  public void warn(final String format, final double arg1, final double arg2,
+                   final double arg3, final double arg4) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.DOUBLE,
+                      Double.doubleToRawLongBits(arg1),
+                      Double.doubleToRawLongBits(arg2),
+                      Double.doubleToRawLongBits(arg3),
+                      Double.doubleToRawLongBits(arg4), 4);
   }
 
   @Override
-  public void trace(final String msg, final Throwable t) {
-    if (!this.isTraceEnabled()) { return; }
-    this.log(Level.TRACE, null, msg, t);
+  public void warn(final String format, final float arg) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg), 0, 0, 0, 1);
   }
 
   @Override
-  public void warn(final Marker marker, final String msg) {
+  public void warn(final String format, final float arg1, final float arg2) {
     if (!this.isWarnEnabled()) { return; }
-    this.log(Level.WARN, marker, msg, null);
+    this.formatAndLog(Level.WARN, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2), 0, 0, 2);
   }
 
   @Override
-  public void warn(final Marker marker, final String format, final Object arg) {
+  public void warn(final String format, final float arg1, final float arg2,
+                   final float arg3) {
     if (!this.isWarnEnabled()) { return; }
-    this.formatAndLog(Level.WARN, marker, format, arg, null);
+    this.formatAndLog(Level.WARN, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2),
+                      Float.floatToRawIntBits(arg3), 0, 3);
   }
 
   @Override
-  public void warn(final Marker marker, final String format,
-                   final Object... arguments) {
+  public void warn(final String format, final float arg1, final float arg2,
+                   final float arg3, final float arg4) {
     if (!this.isWarnEnabled()) { return; }
-    this.formatAndLog(Level.WARN, marker, format, arguments);
+    this.formatAndLog(Level.WARN, format, PrimitiveType.FLOAT,
+                      Float.floatToRawIntBits(arg1),
+                      Float.floatToRawIntBits(arg2),
+                      Float.floatToRawIntBits(arg3),
+                      Float.floatToRawIntBits(arg4), 4);
   }
 
   @Override
-  public void warn(final Marker marker, final String format, final Object arg1,
-                   final Object arg2) {
+  public void warn(final String format, final boolean arg) {
     if (!this.isWarnEnabled()) { return; }
-    this.formatAndLog(Level.WARN, marker, format, arg1, arg2);
+    this.formatAndLog(Level.WARN, format, PrimitiveType.BOOLEAN, (arg ? 1 : 0),
+                      0, 0, 0, 1);
   }
 
   @Override
-  public void warn(final Marker marker, final String msg, final Throwable t) {
+  public void warn(final String format, final boolean arg1,
+                   final boolean arg2) {
     if (!this.isWarnEnabled()) { return; }
-    this.log(Level.WARN, marker, msg, t);
+    this.formatAndLog(Level.WARN, format, PrimitiveType.BOOLEAN, (arg1 ? 1 : 0),
+                      (arg2 ? 1 : 0), 0, 0, 2);
   }
 
   @Override
-  public void warn(final String msg) {
+  public void warn(final String format, final boolean arg1, final boolean arg2,
+                   final boolean arg3) {
     if (!this.isWarnEnabled()) { return; }
-    this.log(Level.WARN, null, msg, null);
+    this.formatAndLog(Level.WARN, format, PrimitiveType.BOOLEAN, (arg1 ? 1 : 0),
+                      (arg2 ? 1 : 0), (arg3 ? 1 : 0), 0, 3);
   }
 
   @Override
-  public void warn(final String format, final Object arg) {
+  public void warn(final String format, final boolean arg1, final boolean arg2,
+                   final boolean arg3, final boolean arg4) {
     if (!this.isWarnEnabled()) { return; }
-    this.formatAndLog(Level.WARN, null, format, arg, null);
+    this.formatAndLog(Level.WARN, format, PrimitiveType.BOOLEAN, (arg1 ? 1 : 0),
+                      (arg2 ? 1 : 0), (arg3 ? 1 : 0), (arg4 ? 1 : 0), 4);
   }
 
   @Override
-  public void warn(final String format, final Object... arguments) {
+  public void warn(final String format, final char arg) {
     if (!this.isWarnEnabled()) { return; }
-    this.formatAndLog(Level.WARN, null, format, arguments);
+    this.formatAndLog(Level.WARN, format, PrimitiveType.CHAR, arg, 0, 0, 0, 1);
   }
 
   @Override
-  public void warn(final String format, final Object arg1, final Object arg2) {
+  public void warn(final String format, final char arg1, final char arg2) {
     if (!this.isWarnEnabled()) { return; }
-    this.formatAndLog(Level.WARN, null, format, arg1, arg2);
+    this.formatAndLog(Level.WARN, format, PrimitiveType.CHAR, arg1, arg2, 0, 0,
+                      2);
   }
 
   @Override
-  public void warn(final String msg, final Throwable t) {
+  public void warn(final String format, final char arg1, final char arg2,
+                   final char arg3) {
     if (!this.isWarnEnabled()) { return; }
-    this.log(Level.WARN, null, msg, t);
+    this.formatAndLog(Level.WARN, format, PrimitiveType.CHAR, arg1, arg2, arg3,
+                      0, 3);
+  }
+
+  @Override
+  public void warn(final String format, final char arg1, final char arg2,
+                   final char arg3, final char arg4) {
+    if (!this.isWarnEnabled()) { return; }
+    this.formatAndLog(Level.WARN, format, PrimitiveType.CHAR, arg1, arg2, arg3,
+                      arg4, 4);
   }
 
   /**
@@ -872,31 +2453,94 @@ public final class BukkitLoggerAdapter implements Logger {
   }
 
   /**
-   * Computes this logger's current logging level, based on the Bukkit plugin
-   * config.
+   * Returns this logger's line prefixes for the given configuration snapshot,
+   * rendering them again only if the configuration has changed since they
+   * were last rendered.
+   *
+   * @param config
+   *          the current configuration snapshot.
+   * @return never null.
+   */
+  private LinePrefixes getLinePrefixes(final BukkitLoggerConfig config) {
+    LinePrefixes prefixes = this.linePrefixes;
+    if ((prefixes == null) || (prefixes.getConfig() != config)) {
+      String loggerName = null;
+      if (config.isShowLogName()) {
+        loggerName = this.name;
+      } else if (config.isShowShortLogName()) {
+        if (this.shortLogName == null) {
+          this.shortLogName = this.computeShortName();
+        }
+        loggerName = this.shortLogName;
+      }
+      prefixes = new LinePrefixes(config, loggerName);
+      this.linePrefixes = prefixes;
+    }
+    return prefixes;
+  }
+
+  /**
+   * Logs an event that was queued by an {@link AsyncLogDispatcher}, using the
+   * current configuration. Called by the dispatcher's consumer thread.
    *
-   * @return the value of "slf4j.defaultLogLevel" if neither this logger nor any
-   *         of its ancestors define a logging level.
+   * @param event
+   *          an event created by this logger.
    */
-  private Level determineCurrentLevel() {
-    // Compute the current level, which may be null.
-    String tempName = this.name;
-    Level level = null;
-    int indexOfLastDot = tempName.length();
-    while ((level == null) && (indexOfLastDot > -1)) {
-      tempName = tempName.substring(0, indexOfLastDot);
-      level = BukkitLoggerAdapter.stringToLevel(BukkitLoggerAdapter.getStringProperty(BukkitLoggerAdapter.CONFIG_KEY_PREFIX_LOG
-                                                                                          + tempName,
-                                                                                      null));
-      indexOfLastDot = String.valueOf(tempName).lastIndexOf(".");
+  void render(final LogEvent event) {
+    final BukkitLoggerConfig config = BukkitLoggerAdapter.CONFIG.get();
+    final LogBuffers buffers = BukkitLoggerAdapter.acquireBuffers(config);
+    if ((buffers != null) || this.getSinkLevels(config).isStructured()) {
+      this.write(config, event, buffers);
+      return;
     }
-    // Return the default value if we got null.
-    return (level == null) ? BukkitLoggerAdapter.CONFIG_VALUE_DEFAULT_LOG_LEVEL
-                          : level;
+    event.formatMessage();
+    this.log(config, event.getLevel(),
+             event.getMarker(), event.getMessage(), event.getThrowable(),
+             event.getThreadName());
   }
 
   /**
-   * For formatted messages, first substitute arguments and then log.
+   * Returns the thresholds of all sinks for this logger, resolving them again
+   * only if the configuration or the sinks have changed since they were last
+   * resolved.
+   *
+   * @param config
+   *          the current configuration snapshot.
+   * @return never null.
+   */
+  private SinkLevels getSinkLevels(final BukkitLoggerConfig config) {
+    final List<LogSink> sinks = BukkitLoggerAdapter.SINKS.get();
+    SinkLevels levels = this.sinkLevels;
+    if ((levels == null) || (levels.getConfig() != config)
+        || (levels.getSinks() != sinks)) {
+      levels = new SinkLevels(config, sinks, this.name);
+      this.sinkLevels = levels;
+    }
+    return levels;
+  }
+
+  /**
+   * Returns the event to log a message through, if it must be logged through
+   * one: if low-garbage mode is enabled, or if a structured sink needs its
+   * format and arguments.
+   *
+   * @param config
+   *          the current configuration snapshot.
+   * @param buffers
+   *          the calling thread's buffers, may be null.
+   * @return null if the message is formatted right away.
+   */
+  private LogEvent eventFor(final BukkitLoggerConfig config,
+                            final LogBuffers buffers) {
+    if (buffers != null) { return buffers.getEvent(); }
+    if (BukkitLoggerAdapter.isBuffering(config)
+        || !this.getSinkLevels(config).isStructured()) { return null; }
+    return new LogEvent();
+  }
+
+  /**
+   * For formatted messages, first substitute arguments and then log. The
+   * caller has already checked that the level is enabled.
    *
    * @param level
    *          the level of this message.
@@ -909,13 +2553,29 @@ public final class BukkitLoggerAdapter implements Logger {
    */
   private void formatAndLog(final Level level, final Marker marker,
                             final String format, final Object... arguments) {
-    if (!this.isLevelEnabled(level)) { return; }
-    final FormattingTuple tp = MessageFormatter.arrayFormat(format, arguments);
-    this.log(level, marker, tp.getMessage(), tp.getThrowable());
+    if (this.isLimited()) { return; }
+    final AsyncLogDispatcher dispatcher = BukkitLoggerAdapter.ASYNC_DISPATCHER.get();
+    if ((dispatcher != null)
+        && dispatcher.publish(this, level, marker, format, arguments)) { return; }
+    final BukkitLoggerConfig config = BukkitLoggerAdapter.getConfig();
+    final LogBuffers buffers = BukkitLoggerAdapter.acquireBuffers(config);
+    final LogEvent event = this.eventFor(config, buffers);
+    if (event != null) {
+      this.write(config,
+                 event.set(this, level, marker, format, null,
+                           Thread.currentThread().getName())
+                      .setArguments(arguments), buffers);
+      return;
+    }
+    final StringBuilder buf = new StringBuilder(128);
+    final Throwable throwable = BufferedMessageFormatter.format(buf, format,
+                                                                arguments);
+    this.dispatch(level, marker, buf.toString(), throwable);
   }
 
   /**
-   * For formatted messages, first substitute arguments and then log.
+   * For formatted messages, first substitute arguments and then log. The
+   * caller has already checked that the level is enabled.
    *
    * @param level
    *          the level of this message.
@@ -927,13 +2587,118 @@ public final class BukkitLoggerAdapter implements Logger {
    *          format argument #1.
    * @param arg2
    *          format argument #2.
+   * @param count
+   *          the number of arguments that were passed, 1 or 2.
    */
   private void formatAndLog(final Level level, final Marker marker,
                             final String format, final Object arg1,
-                            final Object arg2) {
-    if (!this.isLevelEnabled(level)) { return; }
-    final FormattingTuple tp = MessageFormatter.format(format, arg1, arg2);
-    this.log(level, marker, tp.getMessage(), tp.getThrowable());
+                            final Object arg2, final int count) {
+    if (this.isLimited()) { return; }
+    final AsyncLogDispatcher dispatcher = BukkitLoggerAdapter.ASYNC_DISPATCHER.get();
+    if ((dispatcher != null)
+        && dispatcher.publish(this, level, marker, format, arg1, arg2,
+                              count)) { return; }
+    final BukkitLoggerConfig config = BukkitLoggerAdapter.getConfig();
+    final LogBuffers buffers = BukkitLoggerAdapter.acquireBuffers(config);
+    final LogEvent event = this.eventFor(config, buffers);
+    if (event != null) {
+      this.write(config,
+                 event.set(this, level, marker, format, null,
+                           Thread.currentThread().getName())
+                      .setArguments(arg1, arg2, count), buffers);
+      return;
+    }
+    final StringBuilder buf = new StringBuilder(128);
+    final Throwable throwable = BufferedMessageFormatter.format(buf, format,
+                                                                arg1, arg2);
+    this.dispatch(level, marker, buf.toString(), throwable);
+  }
+
+  /**
+   * For formatted messages with primitive arguments, first substitute
+   * arguments and then log. The arguments are never boxed. The caller has
+   * already checked that the level is enabled.
+   *
+   * @param level
+   *          the level of this message.
+   * @param format
+   *          the message format string.
+   * @param type
+   *          the type of the arguments.
+   * @param arg1
+   *          format argument #1, encoded as described by the type.
+   * @param arg2
+   *          format argument #2, encoded as described by the type.
+   * @param arg3
+   *          format argument #3, encoded as described by the type.
+   * @param arg4
+   *          format argument #4, encoded as described by the type.
+   * @param count
+   *          the number of arguments, 1 to 4.
+   */
+  private void formatAndLog(final Level level, final String format,
+                            final PrimitiveType type, final long arg1,
+                            final long arg2, final long arg3, final long arg4,
+                            final int count) {
+    if (this.isLimited()) { return; }
+    final AsyncLogDispatcher dispatcher = BukkitLoggerAdapter.ASYNC_DISPATCHER.get();
+    if ((dispatcher != null)
+        && dispatcher.publish(this, level, format, type, arg1, arg2, arg3,
+                              arg4, count)) { return; }
+    final BukkitLoggerConfig config = BukkitLoggerAdapter.getConfig();
+    final LogBuffers buffers = BukkitLoggerAdapter.acquireBuffers(config);
+    final LogEvent event = this.eventFor(config, buffers);
+    if (event != null) {
+      this.write(config,
+                 event.set(this, level, null, format, null,
+                           Thread.currentThread().getName())
+                      .setArguments(type, arg1, arg2, arg3, arg4, count),
+                 buffers);
+      return;
+    }
+    final StringBuilder buf = new StringBuilder(128);
+    BufferedMessageFormatter.format(buf, format, type, arg1, arg2, arg3, arg4,
+                                    count);
+    this.dispatch(level, null, buf.toString(), null);
+  }
+
+  /**
+   * Returns a builder for an event of the given level, or a no-op builder if
+   * the event cannot be logged. If a marker rule could enable the event, the
+   * level and limits are only checked when it is logged, because the marker
+   * of the event is only known then.
+   *
+   * @param level
+   *          the level of the event.
+   * @return never null.
+   */
+  private LogEventBuilder at(final Level level) {
+    final MarkerRules rules = BukkitLoggerAdapter.getConfig().getMarkerRules();
+    if (rules != null) {
+      if (!rules.canEnable(level)
+          && !this.isLevelEnabled(level)) { return NoOpLogEventBuilder.INSTANCE; }
+      return BukkitLogEventBuilder.obtain(this, level, true);
+    }
+    if (!this.isLevelEnabled(level) || this.isLimited()) { return NoOpLogEventBuilder.INSTANCE; }
+    return BukkitLogEventBuilder.obtain(this, level, false);
+  }
+
+  /**
+   * Applies the samplers and rate limits that are configured for this logger.
+   * Called right after a successful level check, before anything is
+   * formatted.
+   *
+   * @return true if the message must be suppressed.
+   */
+  boolean isLimited() {
+    final BukkitLoggerConfig config = BukkitLoggerAdapter.CONFIG.get();
+    if (!config.hasLogLimiters()) { return false; }
+    LogLimits limits = this.logLimits;
+    if ((limits == null) || (limits.getConfig() != config)) {
+      limits = config.getLogLimits(this.name);
+      this.logLimits = limits;
+    }
+    return !limits.tryAcquire();
   }
 
   /**
@@ -947,16 +2712,63 @@ public final class BukkitLoggerAdapter implements Logger {
     // Ensure that SLF4Bukkit is initialized. Every public API call passes
     // through this method, so this is the appropriate place to ensure
     // initialization.
-    BukkitLoggerAdapter.init(false);
-    // log level are numerically ordered so can use simple numeric comparison
-    //
-    // the PLUGIN.getLogger().isLoggable() check avoids the unconditional
-    // construction of location data for disabled log statements. As of
-    // 2008-07-31, callers of this method do not perform this check. See also
-    // http://jira.qos.ch/browse/SLF4J-81
-    final Level currentLogLevel = this.determineCurrentLevel();
-    return (logLevel.toInt() >= currentLogLevel.toInt())
-           && (BukkitLoggerAdapter.getBukkitLogger().isLoggable(BukkitLoggerAdapter.slf4jLevelIntToBukkitJULLevel(logLevel)));
+    final BukkitLoggerConfig config = BukkitLoggerAdapter.getConfig();
+    // Until SLF4Bukkit is initialized, the default configuration applies.
+    return this.isLevelEnabled(config, logLevel);
+  }
+
+  /**
+   * Is the given log level currently enabled for messages with the given
+   * marker?
+   *
+   * @param logLevel
+   *          is this level enabled?
+   * @param marker
+   *          the marker of the message, may be null.
+   * @return true if enabled, false if disabled.
+   */
+  boolean isLevelEnabled(final Level logLevel, final Marker marker) {
+    final BukkitLoggerConfig config = BukkitLoggerAdapter.getConfig();
+    return this.isLevelEnabled(config, logLevel, marker);
+  }
+
+  /**
+   * Is the given log level enabled by the given configuration, for any sink?
+   * While events are buffered, every level is enabled, since the
+   * configuration that decides is not known yet.
+   *
+   * @param config
+   *          the configuration snapshot to check against.
+   * @param logLevel
+   *          is this level enabled?
+   * @return true if enabled, false if disabled.
+   */
+  private boolean isLevelEnabled(final BukkitLoggerConfig config,
+                                 final Level logLevel) {
+    return this.getSinkLevels(config).isEnabled(logLevel)
+           || BukkitLoggerAdapter.isBuffering(config);
+  }
+
+  /**
+   * Is the given log level enabled by the given configuration for messages
+   * with the given marker, for any sink? While events are buffered, every
+   * level is enabled.
+   *
+   * @param config
+   *          the configuration snapshot to check against.
+   * @param logLevel
+   *          is this level enabled?
+   * @param marker
+   *          the marker of the message, may be null.
+   * @return true if enabled, false if disabled.
+   */
+  private boolean isLevelEnabled(final BukkitLoggerConfig config,
+                                 final Level logLevel, final Marker marker) {
+    // Marker rules can enable levels below the minimum threshold.
+    if ((marker == null)
+        || (config.getMarkerRules() == null)) { return this.isLevelEnabled(config, logLevel); }
+    return this.getSinkLevels(config).isEnabled(logLevel, marker)
+           || BukkitLoggerAdapter.isBuffering(config);
   }
 
   /**
@@ -974,85 +2786,369 @@ public final class BukkitLoggerAdapter implements Logger {
    */
   private void log(final Level level, final Marker marker,
                    final String message, final Throwable throwable) {
-    final java.util.logging.Logger logger;
-    synchronized (BukkitLoggerAdapter.INITIALIZATION_LOCK) {
-      // Ensure that the logger will accept this request.
-      if (!this.isLevelEnabled(level)) { return; }
-      // Determine which logger will be used.
-      logger = BukkitLoggerAdapter.getBukkitLogger();
-    }
-
-    // Start building the log message.
-    final StringBuilder buf = new StringBuilder(32);
-    boolean hasHeader = false;
+    if (this.isLimited()) { return; }
+    this.dispatch(level, marker, message, throwable);
+  }
 
-    // Use the marker, if applicable. Otherwise, use the default color for
-    // this level.
-    if (marker instanceof ColorMarker) {
-      buf.append(((ColorMarker) marker).getValue());
-    } else {
-      buf.append(BukkitLoggerAdapter.CONFIG_VALUE_LEVEL_COLORS.get(level)
-                                                              .getValue());
+  /**
+   * Sends a message that has passed the level check and the samplers and rate
+   * limits to the appropriate Bukkit logger, possibly via the background
+   * thread or the buffer of early messages.
+   *
+   * @param level
+   *          the desired log level of the message.
+   * @param marker
+   *          the marker to use for this message, may be null.
+   * @param message
+   *          the message to be logged.
+   * @param throwable
+   *          the exception to be logged, may be null.
+   */
+  private void dispatch(final Level level, final Marker marker,
+                        final String message, final Throwable throwable) {
+    // Use one configuration snapshot for the entire message, even if it is
+    // replaced concurrently. Callers have already checked the level.
+    final BukkitLoggerConfig config = BukkitLoggerAdapter.getConfig();
+    final String threadName = Thread.currentThread().getName();
+    if (BukkitLoggerAdapter.isBuffering(config)) {
+      BukkitLoggerAdapter.bufferEvent(new LogEvent().set(this, level, marker,
+                                                         message, throwable,
+                                                         threadName));
+      return;
     }
-
-    // Indicate that this message comes from SLF4J, if desired.
-    if (BukkitLoggerAdapter.CONFIG_VALUE_SHOW_HEADER) {
-      hasHeader = true;
-      buf.append("[SLF4J]");
+    final AsyncLogDispatcher dispatcher = BukkitLoggerAdapter.ASYNC_DISPATCHER.get();
+    if ((dispatcher != null)
+        && dispatcher.publish(this, level, marker, message, throwable)) { return; }
+    final LogBuffers buffers = BukkitLoggerAdapter.acquireBuffers(config);
+    final LogEvent event = this.eventFor(config, buffers);
+    if (event != null) {
+      this.write(config, event.set(this, level, marker, message, throwable,
+                                   threadName), buffers);
+      return;
     }
+    this.log(config, level, marker, BukkitMDCAdapter.appendCurrent(message),
+             throwable, threadName);
+  }
 
-    // Print a readable representation of the log level, but only for log levels
-    // that Bukkit would otherwise eat.
-    switch (level) {
-      case TRACE:
-        hasHeader = true;
-        buf.append("[TRACE]");
-        break;
-      case DEBUG:
-        hasHeader = true;
-        buf.append("[DEBUG]");
-        break;
-      default:
-        break;
+  /**
+   * Logs an event that was built by a {@link BukkitLogEventBuilder}. The event
+   * is copied if it has to outlive this call, so the caller may recycle it
+   * afterwards. Callers have already checked the level.
+   *
+   * @param event
+   *          an event created by this logger, which may still need formatting.
+   */
+  void log(final LogEvent event) {
+    final BukkitLoggerConfig config = BukkitLoggerAdapter.getConfig();
+    if (BukkitLoggerAdapter.isBuffering(config)) {
+      final LogEvent copy = new LogEvent().copyFrom(event);
+      copy.formatMessage();
+      BukkitLoggerAdapter.bufferEvent(copy);
+      return;
+    }
+    final AsyncLogDispatcher dispatcher = BukkitLoggerAdapter.ASYNC_DISPATCHER.get();
+    if ((dispatcher != null) && dispatcher.publishCopy(event)) { return; }
+    final LogBuffers buffers = BukkitLoggerAdapter.acquireBuffers(config);
+    if (buffers != null) {
+      this.write(config, buffers.getEvent().copyFrom(event), buffers);
+      return;
     }
+    if (this.getSinkLevels(config).isStructured()) {
+      this.write(config, event, null);
+      return;
+    }
+    event.formatMessage();
+    this.log(config, event.getLevel(), event.getMarker(), event.getMessage(),
+             event.getThrowable(), event.getThreadName());
+  }
+
+  /**
+   * Assembles the final log message and sends it to the appropriate Bukkit
+   * logger.
+   *
+   * @param config
+   *          the configuration snapshot to use.
+   * @param level
+   *          the desired log level of the message.
+   * @param marker
+   *          the marker to use for this message, may be null.
+   * @param message
+   *          the message to be logged.
+   * @param throwable
+   *          the exception to be logged, may be null.
+   * @param threadName
+   *          the name of the thread that logged the message.
+   */
+  private void log(final BukkitLoggerConfig config, final Level level,
+                   final Marker marker, final String message,
+                   final Throwable throwable, final String threadName) {
+    final SinkLevels levels = this.getSinkLevels(config);
+    final int mask = levels.getMask(level, marker);
+    final RepeatCollapser collapser = config.getRepeatCollapser();
+    if ((collapser != null) && levels.hasText(mask)
+        && collapser.suppress(config, this, level, message, throwable)) { return; }
+    final LogEvent event = levels.isStructured()
+        ? new LogEvent().setFormatted(this, level, marker, message, throwable,
+                                      threadName)
+        : null;
+    this.emit(config, mask, level, marker, message, throwable, threadName,
+              event, null);
+  }
 
-    // Append the current thread name, if desired.
-    if (BukkitLoggerAdapter.CONFIG_VALUE_SHOW_THREAD_NAME) {
-      hasHeader = true;
-      buf.append('[');
-      buf.append(Thread.currentThread().getName());
-      buf.append("]");
+  /**
+   * Renders a formatted message once per kind of line that the sinks which
+   * write it need, i.e. with and without colors, and hands the lines to those
+   * sinks. Structured sinks receive the event, with the throwable rendered
+   * without colors.
+   *
+   * @param config
+   *          the configuration snapshot to use.
+   * @param mask
+   *          the sinks that write the message, see
+   *          {@link SinkLevels#getMask(Level, Marker)}.
+   * @param level
+   *          the level of the message.
+   * @param marker
+   *          the marker of the message, may be null.
+   * @param message
+   *          the formatted message; may only be null if no text sink is in the
+   *          mask.
+   * @param throwable
+   *          the exception to be logged, may be null.
+   * @param threadName
+   *          the name of the thread that logged the message.
+   * @param event
+   *          the event that the message was formatted from; may only be null
+   *          if no structured sink writes anything from this logger.
+   * @param buffers
+   *          the calling thread's buffers, or null to render into new buffers.
+   */
+  private void emit(final BukkitLoggerConfig config, final int mask,
+                    final Level level, final Marker marker,
+                    final CharSequence message, final Throwable throwable,
+                    final String threadName, final LogEvent event,
+                    final LogBuffers buffers) {
+    if (mask == 0) { return; }
+    final SinkLevels levels = this.getSinkLevels(config);
+    final ThrowableRenderer renderer = config.getThrowableRenderer();
+    final long record = (throwable == null) ? 0 : renderer.record(throwable);
+    StringBuilder coloredLine = null;
+    if (levels.isColored(mask)) {
+      coloredLine = (buffers != null) ? buffers.getLine()
+                                      : new StringBuilder(128);
+      this.appendLine(coloredLine, config, level, marker, message, throwable,
+                      record, threadName, true);
+    }
+    StringBuilder plainLine = null;
+    int plainThrowable = -1;
+    if (levels.isPlain(mask)) {
+      plainLine = (buffers != null) ? buffers.getPlainLine()
+                                    : new StringBuilder(128);
+      plainThrowable = this.appendLine(plainLine, config, level, marker,
+                                       message, throwable, record, threadName,
+                                       false);
     }
+    // Structured sinks store the throwable as plain text. Reuse the plain
+    // line if there is one; otherwise its buffer is free to render into.
+    if ((throwable != null) && (event != null) && levels.isStructured(mask)) {
+      if (plainLine == null) {
+        final StringBuilder buf = (buffers != null) ? buffers.getPlainLine()
+                                                    : new StringBuilder(128);
+        renderer.render(buf, throwable, record, config.getPlainColorMapper());
+        event.setThrowableText(buf.toString());
+      } else {
+        event.setThrowableText(plainLine.substring(plainThrowable));
+      }
+    }
+    levels.write(mask, level, threadName, coloredLine, plainLine, event);
+  }
 
-    // Buffer the current output with a space, unless there is no output.
-    if (hasHeader) {
-      buf.append(' ');
+  /**
+   * Logs a colored message, rendering its colors directly if it is logged
+   * synchronously. Callers have already checked the level.
+   *
+   * @param level
+   *          the desired log level of the message.
+   * @param message
+   *          the message, which may be reset once this method returns.
+   */
+  private void log(final Level level, final ColorStringBuilder message) {
+    if (this.isLimited()) { return; }
+    final BukkitLoggerConfig config = BukkitLoggerAdapter.getConfig();
+    // Queued messages outlive the builder, and repeats are detected by
+    // comparing text, so these need the message as a string.
+    if (BukkitLoggerAdapter.isBuffering(config)
+        || (BukkitLoggerAdapter.ASYNC_DISPATCHER.get() != null)
+        || (config.getRepeatCollapser() != null)
+        || this.getSinkLevels(config).isStructured()) {
+      this.dispatch(level, null, message.toString(), null);
+      return;
+    }
+    final SinkLevels levels = this.getSinkLevels(config);
+    final int mask = levels.getMask(level, null);
+    final LogBuffers buffers = BukkitLoggerAdapter.acquireBuffers(config);
+    try {
+      final String threadName = Thread.currentThread().getName();
+      final LinePrefixes prefixes = this.getLinePrefixes(config);
+      final ColorMarker color = config.getLevelColor(level);
+      StringBuilder coloredLine = null;
+      if (levels.isColored(mask)) {
+        coloredLine = (buffers == null) ? new StringBuilder(message.length() + 64)
+                                        : buffers.getLine();
+        prefixes.appendTo(coloredLine, level, color, threadName, true);
+        message.appendTo(coloredLine, config.getColorMapper());
+        BukkitMDCAdapter.appendCurrent(coloredLine);
+        coloredLine.append(config.getLineReset());
+      }
+      StringBuilder plainLine = null;
+      if (levels.isPlain(mask)) {
+        plainLine = (buffers == null) ? new StringBuilder(message.length() + 64)
+                                      : buffers.getPlainLine();
+        prefixes.appendTo(plainLine, level, color, threadName, false);
+        message.appendTo(plainLine, config.getPlainColorMapper());
+        BukkitMDCAdapter.appendCurrent(plainLine);
+      }
+      levels.write(mask, level, threadName, coloredLine, plainLine, null);
+    } finally {
+      if (buffers != null) {
+        buffers.release();
+      }
     }
+  }
+
+  /**
+   * Logs the number of times that the previous line was repeated and held
+   * back.
+   *
+   * @param config
+   *          the configuration snapshot to use.
+   * @param level
+   *          the level of the repeated line.
+   * @param repeats
+   *          the number of repeats.
+   * @see RepeatCollapser
+   */
+  void logRepeats(final BukkitLoggerConfig config, final Level level,
+                  final int repeats) {
+    final String threadName = Thread.currentThread().getName();
+    final String message = "Last message repeated " + repeats
+                           + ((repeats == 1) ? " more time" : " more times");
+    final SinkLevels levels = this.getSinkLevels(config);
+    final LogEvent event = levels.isStructured()
+        ? new LogEvent().setFormatted(this, level, null, message, null,
+                                      threadName)
+        : null;
+    this.emit(config, levels.getMask(level, null), level, null, message, null,
+              threadName, event, null);
+  }
 
-    // Append the name of the log instance, if desired.
-    if (BukkitLoggerAdapter.CONFIG_VALUE_SHOW_LOG_NAME) {
-      buf.append('{').append(this.name).append("} ");
-    } else if (BukkitLoggerAdapter.CONFIG_VALUE_SHOW_SHORT_LOG_NAME) {
-      if (this.shortLogName == null) {
-        this.shortLogName = this.computeShortName();
+  /**
+   * Formats an event into the calling thread's reusable buffers and sends the
+   * resulting line to the appropriate Bukkit logger, then releases the
+   * buffers.
+   *
+   * @param config
+   *          the configuration snapshot to use.
+   * @param event
+   *          the event to log, which may still need formatting.
+   * @param buffers
+   *          the calling thread's buffers, as returned by
+   *          {@link LogBuffers#acquire()}, or null to format into new buffers.
+   */
+  private void write(final BukkitLoggerConfig config, final LogEvent event,
+                     final LogBuffers buffers) {
+    try {
+      final SinkLevels levels = this.getSinkLevels(config);
+      final Level level = event.getLevel();
+      final int mask = levels.getMask(level, event.getMarker());
+      // Structured sinks read the arguments again.
+      if (levels.isStructured()) {
+        event.resolveArguments();
+      }
+      if (!levels.hasText(mask)) {
+        // Only structured sinks write the event, and they don't need the
+        // formatted message.
+        Throwable throwable = event.getThrowable();
+        if ((throwable == null) && event.hasTrailingThrowable()) {
+          throwable = (Throwable) event.getArgument(event.getArgumentCount() - 1);
+        }
+        this.emit(config, mask, level, event.getMarker(), null, throwable,
+                  event.getThreadName(), event, buffers);
+        return;
+      }
+      final StringBuilder message = (buffers != null) ? buffers.getMessage()
+                                                      : new StringBuilder(64);
+      final Throwable throwable = event.formatMessage(message);
+      final RepeatCollapser collapser = config.getRepeatCollapser();
+      if ((collapser != null)
+          && collapser.suppress(config, this, level, message, throwable)) { return; }
+      this.emit(config, mask, level, event.getMarker(), message, throwable,
+                event.getThreadName(), levels.isStructured() ? event : null,
+                buffers);
+    } finally {
+      if (buffers != null) {
+        buffers.release();
       }
-      buf.append('{').append(this.shortLogName).append("} ");
     }
+  }
+
+  /**
+   * Assembles the final log message.
+   *
+   * @param buf
+   *          the buffer to append the message to.
+   * @param config
+   *          the configuration snapshot to use.
+   * @param level
+   *          the desired log level of the message.
+   * @param marker
+   *          the marker to use for this message, may be null.
+   * @param message
+   *          the message to be logged.
+   * @param throwable
+   *          the exception to be logged, may be null.
+   * @param record
+   *          the result of {@link ThrowableRenderer#record(Throwable)} for the
+   *          throwable, if any.
+   * @param threadName
+   *          the name of the thread that logged the message.
+   * @param colored
+   *          false to leave out colors, for sinks that are not colored.
+   * @return the index in the buffer at which the rendered throwable starts,
+   *         or -1 if there is no throwable.
+   */
+  private int appendLine(final StringBuilder buf,
+                         final BukkitLoggerConfig config, final Level level,
+                         final Marker marker, final CharSequence message,
+                         final Throwable throwable, final long record,
+                         final String threadName, final boolean colored) {
+    // Use the marker, if applicable. Otherwise, use the default color for
+    // this level.
+    final ColorMarker color = (marker instanceof ColorMarker) ? (ColorMarker) marker
+                                                              : config.getLevelColor(level);
+    final AppendingColorMapper mapper = colored ? config.getColorMapper()
+                                                : config.getPlainColorMapper();
+
+    // Start the log message with its pre-rendered prefix, so that only the
+    // message itself needs to be color-mapped.
+    this.getLinePrefixes(config).appendTo(buf, level, color, threadName,
+                                          colored);
 
     // Append the message.
-    buf.append(message);
+    mapper.map((message == null) ? "null" : message, buf);
 
     // Append the throwable, if applicable.
+    int start = -1;
     if (throwable != null) {
-      buf.append('\n').append(ExceptionUtils.getFullStackTrace(throwable)
-                                            .trim());
+      buf.append('\n');
+      start = buf.length();
+      config.getThrowableRenderer().render(buf, throwable, record, mapper);
     }
 
     // Append a reset directive.
-    buf.append(ChatColor.RESET);
-
-    // Log the message.
-    logger.log(BukkitLoggerAdapter.slf4jLevelIntToBukkitJULLevel(level),
-               mapper.map(buf.toString()));
+    if (colored) {
+      buf.append(config.getLineReset());
+    }
+    return start;
   }
 }
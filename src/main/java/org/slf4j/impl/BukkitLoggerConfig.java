@@ -0,0 +1,1019 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import info.ronjenkins.slf4bukkit.AppendingColorMapper;
+import info.ronjenkins.slf4bukkit.ColorMapperFactory;
+import info.ronjenkins.slf4bukkit.ColorMarker;
+import info.ronjenkins.slf4bukkit.ColorProfile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.Configuration;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.Plugin;
+import org.slf4j.event.Level;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * An immutable snapshot of the SLF4Bukkit configuration of a plugin. A new
+ * snapshot is created whenever SLF4Bukkit is (re)initialized, and is published
+ * to all loggers at once; loggers never read the plugin config directly.
+ *
+ * @see BukkitLoggerAdapter
+ */
+final class BukkitLoggerConfig {
+
+  // Configuration parameters.
+  private static final boolean                      CONFIG_FALLBACK_ASYNC                  = false;
+  private static final long                         CONFIG_FALLBACK_ASYNC_BLOCK_TIMEOUT    = 100;
+  private static final long                         CONFIG_FALLBACK_ASYNC_BUFFER_SIZE      = 8192;
+  private static final long                         CONFIG_FALLBACK_ASYNC_FLUSH_TIMEOUT    = 1000;
+  private static final Map<Level, AsyncQueuePolicy> CONFIG_FALLBACK_ASYNC_POLICIES         = BukkitLoggerConfig.fallbackAsyncPolicies();
+  private static final String                       CONFIG_FALLBACK_DEFAULT_LOG_LEVEL      = "info";
+  private static final long                         CONFIG_FALLBACK_DUPLICATE_TRACE_WINDOW = 0;
+  private static final boolean                      CONFIG_FALLBACK_FILE_COMPRESS          = true;
+  private static final String                       CONFIG_FALLBACK_FILE_MAX_SIZE          = "10MB";
+  private static final String                       CONFIG_FALLBACK_FILE_ROLL_INTERVAL     = "daily";
+  private static final Map<Level, ColorMarker>      CONFIG_FALLBACK_LEVEL_COLORS           = BukkitLoggerConfig.fallbackLevelColors();
+  private static final boolean                      CONFIG_FALLBACK_LOW_GARBAGE            = false;
+  private static final boolean                      CONFIG_FALLBACK_MDC_INHERITANCE        = false;
+  private static final long                         CONFIG_FALLBACK_REPEAT_WINDOW          = 0;
+  private static final boolean                      CONFIG_FALLBACK_SHOW_HEADER            = false;
+  private static final boolean                      CONFIG_FALLBACK_SHOW_LOG_NAME          = false;
+  private static final boolean                      CONFIG_FALLBACK_SHOW_SHORT_LOG_NAME    = true;
+  private static final boolean                      CONFIG_FALLBACK_SHOW_THREAD_NAME       = false;
+  private static final long                         CONFIG_FALLBACK_STACK_TRACE_DEPTH      = 0;
+  private static final String                       CONFIG_KEY_ASYNC                       = "slf4j.async";
+  private static final String                       CONFIG_KEY_ASYNC_BLOCK_TIMEOUT         = "slf4j.asyncBlockTimeout";
+  private static final String                       CONFIG_KEY_ASYNC_BUFFER_SIZE           = "slf4j.asyncBufferSize";
+  private static final String                       CONFIG_KEY_ASYNC_FLUSH_TIMEOUT         = "slf4j.asyncFlushTimeout";
+  private static final String                       CONFIG_KEY_ASYNC_POLICIES              = "slf4j.asyncPolicy";
+  private static final String                       CONFIG_KEY_BINARY_LEVEL                = "slf4j.binaryLevel";
+  private static final String                       CONFIG_KEY_BINARY_LOG                  = "slf4j.binaryLog";
+  private static final String                       CONFIG_KEY_COLLAPSE_PACKAGES           = "slf4j.collapsePackages";
+  private static final String                       CONFIG_KEY_COLOR_PROFILE               = "slf4j.colorProfile";
+  private static final String                       CONFIG_KEY_DEFAULT_LOG_LEVEL           = "slf4j.defaultLogLevel";
+  private static final String                       CONFIG_KEY_DUPLICATE_TRACE_WINDOW      = "slf4j.duplicateTraceWindow";
+  private static final String                       CONFIG_KEY_FILE_COMPRESS               = "slf4j.fileCompress";
+  private static final String                       CONFIG_KEY_FILE_LEVEL                  = "slf4j.fileLevel";
+  private static final String                       CONFIG_KEY_FILE_MAX_SIZE               = "slf4j.fileMaxSize";
+  private static final String                       CONFIG_KEY_FILE_ROLL_INTERVAL          = "slf4j.fileRollInterval";
+  private static final String                       CONFIG_KEY_JSON_LEVEL                  = "slf4j.jsonLevel";
+  private static final String                       CONFIG_KEY_JSON_LOG                    = "slf4j.jsonLog";
+  private static final String                       CONFIG_KEY_LEVEL_COLORS                = "slf4j.colors";
+  private static final String                       CONFIG_KEY_LOG                         = "slf4j.log";
+  private static final String                       CONFIG_KEY_LOW_GARBAGE                 = "slf4j.lowGarbage";
+  private static final String                       CONFIG_KEY_MARKERS                     = "slf4j.markers";
+  private static final String                       CONFIG_KEY_MDC_INHERITANCE             = "slf4j.mdcInheritance";
+  private static final String                       CONFIG_KEY_MDC_KEYS                    = "slf4j.mdcKeys";
+  private static final String                       CONFIG_KEY_RATE_LIMITS                 = "slf4j.rateLimit";
+  private static final String                       CONFIG_KEY_REPEAT_WINDOW               = "slf4j.repeatWindow";
+  private static final String                       CONFIG_KEY_SAMPLES                     = "slf4j.sample";
+  private static final String                       CONFIG_KEY_SHOW_HEADER                 = "slf4j.showHeader";
+  private static final String                       CONFIG_KEY_SHOW_LOG_NAME               = "slf4j.showLogName";
+  private static final String                       CONFIG_KEY_SHOW_SHORT_LOG_NAME         = "slf4j.showShortLogName";
+  private static final String                       CONFIG_KEY_SHOW_THREAD_NAME            = "slf4j.showThreadName";
+  private static final String                       CONFIG_KEY_STACK_TRACE_DEPTH           = "slf4j.stackTraceDepth";
+  // Bounds of the async buffer size; the upper bound keeps a typo from
+  // exhausting the heap.
+  private static final long                         MIN_ASYNC_BUFFER_SIZE                  = 2;
+  private static final long                         MAX_ASYNC_BUFFER_SIZE                  = 1 << 20;
+  // Renders the lines of sinks that are not colored.
+  private static final AppendingColorMapper         PLAIN_COLOR_MAPPER                     = ColorMapperAdapter.of(ColorMapperFactory.get(ColorProfile.PLAIN));
+  // Snapshot values.
+  private final Plugin                              plugin;
+  private final java.util.logging.Logger            logger;
+  private final boolean                             async;
+  private final long                                asyncBlockTimeout;
+  private final int                                 asyncBufferSize;
+  private final long                                asyncFlushTimeout;
+  private final Map<Level, AsyncQueuePolicy>        asyncPolicies;
+  // Null if the binary log file has no default level.
+  private final Level                               binaryLevel;
+  private final LoggerNameTrie<Level>               binaryLogLevels;
+  private final AppendingColorMapper                colorMapper;
+  private final Level                               defaultLogLevel;
+  private final boolean                             fileCompress;
+  // Null if lines are not written to a file.
+  private final Level                               fileLevel;
+  private final long                                fileMaxSize;
+  private final int                                 fileRollInterval;
+  // Null if the JSON log file has no default level.
+  private final Level                               jsonLevel;
+  private final LoggerNameTrie<Level>               jsonLogLevels;
+  private final Map<Level, ColorMarker>             levelColors;
+  // Color-mapped start of each line, indexed by level and color.
+  private final String[]                            lineHeads;
+  private final String                              lineReset;
+  // Like lineHeads, but without colors.
+  private final String[]                            plainLineHeads;
+  private final LoggerNameTrie<Level>               logLevels;
+  // All samplers and rate limits, for reporting.
+  private final List<LogLimiter>                    logLimiters;
+  private final boolean                             lowGarbage;
+  // Null if no marker rules are configured.
+  private final MarkerRules                         markerRules;
+  private final boolean                             mdcInheritance;
+  // The MDC keys whose values are rendered, in order.
+  private final List<String>                        mdcKeys;
+  private final LoggerNameTrie<LogLimiter>          rateLimits;
+  // Null if repeated lines are not collapsed.
+  private final RepeatCollapser                     repeatCollapser;
+  private final LoggerNameTrie<LogLimiter>          samplers;
+  private final boolean                             showHeader;
+  private final boolean                             showLogName;
+  private final boolean                             showShortLogName;
+  private final boolean                             showThreadName;
+  private final ThrowableRenderer                   throwableRenderer;
+
+  private BukkitLoggerConfig(final Plugin plugin) {
+    this.plugin = plugin;
+    this.logger = (plugin == null) ? null : plugin.getLogger();
+    // Get the configuration values.
+    // 1. Look in the plugin's on-disk config.
+    // 2. If the value is absent, use the plugin's built-in config.
+    // 3. If the value is absent, use the default values hardcoded above.
+    // (1 and 2 are handled by using the Bukkit API.)
+    final Level defaultLogLevel = BukkitLoggerConfig.stringToLevel(this.getStringProperty(BukkitLoggerConfig.CONFIG_KEY_DEFAULT_LOG_LEVEL,
+                                                                                         BukkitLoggerConfig.CONFIG_FALLBACK_DEFAULT_LOG_LEVEL));
+    this.defaultLogLevel = (defaultLogLevel == null) ? BukkitLoggerConfig.stringToLevel(BukkitLoggerConfig.CONFIG_FALLBACK_DEFAULT_LOG_LEVEL)
+                                                     : defaultLogLevel;
+    this.fileLevel = BukkitLoggerConfig.stringToLevel(this.getStringProperty(BukkitLoggerConfig.CONFIG_KEY_FILE_LEVEL,
+                                                                             null));
+    final long fileMaxSize = RollingFile.parseSize(this.getStringProperty(BukkitLoggerConfig.CONFIG_KEY_FILE_MAX_SIZE,
+                                                                          BukkitLoggerConfig.CONFIG_FALLBACK_FILE_MAX_SIZE));
+    this.fileMaxSize = (fileMaxSize < 0) ? RollingFile.parseSize(BukkitLoggerConfig.CONFIG_FALLBACK_FILE_MAX_SIZE)
+                                         : fileMaxSize;
+    final int fileRollInterval = RollingFile.parseInterval(this.getStringProperty(BukkitLoggerConfig.CONFIG_KEY_FILE_ROLL_INTERVAL,
+                                                                                  BukkitLoggerConfig.CONFIG_FALLBACK_FILE_ROLL_INTERVAL));
+    this.fileRollInterval = (fileRollInterval < 0) ? RollingFile.parseInterval(BukkitLoggerConfig.CONFIG_FALLBACK_FILE_ROLL_INTERVAL)
+                                                   : fileRollInterval;
+    this.fileCompress = this.getBooleanProperty(BukkitLoggerConfig.CONFIG_KEY_FILE_COMPRESS,
+                                                BukkitLoggerConfig.CONFIG_FALLBACK_FILE_COMPRESS);
+    this.jsonLevel = BukkitLoggerConfig.stringToLevel(this.getStringProperty(BukkitLoggerConfig.CONFIG_KEY_JSON_LEVEL,
+                                                                             null));
+    this.jsonLogLevels = this.getLogLevels(BukkitLoggerConfig.CONFIG_KEY_JSON_LOG);
+    this.binaryLevel = BukkitLoggerConfig.stringToLevel(this.getStringProperty(BukkitLoggerConfig.CONFIG_KEY_BINARY_LEVEL,
+                                                                               null));
+    this.binaryLogLevels = this.getLogLevels(BukkitLoggerConfig.CONFIG_KEY_BINARY_LOG);
+    this.async = this.getBooleanProperty(BukkitLoggerConfig.CONFIG_KEY_ASYNC,
+                                         BukkitLoggerConfig.CONFIG_FALLBACK_ASYNC);
+    this.asyncBufferSize = (int) Math.min(BukkitLoggerConfig.MAX_ASYNC_BUFFER_SIZE,
+                                          Math.max(BukkitLoggerConfig.MIN_ASYNC_BUFFER_SIZE,
+                                                   this.getLongProperty(BukkitLoggerConfig.CONFIG_KEY_ASYNC_BUFFER_SIZE,
+                                                                        BukkitLoggerConfig.CONFIG_FALLBACK_ASYNC_BUFFER_SIZE)));
+    this.asyncFlushTimeout = Math.max(0,
+                                      this.getLongProperty(BukkitLoggerConfig.CONFIG_KEY_ASYNC_FLUSH_TIMEOUT,
+                                                           BukkitLoggerConfig.CONFIG_FALLBACK_ASYNC_FLUSH_TIMEOUT));
+    this.asyncBlockTimeout = Math.max(0,
+                                      this.getLongProperty(BukkitLoggerConfig.CONFIG_KEY_ASYNC_BLOCK_TIMEOUT,
+                                                           BukkitLoggerConfig.CONFIG_FALLBACK_ASYNC_BLOCK_TIMEOUT));
+    this.asyncPolicies = this.getAsyncPoliciesMap(BukkitLoggerConfig.CONFIG_KEY_ASYNC_POLICIES,
+                                                  BukkitLoggerConfig.CONFIG_FALLBACK_ASYNC_POLICIES);
+    this.colorMapper = ColorMapperAdapter.of(ColorMapperFactory.get(ColorProfile.fromString(this.getStringProperty(BukkitLoggerConfig.CONFIG_KEY_COLOR_PROFILE,
+                                                                                                                   null))));
+    this.levelColors = this.getLevelColorsMap(BukkitLoggerConfig.CONFIG_KEY_LEVEL_COLORS,
+                                              BukkitLoggerConfig.CONFIG_FALLBACK_LEVEL_COLORS);
+    this.logLevels = this.getLogLevels(BukkitLoggerConfig.CONFIG_KEY_LOG);
+    final List<LogLimiter> logLimiters = new ArrayList<LogLimiter>();
+    this.samplers = this.getLogLimiters(BukkitLoggerConfig.CONFIG_KEY_SAMPLES,
+                                        false, logLimiters);
+    this.rateLimits = this.getLogLimiters(BukkitLoggerConfig.CONFIG_KEY_RATE_LIMITS,
+                                          true, logLimiters);
+    this.logLimiters = ImmutableList.copyOf(logLimiters);
+    this.lowGarbage = this.getBooleanProperty(BukkitLoggerConfig.CONFIG_KEY_LOW_GARBAGE,
+                                              BukkitLoggerConfig.CONFIG_FALLBACK_LOW_GARBAGE);
+    this.markerRules = this.getMarkerRules(BukkitLoggerConfig.CONFIG_KEY_MARKERS);
+    this.mdcInheritance = this.getBooleanProperty(BukkitLoggerConfig.CONFIG_KEY_MDC_INHERITANCE,
+                                                  BukkitLoggerConfig.CONFIG_FALLBACK_MDC_INHERITANCE);
+    this.mdcKeys = ImmutableList.copyOf(new LinkedHashSet<String>(this.getStringListProperty(BukkitLoggerConfig.CONFIG_KEY_MDC_KEYS)));
+    final long repeatWindow = this.getLongProperty(BukkitLoggerConfig.CONFIG_KEY_REPEAT_WINDOW,
+                                                   BukkitLoggerConfig.CONFIG_FALLBACK_REPEAT_WINDOW);
+    this.repeatCollapser = (repeatWindow > 0) ? new RepeatCollapser(repeatWindow)
+                                              : null;
+    this.showHeader = this.getBooleanProperty(BukkitLoggerConfig.CONFIG_KEY_SHOW_HEADER,
+                                              BukkitLoggerConfig.CONFIG_FALLBACK_SHOW_HEADER);
+    this.showLogName = this.getBooleanProperty(BukkitLoggerConfig.CONFIG_KEY_SHOW_LOG_NAME,
+                                               BukkitLoggerConfig.CONFIG_FALLBACK_SHOW_LOG_NAME);
+    this.showShortLogName = this.getBooleanProperty(BukkitLoggerConfig.CONFIG_KEY_SHOW_SHORT_LOG_NAME,
+                                                    BukkitLoggerConfig.CONFIG_FALLBACK_SHOW_SHORT_LOG_NAME);
+    this.showThreadName = this.getBooleanProperty(BukkitLoggerConfig.CONFIG_KEY_SHOW_THREAD_NAME,
+                                                  BukkitLoggerConfig.CONFIG_FALLBACK_SHOW_THREAD_NAME);
+    final long stackTraceDepth = this.getLongProperty(BukkitLoggerConfig.CONFIG_KEY_STACK_TRACE_DEPTH,
+                                                      BukkitLoggerConfig.CONFIG_FALLBACK_STACK_TRACE_DEPTH);
+    this.throwableRenderer = new ThrowableRenderer((int) Math.max(0,
+                                                                  Math.min(Integer.MAX_VALUE,
+                                                                           stackTraceDepth)),
+                                                   this.getStringListProperty(BukkitLoggerConfig.CONFIG_KEY_COLLAPSE_PACKAGES),
+                                                   this.getLongProperty(BukkitLoggerConfig.CONFIG_KEY_DUPLICATE_TRACE_WINDOW,
+                                                                        BukkitLoggerConfig.CONFIG_FALLBACK_DUPLICATE_TRACE_WINDOW));
+    this.lineHeads = this.buildLineHeads(this.colorMapper);
+    this.lineReset = this.colorMapper.map(ChatColor.RESET.toString());
+    this.plainLineHeads = this.buildLineHeads(BukkitLoggerConfig.PLAIN_COLOR_MAPPER);
+  }
+
+  /**
+   * Creates a snapshot of the given plugin's configuration.
+   *
+   * @param plugin
+   *          the plugin whose configuration is read. If null, the snapshot
+   *          contains the default configuration values.
+   * @return never null.
+   */
+  static BukkitLoggerConfig load(final Plugin plugin) {
+    return new BukkitLoggerConfig(plugin);
+  }
+
+  /**
+   * Convert YAML logging level properties to SLF4J level objects.
+   *
+   * @param levelStr
+   *          the level property value from the YAML config.
+   * @return null iff the input does not map to a SLF4J logging level name in a
+   *         case-insensitive fashion.
+   */
+  static Level stringToLevel(final String levelStr) {
+    if ("trace".equalsIgnoreCase(levelStr)) {
+      return Level.TRACE;
+    } else if ("debug".equalsIgnoreCase(levelStr)) {
+      return Level.DEBUG;
+    } else if ("info".equalsIgnoreCase(levelStr)) {
+      return Level.INFO;
+    } else if ("warn".equalsIgnoreCase(levelStr)) {
+      return Level.WARN;
+    } else if ("error".equalsIgnoreCase(levelStr)) {
+      return Level.ERROR;
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Adds all keys of the given section, including nested keys, to the given
+   * set.
+   *
+   * @param section
+   *          may be null.
+   * @param keys
+   *          not null.
+   */
+  private static void addDeepKeys(final ConfigurationSection section,
+                                  final Set<String> keys) {
+    if (section != null) {
+      keys.addAll(section.getKeys(true));
+    }
+  }
+
+  /**
+   * Returns the fallback map of logging levels to their default async queue
+   * policies: debugging output is dropped first, everything else waits.
+   *
+   * @return never null.
+   */
+  private static Map<Level, AsyncQueuePolicy> fallbackAsyncPolicies() {
+    return ImmutableMap.<Level, AsyncQueuePolicy> builder()
+                       .put(Level.ERROR, AsyncQueuePolicy.BLOCK)
+                       .put(Level.WARN, AsyncQueuePolicy.BLOCK)
+                       .put(Level.INFO, AsyncQueuePolicy.BLOCK)
+                       .put(Level.DEBUG, AsyncQueuePolicy.DROP_EARLY)
+                       .put(Level.TRACE, AsyncQueuePolicy.DROP_EARLY).build();
+  }
+
+  /**
+   * Returns the fallback map of logging levels to their default colors.
+   *
+   * @return never null.
+   */
+  private static Map<Level, ColorMarker> fallbackLevelColors() {
+    return ImmutableMap.<Level, ColorMarker> builder()
+                       .put(Level.ERROR, ColorMarker.RED)
+                       .put(Level.WARN, ColorMarker.YELLOW)
+                       .put(Level.INFO, ColorMarker.NONE)
+                       .put(Level.DEBUG, ColorMarker.NONE)
+                       .put(Level.TRACE, ColorMarker.NONE).build();
+  }
+
+  /**
+   * Returns the longest time that a logging thread may wait for room in the
+   * async queue.
+   *
+   * @return milliseconds, zero or more.
+   */
+  long getAsyncBlockTimeout() {
+    return this.asyncBlockTimeout;
+  }
+
+  /**
+   * Returns the minimum number of events that can be pending at once in
+   * asynchronous mode.
+   *
+   * @return a positive number.
+   */
+  int getAsyncBufferSize() {
+    return this.asyncBufferSize;
+  }
+
+  /**
+   * Returns how long to wait for pending events to be logged when asynchronous
+   * mode is stopped.
+   *
+   * @return milliseconds, zero or more.
+   */
+  long getAsyncFlushTimeout() {
+    return this.asyncFlushTimeout;
+  }
+
+  /**
+   * Returns what to do with an event of the given level when the async queue
+   * is full.
+   *
+   * @param level
+   *          any SLF4J logging level.
+   * @return never null.
+   */
+  AsyncQueuePolicy getAsyncPolicy(final Level level) {
+    return this.asyncPolicies.get(level);
+  }
+
+  /**
+   * Returns the least severe level that is written to the plugin's binary log
+   * file for the given logger name. This is the level configured for the name
+   * or its nearest ancestor in {@code slf4j.binaryLog}, or else
+   * {@code slf4j.binaryLevel}.
+   *
+   * @param name
+   *          the logger name.
+   * @return null if nothing from the logger is written to the binary log file.
+   */
+  Level getBinaryLevel(final String name) {
+    final Level level = this.binaryLogLevels.find(name);
+    return (level == null) ? this.binaryLevel : level;
+  }
+
+  /**
+   * Returns the shared color mapper for the configured color profile.
+   *
+   * @return never null.
+   */
+  AppendingColorMapper getColorMapper() {
+    return this.colorMapper;
+  }
+
+  /**
+   * Returns the default logging level.
+   *
+   * @return never null.
+   */
+  Level getDefaultLogLevel() {
+    return this.defaultLogLevel;
+  }
+
+  /**
+   * Returns the least severe level that is written to the plugin's log file.
+   *
+   * @return null if lines are not written to a file.
+   */
+  Level getFileLevel() {
+    return this.fileLevel;
+  }
+
+  /**
+   * Returns the size at which the plugin's log file is rolled.
+   *
+   * @return the size in bytes, or 0 if the file is not rolled by size.
+   */
+  long getFileMaxSize() {
+    return this.fileMaxSize;
+  }
+
+  /**
+   * Returns the interval at which the plugin's log file is rolled.
+   *
+   * @return {@link RollingFile#ROLL_NEVER}, {@link RollingFile#ROLL_HOURLY} or
+   *         {@link RollingFile#ROLL_DAILY}.
+   */
+  int getFileRollInterval() {
+    return this.fileRollInterval;
+  }
+
+  /**
+   * Returns the least severe level that is written to the plugin's JSON log
+   * file for the given logger name. This is the level configured for the name
+   * or its nearest ancestor in {@code slf4j.jsonLog}, or else
+   * {@code slf4j.jsonLevel}.
+   *
+   * @param name
+   *          the logger name.
+   * @return null if nothing from the logger is written to the JSON log file.
+   */
+  Level getJsonLevel(final String name) {
+    final Level level = this.jsonLogLevels.find(name);
+    return (level == null) ? this.jsonLevel : level;
+  }
+
+  /**
+   * Returns the default color for the given logging level.
+   *
+   * @param level
+   *          any SLF4J logging level.
+   * @return never null.
+   */
+  ColorMarker getLevelColor(final Level level) {
+    return this.levelColors.get(level);
+  }
+
+  /**
+   * Returns the color-mapped start of every line of the given level and color:
+   * the color itself, then the {@code [SLF4J]} header and the level, if
+   * enabled. Unless thread names are shown, this is followed by a space if
+   * anything but the color was appended.
+   *
+   * @param level
+   *          the level of the line.
+   * @param color
+   *          the color of the line.
+   * @param colored
+   *          false to leave out the color, for sinks that are not colored.
+   * @return never null.
+   */
+  String getLineHead(final Level level, final ColorMarker color,
+                     final boolean colored) {
+    final int index = (level.ordinal() * ColorMarker.values().length)
+                      + color.ordinal();
+    return colored ? this.lineHeads[index] : this.plainLineHeads[index];
+  }
+
+  /**
+   * Returns the color-mapped reset directive that ends every line.
+   *
+   * @return never null.
+   */
+  String getLineReset() {
+    return this.lineReset;
+  }
+
+  /**
+   * Returns the most appropriate logger.
+   *
+   * @return the logger for the plugin if available; otherwise the server
+   *         logger. Never null.
+   */
+  java.util.logging.Logger getLogger() {
+    return (this.logger == null) ? Bukkit.getLogger() : this.logger;
+  }
+
+  /**
+   * Returns the logging level configured for the given logger name or, if
+   * there is none, for its nearest ancestor.
+   *
+   * @param name
+   *          the logger name.
+   * @return null if no valid level is configured for the given name or any of
+   *         its ancestors.
+   */
+  Level getLogLevel(final String name) {
+    return this.logLevels.find(name);
+  }
+
+  /**
+   * Returns all samplers and rate limits of this snapshot.
+   *
+   * @return never null, may be empty.
+   */
+  List<LogLimiter> getLogLimiters() {
+    return this.logLimiters;
+  }
+
+  /**
+   * Resolves the sampler and rate limit that apply to the given logger name.
+   * These are configured for the name or, if there is none, for its nearest
+   * ancestor, independently of each other.
+   *
+   * @param name
+   *          the logger name.
+   * @return never null.
+   * @see #hasLogLimiters()
+   */
+  LogLimits getLogLimits(final String name) {
+    return new LogLimits(this, this.samplers.find(name),
+                         this.rateLimits.find(name));
+  }
+
+  /**
+   * Returns the rules that apply to messages with markers.
+   *
+   * @return null if there are none.
+   */
+  MarkerRules getMarkerRules() {
+    return this.markerRules;
+  }
+
+  /**
+   * Returns the MDC keys whose values are rendered after each message.
+   *
+   * @return never null, may be empty.
+   */
+  List<String> getMdcKeys() {
+    return this.mdcKeys;
+  }
+
+  /**
+   * Returns the mapper that strips colors from the lines of sinks that are not
+   * colored.
+   *
+   * @return never null.
+   */
+  AppendingColorMapper getPlainColorMapper() {
+    return BukkitLoggerConfig.PLAIN_COLOR_MAPPER;
+  }
+
+  /**
+   * Returns the plugin from which this snapshot was read.
+   *
+   * @return null if SLF4Bukkit is uninitialized.
+   */
+  Plugin getPlugin() {
+    return this.plugin;
+  }
+
+  /**
+   * Returns the collapser of repeated lines.
+   *
+   * @return null if repeated lines are not collapsed.
+   */
+  RepeatCollapser getRepeatCollapser() {
+    return this.repeatCollapser;
+  }
+
+  /**
+   * Returns the renderer for logged throwables.
+   *
+   * @return never null.
+   */
+  ThrowableRenderer getThrowableRenderer() {
+    return this.throwableRenderer;
+  }
+
+  /**
+   * Indicates whether or not any samplers or rate limits are configured.
+   *
+   * @return false if no logger is limited.
+   */
+  boolean hasLogLimiters() {
+    return !this.logLimiters.isEmpty();
+  }
+
+  /**
+   * Indicates whether or not events are logged by a background thread.
+   *
+   * @return the configured value.
+   */
+  boolean isAsync() {
+    return this.async;
+  }
+
+  /**
+   * Indicates whether or not anything is written to the plugin's binary log
+   * file.
+   *
+   * @return true if {@code slf4j.binaryLevel} or any entry of
+   *         {@code slf4j.binaryLog} is valid.
+   */
+  boolean isBinary() {
+    return (this.binaryLevel != null) || !this.binaryLogLevels.isEmpty();
+  }
+
+  /**
+   * Indicates whether or not rolled log files are compressed.
+   *
+   * @return the configured value.
+   */
+  boolean isFileCompress() {
+    return this.fileCompress;
+  }
+
+  /**
+   * Indicates whether or not this snapshot was read from the plugin config.
+   *
+   * @return false if SLF4Bukkit is uninitialized.
+   */
+  boolean isInitialized() {
+    return this.plugin != null;
+  }
+
+  /**
+   * Indicates whether or not anything is written to the plugin's JSON log
+   * file.
+   *
+   * @return true if {@code slf4j.jsonLevel} or any entry of
+   *         {@code slf4j.jsonLog} is valid.
+   */
+  boolean isJson() {
+    return (this.jsonLevel != null) || !this.jsonLogLevels.isEmpty();
+  }
+
+  /**
+   * Indicates whether or not lines are formatted into reusable per-thread
+   * buffers.
+   *
+   * @return the configured value.
+   */
+  boolean isLowGarbage() {
+    return this.lowGarbage;
+  }
+
+  /**
+   * Indicates whether or not new threads share the MDC of the thread that
+   * creates them.
+   *
+   * @return the configured value.
+   */
+  boolean isMdcInheritance() {
+    return this.mdcInheritance;
+  }
+
+  /**
+   * Indicates whether or not the {@code [SLF4J]} header is shown in log
+   * messages.
+   *
+   * @return the configured value.
+   */
+  boolean isShowHeader() {
+    return this.showHeader;
+  }
+
+  /**
+   * Indicates whether or not the full logger name is shown in log messages.
+   *
+   * @return the configured value.
+   */
+  boolean isShowLogName() {
+    return this.showLogName;
+  }
+
+  /**
+   * Indicates whether or not the short logger name is shown in log messages.
+   *
+   * @return the configured value.
+   */
+  boolean isShowShortLogName() {
+    return this.showShortLogName;
+  }
+
+  /**
+   * Indicates whether or not the thread name is shown in log messages.
+   *
+   * @return the configured value.
+   */
+  boolean isShowThreadName() {
+    return this.showThreadName;
+  }
+
+  /**
+   * Returns a boolean property from the Bukkit plugin config.
+   *
+   * @param name
+   *          the desired property.
+   * @param defaultValue
+   *          the fallback value returned by this method.
+   * @return {@code defaultValue} if the Bukkit plugin is not available, if the
+   *         desired property is not defined in the config, or if the desired
+   *         property's value is not either "true" or "false"
+   *         (case-insensitive).
+   */
+  private boolean getBooleanProperty(final String name,
+                                     final boolean defaultValue) {
+    if (this.plugin == null) { return defaultValue; }
+    final String prop = this.plugin.getConfig().getString(name);
+    if ("true".equalsIgnoreCase(prop)) { return true; }
+    if ("false".equalsIgnoreCase(prop)) { return false; }
+    return defaultValue;
+  }
+
+  /**
+   * Renders the line heads for all combinations of level and color.
+   *
+   * @param mapper
+   *          maps the colors of the line heads.
+   * @return never null.
+   * @see #getLineHead(Level, ColorMarker, boolean)
+   */
+  private String[] buildLineHeads(final AppendingColorMapper mapper) {
+    final ColorMarker[] colors = ColorMarker.values();
+    final String[] heads = new String[Level.values().length * colors.length];
+    for (final Level level : Level.values()) {
+      for (final ColorMarker color : colors) {
+        final StringBuilder buf = new StringBuilder(32);
+        buf.append(color.getValue());
+        boolean hasHeader = false;
+        // Indicate that this message comes from SLF4J, if desired.
+        if (this.showHeader) {
+          hasHeader = true;
+          buf.append("[SLF4J]");
+        }
+        // Print a readable representation of the log level, but only for log
+        // levels that Bukkit would otherwise eat.
+        switch (level) {
+          case TRACE:
+            hasHeader = true;
+            buf.append("[TRACE]");
+            break;
+          case DEBUG:
+            hasHeader = true;
+            buf.append("[DEBUG]");
+            break;
+          default:
+            break;
+        }
+        // The thread name, if shown, is followed by the space instead.
+        if (hasHeader && !this.showThreadName) {
+          buf.append(' ');
+        }
+        final int index = (level.ordinal() * colors.length) + color.ordinal();
+        heads[index] = mapper.map(buf.toString());
+      }
+    }
+    return heads;
+  }
+
+  /**
+   * Returns the map of logging levels to async queue policies, taken from the
+   * Bukkit plugin config. For each relevant entry in the plugin config, if
+   * either the key name or the value name is invalid, that entry is ignored and
+   * the default value is used instead.
+   *
+   * @param property
+   *          the config property where the map exists.
+   * @param defaultValues
+   *          the fallback values returned by this method.
+   * @return never null, always contains one mapping for each {@link Level}, and
+   *         contains no null keys/values.
+   */
+  private Map<Level, AsyncQueuePolicy>
+      getAsyncPoliciesMap(final String property,
+                          final Map<Level, AsyncQueuePolicy> defaultValues) {
+    if (this.plugin == null) { return defaultValues; }
+    final ConfigurationSection config = this.plugin.getConfig()
+                                                   .getConfigurationSection(property);
+    if (config == null) { return defaultValues; }
+    final Map<Level, AsyncQueuePolicy> finalConfigValues = new HashMap<Level, AsyncQueuePolicy>();
+    finalConfigValues.putAll(defaultValues);
+    for (final Map.Entry<String, Object> configValue : config.getValues(false)
+                                                             .entrySet()) {
+      final Level level = BukkitLoggerConfig.stringToLevel(configValue.getKey());
+      final String policyName = String.valueOf(configValue.getValue());
+      final AsyncQueuePolicy policy = AsyncQueuePolicy.fromString(policyName);
+      if ((level != null) && (policy != null)) {
+        finalConfigValues.put(level, policy);
+      }
+    }
+    return ImmutableMap.copyOf(finalConfigValues);
+  }
+
+  /**
+   * Returns the map of logging levels to colors, taken from the Bukkit plugin
+   * config. For each relevant entry in the plugin config, if either the key
+   * name or the value name is invalid, that entry is ignored and the default
+   * value is used instead.
+   *
+   * @param property
+   *          the config property where the map exists.
+   * @param defaultValue
+   *          the fallback values returned by this method.
+   * @return never null, always contains one mapping for each {@link Level}, and
+   *         contains no null keys/values. Equal to {@code defaultValue} if the
+   *         Bukkit plugin is not available, or if the desired property is not
+   *         defined in the config.
+   */
+  private Map<Level, ColorMarker>
+      getLevelColorsMap(final String property,
+                        final Map<Level, ColorMarker> defaultValues) {
+    // Check for the plugin.
+    if (this.plugin == null) { return defaultValues; }
+    final ConfigurationSection config = this.plugin.getConfig()
+                                                   .getConfigurationSection(property);
+    // Quit if the config isn't specified.
+    if (config == null) { return defaultValues; }
+    // Translate each portion of the config. Skip invalid keys/values.
+    final Map<String, Object> configValues = config.getValues(false);
+    final Map<Level, ColorMarker> convertedConfigValues = new HashMap<Level, ColorMarker>();
+    for (final Map.Entry<String, Object> configValue : configValues.entrySet()) {
+      final String levelName = configValue.getKey().toUpperCase();
+      final String formatName = configValue.getValue().toString()
+                                           .toUpperCase();
+      Level level;
+      ColorMarker format;
+      try {
+        level = Level.valueOf(levelName);
+        format = ColorMarker.valueOf(formatName);
+      } catch (final IllegalArgumentException e) {
+        // This is expected, so don't log it.
+        continue;
+      }
+      convertedConfigValues.put(level, format);
+    }
+    // Merge the default and config-based map; the latter takes priority.
+    final Map<Level, ColorMarker> finalConfigValues = new HashMap<Level, ColorMarker>();
+    finalConfigValues.putAll(defaultValues);
+    finalConfigValues.putAll(convertedConfigValues);
+    // Done; cast as immutable.
+    return ImmutableMap.<Level, ColorMarker> builder()
+                       .putAll(finalConfigValues).build();
+  }
+
+  /**
+   * Returns the index of logger names to samplers or rate limits, taken from
+   * the Bukkit plugin config. Entries whose value is invalid are ignored.
+   *
+   * @param property
+   *          the config property where the map exists.
+   * @param rates
+   *          true for rate limits such as "50/s", false for sample rates such
+   *          as "100".
+   * @param all
+   *          receives every limiter that is created.
+   * @return never null. Empty if the Bukkit plugin is not available, or if the
+   *         desired property is not defined in the config.
+   */
+  private LoggerNameTrie<LogLimiter> getLogLimiters(final String property,
+                                                    final boolean rates,
+                                                    final List<LogLimiter> all) {
+    final Map<String, LogLimiter> limiters = new HashMap<String, LogLimiter>();
+    final String keyPrefix = property.substring(property.indexOf('.') + 1)
+                             + ".";
+    for (final Map.Entry<String, String> entry : this.getLoggerNameValues(property)
+                                                     .entrySet()) {
+      final String key = keyPrefix + entry.getKey();
+      final LogLimiter limiter = rates ? LogLimiter.parseRate(key,
+                                                              entry.getValue())
+                                       : LogLimiter.parseSample(key,
+                                                                entry.getValue());
+      if (limiter != null) {
+        limiters.put(entry.getKey(), limiter);
+        all.add(limiter);
+      }
+    }
+    return new LoggerNameTrie<LogLimiter>(limiters);
+  }
+
+  /**
+   * Returns the index of logger names to logging levels, taken from the Bukkit
+   * plugin config. Entries whose value is not a valid logging level are
+   * ignored.
+   *
+   * @param property
+   *          the config property where the map exists.
+   * @return never null. Empty if the Bukkit plugin is not available, or if the
+   *         desired property is not defined in the config.
+   */
+  private LoggerNameTrie<Level> getLogLevels(final String property) {
+    final Map<String, Level> levels = new HashMap<String, Level>();
+    for (final Map.Entry<String, String> entry : this.getLoggerNameValues(property)
+                                                     .entrySet()) {
+      final Level level = BukkitLoggerConfig.stringToLevel(entry.getValue());
+      if (level != null) {
+        levels.put(entry.getKey(), level);
+      }
+    }
+    return new LoggerNameTrie<Level>(levels);
+  }
+
+  /**
+   * Returns the values of a config section whose keys are logger names.
+   *
+   * @param property
+   *          the config property where the map exists.
+   * @return never null, contains no null values. Empty if the Bukkit plugin
+   *         is not available, or if the desired property is not defined in the
+   *         config.
+   */
+  private Map<String, String> getLoggerNameValues(final String property) {
+    final Map<String, String> values = new HashMap<String, String>();
+    if (this.plugin == null) { return values; }
+    final Configuration config = this.plugin.getConfig();
+    // Logger names contain dots, so Bukkit stores them as nested sections.
+    // Collect the names from both the on-disk and the built-in config, then
+    // let the Bukkit API resolve each value.
+    final Set<String> names = new HashSet<String>();
+    BukkitLoggerConfig.addDeepKeys(config.getConfigurationSection(property),
+                                   names);
+    if (config.getDefaults() != null) {
+      BukkitLoggerConfig.addDeepKeys(config.getDefaults()
+                                           .getConfigurationSection(property),
+                                     names);
+    }
+    for (final String name : names) {
+      final String value = config.getString(property + "." + name);
+      if (value != null) {
+        values.put(name, value);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Returns an integer property from the Bukkit plugin config.
+   *
+   * @param name
+   *          the desired property.
+   * @param defaultValue
+   *          the fallback value returned by this method.
+   * @return {@code defaultValue} if the Bukkit plugin is not available, if the
+   *         desired property is not defined in the config, or if the desired
+   *         property's value is not an integer.
+   */
+  private long getLongProperty(final String name, final long defaultValue) {
+    final String prop = this.getStringProperty(name, null);
+    if (prop == null) { return defaultValue; }
+    try {
+      return Long.parseLong(prop.trim());
+    } catch (final NumberFormatException e) {
+      // This is expected, so don't log it.
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Returns the marker rules taken from the Bukkit plugin config. Entries
+   * whose value is neither a valid logging level nor "off" are ignored.
+   *
+   * @param property
+   *          the config property where the map exists.
+   * @return null if there are no valid entries.
+   */
+  private MarkerRules getMarkerRules(final String property) {
+    final Map<String, Level> rules = new HashMap<String, Level>();
+    // Marker names may contain dots, just like logger names.
+    for (final Map.Entry<String, String> entry : this.getLoggerNameValues(property)
+                                                     .entrySet()) {
+      // YAML reads an unquoted "off" as false.
+      if ("off".equalsIgnoreCase(entry.getValue())
+          || "false".equalsIgnoreCase(entry.getValue())) {
+        rules.put(entry.getKey(), null);
+        continue;
+      }
+      final Level level = BukkitLoggerConfig.stringToLevel(entry.getValue());
+      if (level != null) {
+        rules.put(entry.getKey(), level);
+      }
+    }
+    return rules.isEmpty() ? null : new MarkerRules(rules);
+  }
+
+  /**
+   * Returns a string list property from the Bukkit plugin config.
+   *
+   * @param name
+   *          the desired property.
+   * @return never null. Empty if the Bukkit plugin is not available, or if the
+   *         desired property is not defined in the config.
+   */
+  private List<String> getStringListProperty(final String name) {
+    if (this.plugin == null) { return Collections.emptyList(); }
+    return this.plugin.getConfig().getStringList(name);
+  }
+
+  /**
+   * Returns a string property from the Bukkit plugin config.
+   *
+   * @param name
+   *          the desired property.
+   * @param defaultValue
+   *          the fallback value returned by this method.
+   * @return {@code defaultValue} if the Bukkit plugin is not available, or if
+   *         the desired property is not defined in the config.
+   */
+  private String getStringProperty(final String name,
+                                   final String defaultValue) {
+    if (this.plugin == null) { return defaultValue; }
+    final String prop = this.plugin.getConfig().getString(name);
+    return (prop == null) ? defaultValue : prop;
+  }
+
+}
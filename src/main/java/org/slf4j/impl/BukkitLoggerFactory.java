@@ -44,11 +44,14 @@
  */
 package org.slf4j.impl;
 
+import info.ronjenkins.slf4bukkit.ExtendedLogger;
+
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.ILoggerFactory;
 import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * An implementation of {@link ILoggerFactory} which always returns
@@ -67,6 +70,35 @@ public class BukkitLoggerFactory implements ILoggerFactory {
     java.util.logging.LogManager.getLogManager();
   }
 
+  /**
+   * Returns the SLF4Bukkit logger with the given name, typed as an
+   * {@link ExtendedLogger}. This is the same instance that
+   * {@link LoggerFactory#getLogger(String)} returns when SLF4Bukkit is the
+   * SLF4J binding.
+   *
+   * @param name
+   *          the logger name.
+   * @return never null.
+   */
+  public static ExtendedLogger getExtendedLogger(final String name) {
+    return (ExtendedLogger) StaticLoggerBinder.getSingleton()
+                                              .getLoggerFactory()
+                                              .getLogger(name);
+  }
+
+  /**
+   * Returns the SLF4Bukkit logger named after the given class, typed as an
+   * {@link ExtendedLogger}.
+   *
+   * @param clazz
+   *          the class whose name is the logger name.
+   * @return never null.
+   * @see #getExtendedLogger(String)
+   */
+  public static ExtendedLogger getExtendedLogger(final Class<?> clazz) {
+    return BukkitLoggerFactory.getExtendedLogger(clazz.getName());
+  }
+
   /**
    * Return an appropriate {@link BukkitLoggerAdapter} instance by name.
    */
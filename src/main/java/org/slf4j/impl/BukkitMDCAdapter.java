@@ -0,0 +1,443 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.MDC;
+import org.slf4j.spi.MDCAdapter;
+
+/**
+ * The {@link MDCAdapter} of SLF4Bukkit. Each thread's context is a small
+ * array map that is copied only when it is written after being shared, so
+ * that logging events can capture it by reference, and so that a child
+ * thread, if contexts are inherited at all, only copies its context when it
+ * first writes to it.
+ *
+ * <p>
+ * Contexts are not inherited by new threads unless {@code slf4j.mdcInheritance}
+ * is enabled, because Bukkit's scheduler creates many threads that would each
+ * copy the context of whichever thread created them.
+ * </p>
+ *
+ * <p>
+ * {@link #push(String, String)} and {@link #pop(int)} set values for a scope
+ * and restore the previous values afterwards, without allocating once the
+ * thread's arrays are large enough:
+ * </p>
+ *
+ * <pre>
+ * final int mark = BukkitMDCAdapter.push("player", player.getName());
+ * try {
+ *   ...
+ * } finally {
+ *   BukkitMDCAdapter.pop(mark);
+ * }
+ * </pre>
+ *
+ * <p>
+ * The values of the keys listed in {@code slf4j.mdcKeys} are rendered after
+ * the message as {@code key=value} pairs.
+ * </p>
+ */
+public final class BukkitMDCAdapter implements MDCAdapter {
+
+  /**
+   * The context of one thread: a copy-on-write array map, plus the values
+   * that {@link BukkitMDCAdapter#pop(int)} restores.
+   */
+  static final class Context {
+
+    // Initial capacity of the arrays, in entries.
+    private static final int INITIAL_CAPACITY = 4;
+
+    private String[]         keys             = new String[Context.INITIAL_CAPACITY];
+    // Whether or not the arrays are referenced by an event or another thread,
+    // in which case they must be copied before they are modified.
+    private boolean          shared           = false;
+    private int              size             = 0;
+    // The keys and previous values of the active push() calls. A null value
+    // means that the key was absent.
+    private String[]         undoKeys         = null;
+    private int              undoSize         = 0;
+    private String[]         undoValues       = null;
+    private String[]         values           = new String[Context.INITIAL_CAPACITY];
+
+    private Context() {}
+
+    /**
+     * Creates a context that shares the entries of another context.
+     *
+     * @param parent
+     *          the context to share.
+     */
+    private Context(final Context parent) {
+      parent.shared = true;
+      this.keys = parent.keys;
+      this.values = parent.values;
+      this.size = parent.size;
+      this.shared = true;
+    }
+
+    /**
+     * Returns the keys, which must not be modified. Only the first
+     * {@link #getSize()} keys are valid.
+     *
+     * @return never null.
+     */
+    String[] getKeys() {
+      return this.keys;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return zero or more.
+     */
+    int getSize() {
+      return this.size;
+    }
+
+    /**
+     * Returns the values, which must not be modified. Only the first
+     * {@link #getSize()} values are valid.
+     *
+     * @return never null.
+     */
+    String[] getValues() {
+      return this.values;
+    }
+
+    private void clear() {
+      if (this.shared) {
+        this.keys = new String[Context.INITIAL_CAPACITY];
+        this.values = new String[Context.INITIAL_CAPACITY];
+        this.shared = false;
+      } else {
+        Arrays.fill(this.keys, 0, this.size, null);
+        Arrays.fill(this.values, 0, this.size, null);
+      }
+      this.size = 0;
+      this.undoSize = 0;
+    }
+
+    private String get(final String key) {
+      final int index = this.indexOf(key);
+      return (index < 0) ? null : this.values[index];
+    }
+
+    private int indexOf(final String key) {
+      for (int i = 0; i < this.size; i++) {
+        if (this.keys[i].equals(key)) { return i; }
+      }
+      return -1;
+    }
+
+    /**
+     * Makes the arrays safe to modify and large enough for the given number
+     * of entries.
+     */
+    private void makeWritable(final int capacity) {
+      if (!this.shared && (capacity <= this.keys.length)) { return; }
+      final int length = Math.max(capacity, this.keys.length
+                                            * (capacity > this.keys.length ? 2
+                                                                            : 1));
+      this.keys = Arrays.copyOf(this.keys, length);
+      this.values = Arrays.copyOf(this.values, length);
+      this.shared = false;
+    }
+
+    private int push(final String key, final String value) {
+      if (this.undoKeys == null) {
+        this.undoKeys = new String[Context.INITIAL_CAPACITY];
+        this.undoValues = new String[Context.INITIAL_CAPACITY];
+      } else if (this.undoSize == this.undoKeys.length) {
+        this.undoKeys = Arrays.copyOf(this.undoKeys, this.undoSize * 2);
+        this.undoValues = Arrays.copyOf(this.undoValues, this.undoSize * 2);
+      }
+      final int mark = this.undoSize;
+      this.undoKeys[mark] = key;
+      this.undoValues[mark] = this.get(key);
+      this.undoSize++;
+      this.put(key, value);
+      return mark;
+    }
+
+    private void pop(final int mark) {
+      while (this.undoSize > mark) {
+        this.undoSize--;
+        final String key = this.undoKeys[this.undoSize];
+        final String value = this.undoValues[this.undoSize];
+        this.undoKeys[this.undoSize] = null;
+        this.undoValues[this.undoSize] = null;
+        if (value == null) {
+          this.remove(key);
+        } else {
+          this.put(key, value);
+        }
+      }
+    }
+
+    private void put(final String key, final String value) {
+      final int index = this.indexOf(key);
+      if (index >= 0) {
+        if (this.values[index] == value) { return; }
+        this.makeWritable(this.size);
+        this.values[index] = value;
+        return;
+      }
+      this.makeWritable(this.size + 1);
+      this.keys[this.size] = key;
+      this.values[this.size] = value;
+      this.size++;
+    }
+
+    private void remove(final String key) {
+      final int index = this.indexOf(key);
+      if (index < 0) { return; }
+      this.makeWritable(this.size);
+      final int last = this.size - 1;
+      System.arraycopy(this.keys, index + 1, this.keys, index, last - index);
+      System.arraycopy(this.values, index + 1, this.values, index, last
+                                                                   - index);
+      this.keys[last] = null;
+      this.values[last] = null;
+      this.size = last;
+    }
+  }
+
+  private static final InheritableThreadLocal<Context> CONTEXTS  = new InheritableThreadLocal<Context>() {
+
+                                                                   @Override
+                                                                   protected Context childValue(final Context parent) {
+                                                                     if (!BukkitMDCAdapter.inherit
+                                                                         || (parent == null)
+                                                                         || (parent.size == 0)) { return null; }
+                                                                     return new Context(parent);
+                                                                   }
+                                                                 };
+  // Whether or not events capture the context of the logging thread.
+  private static volatile boolean                      capture;
+  // Whether or not new threads share the context of the thread that creates
+  // them.
+  private static volatile boolean                      inherit;
+  // The keys whose values are rendered, in order; empty if none are.
+  private static volatile String[]                     renderKeys = new String[0];
+
+  /** Constructor. Use {@link MDC} instead of creating instances. */
+  BukkitMDCAdapter() {}
+
+  /**
+   * Appends the values of the rendered keys that are present in a context, as
+   * {@code key=value} pairs, each preceded by a space.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param keys
+   *          the keys of the context.
+   * @param values
+   *          the values of the context.
+   * @param size
+   *          the number of entries in the context.
+   */
+  static void appendTo(final StringBuilder buf, final String[] keys,
+                       final String[] values, final int size) {
+    if (size == 0) { return; }
+    for (final String renderKey : BukkitMDCAdapter.renderKeys) {
+      for (int i = 0; i < size; i++) {
+        if (keys[i].equals(renderKey)) {
+          if (values[i] != null) {
+            buf.append(' ').append(renderKey).append('=').append(values[i]);
+          }
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Applies the MDC settings of a configuration snapshot.
+   *
+   * @param config
+   *          the newly published configuration snapshot.
+   */
+  static void configure(final BukkitLoggerConfig config) {
+    final List<String> keys = config.getMdcKeys();
+    BukkitMDCAdapter.renderKeys = keys.toArray(new String[keys.size()]);
+    BukkitMDCAdapter.inherit = config.isMdcInheritance();
+    // The JSON log file records the entire context.
+    BukkitMDCAdapter.capture = !keys.isEmpty() || config.isJson();
+  }
+
+  /**
+   * Returns the calling thread's context, for capturing it in an event. The
+   * caller must {@link #share(String[]) share} it if it keeps a reference to
+   * its arrays beyond the logging call.
+   *
+   * @return null if no keys are rendered and the context is not recorded
+   *         otherwise, or if the calling thread has no context.
+   */
+  static Context getRenderedContext() {
+    if (!BukkitMDCAdapter.capture) { return null; }
+    return BukkitMDCAdapter.CONTEXTS.get();
+  }
+
+  /**
+   * Appends the rendered keys of the calling thread's context to a buffer.
+   *
+   * @param buf
+   *          the buffer to append to.
+   */
+  static void appendCurrent(final StringBuilder buf) {
+    final Context context = BukkitMDCAdapter.getRenderedContext();
+    if (context != null) {
+      BukkitMDCAdapter.appendTo(buf, context.keys, context.values,
+                                context.size);
+    }
+  }
+
+  /**
+   * Appends the rendered keys of the calling thread's context to a message.
+   *
+   * @param message
+   *          the message, may be null.
+   * @return the message itself if there is nothing to append.
+   */
+  static String appendCurrent(final String message) {
+    if (BukkitMDCAdapter.renderKeys.length == 0) { return message; }
+    final Context context = BukkitMDCAdapter.getRenderedContext();
+    if ((context == null) || (context.size == 0)) { return message; }
+    final StringBuilder buf = new StringBuilder(String.valueOf(message));
+    final int length = buf.length();
+    BukkitMDCAdapter.appendTo(buf, context.keys, context.values, context.size);
+    return (buf.length() == length) ? message : buf.toString();
+  }
+
+  /**
+   * Marks the calling thread's context as shared if its keys are the given
+   * array, so that the arrays captured from it stay unchanged.
+   *
+   * @param keys
+   *          the keys captured from the context.
+   */
+  static void share(final String[] keys) {
+    final Context context = BukkitMDCAdapter.CONTEXTS.get();
+    if ((context != null) && (context.keys == keys)) {
+      context.shared = true;
+    }
+  }
+
+  /**
+   * Puts a value into the calling thread's context until the matching call
+   * to {@link #pop(int)}, which restores the previous value, if any.
+   *
+   * @param key
+   *          the key, not null.
+   * @param value
+   *          the value, may be null to hide the key.
+   * @return the mark to pass to {@link #pop(int)}.
+   * @throws IllegalArgumentException
+   *           if the key is null.
+   */
+  public static int push(final String key, final String value) {
+    if (key == null) { throw new IllegalArgumentException("key cannot be null"); }
+    return BukkitMDCAdapter.context().push(key, value);
+  }
+
+  /**
+   * Restores the calling thread's context to its state before the call to
+   * {@link #push(String, String)} that returned the given mark, undoing that
+   * call and all later ones.
+   *
+   * @param mark
+   *          the mark returned by {@link #push(String, String)}.
+   */
+  public static void pop(final int mark) {
+    final Context context = BukkitMDCAdapter.CONTEXTS.get();
+    if (context != null) {
+      context.pop(mark);
+    }
+  }
+
+  /**
+   * Returns the calling thread's context, creating it if necessary.
+   *
+   * @return never null.
+   */
+  private static Context context() {
+    Context context = BukkitMDCAdapter.CONTEXTS.get();
+    if (context == null) {
+      context = new Context();
+      BukkitMDCAdapter.CONTEXTS.set(context);
+    }
+    return context;
+  }
+
+  @Override
+  public void clear() {
+    final Context context = BukkitMDCAdapter.CONTEXTS.get();
+    if (context != null) {
+      context.clear();
+    }
+  }
+
+  @Override
+  public String get(final String key) {
+    final Context context = BukkitMDCAdapter.CONTEXTS.get();
+    return (context == null) ? null : context.get(key);
+  }
+
+  @Override
+  public Map<String, String> getCopyOfContextMap() {
+    final Context context = BukkitMDCAdapter.CONTEXTS.get();
+    if (context == null) { return null; }
+    final Map<String, String> copy = new HashMap<String, String>();
+    for (int i = 0; i < context.size; i++) {
+      if (context.values[i] != null) {
+        copy.put(context.keys[i], context.values[i]);
+      }
+    }
+    return copy;
+  }
+
+  @Override
+  public void put(final String key, final String val) {
+    if (key == null) { throw new IllegalArgumentException("key cannot be null"); }
+    BukkitMDCAdapter.context().put(key, val);
+  }
+
+  @Override
+  public void remove(final String key) {
+    final Context context = BukkitMDCAdapter.CONTEXTS.get();
+    if (context != null) {
+      context.remove(key);
+    }
+  }
+
+  @Override
+  public void setContextMap(final Map<String, String> contextMap) {
+    final Context context = BukkitMDCAdapter.context();
+    context.clear();
+    for (final Map.Entry<String, String> entry : contextMap.entrySet()) {
+      context.put(entry.getKey(), entry.getValue());
+    }
+  }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Marker;
+
+/**
+ * The {@link Marker} of SLF4Bukkit. Behaves like SLF4J's basic marker, but
+ * caches its reference closure - the ids of its own name and of the names of
+ * all markers that it references, directly or indirectly - as a bitset, so
+ * that {@link MarkerRules} can be checked without walking the references.
+ *
+ * <p>
+ * Because any marker may reference any other, a change to the references of
+ * any marker invalidates the cached closures of all markers. References are
+ * expected to be set up once, so closures are rarely recomputed.
+ * </p>
+ */
+final class BukkitMarker implements Marker {
+
+  /**
+   * A closure, and the version of the references from which it was computed.
+   */
+  private static final class Closure {
+
+    private final long[] bits;
+    private final int    version;
+
+    private Closure(final long[] bits, final int version) {
+      this.bits = bits;
+      this.version = version;
+    }
+  }
+
+  private static final long           serialVersionUID = 1L;
+  // Incremented whenever the references of any marker change.
+  private static final AtomicInteger  VERSION          = new AtomicInteger();
+  private transient volatile Closure  closure;
+  private final String                name;
+  private final List<Marker>          references       = new CopyOnWriteArrayList<Marker>();
+
+  /**
+   * Constructor.
+   *
+   * @param name
+   *          the name of this marker, which already has an id.
+   */
+  BukkitMarker(final String name) {
+    this.name = name;
+  }
+
+  /**
+   * Returns the reference closure of the given marker. This is cached for
+   * SLF4Bukkit's markers and for other markers without references.
+   *
+   * @param marker
+   *          the marker, not null.
+   * @return never null. Must not be modified.
+   */
+  static long[] closureOf(final Marker marker) {
+    if (marker instanceof BukkitMarker) { return ((BukkitMarker) marker).getClosure(); }
+    if (!marker.hasReferences()) { return BukkitMarkerFactory.getLeafClosure(marker.getName()); }
+    return BukkitMarker.computeClosure(marker);
+  }
+
+  /**
+   * Sets a bit in a bitset, growing it if necessary.
+   *
+   * @param bits
+   *          the bitset.
+   * @param index
+   *          the bit to set.
+   * @return the given bitset, or a larger copy of it.
+   */
+  static long[] setBit(final long[] bits, final int index) {
+    final int word = index >>> 6;
+    final long[] result = (word < bits.length) ? bits : Arrays.copyOf(bits,
+                                                                      word + 1);
+    result[word] |= 1L << index;
+    return result;
+  }
+
+  /**
+   * Walks the references of a marker, which may be cyclic.
+   *
+   * @param root
+   *          the marker to walk.
+   * @return never null.
+   */
+  private static long[] computeClosure(final Marker root) {
+    long[] bits = new long[0];
+    final Deque<Marker> pending = new ArrayDeque<Marker>();
+    pending.push(root);
+    while (!pending.isEmpty()) {
+      final Marker marker = pending.pop();
+      final int id = BukkitMarkerFactory.getId(marker.getName());
+      final int word = id >>> 6;
+      if ((word < bits.length) && ((bits[word] & (1L << id)) != 0)) {
+        continue;
+      }
+      bits = BukkitMarker.setBit(bits, id);
+      final Iterator<Marker> it = marker.iterator();
+      while (it.hasNext()) {
+        pending.push(it.next());
+      }
+    }
+    return bits;
+  }
+
+  @Override
+  public void add(final Marker reference) {
+    if (reference == null) {
+      throw new IllegalArgumentException("A null value cannot be added to a "
+                                         + "Marker as reference.");
+    }
+    synchronized (this) {
+      // No point in adding a reference twice, or a reference that would
+      // create a cycle.
+      if (this.contains(reference) || reference.contains(this)) { return; }
+      this.references.add(reference);
+    }
+    BukkitMarker.VERSION.incrementAndGet();
+  }
+
+  @Override
+  public boolean contains(final Marker other) {
+    if (other == null) { throw new IllegalArgumentException("Other cannot be null"); }
+    return this.contains(other.getName());
+  }
+
+  @Override
+  public boolean contains(final String name) {
+    if (name == null) { throw new IllegalArgumentException("Other cannot be null"); }
+    final int id = BukkitMarkerFactory.findId(name);
+    if (id < 0) { return false; }
+    final long[] bits = this.getClosure();
+    final int word = id >>> 6;
+    return (word < bits.length) && ((bits[word] & (1L << id)) != 0);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) { return true; }
+    if (!(obj instanceof Marker)) { return false; }
+    return this.name.equals(((Marker) obj).getName());
+  }
+
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  @Override
+  @SuppressWarnings({ "all", "deprecation" })
+  public boolean hasChildren() {
+    return this.hasReferences();
+  }
+
+  @Override
+  public int hashCode() {
+    return this.name.hashCode();
+  }
+
+  @Override
+  public boolean hasReferences() {
+    return !this.references.isEmpty();
+  }
+
+  @Override
+  public Iterator<Marker> iterator() {
+    return this.references.iterator();
+  }
+
+  @Override
+  public boolean remove(final Marker reference) {
+    final boolean removed = this.references.remove(reference);
+    if (removed) {
+      BukkitMarker.VERSION.incrementAndGet();
+    }
+    return removed;
+  }
+
+  @Override
+  public String toString() {
+    if (!this.hasReferences()) { return this.name; }
+    final StringBuilder buf = new StringBuilder(this.name).append(" [ ");
+    final Iterator<Marker> it = this.references.iterator();
+    while (it.hasNext()) {
+      buf.append(it.next().getName());
+      if (it.hasNext()) {
+        buf.append(", ");
+      }
+    }
+    return buf.append(" ]").toString();
+  }
+
+  /**
+   * Returns the reference closure of this marker, recomputing it if the
+   * references of any marker changed since it was cached.
+   *
+   * @return never null. Must not be modified.
+   */
+  private long[] getClosure() {
+    // Read the version first, so that a concurrent change invalidates the
+    // closure that is computed here.
+    final int version = BukkitMarker.VERSION.get();
+    Closure closure = this.closure;
+    if ((closure == null) || (closure.version != version)) {
+      closure = new Closure(BukkitMarker.computeClosure(this), version);
+      this.closure = closure;
+    }
+    return closure.bits;
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.IMarkerFactory;
+import org.slf4j.Marker;
+
+/**
+ * The {@link IMarkerFactory} of SLF4Bukkit, which creates {@link BukkitMarker}
+ * s. Every marker name is given a small integer id, in order of first use,
+ * which is its bit in the reference closures that {@link MarkerRules} are
+ * checked against. Ids are never reused.
+ */
+final class BukkitMarkerFactory implements IMarkerFactory {
+
+  private static final ConcurrentMap<String, Integer> IDS           = new ConcurrentHashMap<String, Integer>();
+  // Closures of markers that have no references, by name.
+  private static final ConcurrentMap<String, long[]>  LEAF_CLOSURES = new ConcurrentHashMap<String, long[]>();
+  private static final AtomicInteger                  NEXT_ID       = new AtomicInteger();
+  private final ConcurrentMap<String, Marker>         markers       = new ConcurrentHashMap<String, Marker>();
+
+  /**
+   * Returns the id of the given marker name, without assigning one.
+   *
+   * @param name
+   *          the marker name.
+   * @return -1 if the name has no id yet.
+   */
+  static int findId(final String name) {
+    final Integer id = BukkitMarkerFactory.IDS.get(name);
+    return (id == null) ? -1 : id;
+  }
+
+  /**
+   * Returns the id of the given marker name, assigning one if necessary.
+   *
+   * @param name
+   *          the marker name.
+   * @return zero or more.
+   */
+  static int getId(final String name) {
+    final Integer id = BukkitMarkerFactory.IDS.get(name);
+    if (id != null) { return id; }
+    final Integer next = BukkitMarkerFactory.NEXT_ID.getAndIncrement();
+    final Integer existing = BukkitMarkerFactory.IDS.putIfAbsent(name, next);
+    return (existing == null) ? next : existing;
+  }
+
+  /**
+   * Returns the closure of a marker that has no references.
+   *
+   * @param name
+   *          the marker name.
+   * @return never null. Must not be modified.
+   */
+  static long[] getLeafClosure(final String name) {
+    final long[] closure = BukkitMarkerFactory.LEAF_CLOSURES.get(name);
+    if (closure != null) { return closure; }
+    final long[] computed = BukkitMarker.setBit(new long[0],
+                                                BukkitMarkerFactory.getId(name));
+    final long[] existing = BukkitMarkerFactory.LEAF_CLOSURES.putIfAbsent(name,
+                                                                          computed);
+    return (existing == null) ? computed : existing;
+  }
+
+  @Override
+  public boolean detachMarker(final String name) {
+    if (name == null) { return false; }
+    return this.markers.remove(name) != null;
+  }
+
+  @Override
+  public boolean exists(final String name) {
+    if (name == null) { return false; }
+    return this.markers.containsKey(name);
+  }
+
+  @Override
+  public Marker getDetachedMarker(final String name) {
+    if (name == null) { throw new IllegalArgumentException("Marker name cannot be null"); }
+    BukkitMarkerFactory.getId(name);
+    return new BukkitMarker(name);
+  }
+
+  @Override
+  public Marker getMarker(final String name) {
+    if (name == null) { throw new IllegalArgumentException("Marker name cannot be null"); }
+    final Marker marker = this.markers.get(name);
+    if (marker != null) { return marker; }
+    final Marker created = this.getDetachedMarker(name);
+    final Marker existing = this.markers.putIfAbsent(name, created);
+    return (existing == null) ? created : existing;
+  }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import info.ronjenkins.slf4bukkit.AppendingColorMapper;
+import info.ronjenkins.slf4bukkit.ColorMapper;
+
+import org.bukkit.ChatColor;
+
+/**
+ * Adapts a {@link ColorMapper} that is not an {@link AppendingColorMapper},
+ * by appending the strings that it returns.
+ */
+final class ColorMapperAdapter implements AppendingColorMapper {
+
+  private final ColorMapper delegate;
+
+  /**
+   * Returns the given mapper as an {@link AppendingColorMapper}, adapting it
+   * only if necessary.
+   *
+   * @param mapper
+   *          the mapper, not null.
+   * @return never null.
+   */
+  static AppendingColorMapper of(final ColorMapper mapper) {
+    return (mapper instanceof AppendingColorMapper) ? (AppendingColorMapper) mapper
+                                                    : new ColorMapperAdapter(mapper);
+  }
+
+  private ColorMapperAdapter(final ColorMapper delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void map(final CharSequence input, final StringBuilder output) {
+    output.append(this.delegate.map((input == null) ? null : input.toString()));
+  }
+
+  @Override
+  public void map(final ChatColor color, final StringBuilder output) {
+    output.append(this.delegate.map(color.toString()));
+  }
+
+  @Override
+  public String map(final String input) {
+    return this.delegate.map(input);
+  }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+
+/**
+ * Sends lines to the plugin's JUL logger, and thus to the server console. Its
+ * threshold for a logger is the level configured by {@code slf4j.log.a.b.c} or
+ * {@code slf4j.defaultLogLevel}, which marker rules can override. The level of
+ * the JUL logger is taken into account when the thresholds are resolved, i.e.
+ * on (re)configuration.
+ */
+final class ConsoleSink implements LogSink {
+
+  static final ConsoleSink INSTANCE = new ConsoleSink();
+
+  private ConsoleSink() {
+  }
+
+  /**
+   * Is the given level loggable by the plugin's JUL logger?
+   *
+   * @param config
+   *          the current configuration snapshot.
+   * @param level
+   *          the SLF4J level.
+   * @return true if loggable.
+   */
+  private static boolean isLoggable(final BukkitLoggerConfig config,
+                                    final Level level) {
+    return config.getLogger()
+                 .isLoggable(ConsoleSink.slf4jLevelIntToBukkitJULLevel(level));
+  }
+
+  /**
+   * Converts an SLF4J logging level to a Bukkit logging level.
+   *
+   * <ul>
+   * <li>{@link Level#ERROR} maps to {@link java.util.logging.Level#SEVERE}.</li>
+   * <li>{@link Level#WARN} maps to {@link java.util.logging.Level#WARNING}.</li>
+   * <li>All others map to {@link java.util.logging.Level#INFO} (Bukkit won't
+   * log any messages higher than {@code INFO}).</li>
+   * </ul>
+   *
+   * @param slf4jLevel
+   *          any SLF4J logging level.
+   * @return never null.
+   */
+  private static java.util.logging.Level
+      slf4jLevelIntToBukkitJULLevel(final Level slf4jLevel) {
+    java.util.logging.Level julLevel;
+    switch (slf4jLevel) {
+      case ERROR:
+        julLevel = java.util.logging.Level.SEVERE;
+        break;
+      case WARN:
+        julLevel = java.util.logging.Level.WARNING;
+        break;
+      default:
+        // In Bukkit, Only the SEVERE, WARNING and INFO JUL levels are enabled,
+        // so SLF4J's TRACE and DEBUG levels must be logged at Bukkit's INFO
+        // level.
+        julLevel = java.util.logging.Level.INFO;
+        break;
+    }
+    return julLevel;
+  }
+
+  @Override
+  public void close() {
+    // The plugin logger is not ours to close.
+  }
+
+  @Override
+  public void flushIfStale() {
+    // JUL handlers flush by themselves.
+  }
+
+  /**
+   * Computes a logger's current logging level, based on the given
+   * configuration snapshot.
+   *
+   * @return the value of "slf4j.defaultLogLevel" if neither the logger nor any
+   *         of its ancestors define a logging level.
+   */
+  @Override
+  public Level getThreshold(final BukkitLoggerConfig config,
+                            final String loggerName) {
+    // Compute the current level, which may be null.
+    final Level level = config.getLogLevel(loggerName);
+    // Return the default value if we got null.
+    return (level == null) ? config.getDefaultLogLevel() : level;
+  }
+
+  @Override
+  public boolean isColored() {
+    return true;
+  }
+
+  @Override
+  public boolean isEnabled(final BukkitLoggerConfig config,
+                           final Level threshold, final Level level,
+                           final Marker marker) {
+    final MarkerRules rules = config.getMarkerRules();
+    if ((marker != null) && (rules != null)) {
+      switch (rules.check(marker, level)) {
+        case MarkerRules.ENABLED:
+          return ConsoleSink.isLoggable(config, level);
+        case MarkerRules.DISABLED:
+          return false;
+        default:
+          break;
+      }
+    }
+    // log level are numerically ordered so can use simple numeric comparison
+    //
+    // the PLUGIN.getLogger().isLoggable() check avoids the unconditional
+    // construction of location data for disabled log statements. As of
+    // 2008-07-31, callers of this method do not perform this check. See also
+    // http://jira.qos.ch/browse/SLF4J-81
+    return (level.toInt() >= threshold.toInt())
+           && ConsoleSink.isLoggable(config, level);
+  }
+
+  @Override
+  public boolean isStructured() {
+    return false;
+  }
+
+  @Override
+  public void write(final BukkitLoggerConfig config, final Level level,
+                    final String threadName, final StringBuilder line,
+                    final LogEvent event) {
+    config.getLogger()
+          .log(ConsoleSink.slf4jLevelIntToBukkitJULLevel(level),
+               line.toString());
+  }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.Arrays;
+
+/**
+ * The structured key-value fields of a {@link LogEvent}, as added through a
+ * {@link info.ronjenkins.slf4bukkit.LogEventBuilder}. Primitive values are
+ * stored unboxed, encoded as described by {@link PrimitiveType}. The arrays
+ * are allocated on first use and then reused, so that recycled events carry
+ * fields without allocating.
+ */
+final class EventFields {
+
+  // Initial capacity of the arrays, in fields.
+  private static final int INITIAL_CAPACITY = 4;
+
+  private String[]         keys;
+  // Primitive values, encoded as described by the corresponding type.
+  private long[]           primitives;
+  private int              size;
+  // The type of each primitive value; null for object values.
+  private PrimitiveType[]  types;
+  private Object[]         values;
+
+  /**
+   * Adds a field with an object value.
+   *
+   * @param key
+   *          the name of the field.
+   * @param value
+   *          the value of the field, may be null.
+   */
+  void add(final String key, final Object value) {
+    final int index = this.grow();
+    this.keys[index] = key;
+    this.values[index] = value;
+    this.types[index] = null;
+  }
+
+  /**
+   * Adds a field with a primitive value.
+   *
+   * @param key
+   *          the name of the field.
+   * @param type
+   *          the type of the value.
+   * @param value
+   *          the value, encoded as described by the type.
+   */
+  void add(final String key, final PrimitiveType type, final long value) {
+    final int index = this.grow();
+    this.keys[index] = key;
+    this.primitives[index] = value;
+    this.types[index] = type;
+  }
+
+  /**
+   * Appends the fields as {@code key=value} pairs, each preceded by a space.
+   * Object values are rendered like format arguments.
+   *
+   * @param buf
+   *          the buffer to append to.
+   */
+  void appendTo(final StringBuilder buf) {
+    for (int i = 0; i < this.size; i++) {
+      buf.append(' ').append(this.keys[i]).append('=');
+      if (this.types[i] == null) {
+        BufferedMessageFormatter.appendArgument(buf, this.values[i]);
+      } else {
+        this.types[i].append(buf, this.primitives[i]);
+      }
+    }
+  }
+
+  /**
+   * Replaces every object value with its resolved form.
+   *
+   * @see BufferedMessageFormatter#resolveArgument(Object)
+   */
+  void resolveValues() {
+    for (int i = 0; i < this.size; i++) {
+      if (this.types[i] == null) {
+        this.values[i] = BufferedMessageFormatter.resolveArgument(this.values[i]);
+      }
+    }
+  }
+
+  /** Removes all fields, releasing the references they held. */
+  void clear() {
+    if (this.size == 0) { return; }
+    Arrays.fill(this.keys, 0, this.size, null);
+    Arrays.fill(this.values, 0, this.size, null);
+    Arrays.fill(this.types, 0, this.size, null);
+    this.size = 0;
+  }
+
+  /**
+   * Replaces the fields with those of another instance.
+   *
+   * @param other
+   *          the fields to copy.
+   */
+  void copyFrom(final EventFields other) {
+    this.clear();
+    for (int i = 0; i < other.size; i++) {
+      final int index = this.grow();
+      this.keys[index] = other.keys[i];
+      this.values[index] = other.values[i];
+      this.primitives[index] = other.primitives[i];
+      this.types[index] = other.types[i];
+    }
+  }
+
+  /**
+   * Returns the name of a field.
+   *
+   * @param index
+   *          the index of the field, less than {@link #size()}.
+   * @return never null.
+   */
+  String getKey(final int index) {
+    return this.keys[index];
+  }
+
+  /**
+   * Returns the primitive value of a field.
+   *
+   * @param index
+   *          the index of the field, less than {@link #size()}.
+   * @return the value, encoded as described by {@link #getType(int)}.
+   */
+  long getPrimitive(final int index) {
+    return this.primitives[index];
+  }
+
+  /**
+   * Returns the type of the primitive value of a field.
+   *
+   * @param index
+   *          the index of the field, less than {@link #size()}.
+   * @return null if the field has an object value.
+   */
+  PrimitiveType getType(final int index) {
+    return this.types[index];
+  }
+
+  /**
+   * Returns the object value of a field.
+   *
+   * @param index
+   *          the index of the field, less than {@link #size()}.
+   * @return may be null.
+   */
+  Object getValue(final int index) {
+    return this.values[index];
+  }
+
+  /**
+   * Indicates whether or not there are any fields.
+   *
+   * @return true if there are none.
+   */
+  boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * Returns the number of fields.
+   *
+   * @return 0 if there are none.
+   */
+  int size() {
+    return this.size;
+  }
+
+  /**
+   * Makes room for one more field.
+   *
+   * @return the index of the new field.
+   */
+  private int grow() {
+    if (this.keys == null) {
+      this.keys = new String[EventFields.INITIAL_CAPACITY];
+      this.values = new Object[EventFields.INITIAL_CAPACITY];
+      this.primitives = new long[EventFields.INITIAL_CAPACITY];
+      this.types = new PrimitiveType[EventFields.INITIAL_CAPACITY];
+    } else if (this.size == this.keys.length) {
+      final int capacity = this.size * 2;
+      this.keys = Arrays.copyOf(this.keys, capacity);
+      this.values = Arrays.copyOf(this.values, capacity);
+      this.primitives = Arrays.copyOf(this.primitives, capacity);
+      this.types = Arrays.copyOf(this.types, capacity);
+    }
+    return this.size++;
+  }
+
+}
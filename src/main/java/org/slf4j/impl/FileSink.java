@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+
+/**
+ * Writes log lines to {@code logs/latest.log} in the plugin's data folder,
+ * bypassing JUL and the server console. Each line is prefixed with a
+ * timestamp, the thread name and the level, and is rendered without colors.
+ * Lines at level WARN or above are written to the file by the next periodic
+ * flush, within a fraction of a second.
+ *
+ * @see RollingFile
+ */
+final class FileSink implements LogSink {
+
+  private final RollingFile      file;
+  // Formatted timestamp of the second in stampSecond.
+  private String                 stamp;
+  private final SimpleDateFormat stampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+  private long                   stampSecond = -1;
+  private final Level            threshold;
+
+  /**
+   * Opens the sink.
+   *
+   * @param directory
+   *          the directory of the log files, created if necessary.
+   * @param threshold
+   *          the least severe level that is written.
+   * @param maxSize
+   *          the size in bytes at which the file is rolled, or 0 for no limit.
+   * @param interval
+   *          the rolling interval, see {@link RollingFile}.
+   * @param compress
+   *          whether or not rolled files are compressed.
+   * @throws IOException
+   *           if the file cannot be opened.
+   */
+  FileSink(final File directory, final Level threshold, final long maxSize,
+           final int interval, final boolean compress) throws IOException {
+    this.threshold = threshold;
+    this.file = new RollingFile(directory, ".log", maxSize, interval, compress);
+  }
+
+  @Override
+  public void close() {
+    this.file.close();
+  }
+
+  @Override
+  public void flushIfStale() {
+    this.file.flushIfStale();
+  }
+
+  /**
+   * Returns the level configured by {@code slf4j.fileLevel}, which applies to
+   * all loggers.
+   *
+   * @return never null.
+   */
+  @Override
+  public Level getThreshold(final BukkitLoggerConfig config,
+                            final String loggerName) {
+    return this.threshold;
+  }
+
+  /**
+   * Indicates whether or not this sink has the given settings, in which case
+   * it can be kept when the configuration is reloaded.
+   *
+   * @param directory
+   *          the directory of the log files.
+   * @param threshold
+   *          the least severe level that is written.
+   * @param maxSize
+   *          the size in bytes at which the file is rolled, or 0.
+   * @param interval
+   *          the rolling interval.
+   * @param compress
+   *          whether or not rolled files are compressed.
+   * @return true if all settings are equal.
+   */
+  boolean hasSettings(final File directory, final Level threshold,
+                      final long maxSize, final int interval,
+                      final boolean compress) {
+    return (this.threshold == threshold)
+           && this.file.hasSettings(directory, maxSize, interval, compress);
+  }
+
+  @Override
+  public boolean isColored() {
+    return false;
+  }
+
+  /**
+   * Only markers that are "off" affect the file.
+   */
+  @Override
+  public boolean isEnabled(final BukkitLoggerConfig config,
+                           final Level threshold, final Level level,
+                           final Marker marker) {
+    if (level.toInt() < threshold.toInt()) { return false; }
+    final MarkerRules rules = config.getMarkerRules();
+    return (marker == null) || (rules == null) || !rules.isOff(marker);
+  }
+
+  @Override
+  public boolean isStructured() {
+    return false;
+  }
+
+  @Override
+  public void write(final BukkitLoggerConfig config, final Level level,
+                    final String threadName, final StringBuilder line,
+                    final LogEvent event) {
+    final long now = System.currentTimeMillis();
+    synchronized (this.file) {
+      if (!this.file.begin(now)) { return; }
+      try {
+        final long second = now / 1000;
+        if (second != this.stampSecond) {
+          this.stamp = this.stampFormat.format(new Date(second * 1000));
+          this.stampSecond = second;
+        }
+        final int millis = (int) (now % 1000);
+        this.file.put('[').put(this.stamp).put('.');
+        this.file.put((char) ('0' + (millis / 100)))
+                 .put((char) ('0' + ((millis / 10) % 10)))
+                 .put((char) ('0' + (millis % 10)));
+        this.file.put("] [").put(threadName).put('/').put(level.toString())
+                 .put("]: ").put(line).put('\n');
+        this.file.end(now, level.toInt() >= Level.WARN.toInt());
+      } catch (final IOException e) {
+        this.file.fail(e);
+      }
+    }
+  }
+
+}
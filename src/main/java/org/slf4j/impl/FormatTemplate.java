@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message pattern that has been split into literal segments and
+ * placeholders, so that formatting it never scans it again. Escaped
+ * delimiters ({@code \{}}) are resolved while splitting.
+ *
+ * <p>
+ * Escapes are only resolved in the part of the pattern that SLF4J's
+ * {@code MessageFormatter} would scan for the given number of arguments; the
+ * rest of the pattern is appended verbatim, exactly as {@code MessageFormatter}
+ * does.
+ * </p>
+ */
+final class FormatTemplate {
+
+  private static final String DELIMITER   = "{}";
+  private static final char   DELIM_START = '{';
+  private static final char   ESCAPE_CHAR = '\\';
+  // The literal segment before each placeholder, followed by the literal
+  // segment after the last placeholder.
+  private final String[]      literals;
+  private final String        pattern;
+  // The position in the pattern right after each placeholder.
+  private final int[]         resumePositions;
+  // Set whenever this template is used, and cleared by the cache when it
+  // looks for an entry to evict.
+  private volatile boolean    referenced;
+
+  /**
+   * Splits a pattern.
+   *
+   * @param pattern
+   *          the message pattern.
+   */
+  FormatTemplate(final String pattern) {
+    this.pattern = pattern;
+    final List<String> literals = new ArrayList<String>();
+    final List<Integer> resumePositions = new ArrayList<Integer>();
+    final StringBuilder literal = new StringBuilder();
+    int i = 0;
+    int j;
+    while ((j = pattern.indexOf(FormatTemplate.DELIMITER, i)) != -1) {
+      if ((j > 0) && (pattern.charAt(j - 1) == FormatTemplate.ESCAPE_CHAR)) {
+        if ((j < 2) || (pattern.charAt(j - 2) != FormatTemplate.ESCAPE_CHAR)) {
+          // The delimiter is escaped, so it is not a placeholder.
+          literal.append(pattern, i, j - 1).append(FormatTemplate.DELIM_START);
+          i = j + 1;
+          continue;
+        }
+        // The escape character itself is escaped.
+        literal.append(pattern, i, j - 1);
+      } else {
+        literal.append(pattern, i, j);
+      }
+      literals.add(literal.toString());
+      literal.setLength(0);
+      i = j + 2;
+      resumePositions.add(i);
+    }
+    literals.add(literal.append(pattern, i, pattern.length()).toString());
+    this.literals = literals.toArray(new String[literals.size()]);
+    this.resumePositions = new int[resumePositions.size()];
+    for (int k = 0; k < this.resumePositions.length; k++) {
+      this.resumePositions[k] = resumePositions.get(k);
+    }
+  }
+
+  /**
+   * Appends the literal segment that precedes a placeholder.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param placeholder
+   *          the index of the placeholder, less than
+   *          {@link #getPlaceholderCount()}.
+   */
+  void appendLiteral(final StringBuilder buf, final int placeholder) {
+    buf.append(this.literals[placeholder]);
+  }
+
+  /**
+   * Appends the rest of the pattern once the arguments have been substituted.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param argumentCount
+   *          the number of arguments that were available for substitution.
+   *          Only the first {@code min(argumentCount, getPlaceholderCount())}
+   *          placeholders must have been appended.
+   */
+  void appendTail(final StringBuilder buf, final int argumentCount) {
+    if (argumentCount <= 0) {
+      buf.append(this.pattern);
+    } else if (argumentCount > this.resumePositions.length) {
+      buf.append(this.literals[this.resumePositions.length]);
+    } else {
+      buf.append(this.pattern, this.resumePositions[argumentCount - 1],
+                 this.pattern.length());
+    }
+  }
+
+  /**
+   * Returns the pattern that this template was created from.
+   *
+   * @return never null.
+   */
+  String getPattern() {
+    return this.pattern;
+  }
+
+  /**
+   * Returns the number of placeholders in the pattern.
+   *
+   * @return zero or more.
+   */
+  int getPlaceholderCount() {
+    return this.resumePositions.length;
+  }
+
+  /**
+   * Indicates whether or not this template was used since the flag was last
+   * cleared, clearing it.
+   *
+   * @return the previous value of the flag.
+   */
+  boolean clearReferenced() {
+    if (!this.referenced) { return false; }
+    this.referenced = false;
+    return true;
+  }
+
+  /**
+   * Flags this template as recently used.
+   */
+  void markReferenced() {
+    // Avoid writing to shared memory if the flag is already set.
+    if (!this.referenced) {
+      this.referenced = true;
+    }
+  }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free cache of {@link FormatTemplate}s keyed by the identity
+ * of their pattern, which suits the constant literals that make up nearly all
+ * message patterns.
+ *
+ * <p>
+ * The cache is set-associative: a pattern can only be stored in one of the
+ * {@link #WAYS} slots of the set selected by its identity hash code. When all
+ * slots of a set are taken, a slot whose template was not used since the last
+ * eviction in that set is replaced (the "second chance" approximation of LRU),
+ * so that patterns built at runtime cannot evict frequently used ones for
+ * long, and cannot grow the cache.
+ * </p>
+ */
+final class FormatTemplateCache {
+
+  // Number of sets; must be a power of two.
+  private static final int                                  SETS         = 256;
+  // Number of slots per set.
+  private static final int                                  WAYS         = 4;
+  private static final AtomicReferenceArray<FormatTemplate> SLOTS        = new AtomicReferenceArray<FormatTemplate>(FormatTemplateCache.SETS
+                                                                                                                    * FormatTemplateCache.WAYS);
+  // Hit and miss counters, striped by thread to avoid contention. Each stripe
+  // occupies its own cache line: hits at offset 0, misses at offset 1.
+  private static final int                                  STRIPES      = 16;
+  private static final int                                  STRIPE_WIDTH = 8;
+  private static final AtomicLongArray                      COUNTERS     = new AtomicLongArray(FormatTemplateCache.STRIPES
+                                                                                               * FormatTemplateCache.STRIPE_WIDTH);
+
+  private FormatTemplateCache() {}
+
+  /**
+   * Returns the template for a pattern, creating and caching it if necessary.
+   *
+   * @param pattern
+   *          the message pattern.
+   * @return never null.
+   */
+  static FormatTemplate get(final String pattern) {
+    final int set = (FormatTemplateCache.spread(System.identityHashCode(pattern)) & (FormatTemplateCache.SETS - 1))
+                    * FormatTemplateCache.WAYS;
+    for (int way = 0; way < FormatTemplateCache.WAYS; way++) {
+      final FormatTemplate template = FormatTemplateCache.SLOTS.get(set + way);
+      if ((template != null) && (template.getPattern() == pattern)) {
+        template.markReferenced();
+        FormatTemplateCache.count(0);
+        return template;
+      }
+    }
+    FormatTemplateCache.count(1);
+    final FormatTemplate template = new FormatTemplate(pattern);
+    FormatTemplateCache.SLOTS.set(set + FormatTemplateCache.victim(set),
+                                  template);
+    return template;
+  }
+
+  /**
+   * Returns the number of lookups that found a cached template.
+   *
+   * @return zero or more.
+   */
+  static long getHits() {
+    return FormatTemplateCache.sum(0);
+  }
+
+  /**
+   * Returns the number of lookups that had to create a template.
+   *
+   * @return zero or more.
+   */
+  static long getMisses() {
+    return FormatTemplateCache.sum(1);
+  }
+
+  /**
+   * Increments a counter in the calling thread's stripe.
+   *
+   * @param offset
+   *          0 for hits, 1 for misses.
+   */
+  private static void count(final int offset) {
+    final int stripe = (int) Thread.currentThread().getId()
+                       & (FormatTemplateCache.STRIPES - 1);
+    FormatTemplateCache.COUNTERS.incrementAndGet((stripe * FormatTemplateCache.STRIPE_WIDTH)
+                                                 + offset);
+  }
+
+  /**
+   * Improves the distribution of identity hash codes over the sets.
+   *
+   * @param hash
+   *          an identity hash code.
+   * @return the mixed hash code.
+   */
+  private static int spread(final int hash) {
+    return hash ^ (hash >>> 8) ^ (hash >>> 16);
+  }
+
+  /**
+   * Sums a counter over all stripes.
+   *
+   * @param offset
+   *          0 for hits, 1 for misses.
+   * @return zero or more.
+   */
+  private static long sum(final int offset) {
+    long sum = 0;
+    for (int stripe = 0; stripe < FormatTemplateCache.STRIPES; stripe++) {
+      sum += FormatTemplateCache.COUNTERS.get((stripe * FormatTemplateCache.STRIPE_WIDTH)
+                                              + offset);
+    }
+    return sum;
+  }
+
+  /**
+   * Picks the slot of a set that receives a new template: an empty slot if
+   * there is one, otherwise the first slot whose template was not used
+   * recently. Templates that were used recently lose that status as they are
+   * passed over. Concurrent misses may pick the same slot, in which case one
+   * of the new templates is simply lost.
+   *
+   * @param set
+   *          the index of the first slot of the set.
+   * @return the index of the chosen slot within the set.
+   */
+  private static int victim(final int set) {
+    for (int way = 0; way < FormatTemplateCache.WAYS; way++) {
+      if (FormatTemplateCache.SLOTS.get(set + way) == null) { return way; }
+    }
+    for (int way = 0; way < FormatTemplateCache.WAYS; way++) {
+      final FormatTemplate template = FormatTemplateCache.SLOTS.get(set + way);
+      if ((template == null) || !template.clearReferenced()) { return way; }
+    }
+    // Every template was used recently; all of them lost that status now.
+    return 0;
+  }
+
+}
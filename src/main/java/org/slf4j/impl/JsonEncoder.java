@@ -0,0 +1,411 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Iterator;
+
+import org.slf4j.Marker;
+
+/**
+ * Encodes {@link LogEvent}s as single-line JSON objects, appending them to a
+ * caller-supplied buffer without any intermediate objects. The encoded record
+ * contains, in this order and leaving out members that would be empty:
+ *
+ * <ul>
+ * <li>{@code timestamp} - milliseconds since the epoch.</li>
+ * <li>{@code level}, {@code logger} and {@code thread} - strings.</li>
+ * <li>{@code markers} - the names of the marker and of the markers that it
+ * references, depth first.</li>
+ * <li>{@code template} - the message before argument substitution.</li>
+ * <li>{@code arguments} - numbers and booleans as JSON values, null as null,
+ * and anything else as a string rendered like a substituted argument. A
+ * trailing throwable is not an argument.</li>
+ * <li>{@code fields} - the fields added through a
+ * {@link info.ronjenkins.slf4bukkit.LogEventBuilder}.</li>
+ * <li>{@code mdc} - the entire MDC of the logging thread.</li>
+ * <li>{@code throwable} - an object with {@code class}, {@code message},
+ * {@code frames} (strings formatted like {@link StackTraceElement#toString()}),
+ * {@code suppressed} and {@code cause}.</li>
+ * </ul>
+ *
+ * <p>
+ * Object arguments and field values are expected to be resolved already, see
+ * {@link LogEvent#resolveArguments()}.
+ * </p>
+ */
+final class JsonEncoder {
+
+  private static final char[] HEX       = "0123456789abcdef".toCharArray();
+  // Nesting limit for causes, suppressed throwables and marker references,
+  // which protects against cycles.
+  private static final int    MAX_DEPTH = 8;
+
+  /**
+   * Appends characters to a buffer, escaped for a JSON string.
+   *
+   * @param out
+   *          the buffer to append to.
+   * @param chars
+   *          the characters to escape.
+   */
+  private static void escape(final StringBuilder out,
+                             final CharSequence chars) {
+    final int length = chars.length();
+    for (int i = 0; i < length; i++) {
+      JsonEncoder.escape(out, chars.charAt(i));
+    }
+  }
+
+  /**
+   * Appends a character to a buffer, escaped for a JSON string.
+   *
+   * @param out
+   *          the buffer to append to.
+   * @param c
+   *          the character to escape.
+   */
+  private static void escape(final StringBuilder out, final char c) {
+    if ((c >= 0x20) && (c != '"') && (c != '\\')) {
+      out.append(c);
+      return;
+    }
+    switch (c) {
+      case '"':
+        out.append("\\\"");
+        break;
+      case '\\':
+        out.append("\\\\");
+        break;
+      case '\n':
+        out.append("\\n");
+        break;
+      case '\r':
+        out.append("\\r");
+        break;
+      case '\t':
+        out.append("\\t");
+        break;
+      default:
+        out.append("\\u00").append(JsonEncoder.HEX[c >> 4])
+           .append(JsonEncoder.HEX[c & 0xF]);
+        break;
+    }
+  }
+
+  /**
+   * Appends the names of a marker and of the markers that it references.
+   *
+   * @param out
+   *          the buffer to append to.
+   * @param marker
+   *          the marker.
+   * @param depth
+   *          the nesting depth of the marker.
+   * @param first
+   *          whether or not no name was appended yet.
+   */
+  private static void writeMarker(final StringBuilder out,
+                                  final Marker marker, final int depth,
+                                  final boolean first) {
+    if (!first) {
+      out.append(',');
+    }
+    JsonEncoder.writeString(out, marker.getName());
+    if ((depth >= JsonEncoder.MAX_DEPTH) || !marker.hasReferences()) { return; }
+    final Iterator<Marker> references = marker.iterator();
+    while (references.hasNext()) {
+      JsonEncoder.writeMarker(out, references.next(), depth + 1, false);
+    }
+  }
+
+  /**
+   * Appends a primitive value.
+   *
+   * @param out
+   *          the buffer to append to.
+   * @param type
+   *          the type of the value.
+   * @param value
+   *          the value, encoded as described by the type.
+   */
+  private static void writePrimitive(final StringBuilder out,
+                                     final PrimitiveType type,
+                                     final long value) {
+    if (type == PrimitiveType.CHAR) {
+      out.append('"');
+      JsonEncoder.escape(out, (char) value);
+      out.append('"');
+      return;
+    }
+    if (((type == PrimitiveType.DOUBLE)
+         && !JsonEncoder.isFinite(Double.longBitsToDouble(value)))
+        || ((type == PrimitiveType.FLOAT)
+            && !JsonEncoder.isFinite(Float.intBitsToFloat((int) value)))) {
+      out.append('"');
+      type.append(out, value);
+      out.append('"');
+      return;
+    }
+    type.append(out, value);
+  }
+
+  /**
+   * Appends a JSON string.
+   *
+   * @param out
+   *          the buffer to append to.
+   * @param chars
+   *          the characters of the string; null is appended as JSON null.
+   */
+  private static void writeString(final StringBuilder out,
+                                  final CharSequence chars) {
+    if (chars == null) {
+      out.append("null");
+      return;
+    }
+    out.append('"');
+    JsonEncoder.escape(out, chars);
+    out.append('"');
+  }
+
+  /**
+   * Indicates whether or not the given value can be written as a JSON number.
+   *
+   * @param d
+   *          the value to check.
+   * @return true if the value is neither NaN nor infinite, false otherwise.
+   */
+  private static boolean isFinite(final double d) {
+    return !Double.isNaN(d) && !Double.isInfinite(d);
+  }
+
+  /**
+   * Appends the MDC of an event, leaving out removed entries.
+   *
+   * @param out
+   *          the buffer to append to.
+   * @param event
+   *          the event.
+   */
+  private static void writeMdc(final StringBuilder out,
+                               final LogEvent event) {
+    final String[] keys = event.getMdcKeys();
+    final String[] values = event.getMdcValues();
+    boolean first = true;
+    for (int i = 0; i < event.getMdcSize(); i++) {
+      if (values[i] == null) {
+        continue;
+      }
+      out.append(first ? ",\"mdc\":{" : ",");
+      first = false;
+      JsonEncoder.writeString(out, keys[i]);
+      out.append(':');
+      JsonEncoder.writeString(out, values[i]);
+    }
+    if (!first) {
+      out.append('}');
+    }
+  }
+
+  /**
+   * Appends a throwable, its suppressed throwables and its causes.
+   *
+   * @param out
+   *          the buffer to append to.
+   * @param throwable
+   *          the throwable.
+   * @param depth
+   *          the nesting depth of the throwable.
+   */
+  private static void writeThrowable(final StringBuilder out,
+                                     final Throwable throwable,
+                                     final int depth) {
+    out.append("{\"class\":");
+    JsonEncoder.writeString(out, throwable.getClass().getName());
+    final String message = throwable.getMessage();
+    if (message != null) {
+      out.append(",\"message\":");
+      JsonEncoder.writeString(out, message);
+    }
+    final StackTraceElement[] frames = throwable.getStackTrace();
+    if (frames.length > 0) {
+      out.append(",\"frames\":[");
+      for (int i = 0; i < frames.length; i++) {
+        if (i > 0) {
+          out.append(',');
+        }
+        JsonEncoder.writeFrame(out, frames[i]);
+      }
+      out.append(']');
+    }
+    if (depth < JsonEncoder.MAX_DEPTH) {
+      final Throwable[] suppressed = throwable.getSuppressed();
+      if (suppressed.length > 0) {
+        out.append(",\"suppressed\":[");
+        for (int i = 0; i < suppressed.length; i++) {
+          if (i > 0) {
+            out.append(',');
+          }
+          JsonEncoder.writeThrowable(out, suppressed[i], depth + 1);
+        }
+        out.append(']');
+      }
+      final Throwable cause = throwable.getCause();
+      if ((cause != null) && (cause != throwable)) {
+        out.append(",\"cause\":");
+        JsonEncoder.writeThrowable(out, cause, depth + 1);
+      }
+    }
+    out.append('}');
+  }
+
+  /**
+   * Appends a stack frame as a string, formatted like
+   * {@link StackTraceElement#toString()} without creating that string.
+   *
+   * @param out
+   *          the buffer to append to.
+   * @param frame
+   *          the stack frame.
+   */
+  private static void writeFrame(final StringBuilder out,
+                                 final StackTraceElement frame) {
+    out.append('"');
+    JsonEncoder.escape(out, frame.getClassName());
+    out.append('.');
+    JsonEncoder.escape(out, frame.getMethodName());
+    out.append('(');
+    if (frame.isNativeMethod()) {
+      out.append("Native Method");
+    } else if (frame.getFileName() == null) {
+      out.append("Unknown Source");
+    } else {
+      JsonEncoder.escape(out, frame.getFileName());
+      if (frame.getLineNumber() >= 0) {
+        out.append(':').append(frame.getLineNumber());
+      }
+    }
+    out.append(")\"");
+  }
+
+  /**
+   * Appends the JSON record of an event.
+   *
+   * @param out
+   *          the buffer to append to.
+   * @param event
+   *          the event to encode.
+   */
+  void encode(final StringBuilder out, final LogEvent event) {
+    out.append("{\"timestamp\":").append(event.getTimestamp());
+    out.append(",\"level\":\"").append(event.getLevel().toString());
+    out.append("\",\"logger\":");
+    JsonEncoder.writeString(out, event.getLogger().getName());
+    out.append(",\"thread\":");
+    JsonEncoder.writeString(out, event.getThreadName());
+    final Marker marker = event.getMarker();
+    if (marker != null) {
+      out.append(",\"markers\":[");
+      JsonEncoder.writeMarker(out, marker, 0, true);
+      out.append(']');
+    }
+    out.append(",\"template\":");
+    JsonEncoder.writeString(out, event.getMessage());
+    // Like the formatter, treat a trailing throwable as the throwable of the
+    // event rather than as an argument.
+    final PrimitiveType type = event.getPrimitiveType();
+    int count = event.getArgumentCount();
+    Throwable throwable = event.getThrowable();
+    if (event.hasTrailingThrowable()) {
+      if (throwable == null) {
+        throwable = (Throwable) event.getArgument(count - 1);
+      }
+      count--;
+    }
+    if (count > 0) {
+      out.append(",\"arguments\":[");
+      for (int i = 0; i < count; i++) {
+        if (i > 0) {
+          out.append(',');
+        }
+        if (type == null) {
+          JsonEncoder.writeValue(out, event.getArgument(i));
+        } else {
+          JsonEncoder.writePrimitive(out, type, event.getPrimitive(i));
+        }
+      }
+      out.append(']');
+    }
+    final EventFields fields = event.getFields();
+    if (!fields.isEmpty()) {
+      out.append(",\"fields\":{");
+      for (int i = 0; i < fields.size(); i++) {
+        if (i > 0) {
+          out.append(',');
+        }
+        JsonEncoder.writeString(out, fields.getKey(i));
+        out.append(':');
+        if (fields.getType(i) == null) {
+          JsonEncoder.writeValue(out, fields.getValue(i));
+        } else {
+          JsonEncoder.writePrimitive(out, fields.getType(i),
+                                     fields.getPrimitive(i));
+        }
+      }
+      out.append('}');
+    }
+    JsonEncoder.writeMdc(out, event);
+    if (throwable != null) {
+      out.append(",\"throwable\":");
+      JsonEncoder.writeThrowable(out, throwable, 0);
+    }
+    out.append('}');
+  }
+
+  /**
+   * Appends an object value.
+   *
+   * @param out
+   *          the buffer to append to.
+   * @param value
+   *          the value, may be null.
+   */
+  private static void writeValue(final StringBuilder out,
+                                 final Object value) {
+    if (value == null) {
+      out.append("null");
+    } else if ((value instanceof Integer) || (value instanceof Long)
+               || (value instanceof Short) || (value instanceof Byte)) {
+      out.append(((Number) value).longValue());
+    } else if ((value instanceof Double) || (value instanceof Float)) {
+      final double d = ((Number) value).doubleValue();
+      if (JsonEncoder.isFinite(d)) {
+        out.append(value);
+      } else {
+        JsonEncoder.writeString(out, value.toString());
+      }
+    } else if ((value instanceof BigInteger) || (value instanceof BigDecimal)
+               || (value instanceof Boolean)) {
+      out.append(value);
+    } else {
+      JsonEncoder.writeString(out, value.toString());
+    }
+  }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+
+/**
+ * Writes one JSON record per event to {@code logs/latest.jsonl} in the
+ * plugin's data folder, for log ingestion pipelines that would otherwise have
+ * to parse the colored console output. Records are encoded by a
+ * {@link JsonEncoder} into a reusable buffer. Its thresholds come from
+ * {@code slf4j.jsonLevel} and {@code slf4j.jsonLog.a.b.c}.
+ *
+ * @see RollingFile
+ */
+final class JsonSink implements LogSink {
+
+  // Largest capacity that the record buffer keeps between records.
+  private static final int    MAX_RETAINED_CAPACITY = 64 * 1024;
+  private final JsonEncoder   encoder               = new JsonEncoder();
+  private final RollingFile   file;
+  // Holds the record being written; guarded by the lock of the file.
+  private StringBuilder       record                = new StringBuilder(512);
+  // True while a record is being encoded; guarded by the lock of the file.
+  private boolean             writing;
+
+  /**
+   * Opens the sink.
+   *
+   * @param directory
+   *          the directory of the log files, created if necessary.
+   * @param maxSize
+   *          the size in bytes at which the file is rolled, or 0 for no limit.
+   * @param interval
+   *          the rolling interval, see {@link RollingFile}.
+   * @param compress
+   *          whether or not rolled files are compressed.
+   * @throws IOException
+   *           if the file cannot be opened.
+   */
+  JsonSink(final File directory, final long maxSize, final int interval,
+           final boolean compress) throws IOException {
+    this.file = new RollingFile(directory, ".jsonl", maxSize, interval,
+                                compress);
+  }
+
+  @Override
+  public void close() {
+    this.file.close();
+  }
+
+  @Override
+  public void flushIfStale() {
+    this.file.flushIfStale();
+  }
+
+  @Override
+  public Level getThreshold(final BukkitLoggerConfig config,
+                            final String loggerName) {
+    return config.getJsonLevel(loggerName);
+  }
+
+  /**
+   * Indicates whether or not this sink has the given settings, in which case
+   * it can be kept when the configuration is reloaded.
+   *
+   * @param directory
+   *          the directory of the log files.
+   * @param maxSize
+   *          the size in bytes at which the file is rolled, or 0.
+   * @param interval
+   *          the rolling interval.
+   * @param compress
+   *          whether or not rolled files are compressed.
+   * @return true if all settings are equal.
+   */
+  boolean hasSettings(final File directory, final long maxSize,
+                      final int interval, final boolean compress) {
+    return this.file.hasSettings(directory, maxSize, interval, compress);
+  }
+
+  @Override
+  public boolean isColored() {
+    return false;
+  }
+
+  /**
+   * Only markers that are "off" affect the file.
+   */
+  @Override
+  public boolean isEnabled(final BukkitLoggerConfig config,
+                           final Level threshold, final Level level,
+                           final Marker marker) {
+    if (level.toInt() < threshold.toInt()) { return false; }
+    final MarkerRules rules = config.getMarkerRules();
+    return (marker == null) || (rules == null) || !rules.isOff(marker);
+  }
+
+  @Override
+  public boolean isStructured() {
+    return true;
+  }
+
+  /**
+   * Writes the record of the event; the rendered line is not used. Events
+   * that are logged while the record is being encoded, e.g. by the
+   * {@code getMessage()} method of a throwable, are not written to the file,
+   * since they would corrupt the record.
+   */
+  @Override
+  public void write(final BukkitLoggerConfig config, final Level level,
+                    final String threadName, final StringBuilder line,
+                    final LogEvent event) {
+    final long now = System.currentTimeMillis();
+    synchronized (this.file) {
+      if (this.writing || !this.file.begin(now)) { return; }
+      this.writing = true;
+      try {
+        this.record.setLength(0);
+        this.encoder.encode(this.record, event);
+        this.file.put(this.record.append('\n'));
+        this.file.end(now, level.toInt() >= Level.WARN.toInt());
+      } catch (final IOException e) {
+        this.file.fail(e);
+      } finally {
+        this.writing = false;
+        if (this.record.capacity() > JsonSink.MAX_RETAINED_CAPACITY) {
+          this.record = new StringBuilder(512);
+        }
+      }
+    }
+  }
+
+}
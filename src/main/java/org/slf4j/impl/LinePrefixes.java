@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import info.ronjenkins.slf4bukkit.AppendingColorMapper;
+import info.ronjenkins.slf4bukkit.ColorMarker;
+
+import org.slf4j.event.Level;
+
+/**
+ * The color-mapped prefixes of the lines logged by one logger, rendered for
+ * one configuration snapshot. A prefix consists of the line head (see
+ * {@link BukkitLoggerConfig#getLineHead(Level, ColorMarker, boolean)}), the
+ * thread name if enabled, and the logger name if enabled. Each prefix is also
+ * available without colors, for sinks that are not colored.
+ *
+ * <p>
+ * Prefixes are rendered the first time that they are needed. Instances can be
+ * shared between threads without synchronization: a prefix that two threads
+ * render concurrently is simply rendered twice.
+ * </p>
+ */
+final class LinePrefixes {
+
+  private static final int         COLORS = ColorMarker.values().length;
+  private final BukkitLoggerConfig config;
+  // The color-mapped logger name, wrapped in curly braces and followed by a
+  // space. Empty if the logger name is not shown.
+  private final String             loggerName;
+  // Like loggerName, but without colors.
+  private final String             plainLoggerName;
+  // Complete prefixes indexed by colored (0 or 1), level and color. Unused if
+  // thread names are shown, since the thread name varies from line to line.
+  private final String[]           prefixes;
+
+  /**
+   * Creates the prefixes of a logger.
+   *
+   * @param config
+   *          the configuration snapshot that the prefixes are valid for.
+   * @param loggerName
+   *          the logger name to show, null if none.
+   */
+  LinePrefixes(final BukkitLoggerConfig config, final String loggerName) {
+    this.config = config;
+    this.loggerName = (loggerName == null) ? ""
+                                           : config.getColorMapper()
+                                                   .map('{' + loggerName + "} ");
+    this.plainLoggerName = (loggerName == null) ? ""
+                                                : config.getPlainColorMapper()
+                                                        .map('{' + loggerName
+                                                             + "} ");
+    this.prefixes = config.isShowThreadName() ? null
+                                              : new String[2
+                                                           * Level.values().length
+                                                           * LinePrefixes.COLORS];
+  }
+
+  /**
+   * Appends the prefix of a line to the given buffer.
+   *
+   * @param buf
+   *          the buffer that holds the line.
+   * @param level
+   *          the level of the line.
+   * @param color
+   *          the color of the line.
+   * @param threadName
+   *          the name of the logging thread.
+   * @param colored
+   *          false to leave out colors, for sinks that are not colored.
+   */
+  void appendTo(final StringBuilder buf, final Level level,
+                final ColorMarker color, final String threadName,
+                final boolean colored) {
+    final String head = this.config.getLineHead(level, color, colored);
+    final String name = colored ? this.loggerName : this.plainLoggerName;
+    if (this.prefixes == null) {
+      final AppendingColorMapper mapper = colored ? this.config.getColorMapper()
+                                                  : this.config.getPlainColorMapper();
+      buf.append(head).append('[').append(mapper.map(threadName)).append("] ")
+         .append(name);
+      return;
+    }
+    final int index = (((colored ? 1 : 0) * Level.values().length)
+                       + level.ordinal()) * LinePrefixes.COLORS
+                      + color.ordinal();
+    String prefix = this.prefixes[index];
+    if (prefix == null) {
+      prefix = head.concat(name);
+      this.prefixes[index] = prefix;
+    }
+    buf.append(prefix);
+  }
+
+  /**
+   * Returns the configuration snapshot that these prefixes are valid for.
+   *
+   * @return never null.
+   */
+  BukkitLoggerConfig getConfig() {
+    return this.config;
+  }
+
+}
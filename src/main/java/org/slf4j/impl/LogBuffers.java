@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+/**
+ * Per-thread buffers that are reused by every logging call on that thread
+ * while low-garbage mode is enabled, so that formatting a line only allocates
+ * the final string that is handed to Bukkit.
+ *
+ * <p>
+ * Buffers that had to grow beyond {@link #MAX_RETAINED_CAPACITY} characters
+ * for an unusually long line are replaced by small ones afterwards, so that a
+ * single huge message does not pin memory for the lifetime of the thread.
+ * </p>
+ */
+final class LogBuffers {
+
+  // Initial capacity of each buffer, in characters.
+  private static final int                     INITIAL_CAPACITY      = 256;
+  // Largest capacity that a buffer keeps between logging calls.
+  private static final int                     MAX_RETAINED_CAPACITY = 8192;
+  private static final ThreadLocal<LogBuffers> BUFFERS               = new ThreadLocal<LogBuffers>() {
+
+    @Override
+    protected LogBuffers initialValue() {
+      return new LogBuffers();
+    }
+  };
+  // Holds the event of a synchronous logging call.
+  private final LogEvent                       event                 = new LogEvent();
+  // Whether or not the buffers are in use. A logging call that is made while
+  // the buffers are in use, e.g. from an argument's toString() method, must
+  // not use them.
+  private boolean                              inUse                 = false;
+  // Holds the complete line, with colors.
+  private StringBuilder                        line                  = new StringBuilder(LogBuffers.INITIAL_CAPACITY);
+  // Holds the formatted message before it is color-mapped into the line.
+  private StringBuilder                        message               = new StringBuilder(LogBuffers.INITIAL_CAPACITY);
+  // Holds the complete line, without colors.
+  private StringBuilder                        plainLine             = new StringBuilder(LogBuffers.INITIAL_CAPACITY);
+
+  private LogBuffers() {}
+
+  /**
+   * Returns the calling thread's buffers, marking them as in use.
+   *
+   * @return null if the buffers are already in use by an enclosing logging
+   *         call on this thread.
+   */
+  static LogBuffers acquire() {
+    final LogBuffers buffers = LogBuffers.BUFFERS.get();
+    if (buffers.inUse) { return null; }
+    buffers.inUse = true;
+    return buffers;
+  }
+
+  /**
+   * Returns an empty buffer for a complete line with colors.
+   *
+   * @return never null.
+   */
+  StringBuilder getLine() {
+    this.line.setLength(0);
+    return this.line;
+  }
+
+  /**
+   * Returns an empty buffer for a formatted message.
+   *
+   * @return never null.
+   */
+  StringBuilder getMessage() {
+    this.message.setLength(0);
+    return this.message;
+  }
+
+  /**
+   * Returns an empty buffer for a complete line without colors.
+   *
+   * @return never null.
+   */
+  StringBuilder getPlainLine() {
+    this.plainLine.setLength(0);
+    return this.plainLine;
+  }
+
+  /**
+   * Returns the reusable event of this thread.
+   *
+   * @return never null.
+   */
+  LogEvent getEvent() {
+    return this.event;
+  }
+
+  /**
+   * Marks the buffers as no longer in use, clearing the event and dropping
+   * buffers that grew too large.
+   */
+  void release() {
+    this.event.clear();
+    if (this.line.capacity() > LogBuffers.MAX_RETAINED_CAPACITY) {
+      this.line = new StringBuilder(LogBuffers.INITIAL_CAPACITY);
+    }
+    if (this.message.capacity() > LogBuffers.MAX_RETAINED_CAPACITY) {
+      this.message = new StringBuilder(LogBuffers.INITIAL_CAPACITY);
+    }
+    if (this.plainLine.capacity() > LogBuffers.MAX_RETAINED_CAPACITY) {
+      this.plainLine = new StringBuilder(LogBuffers.INITIAL_CAPACITY);
+    }
+    this.inUse = false;
+  }
+
+}
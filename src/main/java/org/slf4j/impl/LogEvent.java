@@ -0,0 +1,600 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+
+/**
+ * A logging event that has passed its logger's level check but has not been
+ * rendered yet. Events capture everything about the logging call that cannot
+ * be recovered later, such as the name of the calling thread, so that they can
+ * be rendered after the fact, possibly on another thread.
+ *
+ * <p>
+ * The message of an event may still need to be formatted with its arguments;
+ * see {@link #formatMessage()}. Events are mutable so that they can be
+ * recycled, e.g. by {@link LogEventRingBuffer}.
+ * </p>
+ */
+final class LogEvent {
+
+  // Possible values of argumentMode.
+  private static final int    ARGUMENTS_NONE      = 0;
+  private static final int    ARGUMENTS_PAIR      = 1;
+  private static final int    ARGUMENTS_ARRAY     = 2;
+  private static final int    ARGUMENTS_PRIMITIVE = 3;
+
+  private Object              argument1;
+  private Object              argument2;
+  // The number of arguments, for pairs and primitives.
+  private int                 argumentCount;
+  private int                 argumentMode;
+  private Object[]            arguments;
+  private final EventFields   fields              = new EventFields();
+  // Primitive arguments, encoded as described by primitiveType.
+  private long                primitive1;
+  private long                primitive2;
+  private long                primitive3;
+  private long                primitive4;
+  private PrimitiveType       primitiveType;
+  private Level               level;
+  private BukkitLoggerAdapter logger;
+  private Marker              marker;
+  // The MDC of the thread that created this event, shared with that thread
+  // by reference; null if no MDC keys are rendered.
+  private String[]            mdcKeys;
+  private int                 mdcSize;
+  private String[]            mdcValues;
+  private String              message;
+  private long                sequence;
+  private String              threadName;
+  private Throwable           throwable;
+  // The throwable rendered without colors; null until the event is logged.
+  private String              throwableText;
+  // When the logging call was made, in milliseconds since the epoch.
+  private long                timestamp;
+
+  /**
+   * Releases all references held by this event, so that a recycled event
+   * doesn't keep garbage reachable.
+   */
+  void clear() {
+    this.reset(null, null, null, null, null, null);
+    this.clearMdc();
+  }
+
+  /**
+   * Forgets the captured MDC.
+   */
+  private void clearMdc() {
+    this.mdcKeys = null;
+    this.mdcValues = null;
+    this.mdcSize = 0;
+  }
+
+  /**
+   * Replaces the contents of this event with those of another event. The
+   * format arguments themselves are not copied.
+   *
+   * @param other
+   *          the event to copy.
+   * @return this.
+   */
+  LogEvent copyFrom(final LogEvent other) {
+    this.reset(other.logger, other.level, other.marker, other.message,
+               other.throwable, other.threadName);
+    this.mdcKeys = other.mdcKeys;
+    this.mdcValues = other.mdcValues;
+    this.mdcSize = other.mdcSize;
+    this.argumentMode = other.argumentMode;
+    this.argument1 = other.argument1;
+    this.argument2 = other.argument2;
+    this.arguments = other.arguments;
+    this.argumentCount = other.argumentCount;
+    this.primitive1 = other.primitive1;
+    this.primitive2 = other.primitive2;
+    this.primitive3 = other.primitive3;
+    this.primitive4 = other.primitive4;
+    this.primitiveType = other.primitiveType;
+    this.throwableText = other.throwableText;
+    this.timestamp = other.timestamp;
+    this.fields.copyFrom(other.fields);
+    return this;
+  }
+
+  /**
+   * Appends the message of this event to the given buffer, substituting its
+   * arguments, if any, and followed by its fields and rendered MDC values, if
+   * any. Unlike {@link #formatMessage()}, this event is not modified.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @return the throwable of this event or, if it has none, the throwable
+   *         extracted from its arguments. May be null.
+   */
+  Throwable formatMessage(final StringBuilder buf) {
+    final Throwable extracted;
+    switch (this.argumentMode) {
+      case ARGUMENTS_PAIR:
+        extracted = BufferedMessageFormatter.format(buf, this.message,
+                                                    this.argument1,
+                                                    this.argument2);
+        break;
+      case ARGUMENTS_ARRAY:
+        extracted = BufferedMessageFormatter.format(buf, this.message,
+                                                    this.arguments);
+        break;
+      case ARGUMENTS_PRIMITIVE:
+        BufferedMessageFormatter.format(buf, this.message, this.primitiveType,
+                                        this.primitive1, this.primitive2,
+                                        this.primitive3, this.primitive4,
+                                        this.argumentCount);
+        extracted = null;
+        break;
+      default:
+        buf.append(this.message);
+        extracted = null;
+        break;
+    }
+    this.fields.appendTo(buf);
+    if (this.mdcKeys != null) {
+      BukkitMDCAdapter.appendTo(buf, this.mdcKeys, this.mdcValues,
+                                this.mdcSize);
+    }
+    return (this.throwable == null) ? extracted : this.throwable;
+  }
+
+  /**
+   * Substitutes the arguments of this event, if any, into its message and
+   * appends its fields and rendered MDC values, if any. Does nothing if this
+   * event has none of these or was already formatted. If the last argument is
+   * a throwable and this event has no throwable yet, it becomes the throwable
+   * of this event.
+   */
+  void formatMessage() {
+    if ((this.argumentMode == LogEvent.ARGUMENTS_NONE)
+        && this.fields.isEmpty() && (this.mdcSize == 0)) { return; }
+    final StringBuilder buf = new StringBuilder(128);
+    final Throwable throwable = this.formatMessage(buf);
+    // Not set(), which would capture the MDC of the formatting thread.
+    this.reset(this.logger, this.level, this.marker, buf.toString(),
+               throwable, this.threadName);
+    this.clearMdc();
+  }
+
+  /**
+   * Returns an object argument of this event.
+   *
+   * @param index
+   *          the index of the argument, less than
+   *          {@link #getArgumentCount()}.
+   * @return may be null.
+   * @see #getPrimitiveType()
+   */
+  Object getArgument(final int index) {
+    if (this.argumentMode == LogEvent.ARGUMENTS_ARRAY) { return this.arguments[index]; }
+    return (index == 0) ? this.argument1 : this.argument2;
+  }
+
+  /**
+   * Returns the number of format arguments of this event, including a trailing
+   * throwable and explicit null arguments.
+   *
+   * @return 0 if this event has no arguments or was already formatted.
+   * @see #hasTrailingThrowable()
+   */
+  int getArgumentCount() {
+    switch (this.argumentMode) {
+      case ARGUMENTS_PAIR:
+      case ARGUMENTS_PRIMITIVE:
+        return this.argumentCount;
+      case ARGUMENTS_ARRAY:
+        return (this.arguments == null) ? 0 : this.arguments.length;
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Returns the structured fields of this event, which may be modified.
+   *
+   * @return never null.
+   */
+  EventFields getFields() {
+    return this.fields;
+  }
+
+  /**
+   * Returns the level of this event.
+   *
+   * @return never null.
+   */
+  Level getLevel() {
+    return this.level;
+  }
+
+  /**
+   * Returns the logger that created this event.
+   *
+   * @return never null.
+   */
+  BukkitLoggerAdapter getLogger() {
+    return this.logger;
+  }
+
+  /**
+   * Returns the marker of this event.
+   *
+   * @return may be null.
+   */
+  Marker getMarker() {
+    return this.marker;
+  }
+
+  /**
+   * Returns the keys of the MDC captured by this event.
+   *
+   * @return null if no MDC was captured.
+   * @see #getMdcSize()
+   */
+  String[] getMdcKeys() {
+    return this.mdcKeys;
+  }
+
+  /**
+   * Returns the number of entries in the MDC captured by this event.
+   *
+   * @return 0 if no MDC was captured.
+   */
+  int getMdcSize() {
+    return this.mdcSize;
+  }
+
+  /**
+   * Returns the values of the MDC captured by this event, which may contain
+   * nulls for removed entries.
+   *
+   * @return null if no MDC was captured.
+   * @see #getMdcSize()
+   */
+  String[] getMdcValues() {
+    return this.mdcValues;
+  }
+
+  /**
+   * Returns the message of this event. This is the message format if the
+   * event has not been formatted yet.
+   *
+   * @return may be null.
+   * @see #formatMessage()
+   */
+  String getMessage() {
+    return this.message;
+  }
+
+  /**
+   * Returns a primitive argument of this event.
+   *
+   * @param index
+   *          the index of the argument, less than
+   *          {@link #getArgumentCount()}.
+   * @return the argument, encoded as described by {@link #getPrimitiveType()}.
+   */
+  long getPrimitive(final int index) {
+    return (index == 0) ? this.primitive1 : (index == 1) ? this.primitive2
+                                                         : (index == 2) ? this.primitive3
+                                                                        : this.primitive4;
+  }
+
+  /**
+   * Returns the type of the primitive arguments of this event.
+   *
+   * @return null if the arguments of this event, if any, are objects.
+   */
+  PrimitiveType getPrimitiveType() {
+    return (this.argumentMode == LogEvent.ARGUMENTS_PRIMITIVE) ? this.primitiveType
+                                                               : null;
+  }
+
+  /**
+   * Returns the position of this event in the ring buffer that owns it.
+   *
+   * @return the sequence number assigned by the last call to
+   *         {@link #setSequence(long)}.
+   */
+  long getSequence() {
+    return this.sequence;
+  }
+
+  /**
+   * Returns the name of the thread that created this event.
+   *
+   * @return never null.
+   */
+  String getThreadName() {
+    return this.threadName;
+  }
+
+  /**
+   * Returns the throwable of this event.
+   *
+   * @return may be null.
+   */
+  Throwable getThrowable() {
+    return this.throwable;
+  }
+
+  /**
+   * Returns the throwable of this event rendered without colors, so that
+   * structured sinks don't have to render it again.
+   *
+   * @return null if the event has no throwable or was not handed to a
+   *         structured sink yet.
+   */
+  String getThrowableText() {
+    return this.throwableText;
+  }
+
+  /**
+   * Returns the time at which this event was created.
+   *
+   * @return milliseconds since the epoch.
+   */
+  long getTimestamp() {
+    return this.timestamp;
+  }
+
+  /**
+   * Indicates whether {@link #formatMessage()} treats the last argument of
+   * this event as its throwable rather than as an argument.
+   *
+   * @return false if this event has no object arguments.
+   */
+  boolean hasTrailingThrowable() {
+    switch (this.argumentMode) {
+      case ARGUMENTS_PAIR:
+        // The formatter always looks at the second argument of a pair.
+        return this.argument2 instanceof Throwable;
+      case ARGUMENTS_ARRAY:
+        return (this.arguments != null) && (this.arguments.length > 0)
+               && (this.arguments[this.arguments.length - 1] instanceof Throwable);
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Replaces the contents of this event, except for its MDC.
+   */
+  private void reset(final BukkitLoggerAdapter logger, final Level level,
+                     final Marker marker, final String message,
+                     final Throwable throwable, final String threadName) {
+    this.logger = logger;
+    this.level = level;
+    this.marker = marker;
+    this.message = message;
+    this.throwable = throwable;
+    this.threadName = threadName;
+    this.throwableText = null;
+    this.argumentMode = LogEvent.ARGUMENTS_NONE;
+    this.argument1 = null;
+    this.argument2 = null;
+    this.arguments = null;
+    this.primitiveType = null;
+    this.fields.clear();
+  }
+
+  /**
+   * Makes the MDC captured by {@link #set} safe to use after the calling
+   * thread modifies its MDC. Must be called by the thread that populated this
+   * event, before this event outlives the logging call.
+   *
+   * @return this.
+   */
+  LogEvent retainMdc() {
+    if (this.mdcKeys != null) {
+      BukkitMDCAdapter.share(this.mdcKeys);
+    }
+    return this;
+  }
+
+  /**
+   * Populates this event and captures the MDC of the calling thread, which
+   * must be the thread that is logging, by reference. Any arguments and
+   * fields from a previous use of this event are discarded.
+   *
+   * @param logger
+   *          the logger that created this event.
+   * @param level
+   *          the level of this event.
+   * @param marker
+   *          the marker of this event, may be null.
+   * @param message
+   *          the message of this event, may be null.
+   * @param throwable
+   *          the throwable of this event, may be null.
+   * @param threadName
+   *          the name of the thread that created this event.
+   * @return this.
+   */
+  LogEvent set(final BukkitLoggerAdapter logger, final Level level,
+               final Marker marker, final String message,
+               final Throwable throwable, final String threadName) {
+    this.reset(logger, level, marker, message, throwable, threadName);
+    this.timestamp = System.currentTimeMillis();
+    final BukkitMDCAdapter.Context mdc = BukkitMDCAdapter.getRenderedContext();
+    if ((mdc == null) || (mdc.getSize() == 0)) {
+      this.clearMdc();
+    } else {
+      this.mdcKeys = mdc.getKeys();
+      this.mdcValues = mdc.getValues();
+      this.mdcSize = mdc.getSize();
+    }
+    return this;
+  }
+
+  /**
+   * Populates this event with a message that is already formatted, without
+   * capturing the MDC. Used to describe lines that were not logged through an
+   * event to structured sinks.
+   *
+   * @param logger
+   *          the logger that logged the message.
+   * @param level
+   *          the level of the message.
+   * @param marker
+   *          the marker of the message, may be null.
+   * @param message
+   *          the formatted message, may be null.
+   * @param throwable
+   *          the throwable of the message, may be null.
+   * @param threadName
+   *          the name of the thread that logged the message.
+   * @return this.
+   */
+  LogEvent setFormatted(final BukkitLoggerAdapter logger, final Level level,
+                        final Marker marker, final String message,
+                        final Throwable throwable, final String threadName) {
+    this.reset(logger, level, marker, message, throwable, threadName);
+    this.timestamp = System.currentTimeMillis();
+    this.clearMdc();
+    return this;
+  }
+
+  /**
+   * Resolves the object arguments and field values of this event, so that
+   * {@link info.ronjenkins.slf4bukkit.LazyArgument}s and {@code toString()}
+   * are called only once, however many sinks render this event. A trailing
+   * throwable is kept as it is. The caller's argument array is not modified.
+   *
+   * @see BufferedMessageFormatter#resolveArgument(Object)
+   */
+  void resolveArguments() {
+    switch (this.argumentMode) {
+      case ARGUMENTS_PAIR:
+        this.argument1 = BufferedMessageFormatter.resolveArgument(this.argument1);
+        if (!this.hasTrailingThrowable()) {
+          this.argument2 = BufferedMessageFormatter.resolveArgument(this.argument2);
+        }
+        break;
+      case ARGUMENTS_ARRAY:
+        if (this.arguments == null) {
+          break;
+        }
+        final int resolved = this.hasTrailingThrowable() ? (this.arguments.length - 1)
+                                                         : this.arguments.length;
+        final Object[] copy = new Object[this.arguments.length];
+        for (int i = 0; i < copy.length; i++) {
+          copy[i] = (i < resolved) ? BufferedMessageFormatter.resolveArgument(this.arguments[i])
+                                   : this.arguments[i];
+        }
+        this.arguments = copy;
+        break;
+      default:
+        break;
+    }
+    this.fields.resolveValues();
+  }
+
+  /**
+   * Sets the arguments of this event, which are substituted into the message
+   * by {@link #formatMessage()}.
+   *
+   * @param argument1
+   *          format argument #1.
+   * @param argument2
+   *          format argument #2. Must be null if {@code count} is 1.
+   * @param count
+   *          the number of arguments that were passed, 1 or 2.
+   * @return this.
+   */
+  LogEvent setArguments(final Object argument1, final Object argument2,
+                        final int count) {
+    this.argumentMode = LogEvent.ARGUMENTS_PAIR;
+    this.argument1 = argument1;
+    this.argument2 = argument2;
+    this.argumentCount = count;
+    return this;
+  }
+
+  /**
+   * Sets the arguments of this event, which are substituted into the message
+   * by {@link #formatMessage()}.
+   *
+   * @param arguments
+   *          the format arguments. Not copied.
+   * @return this.
+   */
+  LogEvent setArguments(final Object[] arguments) {
+    this.argumentMode = LogEvent.ARGUMENTS_ARRAY;
+    this.arguments = arguments;
+    return this;
+  }
+
+  /**
+   * Sets up to four primitive format arguments of the same type.
+   *
+   * @param type
+   *          the type of the arguments.
+   * @param arg1
+   *          format argument #1, encoded as described by the type.
+   * @param arg2
+   *          format argument #2, encoded as described by the type.
+   * @param arg3
+   *          format argument #3, encoded as described by the type.
+   * @param arg4
+   *          format argument #4, encoded as described by the type.
+   * @param count
+   *          the number of arguments, 1 to 4.
+   * @return this event.
+   */
+  LogEvent setArguments(final PrimitiveType type, final long arg1,
+                        final long arg2, final long arg3, final long arg4,
+                        final int count) {
+    this.argumentMode = LogEvent.ARGUMENTS_PRIMITIVE;
+    this.primitiveType = type;
+    this.primitive1 = arg1;
+    this.primitive2 = arg2;
+    this.primitive3 = arg3;
+    this.primitive4 = arg4;
+    this.argumentCount = count;
+    return this;
+  }
+
+  /**
+   * Sets the throwable of this event rendered without colors.
+   *
+   * @param throwableText
+   *          the rendered throwable.
+   * @see #getThrowableText()
+   */
+  void setThrowableText(final String throwableText) {
+    this.throwableText = throwableText;
+  }
+
+  /**
+   * Sets the position of this event in the ring buffer that owns it.
+   *
+   * @param sequence
+   *          the sequence number.
+   */
+  void setSequence(final long sequence) {
+    this.sequence = sequence;
+  }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.event.Level;
+
+/**
+ * A bounded, lock-free, multi-producer/single-consumer queue of pre-allocated
+ * {@link LogEvent}s.
+ *
+ * <p>
+ * Each slot carries a sequence number that tells producers and the consumer
+ * whose turn it is: a producer may claim slot {@code n} when its sequence is
+ * {@code n}, and the consumer may read it once the producer has set it to
+ * {@code n + 1}. Producers only contend on a single compare-and-set of the
+ * claim counter; nothing is allocated after construction.
+ * </p>
+ *
+ * <p>
+ * Producers call {@link #claim()}, populate the returned event and then call
+ * {@link #publish(LogEvent)}. The consumer calls {@link #poll(LogEvent)}, which
+ * copies the oldest event out and frees its slot right away. Producers that
+ * need room may call {@link #discard()} to remove the oldest event themselves;
+ * the consumer and such producers take events with a compare-and-set of the
+ * removal counter, so each event is taken exactly once.
+ * </p>
+ */
+final class LogEventRingBuffer {
+
+  private final LogEvent[]      events;
+  private final AtomicLong      head = new AtomicLong();
+  private final int             mask;
+  private final AtomicLongArray sequences;
+  private final AtomicLong      tail = new AtomicLong();
+
+  /**
+   * Creates a new ring buffer.
+   *
+   * @param capacity
+   *          the minimum number of events that the buffer can hold. Rounded up
+   *          to the next power of two.
+   */
+  LogEventRingBuffer(final int capacity) {
+    final int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+    this.events = new LogEvent[size];
+    this.mask = size - 1;
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      this.events[i] = new LogEvent();
+      this.sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Returns the number of events that the buffer can hold.
+   *
+   * @return a power of two.
+   */
+  int capacity() {
+    return this.events.length;
+  }
+
+  /**
+   * Claims the next free slot for a producer. The returned event must be
+   * passed to {@link #publish(LogEvent)} after it is populated, otherwise the
+   * consumer stalls.
+   *
+   * @return null if the buffer is full.
+   */
+  LogEvent claim() {
+    long position = this.tail.get();
+    while (true) {
+      final int index = (int) position & this.mask;
+      final long difference = this.sequences.get(index) - position;
+      if (difference == 0) {
+        if (this.tail.compareAndSet(position, position + 1)) {
+          final LogEvent event = this.events[index];
+          event.setSequence(position);
+          return event;
+        }
+        position = this.tail.get();
+      } else if (difference < 0) {
+        // The consumer hasn't released this slot since the last lap.
+        return null;
+      } else {
+        // Another producer claimed this slot first.
+        position = this.tail.get();
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest published event without looking at it.
+   *
+   * @return the level of the removed event, or null if there is no published
+   *         event.
+   */
+  Level discard() {
+    final long position = this.take();
+    if (position < 0) { return null; }
+    final LogEvent event = this.events[(int) position & this.mask];
+    final Level level = event.getLevel();
+    this.release(position, event);
+    return level;
+  }
+
+  /**
+   * Indicates whether or not there is a published event.
+   *
+   * @return true if {@link #poll(LogEvent)} would return false.
+   */
+  boolean isEmpty() {
+    final long position = this.head.get();
+    return this.sequences.get((int) position & this.mask) != (position + 1);
+  }
+
+  /**
+   * Removes the oldest published event.
+   *
+   * @param target
+   *          the event to copy the removed event into.
+   * @return false if there is no published event, in which case the target is
+   *         not modified.
+   */
+  boolean poll(final LogEvent target) {
+    final long position = this.take();
+    if (position < 0) { return false; }
+    final LogEvent event = this.events[(int) position & this.mask];
+    target.copyFrom(event);
+    this.release(position, event);
+    return true;
+  }
+
+  /**
+   * Makes a claimed event visible to the consumer.
+   *
+   * @param event
+   *          an event returned by {@link #claim()}.
+   */
+  void publish(final LogEvent event) {
+    final long position = event.getSequence();
+    // A volatile write (rather than a lazy one) is required so that a
+    // producer's subsequent check for a sleeping consumer cannot be reordered
+    // before it; see AsyncLogDispatcher.
+    this.sequences.set((int) position & this.mask, position + 1);
+  }
+
+  /**
+   * Returns the approximate number of claimed but unreleased events.
+   *
+   * @return zero or more.
+   */
+  int size() {
+    return (int) Math.max(0, this.tail.get() - this.head.get());
+  }
+
+  /**
+   * Makes the slot of a taken event available to producers again.
+   *
+   * @param position
+   *          the position returned by {@link #take()}.
+   * @param event
+   *          the event in that slot.
+   */
+  private void release(final long position, final LogEvent event) {
+    event.clear();
+    this.sequences.lazySet((int) position & this.mask,
+                           position + this.events.length);
+  }
+
+  /**
+   * Takes the oldest published event, so that no other thread can take it.
+   * Its slot must be passed to {@link #release(long, LogEvent)} afterwards.
+   *
+   * @return the position of the event, or -1 if there is no published event.
+   */
+  private long take() {
+    long position = this.head.get();
+    while (true) {
+      final int index = (int) position & this.mask;
+      if (this.sequences.get(index) != (position + 1)) { return -1; }
+      if (this.head.compareAndSet(position, position + 1)) { return position; }
+      position = this.head.get();
+    }
+  }
+
+}
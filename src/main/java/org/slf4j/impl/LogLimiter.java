@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A limit on the number of messages logged by all loggers under a configured
+ * logger name prefix, applied right after the level check and before any
+ * formatting. Limiters are lock-free, so that loggers can share them across
+ * threads, and count the messages that they suppress.
+ *
+ * <p>
+ * There are two kinds: a {@link Sampler} lets 1 in N messages through, and a
+ * {@link TokenBucket} lets through at most N messages per period, allowing
+ * bursts of up to N messages.
+ * </p>
+ */
+abstract class LogLimiter {
+
+  /** Lets every Nth message through, starting with the first. */
+  static final class Sampler extends LogLimiter {
+
+    private final AtomicLong seen = new AtomicLong();
+    private final long       rate;
+
+    /**
+     * Constructor.
+     *
+     * @param key
+     *          the config key of this limiter, relative to {@code slf4j}.
+     * @param rate
+     *          N, at least 2.
+     */
+    Sampler(final String key, final long rate) {
+      super(key);
+      this.rate = rate;
+    }
+
+    @Override
+    long getSuppressedCount() {
+      final long seen = this.seen.get();
+      return seen - (((seen + this.rate) - 1) / this.rate);
+    }
+
+    @Override
+    boolean tryAcquire() {
+      return (this.seen.getAndIncrement() % this.rate) == 0;
+    }
+  }
+
+  /**
+   * Lets through at most N messages per period, using the generic cell rate
+   * algorithm: the only state is the theoretical arrival time of the next
+   * message, which is advanced with compare-and-set.
+   */
+  static final class TokenBucket extends LogLimiter {
+
+    // The time that each message uses up, in nanoseconds.
+    private final long       interval;
+    // The period, in nanoseconds.
+    private final long       period;
+    private final AtomicLong suppressed = new AtomicLong();
+    // The System.nanoTime() at which the bucket is empty again.
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * Constructor.
+     *
+     * @param key
+     *          the config key of this limiter, relative to {@code slf4j}.
+     * @param count
+     *          N, at least 1.
+     * @param period
+     *          the period, in nanoseconds.
+     */
+    TokenBucket(final String key, final long count, final long period) {
+      super(key);
+      this.period = period;
+      this.interval = Math.max(1, period / count);
+      this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    @Override
+    long getSuppressedCount() {
+      return this.suppressed.get();
+    }
+
+    @Override
+    boolean tryAcquire() {
+      final long now = System.nanoTime();
+      while (true) {
+        final long arrival = this.theoreticalArrival.get();
+        final long next = (((arrival - now) < 0) ? now : arrival)
+                          + this.interval;
+        if ((next - now) > this.period) {
+          this.suppressed.incrementAndGet();
+          return false;
+        }
+        if (this.theoreticalArrival.compareAndSet(arrival, next)) { return true; }
+      }
+    }
+  }
+
+  private final String key;
+
+  /**
+   * Constructor.
+   *
+   * @param key
+   *          the config key of this limiter, relative to {@code slf4j}.
+   */
+  LogLimiter(final String key) {
+    this.key = key;
+  }
+
+  /**
+   * Creates a token bucket from a rate such as {@code 50/s}. The period may
+   * be "s", "m" or "h" and defaults to seconds.
+   *
+   * @param key
+   *          the config key of the rate, relative to {@code slf4j}.
+   * @param rate
+   *          the configured rate, may be null.
+   * @return null if the rate is invalid.
+   */
+  static LogLimiter parseRate(final String key, final String rate) {
+    if (rate == null) { return null; }
+    final int slash = rate.indexOf('/');
+    final String count = (slash < 0) ? rate : rate.substring(0, slash);
+    final String unit = (slash < 0) ? "s" : rate.substring(slash + 1).trim();
+    final long period;
+    if ("s".equalsIgnoreCase(unit)) {
+      period = TimeUnit.SECONDS.toNanos(1);
+    } else if ("m".equalsIgnoreCase(unit)) {
+      period = TimeUnit.MINUTES.toNanos(1);
+    } else if ("h".equalsIgnoreCase(unit)) {
+      period = TimeUnit.HOURS.toNanos(1);
+    } else {
+      return null;
+    }
+    try {
+      final long parsed = Long.parseLong(count.trim());
+      return (parsed < 1) ? null : new TokenBucket(key, parsed, period);
+    } catch (final NumberFormatException e) {
+      // This is expected, so don't log it.
+      return null;
+    }
+  }
+
+  /**
+   * Creates a sampler from a rate such as {@code 100}.
+   *
+   * @param key
+   *          the config key of the rate, relative to {@code slf4j}.
+   * @param rate
+   *          the configured rate, may be null.
+   * @return null if the rate is invalid or lets every message through.
+   */
+  static LogLimiter parseSample(final String key, final String rate) {
+    if (rate == null) { return null; }
+    try {
+      final long parsed = Long.parseLong(rate.trim());
+      return (parsed < 2) ? null : new Sampler(key, parsed);
+    } catch (final NumberFormatException e) {
+      // This is expected, so don't log it.
+      return null;
+    }
+  }
+
+  /**
+   * Returns the config key of this limiter, relative to {@code slf4j}, e.g.
+   * {@code sample.a.b}.
+   *
+   * @return never null.
+   */
+  final String getKey() {
+    return this.key;
+  }
+
+  /**
+   * Returns the number of messages that this limiter has suppressed.
+   *
+   * @return zero or more.
+   */
+  abstract long getSuppressedCount();
+
+  /**
+   * Decides whether a message may be logged.
+   *
+   * @return false if the message must be suppressed.
+   */
+  abstract boolean tryAcquire();
+
+}
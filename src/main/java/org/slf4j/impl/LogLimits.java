@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+/**
+ * The {@link LogLimiter}s that apply to one logger under one configuration
+ * snapshot: the sampler and the rate limit of its nearest configured
+ * ancestors, if any.
+ */
+final class LogLimits {
+
+  private final BukkitLoggerConfig config;
+  private final LogLimiter         rateLimit;
+  private final LogLimiter         sampler;
+
+  /**
+   * Constructor.
+   *
+   * @param config
+   *          the configuration snapshot.
+   * @param sampler
+   *          the sampler, may be null.
+   * @param rateLimit
+   *          the rate limit, may be null.
+   */
+  LogLimits(final BukkitLoggerConfig config, final LogLimiter sampler,
+            final LogLimiter rateLimit) {
+    this.config = config;
+    this.sampler = sampler;
+    this.rateLimit = rateLimit;
+  }
+
+  /**
+   * Returns the configuration snapshot that these limits were resolved from.
+   *
+   * @return never null.
+   */
+  BukkitLoggerConfig getConfig() {
+    return this.config;
+  }
+
+  /**
+   * Decides whether a message may be logged. The message is sampled first,
+   * so that the rate limit only applies to messages that pass the sampler.
+   *
+   * @return false if the message must be suppressed.
+   */
+  boolean tryAcquire() {
+    return ((this.sampler == null) || this.sampler.tryAcquire())
+           && ((this.rateLimit == null) || this.rateLimit.tryAcquire());
+  }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+
+/**
+ * A destination of log lines, such as the server console or a file. Each sink
+ * has its own threshold for each logger. A line is rendered once per message
+ * and then handed to every sink that accepts the message.
+ *
+ * <p>
+ * Thresholds are resolved by {@link SinkLevels} whenever the configuration or
+ * the set of sinks changes, so that disabled logging calls only need a single
+ * lookup. Implementations must be thread-safe.
+ * </p>
+ */
+interface LogSink {
+
+  /**
+   * Closes this sink. Lines written afterwards are discarded.
+   */
+  void close();
+
+  /**
+   * Writes buffered lines if they have been buffered for too long, or if an
+   * urgent line is among them. Called periodically by the
+   * {@link AsyncLogDispatcher} or the {@link SinkFlusher}.
+   */
+  void flushIfStale();
+
+  /**
+   * Returns the least severe level that this sink writes for the given logger.
+   *
+   * @param config
+   *          the current configuration snapshot.
+   * @param loggerName
+   *          the name of the logger.
+   * @return null if this sink writes nothing from the logger.
+   */
+  Level getThreshold(BukkitLoggerConfig config, String loggerName);
+
+  /**
+   * Indicates whether or not this sink writes lines with colors. Lines for
+   * other sinks are rendered without colors, and without ANSI escape
+   * sequences. Ignored for {@link #isStructured() structured} sinks.
+   *
+   * @return true if {@link #write} needs the colored line.
+   */
+  boolean isColored();
+
+  /**
+   * Indicates whether or not this sink writes a message, once its threshold is
+   * known. This is where markers are checked. For messages without a marker,
+   * this is only called while the thresholds are resolved, so the result must
+   * not depend on state that can change without a reconfiguration.
+   *
+   * @param config
+   *          the current configuration snapshot.
+   * @param threshold
+   *          the threshold of the logger, not null.
+   * @param level
+   *          the level of the message.
+   * @param marker
+   *          the marker of the message, may be null.
+   * @return true if the message is written.
+   */
+  boolean isEnabled(BukkitLoggerConfig config, Level threshold, Level level,
+                    Marker marker);
+
+  /**
+   * Indicates whether or not this sink writes the structure of events rather
+   * than rendered lines. Events that structured sinks accept are logged in a
+   * way that preserves their message format and arguments.
+   *
+   * @return true if {@link #write} needs its event.
+   */
+  boolean isStructured();
+
+  /**
+   * Writes a line.
+   *
+   * @param config
+   *          the current configuration snapshot.
+   * @param level
+   *          the level of the line.
+   * @param threadName
+   *          the name of the thread that logged the line.
+   * @param line
+   *          the rendered line, with colors if this sink is
+   *          {@link #isColored() colored}. Must not be modified or retained.
+   *          Null for structured sinks.
+   * @param event
+   *          the event that the line was rendered from, which must not be
+   *          modified or retained. Only guaranteed to be non-null for
+   *          structured sinks.
+   */
+  void write(BukkitLoggerConfig config, Level level, String threadName,
+             StringBuilder line, LogEvent event);
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An immutable index of values keyed by logger name, organized as a trie of
+ * dot-separated name segments. Looking up a logger name returns the value of
+ * the longest configured name that is equal to, or an ancestor of, the given
+ * name. Lookups walk the given name in place and never allocate.
+ *
+ * <p>
+ * For example, if values are defined for "a.b" and "a.b.c.d", a lookup of
+ * "a.b.c" returns the value of "a.b".
+ * </p>
+ *
+ * @param <T>
+ *          the type of the indexed values.
+ */
+final class LoggerNameTrie<T> {
+
+  private final Node<T> root = new Node<T>();
+
+  /**
+   * Builds an index containing all entries of the given map.
+   *
+   * @param values
+   *          logger names mapped to their values. Null keys and values are
+   *          ignored.
+   */
+  LoggerNameTrie(final Map<String, ? extends T> values) {
+    for (final Map.Entry<String, ? extends T> entry : values.entrySet()) {
+      if ((entry.getKey() == null) || (entry.getValue() == null)) {
+        continue;
+      }
+      this.put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Returns the value of the given logger name or of its nearest ancestor.
+   *
+   * @param name
+   *          the logger name.
+   * @return null if neither the given name nor any of its ancestors has a
+   *         value.
+   */
+  T find(final String name) {
+    final int length = name.length();
+    Node<T> node = this.root;
+    T value = null;
+    int start = 0;
+    while (true) {
+      int end = name.indexOf('.', start);
+      if (end < 0) {
+        end = length;
+      }
+      node = node.child(name, start, end - start);
+      if (node == null) { return value; }
+      if (node.value != null) {
+        value = node.value;
+      }
+      if (end == length) { return value; }
+      start = end + 1;
+    }
+  }
+
+  /**
+   * Indicates whether or not this index has any values.
+   *
+   * @return true if it has none.
+   */
+  boolean isEmpty() {
+    return this.root.segments.length == 0;
+  }
+
+  private void put(final String name, final T value) {
+    final int length = name.length();
+    Node<T> node = this.root;
+    int start = 0;
+    while (true) {
+      int end = name.indexOf('.', start);
+      if (end < 0) {
+        end = length;
+      }
+      node = node.getOrAddChild(name.substring(start, end));
+      if (end == length) {
+        node.value = value;
+        return;
+      }
+      start = end + 1;
+    }
+  }
+
+  /**
+   * One name segment. Nodes are only mutated while the enclosing trie is being
+   * built, i.e. before it is published to other threads.
+   */
+  private static final class Node<T> {
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private Node<T>[] children = new Node[0];
+    private String[]  segments = new String[0];
+    private T         value;
+
+    /**
+     * Returns the child node for the given segment of the given name. Fan-out
+     * per segment is small in practice, so a linear scan beats hashing, which
+     * would require extracting the segment first.
+     */
+    private Node<T> child(final String name, final int offset,
+                          final int length) {
+      for (int i = 0; i < this.segments.length; i++) {
+        final String segment = this.segments[i];
+        if ((segment.length() == length)
+            && name.regionMatches(offset, segment, 0, length)) { return this.children[i]; }
+      }
+      return null;
+    }
+
+    private Node<T> getOrAddChild(final String segment) {
+      final Node<T> existing = this.child(segment, 0, segment.length());
+      if (existing != null) { return existing; }
+      final Node<T> child = new Node<T>();
+      final int index = this.segments.length;
+      this.segments = Arrays.copyOf(this.segments, index + 1);
+      this.children = Arrays.copyOf(this.children, index + 1);
+      this.segments[index] = segment;
+      this.children[index] = child;
+      return child;
+    }
+
+  }
+
+}
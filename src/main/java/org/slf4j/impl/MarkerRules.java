@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.Map;
+
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+
+/**
+ * The {@code slf4j.markers} rules of a configuration snapshot, compiled into
+ * one bitset of marker ids per level, so that checking a marker is a bitwise
+ * AND of its {@link BukkitMarker#closureOf(Marker) reference closure} with
+ * these bitsets.
+ *
+ * <p>
+ * A message whose marker, or any marker that it references, has the rule
+ * "off" is never logged. Otherwise, if any of these markers has a rule, the
+ * most verbose of their levels replaces the level of the logger. Otherwise,
+ * the level of the logger applies.
+ * </p>
+ */
+final class MarkerRules {
+
+  // Possible results of check().
+  static final int      DISABLED = 0;
+  static final int      ENABLED  = 1;
+  static final int      UNRULED  = 2;
+
+  // The markers whose rule enables each level, indexed by ordinal.
+  private final long[][] enabled;
+  private final long[]   off;
+  // The markers that have any rule.
+  private final long[]   ruled;
+
+  /**
+   * Constructor.
+   *
+   * @param rules
+   *          the level of each marker name. A null level means "off".
+   */
+  MarkerRules(final Map<String, Level> rules) {
+    final Level[] levels = Level.values();
+    final long[][] enabled = new long[levels.length][];
+    for (int i = 0; i < levels.length; i++) {
+      enabled[i] = new long[0];
+    }
+    long[] off = new long[0];
+    long[] ruled = new long[0];
+    for (final Map.Entry<String, Level> entry : rules.entrySet()) {
+      final int id = BukkitMarkerFactory.getId(entry.getKey());
+      ruled = BukkitMarker.setBit(ruled, id);
+      final Level rule = entry.getValue();
+      if (rule == null) {
+        off = BukkitMarker.setBit(off, id);
+        continue;
+      }
+      for (final Level level : levels) {
+        if (level.toInt() >= rule.toInt()) {
+          enabled[level.ordinal()] = BukkitMarker.setBit(enabled[level.ordinal()],
+                                                         id);
+        }
+      }
+    }
+    this.enabled = enabled;
+    this.off = off;
+    this.ruled = ruled;
+  }
+
+  private static boolean intersects(final long[] a, final long[] b) {
+    final int length = Math.min(a.length, b.length);
+    for (int i = 0; i < length; i++) {
+      if ((a[i] & b[i]) != 0) { return true; }
+    }
+    return false;
+  }
+
+  /**
+   * Indicates whether or not some rule enables the given level.
+   *
+   * @param level
+   *          the level.
+   * @return true if a marker may enable the level for a logger that doesn't.
+   */
+  boolean canEnable(final Level level) {
+    return this.enabled[level.ordinal()].length > 0;
+  }
+
+  /**
+   * Indicates whether or not a message is suppressed everywhere, because its
+   * marker or a marker that it references has the rule "off".
+   *
+   * @param marker
+   *          the marker of the message, not null.
+   * @return true if the message is never logged.
+   */
+  boolean isOff(final Marker marker) {
+    return MarkerRules.intersects(BukkitMarker.closureOf(marker), this.off);
+  }
+
+  /**
+   * Checks a message against these rules.
+   *
+   * @param marker
+   *          the marker of the message, not null.
+   * @param level
+   *          the level of the message.
+   * @return {@link #ENABLED} or {@link #DISABLED} if a rule applies,
+   *         {@link #UNRULED} if the level of the logger applies.
+   */
+  int check(final Marker marker, final Level level) {
+    final long[] closure = BukkitMarker.closureOf(marker);
+    if (MarkerRules.intersects(closure, this.off)) { return MarkerRules.DISABLED; }
+    if (MarkerRules.intersects(closure,
+                               this.enabled[level.ordinal()])) { return MarkerRules.ENABLED; }
+    return MarkerRules.intersects(closure, this.ruled) ? MarkerRules.DISABLED
+                                                      : MarkerRules.UNRULED;
+  }
+
+}
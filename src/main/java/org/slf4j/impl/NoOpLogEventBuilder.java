@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import info.ronjenkins.slf4bukkit.LogEventBuilder;
+
+import org.slf4j.Marker;
+
+/**
+ * The stateless {@link LogEventBuilder} that is returned for disabled levels.
+ * It ignores everything, so that building a message that won't be logged
+ * doesn't allocate.
+ */
+final class NoOpLogEventBuilder implements LogEventBuilder {
+
+  /** The only instance. */
+  static final NoOpLogEventBuilder INSTANCE = new NoOpLogEventBuilder();
+
+  private NoOpLogEventBuilder() {}
+
+  @Override
+  public LogEventBuilder cause(final Throwable throwable) {
+    return this;
+  }
+
+  @Override
+  public LogEventBuilder field(final String key, final boolean value) {
+    return this;
+  }
+
+  @Override
+  public LogEventBuilder field(final String key, final double value) {
+    return this;
+  }
+
+  @Override
+  public LogEventBuilder field(final String key, final int value) {
+    return this;
+  }
+
+  @Override
+  public LogEventBuilder field(final String key, final long value) {
+    return this;
+  }
+
+  @Override
+  public LogEventBuilder field(final String key, final Object value) {
+    return this;
+  }
+
+  @Override
+  public void log(final String msg) {
+  }
+
+  @Override
+  public void log(final String format, final Object arg) {
+  }
+
+  @Override
+  public void log(final String format, final Object arg1, final Object arg2) {
+  }
+
+  @Override
+  public void log(final String format, final Object... arguments) {
+  }
+
+  @Override
+  public LogEventBuilder marker(final Marker marker) {
+    return this;
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+/**
+ * The primitive types that {@link info.ronjenkins.slf4bukkit.ExtendedLogger}
+ * accepts as format arguments. Arguments of all types are carried as
+ * {@code long} values, so that they can be passed around without boxing.
+ */
+enum PrimitiveType {
+
+  /** An {@code int}, stored as its value. */
+  INT {
+
+    @Override
+    void append(final StringBuilder buf, final long value) {
+      buf.append((int) value);
+    }
+  },
+  /** A {@code long}, stored as its value. */
+  LONG {
+
+    @Override
+    void append(final StringBuilder buf, final long value) {
+      buf.append(value);
+    }
+  },
+  /** A {@code float}, stored as its raw int bits. */
+  FLOAT {
+
+    @Override
+    void append(final StringBuilder buf, final long value) {
+      buf.append(Float.intBitsToFloat((int) value));
+    }
+  },
+  /** A {@code double}, stored as its raw long bits. */
+  DOUBLE {
+
+    @Override
+    void append(final StringBuilder buf, final long value) {
+      buf.append(Double.longBitsToDouble(value));
+    }
+  },
+  /** A {@code boolean}, stored as 1 (true) or 0 (false). */
+  BOOLEAN {
+
+    @Override
+    void append(final StringBuilder buf, final long value) {
+      buf.append(value != 0);
+    }
+  },
+  /** A {@code char}, stored as its value. */
+  CHAR {
+
+    @Override
+    void append(final StringBuilder buf, final long value) {
+      buf.append((char) value);
+    }
+  };
+
+  /**
+   * Appends an argument of this type, as {@code String.valueOf()} would
+   * render it.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param value
+   *          the argument, encoded as a long.
+   */
+  abstract void append(StringBuilder buf, long value);
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.event.Level;
+
+/**
+ * Holds back consecutive identical lines of a logger, so that a message that
+ * is logged in a tight loop is printed once, followed by a single line with
+ * the number of repeats. Lines are identical if they have the same level and
+ * formatted message, and no throwable. Lines longer than 8192 characters are
+ * never held back, and neither are events that only structured sinks write,
+ * since their messages are not formatted.
+ *
+ * <p>
+ * A run of repeats ends when the logger logs a different line, or when the
+ * window that started with its first line has passed. In the latter case, the
+ * count is logged by the logger's next logging call, by the periodic check of
+ * the {@link AsyncLogDispatcher} or the {@link SinkFlusher}, or by
+ * {@link BukkitLoggerAdapter#shutdown()}, whichever comes first; a repeat
+ * after that starts a new run.
+ * </p>
+ *
+ * <p>
+ * Each logger has its own run, which is reused for all of its lines and
+ * locked only by the threads that log through that logger. The message of a
+ * run is kept in a reusable character array, so that neither comparing nor
+ * starting a run allocates anything.
+ * </p>
+ */
+final class RepeatCollapser {
+
+  /** The last line that a logger printed, and the repeats held back since. */
+  private static final class Run {
+
+    // The message of the line. Only the first length characters are valid.
+    private char[]                    chars   = new char[64];
+    // The time at which the run ends, in nanoseconds.
+    private long                      expiry;
+    private int                       length;
+    // The level of the line, null if there is no run.
+    private Level                     level;
+    private final BukkitLoggerAdapter logger;
+    private int                       repeats;
+
+    private Run(final BukkitLoggerAdapter logger) {
+      this.logger = logger;
+    }
+
+    /**
+     * Indicates whether or not a line repeats the line of this run.
+     *
+     * @param level
+     *          the level of the line.
+     * @param message
+     *          the formatted message of the line, never null.
+     * @param now
+     *          the current time, in nanoseconds.
+     * @return true if the line must be held back.
+     */
+    private boolean isRepeat(final Level level, final CharSequence message,
+                             final long now) {
+      if ((this.level != level) || ((now - this.expiry) >= 0)
+          || (message.length() != this.length)) { return false; }
+      for (int i = 0; i < this.length; i++) {
+        if (this.chars[i] != message.charAt(i)) { return false; }
+      }
+      return true;
+    }
+
+    /**
+     * Ends this run and starts a new one, or none.
+     *
+     * @param level
+     *          the level of the new line, or null to start no run.
+     * @param message
+     *          the formatted message of the new line, never null.
+     * @param expiry
+     *          the time at which the new run ends, in nanoseconds.
+     * @return the repeat count of the run that ended.
+     */
+    private int restart(final Level level, final CharSequence message,
+                        final long expiry) {
+      final int ended = this.repeats;
+      this.repeats = 0;
+      this.level = null;
+      if ((level == null)
+          || (message.length() > RepeatCollapser.MAX_LENGTH)) { return ended; }
+      this.length = message.length();
+      if (this.chars.length < this.length) {
+        this.chars = new char[Math.max(this.length, this.chars.length * 2)];
+      }
+      for (int i = 0; i < this.length; i++) {
+        this.chars[i] = message.charAt(i);
+      }
+      this.level = level;
+      this.expiry = expiry;
+      return ended;
+    }
+  }
+
+  // The longest message that is held back, in characters.
+  private static final int                              MAX_LENGTH = 8192;
+  private final ConcurrentMap<BukkitLoggerAdapter, Run> runs       = new ConcurrentHashMap<BukkitLoggerAdapter, Run>();
+  // The length of a run, in nanoseconds.
+  private final long                                    window;
+
+  /**
+   * Constructor.
+   *
+   * @param window
+   *          the longest time, in milliseconds, for which repeats are held
+   *          back before their count is logged.
+   */
+  RepeatCollapser(final long window) {
+    this.window = window * 1000000L;
+  }
+
+  /**
+   * Ends the runs whose window has passed, or all runs, and logs their repeat
+   * counts, if any.
+   *
+   * @param config
+   *          the configuration snapshot to use.
+   * @param force
+   *          true to end the runs even if their window has not passed.
+   */
+  void flush(final BukkitLoggerConfig config, final boolean force) {
+    final long now = System.nanoTime();
+    for (final Run run : this.runs.values()) {
+      final Level level;
+      final int repeats;
+      synchronized (run) {
+        if ((run.level == null)
+            || (!force && ((now - run.expiry) < 0))) {
+          continue;
+        }
+        level = run.level;
+        repeats = run.restart(null, null, 0);
+      }
+      if (repeats > 0) {
+        run.logger.logRepeats(config, level, repeats);
+      }
+    }
+  }
+
+  /**
+   * Decides whether a line is a repeat that must be held back. Otherwise, the
+   * line starts a new run of its logger, and the repeat count of the previous
+   * run, if any, is logged before this method returns.
+   *
+   * @param config
+   *          the configuration snapshot to use.
+   * @param logger
+   *          the logger of the line.
+   * @param level
+   *          the level of the line.
+   * @param message
+   *          the formatted message of the line, may be null.
+   * @param throwable
+   *          the throwable of the line, may be null. Lines with throwables
+   *          are never held back.
+   * @return true if the line must not be logged.
+   */
+  boolean suppress(final BukkitLoggerConfig config,
+                   final BukkitLoggerAdapter logger, final Level level,
+                   final CharSequence message, final Throwable throwable) {
+    final long now = System.nanoTime();
+    final CharSequence text = (message == null) ? "null" : message;
+    final Run run = this.getRun(logger);
+    final Level ended;
+    final int repeats;
+    synchronized (run) {
+      if ((throwable == null) && run.isRepeat(level, text, now)) {
+        run.repeats++;
+        return true;
+      }
+      ended = run.level;
+      repeats = run.restart((throwable == null) ? level : null, text,
+                            now + this.window);
+    }
+    if (repeats > 0) {
+      logger.logRepeats(config, ended, repeats);
+    }
+    return false;
+  }
+
+  /**
+   * Returns the run of a logger, creating it if needed.
+   *
+   * @param logger
+   *          the logger.
+   * @return never null.
+   */
+  private Run getRun(final BukkitLoggerAdapter logger) {
+    final Run run = this.runs.get(logger);
+    if (run != null) { return run; }
+    final Run created = new Run(logger);
+    final Run raced = this.runs.putIfAbsent(logger, created);
+    return (raced == null) ? created : raced;
+  }
+
+}
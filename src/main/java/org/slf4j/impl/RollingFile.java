@@ -0,0 +1,553 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.helpers.Util;
+
+/**
+ * A log file in the plugin's data folder, named {@code latest} plus an
+ * extension, that is written through a {@link FileChannel}. Records are
+ * encoded into a direct buffer that is written to the file when it is full,
+ * at least once per second while records are written, and when the file is
+ * closed. A record that must reach the file soon, e.g. a warning, is written
+ * by the next call to {@link #flushIfStale()} rather than by the logging
+ * thread.
+ *
+ * <p>
+ * The file is rolled when it reaches the configured size or when the
+ * configured interval ends, whichever comes first, and when it is opened if it
+ * was last written in an earlier interval. A rolled file is renamed to
+ * {@code yyyy-MM-dd-N} plus the extension, after the date on which it was
+ * started, and compressed with gzip by a background thread.
+ * </p>
+ *
+ * <p>
+ * Instances are not thread-safe: a record is written by calling
+ * {@link #begin(long)}, the {@code put} methods and {@link #end(long, boolean)}
+ * while holding the lock of the instance. {@link #close()} and
+ * {@link #flushIfStale()} lock by themselves.
+ * </p>
+ */
+final class RollingFile {
+
+  // Possible values of the rolling interval.
+  static final int                        ROLL_NEVER     = 0;
+  static final int                        ROLL_HOURLY    = 1;
+  static final int                        ROLL_DAILY     = 2;
+
+  private static final int                BUFFER_SIZE    = 64 * 1024;
+  // Longest time that a record stays in the buffer while records are written.
+  private static final long               FLUSH_INTERVAL = 1000;
+  // Compresses rolled files; its thread ends when it has been idle for a while.
+  private static final ThreadPoolExecutor COMPRESSOR     = RollingFile.compressor();
+
+  private final ByteBuffer                buffer         = ByteBuffer.allocateDirect(RollingFile.BUFFER_SIZE);
+  private FileChannel                     channel;
+  private final boolean                   compress;
+  private final File                      directory;
+  // The extension of the file names, including the dot.
+  private final String                    extension;
+  private final int                       interval;
+  private long                            lastFlush;
+  private final long                      maxSize;
+  // The end of the interval of the current file, or Long.MAX_VALUE.
+  private long                            nextRoll;
+  // The start of the interval of the current file, which names it once it is
+  // rolled.
+  private long                            periodStart;
+  // Whether or not a buffered record asked to be written soon.
+  private boolean                         pending;
+  // The size of the current file, including the buffered bytes.
+  private long                            size;
+
+  /**
+   * Opens the file, rolling a file left over from an earlier interval first.
+   *
+   * @param directory
+   *          the directory of the log files, created if necessary.
+   * @param extension
+   *          the extension of the file names, including the dot.
+   * @param maxSize
+   *          the size in bytes at which the file is rolled, or 0 for no limit.
+   * @param interval
+   *          {@link #ROLL_NEVER}, {@link #ROLL_HOURLY} or {@link #ROLL_DAILY}.
+   * @param compress
+   *          whether or not rolled files are compressed.
+   * @throws IOException
+   *           if the file cannot be opened.
+   */
+  RollingFile(final File directory, final String extension,
+              final long maxSize, final int interval, final boolean compress) throws IOException {
+    this.directory = directory;
+    this.extension = extension;
+    this.maxSize = maxSize;
+    this.interval = interval;
+    this.compress = compress;
+    if (!directory.isDirectory() && !directory.mkdirs()) { throw new IOException("Cannot create "
+                                                                                 + directory); }
+    final long now = System.currentTimeMillis();
+    final File latest = this.getLatest();
+    if (latest.isFile() && (latest.length() > 0)) {
+      final long modified = latest.lastModified();
+      if (RollingFile.periodStart(modified, interval) != RollingFile.periodStart(now,
+                                                                                interval)) {
+        this.rename(latest, modified);
+      }
+    }
+    this.open(now);
+  }
+
+  /**
+   * Parses a rolling interval.
+   *
+   * @param interval
+   *          "never", "hourly" or "daily", case-insensitive. May be null.
+   * @return -1 if the interval is invalid.
+   */
+  static int parseInterval(final String interval) {
+    if ("never".equalsIgnoreCase(interval)) { return RollingFile.ROLL_NEVER; }
+    if ("hourly".equalsIgnoreCase(interval)) { return RollingFile.ROLL_HOURLY; }
+    if ("daily".equalsIgnoreCase(interval)) { return RollingFile.ROLL_DAILY; }
+    return -1;
+  }
+
+  /**
+   * Parses a file size such as {@code 10MB}.
+   *
+   * @param size
+   *          a number of bytes, optionally followed by "KB", "MB" or "GB",
+   *          case-insensitive. May be null.
+   * @return -1 if the size is invalid.
+   */
+  static long parseSize(final String size) {
+    if (size == null) { return -1; }
+    final String trimmed = size.trim().toUpperCase();
+    long unit = 1;
+    int end = trimmed.length();
+    if (trimmed.endsWith("KB")) {
+      unit = 1L << 10;
+      end -= 2;
+    } else if (trimmed.endsWith("MB")) {
+      unit = 1L << 20;
+      end -= 2;
+    } else if (trimmed.endsWith("GB")) {
+      unit = 1L << 30;
+      end -= 2;
+    }
+    try {
+      final long parsed = Long.parseLong(trimmed.substring(0, end).trim());
+      return (parsed < 0) ? -1 : (parsed * unit);
+    } catch (final NumberFormatException e) {
+      // This is expected, so don't log it.
+      return -1;
+    }
+  }
+
+  private static ThreadPoolExecutor compressor() {
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 10,
+                                                               TimeUnit.SECONDS,
+                                                               new LinkedBlockingQueue<Runnable>(),
+                                                               new ThreadFactory() {
+
+                                                                 @Override
+                                                                 public Thread newThread(final Runnable r) {
+                                                                   final Thread thread = new Thread(r,
+                                                                                                    "SLF4Bukkit log compressor");
+                                                                   thread.setDaemon(true);
+                                                                   return thread;
+                                                                 }
+                                                               });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Compresses a rolled file and deletes it.
+   *
+   * @param file
+   *          the file to compress.
+   */
+  private static void gzip(final File file) {
+    final File target = new File(file.getPath() + ".gz");
+    final byte[] bytes = new byte[RollingFile.BUFFER_SIZE];
+    try {
+      final InputStream in = new FileInputStream(file);
+      try {
+        final OutputStream out = new GZIPOutputStream(new FileOutputStream(target),
+                                                      RollingFile.BUFFER_SIZE);
+        try {
+          int read;
+          while ((read = in.read(bytes)) >= 0) {
+            out.write(bytes, 0, read);
+          }
+        } finally {
+          out.close();
+        }
+      } finally {
+        in.close();
+      }
+    } catch (final IOException e) {
+      Util.report("SLF4J: Failed to compress " + file, e);
+      target.delete();
+      return;
+    }
+    file.delete();
+  }
+
+  /**
+   * Returns the start of the interval that contains the given time.
+   *
+   * @param time
+   *          the time, in milliseconds since the epoch.
+   * @param interval
+   *          the rolling interval.
+   * @return 0 if files are never rolled by time.
+   */
+  private static long periodStart(final long time, final int interval) {
+    if (interval == RollingFile.ROLL_NEVER) { return 0; }
+    final Calendar calendar = Calendar.getInstance();
+    calendar.setTimeInMillis(time);
+    if (interval == RollingFile.ROLL_DAILY) {
+      calendar.set(Calendar.HOUR_OF_DAY, 0);
+    }
+    calendar.set(Calendar.MINUTE, 0);
+    calendar.set(Calendar.SECOND, 0);
+    calendar.set(Calendar.MILLISECOND, 0);
+    return calendar.getTimeInMillis();
+  }
+
+  /**
+   * Starts a record, rolling the file first if necessary.
+   *
+   * @param now
+   *          the current time.
+   * @return false if the file is closed, in which case the record must not be
+   *         written.
+   */
+  boolean begin(final long now) {
+    if (this.channel == null) { return false; }
+    if ((now >= this.nextRoll)
+        || ((this.maxSize > 0) && (this.size >= this.maxSize))) { return this.roll(now); }
+    return true;
+  }
+
+  /**
+   * Writes all buffered records and closes the file. Records written
+   * afterwards are discarded.
+   */
+  synchronized void close() {
+    if (this.channel == null) { return; }
+    try {
+      this.flush();
+      this.channel.close();
+    } catch (final IOException e) {
+      Util.report("SLF4J: Failed to close " + this.getLatest(), e);
+    }
+    this.channel = null;
+  }
+
+  /**
+   * Ends a record, writing the buffer to the file if it has been buffered for
+   * too long.
+   *
+   * @param now
+   *          the time that was passed to {@link #begin(long)}.
+   * @param urgent
+   *          true to have the buffer written by the next call to
+   *          {@link #flushIfStale()}.
+   * @throws IOException
+   *           if the file cannot be written.
+   */
+  void end(final long now, final boolean urgent) throws IOException {
+    if ((now - this.lastFlush) >= RollingFile.FLUSH_INTERVAL) {
+      this.flush();
+      return;
+    }
+    this.pending |= urgent;
+  }
+
+  /**
+   * Closes the file after an I/O error, so that nothing more is written.
+   *
+   * @param e
+   *          the error.
+   */
+  void fail(final IOException e) {
+    Util.report("SLF4J: Failed to write " + this.getLatest()
+                + "; file logging is disabled until SLF4Bukkit is reinitialized",
+                e);
+    try {
+      this.channel.close();
+    } catch (final IOException ignored) {
+      // Already failed.
+    }
+    this.channel = null;
+  }
+
+  /**
+   * Writes the buffered records if one of them is urgent or if they have been
+   * buffered for too long.
+   */
+  synchronized void flushIfStale() {
+    if ((this.channel == null) || (this.buffer.position() == 0)) { return; }
+    if (!this.pending
+        && ((System.currentTimeMillis() - this.lastFlush) < RollingFile.FLUSH_INTERVAL)) { return; }
+    try {
+      this.flush();
+    } catch (final IOException e) {
+      this.fail(e);
+    }
+  }
+
+  /**
+   * Indicates whether or not this file has the given settings, in which case
+   * it can be kept when the configuration is reloaded.
+   *
+   * @param directory
+   *          the directory of the log files.
+   * @param maxSize
+   *          the size in bytes at which the file is rolled, or 0.
+   * @param interval
+   *          the rolling interval.
+   * @param compress
+   *          whether or not rolled files are compressed.
+   * @return true if all settings are equal.
+   */
+  boolean hasSettings(final File directory, final long maxSize,
+                      final int interval, final boolean compress) {
+    return this.directory.equals(directory) && (this.maxSize == maxSize)
+           && (this.interval == interval) && (this.compress == compress);
+  }
+
+  /**
+   * Returns the size of the current file, including the buffered bytes.
+   *
+   * @return 0 if the file was just opened empty or rolled.
+   */
+  long getSize() {
+    return this.size;
+  }
+
+  /**
+   * Appends bytes to the buffer as they are.
+   *
+   * @param bytes
+   *          the bytes to append.
+   * @param offset
+   *          the index of the first byte.
+   * @param length
+   *          the number of bytes.
+   * @return this.
+   * @throws IOException
+   *           if the buffer had to be flushed and the file cannot be written.
+   */
+  RollingFile put(final byte[] bytes, final int offset, final int length) throws IOException {
+    int written = 0;
+    while (written < length) {
+      if (!this.buffer.hasRemaining()) {
+        this.flush();
+      }
+      final int chunk = Math.min(length - written, this.buffer.remaining());
+      this.buffer.put(bytes, offset + written, chunk);
+      written += chunk;
+    }
+    this.size += length;
+    return this;
+  }
+
+  /**
+   * Appends a character to the buffer as UTF-8.
+   *
+   * @param c
+   *          a character that is not part of a surrogate pair.
+   * @return this.
+   * @throws IOException
+   *           if the buffer had to be flushed and the file cannot be written.
+   */
+  RollingFile put(final char c) throws IOException {
+    if (this.buffer.remaining() < 4) {
+      this.flush();
+    }
+    if (c < 0x80) {
+      this.buffer.put((byte) c);
+      this.size += 1;
+    } else if (c < 0x800) {
+      this.buffer.put((byte) (0xC0 | (c >> 6)));
+      this.buffer.put((byte) (0x80 | (c & 0x3F)));
+      this.size += 2;
+    } else {
+      this.buffer.put((byte) (0xE0 | (c >> 12)));
+      this.buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+      this.buffer.put((byte) (0x80 | (c & 0x3F)));
+      this.size += 3;
+    }
+    return this;
+  }
+
+  /**
+   * Appends characters to the buffer as UTF-8.
+   *
+   * @param chars
+   *          the characters, null is appended as "null".
+   * @return this.
+   * @throws IOException
+   *           if the buffer had to be flushed and the file cannot be written.
+   */
+  RollingFile put(final CharSequence chars) throws IOException {
+    final CharSequence s = (chars == null) ? "null" : chars;
+    final int length = s.length();
+    for (int i = 0; i < length; i++) {
+      final char c = s.charAt(i);
+      if (Character.isHighSurrogate(c) && ((i + 1) < length)
+          && Character.isLowSurrogate(s.charAt(i + 1))) {
+        final int codePoint = Character.toCodePoint(c, s.charAt(++i));
+        if (this.buffer.remaining() < 4) {
+          this.flush();
+        }
+        this.buffer.put((byte) (0xF0 | (codePoint >> 18)));
+        this.buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+        this.buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+        this.buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        this.size += 4;
+        continue;
+      }
+      this.put(Character.isSurrogate(c) ? '?' : c);
+    }
+    return this;
+  }
+
+  /**
+   * Writes the buffered bytes to the file.
+   *
+   * @throws IOException
+   *           if the file cannot be written.
+   */
+  private void flush() throws IOException {
+    this.buffer.flip();
+    while (this.buffer.hasRemaining()) {
+      this.channel.write(this.buffer);
+    }
+    this.buffer.clear();
+    this.lastFlush = System.currentTimeMillis();
+    this.pending = false;
+  }
+
+  private File getLatest() {
+    return new File(this.directory, "latest" + this.extension);
+  }
+
+  /**
+   * Opens the latest file for appending.
+   *
+   * @param now
+   *          the current time.
+   * @throws IOException
+   *           if the file cannot be opened.
+   */
+  private void open(final long now) throws IOException {
+    this.channel = FileChannel.open(this.getLatest().toPath(),
+                                    StandardOpenOption.CREATE,
+                                    StandardOpenOption.WRITE,
+                                    StandardOpenOption.APPEND);
+    this.size = this.channel.size();
+    this.periodStart = (this.interval == RollingFile.ROLL_NEVER) ? now
+                                                                : RollingFile.periodStart(now,
+                                                                                          this.interval);
+    if (this.interval == RollingFile.ROLL_NEVER) {
+      this.nextRoll = Long.MAX_VALUE;
+    } else {
+      final Calendar calendar = Calendar.getInstance();
+      calendar.setTimeInMillis(this.periodStart);
+      calendar.add((this.interval == RollingFile.ROLL_DAILY) ? Calendar.DAY_OF_MONTH
+                                                            : Calendar.HOUR_OF_DAY,
+                   1);
+      this.nextRoll = calendar.getTimeInMillis();
+    }
+    this.lastFlush = now;
+  }
+
+  /**
+   * Renames a rolled file after the date on which it was started, and queues
+   * it for compression if enabled.
+   *
+   * @param file
+   *          the file to rename.
+   * @param started
+   *          a time within the interval in which the file was started.
+   */
+  private void rename(final File file, final long started) {
+    final String date = new SimpleDateFormat("yyyy-MM-dd").format(new Date(started));
+    File target;
+    int index = 1;
+    do {
+      target = new File(this.directory, date + '-' + index++ + this.extension);
+    } while (target.exists() || new File(target.getPath() + ".gz").exists());
+    if (!file.renameTo(target)) {
+      Util.report("SLF4J: Failed to rename " + file + " to " + target);
+      return;
+    }
+    if (this.compress) {
+      final File rolled = target;
+      RollingFile.COMPRESSOR.execute(new Runnable() {
+
+        @Override
+        public void run() {
+          RollingFile.gzip(rolled);
+        }
+      });
+    }
+  }
+
+  /**
+   * Closes the current file, renames it and opens a new one.
+   *
+   * @param now
+   *          the current time.
+   * @return false if the new file cannot be opened.
+   */
+  private boolean roll(final long now) {
+    try {
+      this.flush();
+      this.channel.close();
+      this.rename(this.getLatest(), this.periodStart);
+      this.open(now);
+      return true;
+    } catch (final IOException e) {
+      this.fail(e);
+      return false;
+    }
+  }
+
+}
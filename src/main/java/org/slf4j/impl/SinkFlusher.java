@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Periodically writes the lines that the file sinks have buffered, and logs
+ * the repeat counts of runs whose window has passed (see
+ * {@link RepeatCollapser}), while messages are logged synchronously. Without
+ * it, both would only happen on the next logging call. While asynchronous
+ * logging is enabled, the {@link AsyncLogDispatcher} does this instead.
+ *
+ * <p>
+ * The flusher thread stops by itself once it notices that the plugin has been
+ * disabled. It can also be stopped explicitly via {@link #stop()}.
+ * </p>
+ */
+final class SinkFlusher implements Runnable {
+
+  // How often the sinks and repeat counts are flushed. Also determines how quickly the flusher
+  // notices that the plugin was disabled.
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+  private final Plugin      plugin;
+  private volatile boolean  running    = true;
+  private final Thread      thread;
+
+  /**
+   * Creates a new flusher. The flusher thread is not started until
+   * {@link #start()} is called.
+   *
+   * @param config
+   *          an initialized configuration snapshot, which provides the plugin
+   *          on whose behalf lines are logged.
+   */
+  SinkFlusher(final BukkitLoggerConfig config) {
+    this.plugin = config.getPlugin();
+    this.thread = new Thread(this, "SLF4Bukkit Flusher ("
+                                   + this.plugin.getName() + ")");
+    this.thread.setDaemon(true);
+  }
+
+  @Override
+  public void run() {
+    boolean pluginWasEnabled = false;
+    while (this.running) {
+      LockSupport.parkNanos(this, SinkFlusher.TICK_NANOS);
+      BukkitLoggerAdapter.flushRepeats();
+      BukkitLoggerAdapter.flushSinks();
+      if (this.plugin.isEnabled()) {
+        pluginWasEnabled = true;
+      } else if (pluginWasEnabled) {
+        this.running = false;
+        BukkitLoggerAdapter.sinkFlusherStopped(this);
+      }
+    }
+  }
+
+  /**
+   * Starts the flusher thread.
+   */
+  void start() {
+    this.thread.start();
+  }
+
+  /**
+   * Stops the flusher thread, without waiting for it to terminate.
+   */
+  void stop() {
+    this.running = false;
+    LockSupport.unpark(this.thread);
+  }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.List;
+
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+
+/**
+ * The thresholds of all {@link LogSink}s for one logger, resolved for one
+ * configuration snapshot and one set of sinks. Which sinks write a message
+ * without a marker is resolved up front for each level, so that such checks
+ * are a single array lookup; messages with a marker are checked against each
+ * sink if there are marker rules.
+ */
+final class SinkLevels {
+
+  // Bit set of the text sinks that write colored lines. Bit i stands for
+  // sinks.get(i).
+  private final int                colored;
+  private final BukkitLoggerConfig config;
+  // For each level (by ordinal), a bit set of the sinks that write messages
+  // without a marker.
+  private final int[]              masks;
+  // Bit set of the text sinks that write lines without colors.
+  private final int                plain;
+  private final List<LogSink>      sinks;
+  // Whether or not any structured sink writes anything from the logger.
+  private final boolean            structured;
+  // The threshold of each sink, null if the sink writes nothing.
+  private final Level[]            thresholds;
+
+  /**
+   * Resolves the thresholds of a logger.
+   *
+   * @param config
+   *          the configuration snapshot.
+   * @param sinks
+   *          the current sinks, at most 32.
+   * @param loggerName
+   *          the name of the logger.
+   */
+  SinkLevels(final BukkitLoggerConfig config, final List<LogSink> sinks,
+             final String loggerName) {
+    this.config = config;
+    this.sinks = sinks;
+    this.thresholds = new Level[sinks.size()];
+    final Level[] levels = Level.values();
+    this.masks = new int[levels.length];
+    boolean anyStructured = false;
+    int coloredSinks = 0;
+    int plainSinks = 0;
+    for (int i = 0; i < this.thresholds.length; i++) {
+      final LogSink sink = sinks.get(i);
+      if (!sink.isStructured()) {
+        if (sink.isColored()) {
+          coloredSinks |= 1 << i;
+        } else {
+          plainSinks |= 1 << i;
+        }
+      }
+      final Level threshold = sink.getThreshold(config, loggerName);
+      this.thresholds[i] = threshold;
+      if (threshold == null) {
+        continue;
+      }
+      for (final Level level : levels) {
+        if (sink.isEnabled(config, threshold, level, null)) {
+          this.masks[level.ordinal()] |= 1 << i;
+        }
+      }
+      anyStructured |= sink.isStructured();
+    }
+    this.colored = coloredSinks;
+    this.plain = plainSinks;
+    this.structured = anyStructured;
+  }
+
+  /**
+   * Returns the configuration snapshot that these thresholds were resolved
+   * from.
+   *
+   * @return never null.
+   */
+  BukkitLoggerConfig getConfig() {
+    return this.config;
+  }
+
+  /**
+   * Returns the sinks that write a message.
+   *
+   * @param level
+   *          the level of the message.
+   * @param marker
+   *          the marker of the message, may be null.
+   * @return a bit set of sink indices, for {@link #isColored(int)},
+   *         {@link #isPlain(int)} and
+   *         {@link #write(int, Level, String, StringBuilder, StringBuilder, LogEvent)}.
+   */
+  int getMask(final Level level, final Marker marker) {
+    if ((marker == null)
+        || (this.config.getMarkerRules() == null)) { return this.masks[level.ordinal()]; }
+    int mask = 0;
+    for (int i = 0; i < this.thresholds.length; i++) {
+      final Level threshold = this.thresholds[i];
+      if ((threshold != null)
+          && this.sinks.get(i).isEnabled(this.config, threshold, level, marker)) {
+        mask |= 1 << i;
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Returns the sinks that these thresholds were resolved for.
+   *
+   * @return never null.
+   */
+  List<LogSink> getSinks() {
+    return this.sinks;
+  }
+
+  /**
+   * Indicates whether or not any of the given sinks writes lines, in which
+   * case the message must be formatted.
+   *
+   * @param mask
+   *          the result of {@link #getMask(Level, Marker)}.
+   * @return false if only structured sinks are in the mask.
+   */
+  boolean hasText(final int mask) {
+    return (mask & (this.colored | this.plain)) != 0;
+  }
+
+  /**
+   * Indicates whether or not any of the given sinks needs a colored line.
+   *
+   * @param mask
+   *          the result of {@link #getMask(Level, Marker)}.
+   * @return true if the line must be rendered with colors.
+   */
+  boolean isColored(final int mask) {
+    return (mask & this.colored) != 0;
+  }
+
+  /**
+   * Indicates whether or not any sink writes a message without a marker.
+   *
+   * @param level
+   *          the level of the message.
+   * @return true if at least one sink writes the message.
+   */
+  boolean isEnabled(final Level level) {
+    return this.masks[level.ordinal()] != 0;
+  }
+
+  /**
+   * Indicates whether or not any sink writes a message.
+   *
+   * @param level
+   *          the level of the message.
+   * @param marker
+   *          the marker of the message, may be null.
+   * @return true if at least one sink writes the message.
+   */
+  boolean isEnabled(final Level level, final Marker marker) {
+    return this.getMask(level, marker) != 0;
+  }
+
+  /**
+   * Indicates whether or not any of the given sinks needs a line without
+   * colors.
+   *
+   * @param mask
+   *          the result of {@link #getMask(Level, Marker)}.
+   * @return true if the line must be rendered without colors.
+   */
+  boolean isPlain(final int mask) {
+    return (mask & this.plain) != 0;
+  }
+
+  /**
+   * Indicates whether or not any structured sink writes anything from the
+   * logger, in which case its messages must be logged through events.
+   *
+   * @return true if {@link #write} may need an event.
+   */
+  boolean isStructured() {
+    return this.structured;
+  }
+
+  /**
+   * Indicates whether or not any of the given sinks is structured.
+   *
+   * @param mask
+   *          the result of {@link #getMask(Level, Marker)}.
+   * @return true if the mask contains a sink that writes events.
+   */
+  boolean isStructured(final int mask) {
+    return (mask & ~(this.colored | this.plain)) != 0;
+  }
+
+  /**
+   * Hands a rendered line to each of the given sinks. Colored sinks receive
+   * the colored line, other text sinks the plain line, and structured sinks
+   * only the event.
+   *
+   * @param mask
+   *          the result of {@link #getMask(Level, Marker)}.
+   * @param level
+   *          the level of the line.
+   * @param threadName
+   *          the name of the thread that logged the line.
+   * @param coloredLine
+   *          the line with colors; may only be null if no sink in the mask is
+   *          {@link #isColored(int) colored}.
+   * @param plainLine
+   *          the line without colors; may only be null if no sink in the mask
+   *          is {@link #isPlain(int) plain}.
+   * @param event
+   *          the event that the line was rendered from; may only be null if
+   *          this instance is not {@link #isStructured() structured}.
+   */
+  void write(final int mask, final Level level, final String threadName,
+             final StringBuilder coloredLine, final StringBuilder plainLine,
+             final LogEvent event) {
+    int remaining = mask;
+    while (remaining != 0) {
+      final int i = Integer.numberOfTrailingZeros(remaining);
+      final int bit = remaining & -remaining;
+      remaining &= remaining - 1;
+      final StringBuilder line;
+      if ((bit & this.colored) != 0) {
+        line = coloredLine;
+      } else if ((bit & this.plain) != 0) {
+        line = plainLine;
+      } else {
+        line = null;
+      }
+      this.sinks.get(i).write(this.config, level, threadName, line, event);
+    }
+  }
+
+}
@@ -27,11 +27,10 @@
  */
 package org.slf4j.impl;
 
-import org.slf4j.helpers.BasicMDCAdapter;
 import org.slf4j.spi.MDCAdapter;
 
 /**
- * This implementation is bound to {@link BasicMDCAdapter}.
+ * This implementation is bound to {@link BukkitMDCAdapter}.
  *
  * @author Ceki G&uuml;lc&uuml;
  */
@@ -56,19 +55,19 @@ public class StaticMDCBinder {
   }
 
   /**
-   * Currently this method always returns an instance of {@link BasicMDCAdapter}
-   * .
+   * Currently this method always returns an instance of
+   * {@link BukkitMDCAdapter}.
    *
    * @return never null.
    */
   public MDCAdapter getMDCA() {
     // note that this method is invoked only from within the static initializer
     // of the org.slf4j.MDC class.
-    return new BasicMDCAdapter();
+    return new BukkitMDCAdapter();
   }
 
   public String getMDCAdapterClassStr() {
-    return BasicMDCAdapter.class.getName();
+    return BukkitMDCAdapter.class.getName();
   }
 
 }
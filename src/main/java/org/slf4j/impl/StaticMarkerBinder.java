@@ -29,7 +29,6 @@ package org.slf4j.impl;
 
 import org.slf4j.IMarkerFactory;
 import org.slf4j.MarkerFactory;
-import org.slf4j.helpers.BasicMarkerFactory;
 import org.slf4j.spi.MarkerFactoryBinder;
 
 /**
@@ -44,7 +43,7 @@ public class StaticMarkerBinder implements MarkerFactoryBinder {
    * The unique instance of this class.
    */
   public static final StaticMarkerBinder SINGLETON     = new StaticMarkerBinder();
-  final IMarkerFactory                   markerFactory = new BasicMarkerFactory();
+  final IMarkerFactory                   markerFactory = new BukkitMarkerFactory();
 
   private StaticMarkerBinder() {
   }
@@ -61,7 +60,7 @@ public class StaticMarkerBinder implements MarkerFactoryBinder {
 
   /**
    * Currently this method always returns an instance of
-   * {@link BasicMarkerFactory}.
+   * {@link BukkitMarkerFactory}.
    */
   @Override
   public IMarkerFactory getMarkerFactory() {
@@ -69,12 +68,12 @@ public class StaticMarkerBinder implements MarkerFactoryBinder {
   }
 
   /**
-   * Currently, this method returns the class name of {@link BasicMarkerFactory}
-   * .
+   * Currently, this method returns the class name of
+   * {@link BukkitMarkerFactory}.
    */
   @Override
   public String getMarkerFactoryClassStr() {
-    return BasicMarkerFactory.class.getName();
+    return BukkitMarkerFactory.class.getName();
   }
 
 }
@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import info.ronjenkins.slf4bukkit.AppendingColorMapper;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders throwables straight into a line buffer, in the format of
+ * {@link Throwable#printStackTrace()} but without the trailing line break.
+ * Frames shared with the enclosing trace are elided as "... N more", exactly
+ * like the JDK does. In addition, the number of frames shown per throwable
+ * can be limited, and runs of consecutive frames in uninteresting packages,
+ * such as the server internals, can be collapsed into a single line.
+ *
+ * <p>
+ * Optionally, a throwable that repeats a trace which was printed in full
+ * recently is rendered as a single line that refers to that trace; see
+ * {@link TraceFingerprintCache}.
+ * </p>
+ *
+ * <p>
+ * Only the descriptions of the throwables are color-mapped, because stack
+ * frames cannot contain color codes. A throwable can be rendered with several
+ * color mappers, e.g. for the console and for a log file, from a single call
+ * to {@link #record(Throwable)}.
+ * </p>
+ */
+final class ThrowableRenderer {
+
+  private static final String        CAUSE_CAPTION      = "Caused by: ";
+  private static final String        SUPPRESSED_CAPTION = "Suppressed: ";
+
+  // Returned by record() if repeats are printed in full.
+  private static final long          NOT_RECORDED       = -1;
+
+  private final String[]             collapsedPackages;
+  // Null if repeats are printed in full.
+  private final TraceFingerprintCache duplicates;
+  // Zero means unlimited.
+  private final int                  maxDepth;
+
+  /**
+   * Constructor.
+   *
+   * @param maxDepth
+   *          the maximum number of frames shown per throwable, or zero to show
+   *          all of them.
+   * @param collapsedPackages
+   *          the packages whose consecutive frames are collapsed, e.g.
+   *          {@code net.minecraft.server}. Subpackages are included.
+   * @param duplicateWindow
+   *          for how long, in milliseconds, a trace that was printed in full
+   *          suppresses its repeats, or zero to always print traces in full.
+   */
+  ThrowableRenderer(final int maxDepth, final List<String> collapsedPackages,
+                    final long duplicateWindow) {
+    this.duplicates = (duplicateWindow > 0) ? new TraceFingerprintCache(duplicateWindow)
+                                            : null;
+    this.maxDepth = maxDepth;
+    this.collapsedPackages = new String[collapsedPackages.size()];
+    for (int i = 0; i < this.collapsedPackages.length; i++) {
+      final String name = collapsedPackages.get(i).trim();
+      this.collapsedPackages[i] = name.endsWith(".") ? name.substring(0,
+                                                                      name.length() - 1)
+                                                     : name;
+    }
+  }
+
+  /**
+   * Records that a throwable is about to be logged, which decides whether it
+   * is rendered in full or as a reference to a recent identical trace. Must be
+   * called once per logged throwable.
+   *
+   * @param throwable
+   *          the throwable to render.
+   * @return the record to pass to
+   *         {@link #render(StringBuilder, Throwable, long, AppendingColorMapper)}.
+   */
+  long record(final Throwable throwable) {
+    return (this.duplicates == null) ? ThrowableRenderer.NOT_RECORDED
+                                     : this.duplicates.record(throwable);
+  }
+
+  /**
+   * Appends a throwable and its causes and suppressed throwables.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param throwable
+   *          the throwable to render.
+   * @param record
+   *          the result of {@link #record(Throwable)} for the throwable.
+   * @param colorMapper
+   *          maps the descriptions of the throwables.
+   */
+  void render(final StringBuilder buf, final Throwable throwable,
+              final long record, final AppendingColorMapper colorMapper) {
+    if (record != ThrowableRenderer.NOT_RECORDED) {
+      final long id = TraceFingerprintCache.getId(record);
+      final int repeats = TraceFingerprintCache.getSeen(record);
+      if (repeats > 1) {
+        colorMapper.map(String.valueOf(throwable), buf);
+        buf.append(" (same trace as #").append(id).append(", seen ")
+           .append(repeats).append(" times)");
+        return;
+      }
+      buf.append("Trace #").append(id).append(": ");
+    }
+    final Map<Throwable, Boolean> identities = new IdentityHashMap<Throwable, Boolean>();
+    final Set<Throwable> seen = Collections.newSetFromMap(identities);
+    seen.add(throwable);
+    colorMapper.map(String.valueOf(throwable), buf);
+    final StackTraceElement[] trace = throwable.getStackTrace();
+    this.appendFrames(buf, "", trace, trace.length);
+    this.appendRelated(buf, throwable, trace, "", seen, colorMapper);
+  }
+
+  /**
+   * Appends a cause or suppressed throwable of an enclosing throwable.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param throwable
+   *          the throwable to render.
+   * @param enclosingTrace
+   *          the stack trace of the enclosing throwable.
+   * @param caption
+   *          the caption that precedes the description of the throwable.
+   * @param prefix
+   *          the indentation of every line.
+   * @param seen
+   *          the throwables rendered so far, used to detect cycles.
+   * @param colorMapper
+   *          maps the descriptions of the throwables.
+   */
+  private void appendEnclosed(final StringBuilder buf,
+                              final Throwable throwable,
+                              final StackTraceElement[] enclosingTrace,
+                              final String caption, final String prefix,
+                              final Set<Throwable> seen,
+                              final AppendingColorMapper colorMapper) {
+    buf.append('\n').append(prefix).append(caption);
+    if (!seen.add(throwable)) {
+      buf.append("[CIRCULAR REFERENCE: ");
+      colorMapper.map(String.valueOf(throwable), buf);
+      buf.append(']');
+      return;
+    }
+    colorMapper.map(String.valueOf(throwable), buf);
+    final StackTraceElement[] trace = throwable.getStackTrace();
+    int m = trace.length - 1;
+    int n = enclosingTrace.length - 1;
+    while ((m >= 0) && (n >= 0) && trace[m].equals(enclosingTrace[n])) {
+      m--;
+      n--;
+    }
+    this.appendFrames(buf, prefix, trace, m + 1);
+    this.appendRelated(buf, throwable, trace, prefix, seen, colorMapper);
+  }
+
+  /**
+   * Appends a single stack frame, as {@link StackTraceElement#toString()}
+   * renders it on Java 7 and 8.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param prefix
+   *          the indentation of the line.
+   * @param frame
+   *          the frame to append.
+   */
+  private static void appendFrame(final StringBuilder buf, final String prefix,
+                                  final StackTraceElement frame) {
+    buf.append('\n').append(prefix).append("\tat ")
+       .append(frame.getClassName()).append('.')
+       .append(frame.getMethodName());
+    final String fileName = frame.getFileName();
+    if (frame.isNativeMethod()) {
+      buf.append("(Native Method)");
+    } else if (fileName == null) {
+      buf.append("(Unknown Source)");
+    } else if (frame.getLineNumber() >= 0) {
+      buf.append('(').append(fileName).append(':')
+         .append(frame.getLineNumber()).append(')');
+    } else {
+      buf.append('(').append(fileName).append(')');
+    }
+  }
+
+  /**
+   * Appends the frames of a stack trace, followed by a count of the frames
+   * that were left out because they are shared with the enclosing trace or
+   * exceed the maximum depth.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param prefix
+   *          the indentation of every line.
+   * @param trace
+   *          the stack trace.
+   * @param unique
+   *          the number of frames at the top of the trace that are not shared
+   *          with the enclosing trace.
+   */
+  private void appendFrames(final StringBuilder buf, final String prefix,
+                            final StackTraceElement[] trace, final int unique) {
+    final int shown = (this.maxDepth > 0) ? Math.min(unique, this.maxDepth)
+                                          : unique;
+    int i = 0;
+    while (i < shown) {
+      ThrowableRenderer.appendFrame(buf, prefix, trace[i]);
+      final String collapsed = this.getCollapsedPackage(trace[i]);
+      int next = i + 1;
+      if (collapsed != null) {
+        while ((next < shown)
+               && (this.getCollapsedPackage(trace[next]) == collapsed)) {
+          next++;
+        }
+        if ((next - i) > 1) {
+          buf.append('\n').append(prefix).append("\t... ")
+             .append(next - i - 1).append(" frames in ").append(collapsed);
+        }
+      }
+      i = next;
+    }
+    if (shown < trace.length) {
+      buf.append('\n').append(prefix).append("\t... ")
+         .append(trace.length - shown).append(" more");
+    }
+  }
+
+  /**
+   * Appends the suppressed throwables and the cause of a throwable.
+   *
+   * @param buf
+   *          the buffer to append to.
+   * @param throwable
+   *          the throwable whose related throwables are appended.
+   * @param trace
+   *          the stack trace of the throwable.
+   * @param prefix
+   *          the indentation of the throwable.
+   * @param seen
+   *          the throwables rendered so far, used to detect cycles.
+   * @param colorMapper
+   *          maps the descriptions of the throwables.
+   */
+  private void appendRelated(final StringBuilder buf,
+                             final Throwable throwable,
+                             final StackTraceElement[] trace,
+                             final String prefix, final Set<Throwable> seen,
+                             final AppendingColorMapper colorMapper) {
+    for (final Throwable suppressed : throwable.getSuppressed()) {
+      this.appendEnclosed(buf, suppressed, trace,
+                          ThrowableRenderer.SUPPRESSED_CAPTION, prefix + "\t",
+                          seen, colorMapper);
+    }
+    final Throwable cause = throwable.getCause();
+    if (cause != null) {
+      this.appendEnclosed(buf, cause, trace, ThrowableRenderer.CAUSE_CAPTION,
+                          prefix, seen, colorMapper);
+    }
+  }
+
+  /**
+   * Returns the collapsed package that contains the class of a frame.
+   *
+   * @param frame
+   *          the frame.
+   * @return null if the class is not in a collapsed package.
+   */
+  private String getCollapsedPackage(final StackTraceElement frame) {
+    final String className = frame.getClassName();
+    for (final String name : this.collapsedPackages) {
+      if (className.startsWith(name) && (className.length() > name.length())
+          && (className.charAt(name.length()) == '.')) { return name; }
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2016-2017 Ronald Jack Jenkins Jr., SLF4Bukkit contributors.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.slf4j.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free cache of the stack traces that were printed recently,
+ * keyed by a fingerprint of their types and top frames, so that repeats of the
+ * same failure can be logged as a one-line reference instead of a full trace.
+ *
+ * <p>
+ * Messages are deliberately not part of the fingerprint, because they often
+ * contain values that change on every repeat. Like {@link FormatTemplateCache},
+ * the cache is set-associative; a trace that does not fit replaces the trace
+ * in its set that expires first, so the cache cannot grow.
+ * </p>
+ */
+final class TraceFingerprintCache {
+
+  /** A stack trace that was printed in full. */
+  private static final class Trace {
+
+    private final long          expiry;
+    private final long          fingerprint;
+    private final long          id;
+    private final AtomicInteger seen = new AtomicInteger(1);
+
+    private Trace(final long fingerprint, final long id, final long expiry) {
+      this.fingerprint = fingerprint;
+      this.id = id;
+      this.expiry = expiry;
+    }
+  }
+
+  // Number of stack frames of each throwable that contribute to a fingerprint.
+  private static final int                  FRAMES     = 8;
+  // Number of throwables of a cause chain that contribute to a fingerprint.
+  private static final int                  MAX_CAUSES = 8;
+  // Source of the trace numbers, shared by all caches so that numbers stay
+  // unique across configuration reloads.
+  private static final AtomicLong           NEXT_ID    = new AtomicLong(1);
+  // The result of record() packs the repeat count above the trace number.
+  private static final int                  SEEN_SHIFT = 40;
+  private static final long                 ID_MASK    = (1L << TraceFingerprintCache.SEEN_SHIFT) - 1;
+  private static final int                  MAX_SEEN   = (1 << (63 - TraceFingerprintCache.SEEN_SHIFT)) - 1;
+  // Number of sets; must be a power of two.
+  private static final int                  SETS       = 64;
+  // Number of slots per set.
+  private static final int                  WAYS       = 4;
+
+  private final AtomicReferenceArray<Trace> slots      = new AtomicReferenceArray<Trace>(TraceFingerprintCache.SETS
+                                                                                         * TraceFingerprintCache.WAYS);
+  // For how long a printed trace suppresses its repeats, in nanoseconds.
+  private final long                        window;
+
+  /**
+   * Constructor.
+   *
+   * @param window
+   *          for how long, in milliseconds, a printed trace suppresses its
+   *          repeats.
+   */
+  TraceFingerprintCache(final long window) {
+    this.window = window * 1000000L;
+  }
+
+  /**
+   * Extracts the trace number from a result of {@link #record(Throwable)}.
+   *
+   * @param result
+   *          the result.
+   * @return the number of the trace that was printed in full.
+   */
+  static long getId(final long result) {
+    return result & TraceFingerprintCache.ID_MASK;
+  }
+
+  /**
+   * Extracts the repeat count from a result of {@link #record(Throwable)}.
+   *
+   * @param result
+   *          the result.
+   * @return 1 if the throwable must be printed in full, otherwise the number of
+   *         times that its trace was logged within the window, including this
+   *         time.
+   */
+  static int getSeen(final long result) {
+    return (int) (result >>> TraceFingerprintCache.SEEN_SHIFT);
+  }
+
+  /**
+   * Computes the fingerprint of a throwable from the types and top frames of
+   * its cause chain.
+   *
+   * @param throwable
+   *          the throwable.
+   * @return any value.
+   */
+  private static long fingerprint(final Throwable throwable) {
+    long hash = 0;
+    Throwable current = throwable;
+    for (int depth = 0; (current != null)
+                        && (depth < TraceFingerprintCache.MAX_CAUSES); depth++) {
+      hash = TraceFingerprintCache.mix(hash, current.getClass().getName()
+                                                    .hashCode());
+      final StackTraceElement[] trace = current.getStackTrace();
+      final int frames = Math.min(trace.length, TraceFingerprintCache.FRAMES);
+      for (int i = 0; i < frames; i++) {
+        hash = TraceFingerprintCache.mix(hash, trace[i].getClassName()
+                                                       .hashCode());
+        hash = TraceFingerprintCache.mix(hash, trace[i].getMethodName()
+                                                       .hashCode());
+        hash = TraceFingerprintCache.mix(hash, trace[i].getLineNumber());
+      }
+      current = current.getCause();
+    }
+    return hash;
+  }
+
+  /**
+   * Adds a value to a fingerprint.
+   *
+   * @param hash
+   *          the fingerprint so far.
+   * @param value
+   *          the value to add.
+   * @return the new fingerprint.
+   */
+  private static long mix(final long hash, final int value) {
+    final long mixed = (hash ^ value) * 0x9E3779B97F4A7C15L;
+    return mixed ^ (mixed >>> 29);
+  }
+
+  /**
+   * Records that a throwable is about to be logged.
+   *
+   * @param throwable
+   *          the throwable.
+   * @return the trace number and repeat count, to be extracted with
+   *         {@link #getId(long)} and {@link #getSeen(long)}. If the repeat
+   *         count is 1, the throwable must be printed in full under the new
+   *         trace number. Otherwise it repeats the trace with the returned
+   *         number.
+   */
+  long record(final Throwable throwable) {
+    final long now = System.nanoTime();
+    final long fingerprint = TraceFingerprintCache.fingerprint(throwable);
+    final int set = ((int) (fingerprint >>> 32) & (TraceFingerprintCache.SETS - 1))
+                    * TraceFingerprintCache.WAYS;
+    int victim = -1;
+    for (int way = 0; way < TraceFingerprintCache.WAYS; way++) {
+      final Trace trace = this.slots.get(set + way);
+      if (trace == null) {
+        if (victim < 0) {
+          victim = way;
+        }
+        continue;
+      }
+      if ((now - trace.expiry) < 0) {
+        if (trace.fingerprint == fingerprint) {
+          final int seen = Math.min(trace.seen.incrementAndGet(),
+                                    TraceFingerprintCache.MAX_SEEN);
+          return ((long) seen << TraceFingerprintCache.SEEN_SHIFT) | trace.id;
+        }
+      } else if (victim < 0) {
+        victim = way;
+      }
+    }
+    if (victim < 0) {
+      victim = this.firstToExpire(set);
+    }
+    // Concurrent misses may replace each other's traces, in which case a
+    // trace is simply printed in full once more.
+    final long id = TraceFingerprintCache.NEXT_ID.getAndIncrement()
+                    & TraceFingerprintCache.ID_MASK;
+    this.slots.set(set + victim, new Trace(fingerprint, id, now + this.window));
+    return (1L << TraceFingerprintCache.SEEN_SHIFT) | id;
+  }
+
+  /**
+   * Finds the slot of a full set whose trace expires first.
+   *
+   * @param set
+   *          the index of the first slot of the set.
+   * @return the index of the slot within the set.
+   */
+  private int firstToExpire(final int set) {
+    int first = 0;
+    long firstExpiry = Long.MAX_VALUE;
+    for (int way = 0; way < TraceFingerprintCache.WAYS; way++) {
+      final Trace trace = this.slots.get(set + way);
+      if (trace == null) { return way; }
+      if ((way == 0) || ((trace.expiry - firstExpiry) < 0)) {
+        first = way;
+        firstExpiry = trace.expiry;
+      }
+    }
+    return first;
+  }
+
+}